@@ -0,0 +1,135 @@
+package org.infinispan.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Starts the cache managers required by a {@link BenchmarkProfile} and pre-loads a fixed key set into the benchmark
+ * cache. Keys and values are generated from a constant seed so that every run works on the same data.
+ * <p>
+ * Subclasses decide which profiles they can run with by declaring the {@code profile} parameter.
+ *
+ * @since 16.0
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractCacheState {
+   public static final String CACHE_NAME = "benchmark";
+   private static final String JGROUPS_CONFIGURATION = "benchmark-jgroups.xml";
+
+   @Param("1000")
+   public int keySetSize;
+
+   @Param("100")
+   public int valueSize;
+
+   protected EmbeddedCacheManager[] cacheManagers;
+   protected AdvancedCache<Object, Object> cache;
+   protected String[] keys;
+   protected byte[] value;
+   protected Object[] storageKeys;
+   protected Object storageValue;
+
+   protected abstract BenchmarkProfile profile();
+
+   protected StorageType storage() {
+      return StorageType.HEAP;
+   }
+
+   @Setup(Level.Trial)
+   public void setup() {
+      BenchmarkProfile profile = profile();
+      cacheManagers = new EmbeddedCacheManager[profile.numNodes()];
+      for (int i = 0; i < cacheManagers.length; i++) {
+         cacheManagers[i] = new DefaultCacheManager(globalConfiguration(i).build());
+         cacheManagers[i].defineConfiguration(CACHE_NAME, cacheConfiguration().build());
+      }
+      // Start the cache on every node before touching it so the DIST profile has a stable topology
+      for (EmbeddedCacheManager cacheManager : cacheManagers) {
+         cacheManager.getCache(CACHE_NAME);
+      }
+      cache = cacheManagers[0].getCache(CACHE_NAME).getAdvancedCache();
+      value = new byte[valueSize];
+      keys = new String[keySetSize];
+      Random random = new Random(17);
+      random.nextBytes(value);
+      for (int i = 0; i < keySetSize; i++) {
+         keys[i] = "key-" + random.nextLong();
+         cache.put(keys[i], value);
+      }
+      storageKeys = new Object[keySetSize];
+      for (int i = 0; i < keySetSize; i++) {
+         storageKeys[i] = cache.getKeyDataConversion().toStorage(keys[i]);
+      }
+      storageValue = cache.getValueDataConversion().toStorage(value);
+      afterSetup();
+   }
+
+   /**
+    * Invoked once the cache is running and populated, for states that need to look up components.
+    */
+   protected void afterSetup() {
+   }
+
+   @TearDown(Level.Trial)
+   public void teardown() {
+      // Stop the coordinator last to avoid a view change per stopped node
+      for (int i = cacheManagers.length - 1; i >= 0; i--) {
+         Util.close(cacheManagers[i]);
+      }
+   }
+
+   protected GlobalConfigurationBuilder globalConfiguration(int nodeIndex) {
+      GlobalConfigurationBuilder builder;
+      if (profile().isClustered()) {
+         builder = GlobalConfigurationBuilder.defaultClusteredBuilder();
+         builder.transport()
+               .clusterName("infinispan-benchmarks")
+               .nodeName("node-" + nodeIndex)
+               .addProperty(JGroupsTransport.CONFIGURATION_FILE, JGROUPS_CONFIGURATION);
+      } else {
+         builder = new GlobalConfigurationBuilder().nonClusteredDefault();
+      }
+      builder.jmx().disable();
+      builder.metrics().gauges(false).histograms(false);
+      return builder;
+   }
+
+   protected ConfigurationBuilder cacheConfiguration() {
+      return profile().configuration(storage());
+   }
+
+   public String randomKey() {
+      return keys[ThreadLocalRandom.current().nextInt(keySetSize)];
+   }
+
+   public Object randomStorageKey() {
+      return storageKeys[ThreadLocalRandom.current().nextInt(keySetSize)];
+   }
+
+   public AdvancedCache<Object, Object> cache() {
+      return cache;
+   }
+
+   public byte[] value() {
+      return value;
+   }
+
+   public Object storageValue() {
+      return storageValue;
+   }
+}
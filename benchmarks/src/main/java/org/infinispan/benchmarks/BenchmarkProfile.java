@@ -0,0 +1,73 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.TransactionMode;
+import org.infinispan.transaction.lookup.EmbeddedTransactionManagerLookup;
+
+/**
+ * The cache topologies the embedded benchmarks can run against. Every profile is started inside the benchmark JVM so
+ * that results only depend on the code under test and on the JVM options passed to the fork.
+ *
+ * @since 16.0
+ */
+public enum BenchmarkProfile {
+   /**
+    * A single node, non-transactional local cache.
+    */
+   LOCAL(1) {
+      @Override
+      void configure(ConfigurationBuilder builder) {
+         builder.clustering().cacheMode(CacheMode.LOCAL);
+      }
+   },
+   /**
+    * Two nodes in the same JVM, connected through a loopback JGroups stack, with a synchronous distributed cache
+    * keeping one owner on each node.
+    */
+   DIST(2) {
+      @Override
+      void configure(ConfigurationBuilder builder) {
+         builder.clustering().cacheMode(CacheMode.DIST_SYNC).hash().numOwners(2);
+      }
+   },
+   /**
+    * A single node, pessimistic transactional local cache with auto-commit enabled.
+    */
+   TX(1) {
+      @Override
+      void configure(ConfigurationBuilder builder) {
+         builder.clustering().cacheMode(CacheMode.LOCAL)
+               .transaction().transactionMode(TransactionMode.TRANSACTIONAL)
+               .lockingMode(LockingMode.PESSIMISTIC)
+               .autoCommit(true)
+               .transactionManagerLookup(new EmbeddedTransactionManagerLookup());
+      }
+   };
+
+   private final int numNodes;
+
+   BenchmarkProfile(int numNodes) {
+      this.numNodes = numNodes;
+   }
+
+   public int numNodes() {
+      return numNodes;
+   }
+
+   public boolean isClustered() {
+      return numNodes > 1;
+   }
+
+   abstract void configure(ConfigurationBuilder builder);
+
+   public ConfigurationBuilder configuration(StorageType storageType) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      configure(builder);
+      builder.memory().storage(storageType);
+      builder.statistics().disable();
+      return builder;
+   }
+}
@@ -0,0 +1,65 @@
+package org.infinispan.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Entry point of the benchmarks jar. Runs every benchmark in this package with fixed warmup, measurement and fork
+ * settings and with the GC profiler enabled, so that both per-operation latency and allocation rate are reported and
+ * results from different builds can be compared.
+ * <p>
+ * All the regular JMH command line options are accepted and take precedence over the defaults, e.g.
+ * {@code java -jar benchmarks.jar CacheImplBenchmark -p profile=DIST -rf json}.
+ *
+ * @since 16.0
+ */
+public class BenchmarkRunner {
+   private static final int FORKS = 2;
+   private static final int WARMUP_ITERATIONS = 5;
+   private static final int MEASUREMENT_ITERATIONS = 5;
+   private static final TimeValue ITERATION_TIME = TimeValue.seconds(5);
+
+   public static void main(String[] args) throws Exception {
+      CommandLineOptions cli = new CommandLineOptions(args);
+      OptionsBuilder builder = new OptionsBuilder();
+      builder.parent(cli);
+      if (cli.getIncludes().isEmpty()) {
+         builder.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+      }
+      if (cli.getBenchModes().isEmpty()) {
+         builder.mode(Mode.AverageTime);
+      }
+      if (!cli.getTimeUnit().hasValue()) {
+         builder.timeUnit(TimeUnit.NANOSECONDS);
+      }
+      if (!cli.getForkCount().hasValue()) {
+         builder.forks(FORKS);
+      }
+      if (!cli.getWarmupIterations().hasValue()) {
+         builder.warmupIterations(WARMUP_ITERATIONS);
+      }
+      if (!cli.getWarmupTime().hasValue()) {
+         builder.warmupTime(ITERATION_TIME);
+      }
+      if (!cli.getMeasurementIterations().hasValue()) {
+         builder.measurementIterations(MEASUREMENT_ITERATIONS);
+      }
+      if (!cli.getMeasurementTime().hasValue()) {
+         builder.measurementTime(ITERATION_TIME);
+      }
+      if (cli.getProfilers().isEmpty()) {
+         builder.addProfiler(GCProfiler.class);
+      }
+      // Pin the heap so that allocation rate and GC numbers are comparable between runs
+      if (!cli.getJvmArgs().hasValue()) {
+         builder.jvmArgs("-Xms2g", "-Xmx2g", "-XX:+AlwaysPreTouch", "-Djava.net.preferIPv4Stack=true");
+      }
+      new Runner(builder.build()).run();
+   }
+}
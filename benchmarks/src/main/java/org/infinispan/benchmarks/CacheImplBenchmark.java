@@ -0,0 +1,42 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.cache.impl.AbstractDelegatingCache;
+import org.infinispan.context.Flag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link org.infinispan.cache.impl.CacheImpl} reads and writes through the full interceptor chain, without
+ * the {@link org.infinispan.cache.impl.EncoderCache} wrapper returned by the cache manager.
+ *
+ * @since 16.0
+ */
+@State(Scope.Benchmark)
+public class CacheImplBenchmark {
+   private AdvancedCache<Object, Object> cacheImpl;
+   private AdvancedCache<Object, Object> ignoreReturnValues;
+
+   @Setup
+   public void setup(EmbeddedCacheState state) {
+      cacheImpl = AbstractDelegatingCache.unwrapCache(state.cache()).getAdvancedCache();
+      ignoreReturnValues = cacheImpl.withFlags(Flag.IGNORE_RETURN_VALUES);
+   }
+
+   @Benchmark
+   public Object get(EmbeddedCacheState state) {
+      return cacheImpl.get(state.randomStorageKey());
+   }
+
+   @Benchmark
+   public Object put(EmbeddedCacheState state) {
+      return cacheImpl.put(state.randomStorageKey(), state.storageValue());
+   }
+
+   @Benchmark
+   public Object putIgnoreReturnValue(EmbeddedCacheState state) {
+      return ignoreReturnValues.put(state.randomStorageKey(), state.storageValue());
+   }
+}
@@ -0,0 +1,66 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.container.impl.InternalDataContainer;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+
+/**
+ * Compares the segmented data container implementations selected by the storage type, i.e.
+ * {@link org.infinispan.container.impl.DefaultSegmentedDataContainer} for {@code HEAP} and
+ * {@link org.infinispan.container.offheap.OffHeapDataContainer} for {@code OFF_HEAP}.
+ *
+ * @since 16.0
+ */
+public class DataContainerBenchmark {
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State extends AbstractCacheState {
+      @Param({"HEAP", "OFF_HEAP"})
+      public StorageType storage;
+
+      InternalDataContainer<Object, Object> container;
+      KeyPartitioner keyPartitioner;
+
+      @Override
+      protected BenchmarkProfile profile() {
+         return BenchmarkProfile.LOCAL;
+      }
+
+      @Override
+      protected StorageType storage() {
+         return storage;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      protected void afterSetup() {
+         ComponentRegistry registry = ComponentRegistry.of(cache);
+         container = registry.getInternalDataContainer().running();
+         keyPartitioner = registry.getComponent(KeyPartitioner.class);
+      }
+   }
+
+   @Benchmark
+   public Object peek(State state) {
+      Object key = state.randomStorageKey();
+      return state.container.peek(state.keyPartitioner.getSegment(key), key);
+   }
+
+   @Benchmark
+   public void put(State state) {
+      Object key = state.randomStorageKey();
+      state.container.put(state.keyPartitioner.getSegment(key), key, state.storageValue(), EmbeddedMetadata.EMPTY,
+            null, -1, -1);
+   }
+
+   @Benchmark
+   public boolean containsKey(State state) {
+      Object key = state.randomStorageKey();
+      return state.container.containsKey(state.keyPartitioner.getSegment(key), key);
+   }
+}
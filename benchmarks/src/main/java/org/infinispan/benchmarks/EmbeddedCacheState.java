@@ -0,0 +1,30 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.StorageType;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cache state that can run with every {@link BenchmarkProfile}.
+ *
+ * @since 16.0
+ */
+@State(Scope.Benchmark)
+public class EmbeddedCacheState extends AbstractCacheState {
+   @Param({"LOCAL", "DIST", "TX"})
+   public BenchmarkProfile profile;
+
+   @Param("HEAP")
+   public StorageType storage;
+
+   @Override
+   protected BenchmarkProfile profile() {
+      return profile;
+   }
+
+   @Override
+   protected StorageType storage() {
+      return storage;
+   }
+}
@@ -0,0 +1,66 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+
+/**
+ * Measures the key and value conversions performed by {@link org.infinispan.cache.impl.EncoderCache} between the
+ * media type requested by the caller and the storage media type of the cache.
+ *
+ * @since 16.0
+ */
+public class EncoderCacheBenchmark {
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State extends AbstractCacheState {
+      @Param({MediaType.APPLICATION_OBJECT_TYPE, MediaType.APPLICATION_PROTOSTREAM_TYPE})
+      public String storageMediaType;
+
+      @Param({MediaType.APPLICATION_OBJECT_TYPE, MediaType.TEXT_PLAIN_TYPE})
+      public String requestMediaType;
+
+      AdvancedCache<Object, Object> encoderCache;
+
+      @Override
+      protected BenchmarkProfile profile() {
+         return BenchmarkProfile.LOCAL;
+      }
+
+      @Override
+      protected ConfigurationBuilder cacheConfiguration() {
+         ConfigurationBuilder builder = super.cacheConfiguration();
+         builder.encoding().mediaType(storageMediaType);
+         return builder;
+      }
+
+      @Override
+      protected void afterSetup() {
+         MediaType mediaType = MediaType.fromString(requestMediaType);
+         encoderCache = cache.withMediaType(mediaType, mediaType);
+      }
+   }
+
+   @Benchmark
+   public Object get(State state) {
+      return state.encoderCache.get(state.randomKey());
+   }
+
+   @Benchmark
+   public Object put(State state) {
+      return state.encoderCache.put(state.randomKey(), state.value());
+   }
+
+   @Benchmark
+   public Object keyToStorage(State state) {
+      return state.encoderCache.getKeyDataConversion().toStorage(state.randomKey());
+   }
+
+   @Benchmark
+   public Object valueFromStorage(State state) {
+      return state.encoderCache.getValueDataConversion().fromStorage(state.storageValue());
+   }
+}
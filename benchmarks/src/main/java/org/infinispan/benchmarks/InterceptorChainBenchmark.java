@@ -0,0 +1,59 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.util.EnumUtil;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.InvocationContextFactory;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+
+/**
+ * Invokes commands directly on {@link org.infinispan.interceptors.impl.AsyncInterceptorChainImpl}, leaving out the
+ * argument checks, flag handling and context creation done by {@link org.infinispan.cache.impl.CacheImpl}.
+ *
+ * @since 16.0
+ */
+public class InterceptorChainBenchmark {
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State extends NonTxCacheState {
+      AsyncInterceptorChain chain;
+      CommandsFactory commandsFactory;
+      InvocationContextFactory contextFactory;
+      KeyPartitioner keyPartitioner;
+
+      @Override
+      protected void afterSetup() {
+         ComponentRegistry registry = ComponentRegistry.of(cache);
+         chain = registry.getInterceptorChain().running();
+         commandsFactory = registry.getCommandsFactory();
+         contextFactory = registry.getComponent(InvocationContextFactory.class);
+         keyPartitioner = registry.getComponent(KeyPartitioner.class);
+      }
+   }
+
+   @Benchmark
+   public Object get(State state) {
+      Object key = state.randomStorageKey();
+      GetKeyValueCommand command = state.commandsFactory.buildGetKeyValueCommand(key,
+            state.keyPartitioner.getSegment(key), EnumUtil.EMPTY_BIT_SET);
+      InvocationContext ctx = state.contextFactory.createInvocationContext(false, 1);
+      return state.chain.invoke(ctx, command);
+   }
+
+   @Benchmark
+   public Object put(State state) {
+      Object key = state.randomStorageKey();
+      PutKeyValueCommand command = state.commandsFactory.buildPutKeyValueCommand(key, state.storageValue(),
+            state.keyPartitioner.getSegment(key), EmbeddedMetadata.EMPTY, EnumUtil.EMPTY_BIT_SET);
+      InvocationContext ctx = state.contextFactory.createInvocationContext(true, 1);
+      ctx.setLockOwner(command.getKeyLockOwner());
+      return state.chain.invoke(ctx, command);
+   }
+}
@@ -0,0 +1,31 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.StorageType;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cache state for benchmarks that invoke commands below {@link org.infinispan.cache.impl.CacheImpl} and therefore
+ * cannot start the implicit transaction required by the {@link BenchmarkProfile#TX} profile.
+ *
+ * @since 16.0
+ */
+@State(Scope.Benchmark)
+public class NonTxCacheState extends AbstractCacheState {
+   @Param({"LOCAL", "DIST"})
+   public BenchmarkProfile profile;
+
+   @Param("HEAP")
+   public StorageType storage;
+
+   @Override
+   protected BenchmarkProfile profile() {
+      return profile;
+   }
+
+   @Override
+   protected StorageType storage() {
+      return storage;
+   }
+}
@@ -0,0 +1,48 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+
+/**
+ * Compares {@link org.infinispan.cache.impl.SimpleCacheImpl} with a regular local cache configured the same way, to
+ * track the cost of the interceptor chain for the simplest cache mode.
+ *
+ * @since 16.0
+ */
+public class SimpleCacheBenchmark {
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State extends AbstractCacheState {
+      @Param({"true", "false"})
+      public boolean simpleCache;
+
+      @Override
+      protected BenchmarkProfile profile() {
+         return BenchmarkProfile.LOCAL;
+      }
+
+      @Override
+      protected ConfigurationBuilder cacheConfiguration() {
+         ConfigurationBuilder builder = super.cacheConfiguration();
+         builder.simpleCache(simpleCache);
+         return builder;
+      }
+   }
+
+   @Benchmark
+   public Object get(State state) {
+      return state.cache().get(state.randomKey());
+   }
+
+   @Benchmark
+   public Object put(State state) {
+      return state.cache().put(state.randomKey(), state.value());
+   }
+
+   @Benchmark
+   public boolean containsKey(State state) {
+      return state.cache().containsKey(state.randomKey());
+   }
+}
@@ -0,0 +1,9 @@
+/**
+ * JMH micro-benchmarks for the embedded cache hot paths.
+ * <p>
+ * Each benchmark state starts its cache managers inside the forked benchmark JVM using one of the
+ * {@link org.infinispan.benchmarks.BenchmarkProfile}s, so no external server is required. Build the self-contained
+ * jar with {@code mvn -pl benchmarks -am package -Pshade -DskipTests} and run
+ * {@code java -jar benchmarks/target/benchmarks.jar}.
+ */
+package org.infinispan.benchmarks;
@@ -630,7 +630,7 @@ private <K, V> InternalRemoteCache<K, V> createRemoteCache(String cacheName, Rem
          return new RemoteCacheImpl<>(this, cacheName, timeService, factoryFunction);
       } else {
          NearCacheConfiguration nearCache = new NearCacheConfiguration(remoteCacheConfiguration.nearCacheMode(), remoteCacheConfiguration.nearCacheMaxEntries(),
-               remoteCacheConfiguration.nearCacheBloomFilter(), remoteCacheConfiguration.nearCacheFactory());
+               remoteCacheConfiguration.nearCacheMaxMemory(), remoteCacheConfiguration.nearCacheBloomFilter(), remoteCacheConfiguration.nearCacheFactory());
          NearCacheService<K, V> nearCacheService = createNearCacheService(cacheName, nearCache);
          if (log.isTraceEnabled()) {
             log.tracef("Enabling near-caching for cache '%s'", cacheName);
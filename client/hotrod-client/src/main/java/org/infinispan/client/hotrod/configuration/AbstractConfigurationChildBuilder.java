@@ -106,6 +106,11 @@ public ConfigurationBuilder serverFailureTimeout(int timeoutInMilliseconds) {
       return builder.serverFailureTimeout(timeoutInMilliseconds);
    }
 
+   @Override
+   public ConfigurationBuilder coalescingWindow(long window, TimeUnit unit) {
+      return builder.coalescingWindow(window, unit);
+   }
+
    @Override
    public ConfigurationBuilder forceReturnValues(boolean forceReturnValues) {
       return builder.forceReturnValues(forceReturnValues);
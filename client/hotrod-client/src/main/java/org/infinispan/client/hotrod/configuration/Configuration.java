@@ -7,10 +7,12 @@
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.BATCH_SIZE;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CACHE_CONFIGURATION_SUFFIX;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CACHE_MARSHALLER;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CACHE_NEAR_CACHE_MAX_MEMORY_SUFFIX;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CACHE_NEAR_CACHE_MODE_SUFFIX;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CACHE_PREFIX;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CACHE_TEMPLATE_NAME_SUFFIX;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CLIENT_INTELLIGENCE;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.COALESCING_WINDOW;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_EXHAUSTED_ACTION;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_MAX_ACTIVE;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_MAX_PENDING_REQUESTS;
@@ -120,6 +122,7 @@ public class Configuration implements org.infinispan.api.configuration.Configura
    private final int dnsResolverNegativeTTL;
    private final RemoteCacheManagerMetricsRegistry metricRegistry;
    private final int serverFailureTimeout;
+   private final long coalescingWindow;
 
    public Configuration(ExecutorFactoryConfiguration asyncExecutorFactory, Supplier<FailoverRequestBalancingStrategy> balancingStrategyFactory, ClassLoader classLoader,
                         ClientIntelligence clientIntelligence, ConnectionPoolConfiguration connectionPool, int connectionTimeout, Class<? extends ConsistentHash>[] consistentHashImpl,
@@ -133,7 +136,7 @@ public Configuration(ExecutorFactoryConfiguration asyncExecutorFactory, Supplier
                         List<SerializationContextInitializer> contextInitializers,
                         Map<String, RemoteCacheConfiguration> remoteCaches,
                         TransportFactory transportFactory, boolean tracingPropagationEnabled, RemoteCacheManagerMetricsRegistry metricRegistry,
-                        int serverFailureTimeout) {
+                        int serverFailureTimeout, long coalescingWindow) {
       this.asyncExecutorFactory = asyncExecutorFactory;
       this.balancingStrategyFactory = balancingStrategyFactory;
       this.maxRetries = maxRetries;
@@ -169,6 +172,7 @@ public Configuration(ExecutorFactoryConfiguration asyncExecutorFactory, Supplier
       this.tracingPropagationEnabled = tracingPropagationEnabled;
       this.metricRegistry = Objects.requireNonNullElse(metricRegistry, RemoteCacheManagerMetricsRegistry.DISABLED);
       this.serverFailureTimeout = serverFailureTimeout;
+      this.coalescingWindow = coalescingWindow;
    }
 
    public ExecutorFactoryConfiguration asyncExecutorFactory() {
@@ -395,6 +399,15 @@ public int serverFailureTimeout() {
       return serverFailureTimeout;
    }
 
+   /**
+    * How long the operations sent to a server are held back so that they are written with a single flush.
+    * Default is 0, the operations submitted while the previous ones are written are still flushed together.
+    * @return time in nanoseconds
+    */
+   public long coalescingWindow() {
+      return coalescingWindow;
+   }
+
    @Override
    public String toString() {
       return "Configuration [asyncExecutorFactory=" + asyncExecutorFactory + ", balancingStrategyFactory=()->" + balancingStrategyFactory.get()
@@ -410,6 +423,7 @@ public String toString() {
             + ", statistics=" + statistics
             + ", metricRegistry=" + metricRegistry
             + ", serverFailureTimeout=" + serverFailureTimeout
+            + ", coalescingWindow=" + coalescingWindow
             + "]";
    }
 
@@ -443,6 +457,7 @@ public Properties properties() {
       properties.setProperty(MAX_RETRIES, maxRetries());
       properties.setProperty(STATISTICS, statistics().enabled());
       properties.setProperty(SERVER_FAILURE_TIMEOUT, serverFailureTimeout());
+      properties.setProperty(COALESCING_WINDOW, TimeUnit.NANOSECONDS.toMicros(coalescingWindow()));
 
       properties.setProperty(DNS_RESOLVER_MIN_TTL, dnsResolverMinTTL);
       properties.setProperty(DNS_RESOLVER_MAX_TTL, dnsResolverMaxTTL);
@@ -524,6 +539,9 @@ public Properties properties() {
          }
          properties.setProperty(prefix + CACHE_NEAR_CACHE_MODE_SUFFIX, remoteCache.nearCacheMode().name());
          properties.setProperty(prefix + CACHE_NEAR_CACHE_MODE_SUFFIX, remoteCache.nearCacheMaxEntries());
+         if (remoteCache.nearCacheMaxMemory() > 0) {
+            properties.setProperty(prefix + CACHE_NEAR_CACHE_MAX_MEMORY_SUFFIX, remoteCache.nearCacheMaxMemory());
+         }
          Marshaller marshaller = remoteCache.marshaller();
          if (marshaller != null) {
             properties.setProperty(prefix + CACHE_MARSHALLER, remoteCache.marshaller().getClass().getName());
@@ -86,6 +86,7 @@ public class ConfigurationBuilder implements ConfigurationChildBuilder, Builder<
    private int valueSizeEstimate = ConfigurationProperties.DEFAULT_VALUE_SIZE;
    private int maxRetries = ConfigurationProperties.DEFAULT_MAX_RETRIES;
    private int serverFailureTimeout = ConfigurationProperties.DEFAULT_SERVER_FAILURE_TIMEOUT;
+   private long coalescingWindow = ConfigurationProperties.DEFAULT_COALESCING_WINDOW;
    private final List<String> allowListRegExs = new ArrayList<>();
    private int batchSize = ConfigurationProperties.DEFAULT_BATCH_SIZE;
    private final TransactionConfigurationBuilder transaction;
@@ -354,6 +355,12 @@ public ConfigurationBuilder serverFailureTimeout(int timeoutInMilliseconds) {
       return this;
    }
 
+   @Override
+   public ConfigurationBuilder coalescingWindow(long window, TimeUnit unit) {
+      this.coalescingWindow = unit.toNanos(window);
+      return this;
+   }
+
    @Override
    public ConfigurationBuilder addJavaSerialAllowList(String... regEx) {
       this.allowListRegExs.addAll(Arrays.asList(regEx));
@@ -491,6 +498,9 @@ public ConfigurationBuilder withProperties(Properties properties) {
       if (typed.containsKey(ConfigurationProperties.SERVER_FAILURE_TIMEOUT)) {
          this.serverFailureTimeout((int) typed.getDurationProperty(ConfigurationProperties.SERVER_FAILURE_TIMEOUT, serverFailureTimeout, true));
       }
+      if (typed.containsKey(ConfigurationProperties.COALESCING_WINDOW)) {
+         this.coalescingWindow(typed.getLongProperty(ConfigurationProperties.COALESCING_WINDOW, TimeUnit.NANOSECONDS.toMicros(coalescingWindow), true), TimeUnit.MICROSECONDS);
+      }
       if (typed.containsKey(ConfigurationProperties.DNS_RESOLVER_MIN_TTL)) {
          this.dnsResolverMinTTL((int) typed.getDurationProperty(ConfigurationProperties.DNS_RESOLVER_MIN_TTL, dnsResolverMinTTL, true));
       }
@@ -631,7 +641,8 @@ public Configuration create() {
             forceReturnValues, keySizeEstimate, buildMarshaller, buildMarshallerClass, protocolVersion, servers, socketTimeout,
             security.create(), tcpNoDelay, tcpKeepAlive, valueSizeEstimate, maxRetries,
             serverClusterConfigs, allowListRegExs, batchSize, transaction.create(), statistics.create(), features,
-            contextInitializers, remoteCaches, transportFactory, tracingPropagationEnabled, metricRegistry, serverFailureTimeout);
+            contextInitializers, remoteCaches, transportFactory, tracingPropagationEnabled, metricRegistry, serverFailureTimeout,
+            coalescingWindow);
    }
 
    // Method that handles default marshaller - needed as a placeholder
@@ -683,6 +694,7 @@ public ConfigurationBuilder read(Configuration template, Combine combine) {
       this.transportFactory = template.transportFactory();
       this.valueSizeEstimate = template.valueSizeEstimate();
       this.maxRetries = template.maxRetries();
+      this.coalescingWindow = template.coalescingWindow();
       this.allowListRegExs.addAll(template.serialWhitelist());
       this.transaction.read(template.transaction(), combine);
       this.statistics.read(template.statistics(), combine);
@@ -209,6 +209,19 @@ public interface ConfigurationChildBuilder {
     */
    ConfigurationBuilder serverFailureTimeout(int timeoutInMilliseconds);
 
+   /**
+    * How long the operations sent to a server are held back so that the operations submitted meanwhile are written
+    * with them using a single flush. A longer window trades latency for fewer writes and system calls when many small
+    * operations are sent concurrently.
+    * <p>
+    * Operations submitted while the previous ones are being written are always flushed together, a window of 0 (the
+    * default) does not hold back operations any further.
+    * @param window the time to hold back the operations
+    * @param unit the unit of the window
+    * @return this builder
+    */
+   ConfigurationBuilder coalescingWindow(long window, TimeUnit unit);
+
    /**
     * List of regular expressions for classes that can be deserialized using standard Java deserialization
     * when reading data that might have been stored with a different endpoint, e.g. REST.
@@ -7,6 +7,7 @@ public class NearCacheConfiguration {
    // TODO: Consider an option to configure key equivalence function for near cache (e.g. for byte arrays)
    private final NearCacheMode mode;
    private final int maxEntries;
+   private final long maxMemory;
    private final boolean bloomFilter;
    private final NearCacheFactory nearCacheFactory;
 
@@ -15,8 +16,13 @@ public NearCacheConfiguration(NearCacheMode mode, int maxEntries, boolean bloomF
    }
 
    public NearCacheConfiguration(NearCacheMode mode, int maxEntries, boolean bloomFilter, NearCacheFactory nearCacheFactory) {
+      this(mode, maxEntries, -1, bloomFilter, nearCacheFactory);
+   }
+
+   public NearCacheConfiguration(NearCacheMode mode, int maxEntries, long maxMemory, boolean bloomFilter, NearCacheFactory nearCacheFactory) {
       this.mode = mode;
       this.maxEntries = maxEntries;
+      this.maxMemory = maxMemory;
       this.bloomFilter = bloomFilter;
       this.nearCacheFactory = nearCacheFactory;
    }
@@ -25,6 +31,14 @@ public int maxEntries() {
       return maxEntries;
    }
 
+   /**
+    * @return the maximum number of bytes used by the values stored off-heap by the near cache, or -1 if the values
+    * are stored on heap.
+    */
+   public long maxMemory() {
+      return maxMemory;
+   }
+
    public NearCacheMode mode() {
       return mode;
    }
@@ -42,6 +56,7 @@ public String toString() {
       return "NearCacheConfiguration{" +
             "mode=" + mode +
             ", maxEntries=" + maxEntries +
+            ", maxMemory=" + maxMemory +
             ", bloomFilter=" + bloomFilter +
             ", nearCacheFactory=" + nearCacheFactory +
             '}';
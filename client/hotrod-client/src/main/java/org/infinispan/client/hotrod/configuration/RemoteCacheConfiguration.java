@@ -23,6 +23,7 @@ public class RemoteCacheConfiguration {
    public static final AttributeDefinition<String> NAME = AttributeDefinition.builder("name", null, String.class).build();
    public static final AttributeDefinition<NearCacheMode> NEAR_CACHE_MODE = AttributeDefinition.builder("near-cache-mode", NearCacheMode.DISABLED).build();
    public static final AttributeDefinition<Integer> NEAR_CACHE_MAX_ENTRIES = AttributeDefinition.builder("near-cache-max-entries", -1).build();
+   public static final AttributeDefinition<Long> NEAR_CACHE_MAX_MEMORY = AttributeDefinition.builder("near-cache-max-memory", -1L).build();
    public static final AttributeDefinition<Boolean> NEAR_CACHE_BLOOM_FILTER = AttributeDefinition.builder("near-cache-bloom-filter", false).build();
    public static final AttributeDefinition<NearCacheFactory> NEAR_CACHE_FACTORY = AttributeDefinition.builder("near-cache-factory", DefaultNearCacheFactory.INSTANCE, NearCacheFactory.class).build();
    public static final AttributeDefinition<String> TEMPLATE_NAME = AttributeDefinition.builder("template-name", null, String.class).build();
@@ -32,7 +33,7 @@ public class RemoteCacheConfiguration {
    public static final AttributeDefinition<Class> MARSHALLER_CLASS = AttributeDefinition.builder("marshallerClass", null, Class.class).build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(RemoteCacheConfiguration.class, CONFIGURATION, FORCE_RETURN_VALUES, NAME, MARSHALLER, MARSHALLER_CLASS, NEAR_CACHE_MODE, NEAR_CACHE_MAX_ENTRIES, NEAR_CACHE_BLOOM_FILTER, NEAR_CACHE_FACTORY, TEMPLATE_NAME, TRANSACTION_MODE, TRANSACTION_MANAGER);
+      return new AttributeSet(RemoteCacheConfiguration.class, CONFIGURATION, FORCE_RETURN_VALUES, NAME, MARSHALLER, MARSHALLER_CLASS, NEAR_CACHE_MODE, NEAR_CACHE_MAX_ENTRIES, NEAR_CACHE_MAX_MEMORY, NEAR_CACHE_BLOOM_FILTER, NEAR_CACHE_FACTORY, TEMPLATE_NAME, TRANSACTION_MODE, TRANSACTION_MANAGER);
    }
 
    private final Attribute<String> configuration;
@@ -42,6 +43,7 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<String> name;
    private final Attribute<NearCacheMode> nearCacheMode;
    private final Attribute<Integer> nearCacheMaxEntries;
+   private final Attribute<Long> nearCacheMaxMemory;
    private final Attribute<Boolean> nearCacheBloomFilter;
    private final Attribute<String> templateName;
    private final Attribute<TransactionMode> transactionMode;
@@ -57,6 +59,7 @@ static AttributeSet attributeDefinitionSet() {
       marshallerClass = attributes.attribute(MARSHALLER_CLASS);
       nearCacheMode = attributes.attribute(NEAR_CACHE_MODE);
       nearCacheMaxEntries = attributes.attribute(NEAR_CACHE_MAX_ENTRIES);
+      nearCacheMaxMemory = attributes.attribute(NEAR_CACHE_MAX_MEMORY);
       nearCacheBloomFilter = attributes.attribute(NEAR_CACHE_BLOOM_FILTER);
       templateName = attributes.attribute(TEMPLATE_NAME);
       transactionMode = attributes.attribute(TRANSACTION_MODE);
@@ -91,6 +94,10 @@ public int nearCacheMaxEntries() {
       return nearCacheMaxEntries.get();
    }
 
+   public long nearCacheMaxMemory() {
+      return nearCacheMaxMemory.get();
+   }
+
    public boolean nearCacheBloomFilter() {
       return nearCacheBloomFilter.get();
    }
@@ -8,6 +8,7 @@
 import static org.infinispan.client.hotrod.configuration.RemoteCacheConfiguration.NEAR_CACHE_BLOOM_FILTER;
 import static org.infinispan.client.hotrod.configuration.RemoteCacheConfiguration.NEAR_CACHE_FACTORY;
 import static org.infinispan.client.hotrod.configuration.RemoteCacheConfiguration.NEAR_CACHE_MAX_ENTRIES;
+import static org.infinispan.client.hotrod.configuration.RemoteCacheConfiguration.NEAR_CACHE_MAX_MEMORY;
 import static org.infinispan.client.hotrod.configuration.RemoteCacheConfiguration.NEAR_CACHE_MODE;
 import static org.infinispan.client.hotrod.configuration.RemoteCacheConfiguration.TEMPLATE_NAME;
 import static org.infinispan.client.hotrod.configuration.RemoteCacheConfiguration.TRANSACTION_MANAGER;
@@ -35,6 +36,7 @@
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.tx.lookup.TransactionManagerLookup;
+import org.infinispan.commons.util.ByteQuantity;
 import org.infinispan.commons.util.FileLookupFactory;
 import org.infinispan.commons.util.TypedProperties;
 
@@ -92,6 +94,19 @@ public RemoteCacheConfigurationBuilder nearCacheMaxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * Specifies the maximum amount of memory, in bytes, used by the values held in the near cache. The values are
+    * stored serialized off-heap and deserialized when read. Only works when {@link #nearCacheMode(NearCacheMode)} is
+    * not {@link NearCacheMode#DISABLED}, and cannot be combined with {@link #nearCacheMaxEntries(int)}.
+    *
+    * @param maxMemory maximum number of bytes used by the values in the near cache.
+    * @return an instance of the builder
+    */
+   public RemoteCacheConfigurationBuilder nearCacheMaxMemory(long maxMemory) {
+      attributes.attribute(NEAR_CACHE_MAX_MEMORY).set(maxMemory);
+      return this;
+   }
+
    /**
     * Specifies whether bloom filter should be used for near cache to limit the number of write notifications for
     * unrelated keys.
@@ -257,6 +272,9 @@ public void validate() {
          if (attributes.attribute(NEAR_CACHE_BLOOM_FILTER).get() && attributes.attribute(NEAR_CACHE_MAX_ENTRIES).get() < 1) {
             throw HOTROD.nearCacheMaxEntriesPositiveWithBloom(attributes.attribute(NEAR_CACHE_MAX_ENTRIES).get());
          }
+         if (attributes.attribute(NEAR_CACHE_MAX_ENTRIES).get() > 0 && attributes.attribute(NEAR_CACHE_MAX_MEMORY).get() > 0) {
+            throw HOTROD.nearCacheMaxEntriesAndMaxMemory(attributes.attribute(NAME).get());
+         }
       }
    }
 
@@ -280,6 +298,7 @@ public ConfigurationBuilder withProperties(Properties properties) {
       findCacheProperty(typed, ConfigurationProperties.CACHE_FORCE_RETURN_VALUES_SUFFIX, v -> this.forceReturnValues(Boolean.parseBoolean(v)));
       findCacheProperty(typed, ConfigurationProperties.CACHE_NEAR_CACHE_MODE_SUFFIX, v -> this.nearCacheMode(NearCacheMode.valueOf(v)));
       findCacheProperty(typed, ConfigurationProperties.CACHE_NEAR_CACHE_MAX_ENTRIES_SUFFIX, v -> this.nearCacheMaxEntries(Integer.parseInt(v)));
+      findCacheProperty(typed, ConfigurationProperties.CACHE_NEAR_CACHE_MAX_MEMORY_SUFFIX, v -> this.nearCacheMaxMemory(ByteQuantity.parse(v)));
       findCacheProperty(typed, ConfigurationProperties.CACHE_NEAR_CACHE_BLOOM_FILTER_SUFFIX, v -> this.nearCacheUseBloomFilter(Boolean.parseBoolean(v)));
       findCacheProperty(typed, ConfigurationProperties.CACHE_NEAR_CACHE_FACTORY_SUFFIX, v -> this.nearCacheFactory(getInstance(loadClass(v, RemoteCacheConfigurationBuilder.class.getClassLoader()))));
       findCacheProperty(typed, ConfigurationProperties.CACHE_TRANSACTION_MODE_SUFFIX, v -> this.transactionMode(TransactionMode.valueOf(v)));
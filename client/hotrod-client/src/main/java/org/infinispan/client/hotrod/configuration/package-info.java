@@ -87,6 +87,12 @@
  *          <td>The {@link org.infinispan.client.hotrod.configuration.ConfigurationBuilder#serverFailureTimeout(int) timeout} for a failed server when it is retried</td>
  *       </tr>
  *       <tr>
+ *          <td><b>infinispan.client.hotrod.coalescing_window</b></td>
+ *          <td>Long</td>
+ *          <td>0</td>
+ *          <td>The {@link org.infinispan.client.hotrod.configuration.ConfigurationBuilder#coalescingWindow(long, java.util.concurrent.TimeUnit) time} in microseconds operations are held back to be flushed together</td>
+ *       </tr>
+ *       <tr>
  *          <td><b>infinispan.client.hotrod.max_retries</b></td>
  *          <td>Integer</td>
  *          <td>2</td>
@@ -508,6 +514,12 @@
  *          <td>The {@link org.infinispan.client.hotrod.configuration.RemoteCacheConfigurationBuilder#nearCacheMaxEntries(int) maximum} number of entries to keep locally for the specified cache.</td>
  *       </tr>
  *       <tr>
+ *          <td><b>infinispan.client.hotrod.cache.<i>cachename</i>.near_cache.max_memory</b></td>
+ *          <td>String (a size, e.g. 64MiB)</td>
+ *          <td>-1 (values on heap)</td>
+ *          <td>The {@link org.infinispan.client.hotrod.configuration.RemoteCacheConfigurationBuilder#nearCacheMaxMemory(long) maximum} memory used by the values kept off-heap for the specified cache.</td>
+ *       </tr>
+ *       <tr>
  *          <td><b>infinispan.client.hotrod.cache.<i>cachename</i>.force_return_values</b></td>
  *          <td>Boolean</td>
  *          <td>false</td>
@@ -53,6 +53,7 @@ public class ConfigurationProperties {
    public static final String PROTOCOL_VERSION = ICH + "protocol_version";
    public static final String TRANSPORT_FACTORY = ICH + "transport_factory";
    public static final String SERVER_FAILURE_TIMEOUT = ICH + "server_failure_timeout";
+   public static final String COALESCING_WINDOW = ICH + "coalescing_window";
    // Encryption properties
    public static final String USE_SSL = ICH + "use_ssl";
    public static final String KEY_STORE_FILE_NAME = ICH + "key_store_file_name";
@@ -125,6 +126,7 @@ public class ConfigurationProperties {
    public static final String CACHE_MARSHALLER = ".marshaller";
    public static final String CACHE_NEAR_CACHE_MODE_SUFFIX = ".near_cache.mode";
    public static final String CACHE_NEAR_CACHE_MAX_ENTRIES_SUFFIX = ".near_cache.max_entries";
+   public static final String CACHE_NEAR_CACHE_MAX_MEMORY_SUFFIX = ".near_cache.max_memory";
    public static final String CACHE_NEAR_CACHE_FACTORY_SUFFIX = ".near_cache.factory";
    public static final String CACHE_NEAR_CACHE_BLOOM_FILTER_SUFFIX = ".near_cache.bloom_filter";
    public static final String CACHE_TEMPLATE_NAME_SUFFIX = ".template_name";
@@ -157,6 +159,7 @@ public class ConfigurationProperties {
    public static final int DEFAULT_MIN_IDLE = -1;
    public static final boolean DEFAULT_TRACING_PROPAGATION_ENABLED = true;
    public static final int DEFAULT_SERVER_FAILURE_TIMEOUT = 30_000;
+   public static final long DEFAULT_COALESCING_WINDOW = 0;
 
    private final TypedProperties props;
 
@@ -494,6 +497,17 @@ public void setMaxRetries(int maxRetries) {
       props.setProperty(MAX_RETRIES, maxRetries);
    }
 
+   /**
+    * @return how long, in microseconds, the operations sent to a server are held back to be written with a single flush
+    */
+   public long getCoalescingWindow() {
+      return props.getLongProperty(COALESCING_WINDOW, DEFAULT_COALESCING_WINDOW);
+   }
+
+   public void setCoalescingWindow(long coalescingWindowMicros) {
+      props.setProperty(COALESCING_WINDOW, coalescingWindowMicros);
+   }
+
    public int getBatchSize() {
       return props.getIntProperty(BATCH_SIZE, DEFAULT_BATCH_SIZE);
    }
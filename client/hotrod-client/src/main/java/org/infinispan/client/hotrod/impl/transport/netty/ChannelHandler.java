@@ -25,6 +25,8 @@
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.io.FileWatcher;
+import org.infinispan.commons.stat.CounterTracker;
+import org.infinispan.commons.stat.DistributionSummaryTracker;
 import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.SslContextFactory;
 
@@ -59,6 +61,8 @@ public class ChannelHandler {
    private final FileWatcher watcher;
    private final OperationDispatcher dispatcher;
    private final Consumer<ChannelPipeline> pipelineDecorator;
+   private final CounterTracker flushes;
+   private final DistributionSummaryTracker operationsPerFlush;
 
    public ChannelHandler(Configuration configuration, String sniHostName, ExecutorService executorService,
                          OperationDispatcher dispatcher, Consumer<ChannelPipeline> pipelineDecorator) {
@@ -96,6 +100,8 @@ public ChannelHandler(Configuration configuration, String sniHostName, ExecutorS
       }
 
       configuration.metricRegistry().createGauge("connection.pool.size", "The total number of connections", channels::size, Map.of(), null);
+      flushes = configuration.metricRegistry().createCounter("connection.pool.flushes", "The number of writes flushed to the servers", Map.of(), null);
+      operationsPerFlush = configuration.metricRegistry().createDistributionSummery("connection.pool.flush.operations", "The number of operations written with a single flush", Map.of(), null);
    }
 
    public <E> CompletionStage<E> submitOperation(HotRodOperation<E> operation, SocketAddress socketAddress) {
@@ -217,7 +223,8 @@ public ChannelInitializer createChannelInitializer(SocketAddress address, Bootst
    }
 
    protected OperationChannel createOperationChannel(ChannelInitializer channelInitializer, SocketAddress address) {
-      return OperationChannel.createAndStart(address, channelInitializer, dispatcher::getClientTopologyInfo, dispatcher::handleConnectionFailure);
+      return OperationChannel.createAndStart(address, channelInitializer, dispatcher::getClientTopologyInfo, dispatcher::handleConnectionFailure,
+            configuration.coalescingWindow(), flushes, operationsPerFlush);
    }
 
    public Flowable<HotRodOperation<?>> pendingOperationFlowable() {
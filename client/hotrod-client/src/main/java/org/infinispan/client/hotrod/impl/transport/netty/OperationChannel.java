@@ -7,6 +7,8 @@
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -18,6 +20,8 @@
 import org.infinispan.client.hotrod.impl.protocol.Codec;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.stat.CounterTracker;
+import org.infinispan.commons.stat.DistributionSummaryTracker;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
@@ -39,11 +43,17 @@ public class OperationChannel implements MessagePassingQueue.Consumer<HotRodOper
 
    private final Function<String, ClientTopology> currentCacheTopologyFunction;
    private final BiConsumer<OperationChannel, Throwable> connectionFailureListener;
+   private final long coalescingWindow;
+   private final CounterTracker flushes;
+   private final DistributionSummaryTracker operationsPerFlush;
    // Unfortunately MessagePassingQueue doesn't implement Queue so we use the concrete class
    private final MpscUnboundedArrayQueue<HotRodOperation<?>> queue = new MpscUnboundedArrayQueue<>(128);
 
    // Volatile as operations can be submitted outside of the event loop (channel only written in event loop once)
    private volatile Channel channel;
+   // Set while a task to send the queued operations is pending, so that concurrent submitters do not wake up the
+   // event loop once per operation
+   private final AtomicBoolean sendScheduled = new AtomicBoolean();
 
    // All variable after this can ONLY be read/written while in the event loop
 
@@ -55,18 +65,25 @@ public class OperationChannel implements MessagePassingQueue.Consumer<HotRodOper
    ByteBuf buffer;
 
    OperationChannel(SocketAddress unresolvedAddress, ChannelInitializer channelInitializer,
-                    Function<String, ClientTopology> currentCacheTopologyFunction, BiConsumer<OperationChannel, Throwable> connectionFailureListener) {
+                    Function<String, ClientTopology> currentCacheTopologyFunction, BiConsumer<OperationChannel, Throwable> connectionFailureListener,
+                    long coalescingWindow, CounterTracker flushes, DistributionSummaryTracker operationsPerFlush) {
       assert !(unresolvedAddress instanceof InetSocketAddress) || ((InetSocketAddress) unresolvedAddress).isUnresolved();
       this.address = unresolvedAddress;
       this.newChannelInvoker = channelInitializer;
       this.currentCacheTopologyFunction = currentCacheTopologyFunction;
       this.connectionFailureListener = connectionFailureListener;
+      this.coalescingWindow = coalescingWindow;
+      this.flushes = flushes;
+      this.operationsPerFlush = operationsPerFlush;
    }
 
    public static OperationChannel createAndStart(SocketAddress address, ChannelInitializer newChannelInvoker,
                                                   Function<String, ClientTopology> currentCacheTopologyFunction,
-                                                  BiConsumer<OperationChannel, Throwable> connectionFailureListener) {
-      OperationChannel operationChannel = new OperationChannel(address, newChannelInvoker, currentCacheTopologyFunction, connectionFailureListener);
+                                                  BiConsumer<OperationChannel, Throwable> connectionFailureListener,
+                                                  long coalescingWindow, CounterTracker flushes,
+                                                  DistributionSummaryTracker operationsPerFlush) {
+      OperationChannel operationChannel = new OperationChannel(address, newChannelInvoker, currentCacheTopologyFunction,
+            connectionFailureListener, coalescingWindow, flushes, operationsPerFlush);
       operationChannel.attemptConnect();
       return operationChannel;
    }
@@ -173,8 +190,13 @@ public void sendOperation(HotRodOperation<?> operation) {
       Channel channel = this.channel;
       if (channel != null) {
          log.tracef("Enqueued operation %s to send to channel %s", operation, channel);
-         // TODO: maybe implement a way to only submit if required
-         channel.eventLoop().execute(SEND_OPERATIONS);
+         if (sendScheduled.compareAndSet(false, true)) {
+            if (coalescingWindow > 0) {
+               channel.eventLoop().schedule(SEND_OPERATIONS, coalescingWindow, TimeUnit.NANOSECONDS);
+            } else {
+               channel.eventLoop().execute(SEND_OPERATIONS);
+            }
+         }
       } else {
          log.tracef("Enqueued operation %s to send to address %s when connected", operation, address);
          attemptConnect();
@@ -198,6 +220,7 @@ public Iterable<HotRodOperation<?>> reconnect(Throwable t) {
       } else {
          log.tracef("Channel %s was never fully accepted, not reconnecting after exception %s", channel, t);
       }
+      sendScheduled.set(false);
       List<HotRodOperation<?>> channelOps = new ArrayList<>();
       queue.drain(channelOps::add, Integer.MAX_VALUE);
       return channelOps;
@@ -205,7 +228,13 @@ public Iterable<HotRodOperation<?>> reconnect(Throwable t) {
 
    private void sendOperations() {
       Channel channel = this.channel;
-      assert channel == null || channel.eventLoop().inEventLoop();
+      if (channel != null && !channel.eventLoop().inEventLoop()) {
+         // Scheduled on the event loop of a channel that has been replaced since
+         channel.eventLoop().execute(SEND_OPERATIONS);
+         return;
+      }
+      // Cleared before draining, an operation enqueued from now on schedules another task
+      sendScheduled.set(false);
       if (!acceptingRequests || queue.isEmpty() || channel == null) {
          return;
       }
@@ -215,18 +244,20 @@ private void sendOperations() {
       }
 
       // We only send up to 256 commands a time
-      queue.drain(this, 256);
+      int sent = queue.drain(this, 256);
       if (buffer != null && buffer.isReadable()) {
          log.tracef("Flushing commands to channel %s", channel);
          channel.writeAndFlush(buffer, channel.voidPromise());
          buffer = null;
+         flushes.increment();
+         operationsPerFlush.record(sent);
       }
       if (log.isTraceEnabled()) {
          log.tracef("Queue size after: %s", queue.size());
       }
       // If Queue wasn't empty try to send again, but note this is sent on eventLoop so other operations can
       // barge in between our calls
-      if (!queue.isEmpty()) {
+      if (!queue.isEmpty() && sendScheduled.compareAndSet(false, true)) {
          log.tracef("Resubmitting as more operations in queue after sending");
          channel.eventLoop().execute(SEND_OPERATIONS);
       }
@@ -437,4 +437,7 @@ public interface Log extends BasicLogger {
    @Message(value = "Counter '%s' is not defined.", id = 4120)
    CounterException undefinedCounter(String name);
 
+   @Message(value = "Near cache of cache '%s' cannot be bounded by both the number of entries and the memory", id = 4121)
+   CacheConfigurationException nearCacheMaxEntriesAndMaxMemory(String cacheName);
+
 }
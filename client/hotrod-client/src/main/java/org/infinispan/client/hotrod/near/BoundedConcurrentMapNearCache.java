@@ -29,11 +29,20 @@ private BoundedConcurrentMapNearCache(Cache<K, MetadataValue<V>> cache) {
 
    public static <K, V> NearCache<K, V> create(final NearCacheConfiguration config,
                                                BiConsumer<? super K, ? super MetadataValue<V>> removedConsumer) {
+      return create(config, removedConsumer, () -> {});
+   }
+
+   public static <K, V> NearCache<K, V> create(final NearCacheConfiguration config,
+                                               BiConsumer<? super K, ? super MetadataValue<V>> removedConsumer,
+                                               Runnable evictionCallback) {
       Cache<K, MetadataValue<V>> cache = Caffeine.newBuilder()
             .maximumSize(config.maxEntries())
             // Always run in the same thread to make operations synchronous
             .executor(Runnable::run)
             .<K, MetadataValue<V>>removalListener((key, value, cause) -> {
+               if (cause.wasEvicted()) {
+                  evictionCallback.run();
+               }
                if (cause != RemovalCause.REPLACED) {
                   removedConsumer.accept(key, value);
                }
@@ -3,6 +3,7 @@
 import java.util.function.BiConsumer;
 
 import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
 
 /**
@@ -13,8 +14,17 @@ public class DefaultNearCacheFactory implements NearCacheFactory {
 
    @Override
    public <K, V> NearCache<K, V> createNearCache(NearCacheConfiguration config, BiConsumer<K, MetadataValue<V>> removedConsumer) {
+      return createNearCache(config, null, removedConsumer, () -> {});
+   }
+
+   @Override
+   public <K, V> NearCache<K, V> createNearCache(NearCacheConfiguration config, RemoteCache<K, V> remote,
+                                                 BiConsumer<K, MetadataValue<V>> removedConsumer, Runnable evictionCallback) {
+      if (config.maxMemory() > 0 && remote != null) {
+         return OffHeapNearCache.create(config, remote, removedConsumer, evictionCallback);
+      }
       return config.maxEntries() > 0
-            ? BoundedConcurrentMapNearCache.create(config, removedConsumer)
+            ? BoundedConcurrentMapNearCache.create(config, removedConsumer, evictionCallback)
             : ConcurrentMapNearCache.create();
    }
 
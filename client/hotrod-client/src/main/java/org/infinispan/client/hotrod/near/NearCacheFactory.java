@@ -3,6 +3,7 @@
 import java.util.function.BiConsumer;
 
 import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
 
 /**
@@ -10,4 +11,19 @@
  **/
 public interface NearCacheFactory {
    <K,V> NearCache<K, V> createNearCache(NearCacheConfiguration config, BiConsumer<K, MetadataValue<V>> removedConsumer);
+
+   /**
+    * Creates the near cache of a remote cache. The remote cache can be used to serialize the values stored by the
+    * near cache with its {@link org.infinispan.client.hotrod.DataFormat}.
+    *
+    * @param config the near cache configuration
+    * @param remote the remote cache the near cache is created for
+    * @param removedConsumer invoked when an entry is removed from the near cache
+    * @param evictionCallback invoked when an entry is evicted from the near cache
+    * @since 16.0
+    */
+   default <K,V> NearCache<K, V> createNearCache(NearCacheConfiguration config, RemoteCache<K, V> remote,
+                                                BiConsumer<K, MetadataValue<V>> removedConsumer, Runnable evictionCallback) {
+      return createNearCache(config, removedConsumer);
+   }
 }
@@ -42,6 +42,7 @@
    private byte[] listenerId;
    private NearCache<K, V> cache;
    private Runnable invalidationCallback;
+   private Runnable evictionCallback;
    private final int bloomFilterBits;
    private final int bloomFilterUpdateThreshold;
    private final AtomicInteger nearCacheRemovals;
@@ -69,6 +70,7 @@ protected NearCacheService(NearCacheConfiguration config, ClientListenerNotifier
    }
 
    public Channel start(InternalRemoteCache<K, V> remote) {
+      this.remote = remote;
       if (cache == null) {
          // Create near cache
          cache = createNearCache(config, this::entryRemovedFromNearCache);
@@ -82,7 +84,6 @@ public Channel start(InternalRemoteCache<K, V> remote) {
          // Get the listener ID for faster listener connected lookups
          listenerId = listenerNotifier.findListenerId(listener);
       }
-      this.remote = remote;
       return channelUsed;
    }
 
@@ -111,6 +112,12 @@ void entryRemovedFromNearCache(K key, MetadataValue<V> value) {
       }
    }
 
+   void entryEvicted() {
+      if (evictionCallback != null) {
+         evictionCallback.run();
+      }
+   }
+
    public void stop(RemoteCache<K, V> remote) {
       if (log.isTraceEnabled())
          log.tracef("Stop near cache, remove underlying listener id %s", Util.printArray(listenerId));
@@ -122,7 +129,7 @@ public void stop(RemoteCache<K, V> remote) {
    }
 
    protected NearCache<K, V> createNearCache(NearCacheConfiguration config, BiConsumer<K, MetadataValue<V>> removedConsumer) {
-      return config.nearCacheFactory().createNearCache(config, removedConsumer);
+      return config.nearCacheFactory().createNearCache(config, remote, removedConsumer, this::entryEvicted);
    }
 
    public static <K, V> NearCacheService<K, V> create(
@@ -221,6 +228,10 @@ public void setInvalidationCallback(Runnable r) {
       this.invalidationCallback = r;
    }
 
+   public void setEvictionCallback(Runnable r) {
+      this.evictionCallback = r;
+   }
+
    public int getBloomFilterBits() {
       return bloomFilterBits;
    }
@@ -0,0 +1,317 @@
+package org.infinispan.client.hotrod.near;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.BiConsumer;
+
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.commons.configuration.ClassAllowList;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Near cache storing the values serialized in direct memory, bounded by the memory they use.
+ * <p>
+ * The keys are kept on heap. A value is serialized with the data format of the remote cache when it is stored, and
+ * deserialized directly from direct memory by {@link #get(Object)}, without copying it to the heap first. The value
+ * read or stored last is also kept by a soft reference, so that a value read repeatedly is only deserialized again once
+ * the garbage collector reclaimed it, and a value read and stored again shares the memory it was read from. The
+ * placeholders stored while a value is being retrieved have no value and are kept on heap.
+ *
+ * @since 16.0
+ */
+final class OffHeapNearCache<K, V> implements NearCache<K, V> {
+   // created, lifespan, lastUsed, maxIdle and version
+   private static final int HEADER_SIZE = 8 + 4 + 8 + 4 + 8;
+   // Approximate size of the map node, key reference and OffHeapValue on heap
+   private static final int ENTRY_OVERHEAD = 64;
+
+   private final RemoteCache<K, V> remote;
+   private final ClassAllowList allowList;
+   private final Cache<K, Object> cache;
+   private final ConcurrentMap<K, Object> map;
+
+   private OffHeapNearCache(RemoteCache<K, V> remote, Cache<K, Object> cache) {
+      this.remote = remote;
+      this.allowList = remote.getRemoteCacheContainer().getConfiguration().getClassAllowList();
+      this.cache = cache;
+      this.map = cache.asMap();
+   }
+
+   @SuppressWarnings("unchecked")
+   public static <K, V> NearCache<K, V> create(NearCacheConfiguration config, RemoteCache<K, V> remote,
+                                               BiConsumer<? super K, ? super MetadataValue<V>> removedConsumer,
+                                               Runnable evictionCallback) {
+      Cache<K, Object> cache = Caffeine.newBuilder()
+            .maximumWeight(config.maxMemory())
+            .<K, Object>weigher((k, v) -> v instanceof OffHeapValue offHeap ? offHeap.size() + ENTRY_OVERHEAD : ENTRY_OVERHEAD)
+            // Always run in the same thread to make operations synchronous
+            .executor(Runnable::run)
+            .<K, Object>removalListener((key, value, cause) -> {
+               MetadataValue<V> removed = null;
+               if (value instanceof OffHeapValue offHeap) {
+                  offHeap.release();
+               } else {
+                  removed = (MetadataValue<V>) value;
+               }
+               if (cause.wasEvicted()) {
+                  evictionCallback.run();
+               }
+               if (cause != RemovalCause.REPLACED) {
+                  removedConsumer.accept(key, removed);
+               }
+            })
+            .build();
+      return new OffHeapNearCache<>(remote, cache);
+   }
+
+   @Override
+   public boolean putIfAbsent(K key, MetadataValue<V> value) {
+      Object stored = store(value);
+      if (map.putIfAbsent(key, stored) == null) {
+         return true;
+      }
+      discard(stored);
+      return false;
+   }
+
+   @Override
+   public boolean replace(K key, MetadataValue<V> prevValue, MetadataValue<V> newValue) {
+      Object stored = store(newValue);
+      if (map.replace(key, stored(prevValue), stored)) {
+         return true;
+      }
+      discard(stored);
+      return false;
+   }
+
+   @Override
+   public boolean remove(K key) {
+      return map.remove(key) != null;
+   }
+
+   @Override
+   public boolean remove(K key, MetadataValue<V> value) {
+      return map.remove(key, stored(value));
+   }
+
+   @Override
+   public MetadataValue<V> get(K key) {
+      return load(map.get(key));
+   }
+
+   @Override
+   public void clear() {
+      map.clear();
+   }
+
+   @Override
+   public int size() {
+      // Make sure to clean up any evicted entries so the returned size is correct
+      cache.cleanUp();
+      return map.size();
+   }
+
+   @Override
+   public Iterator<Map.Entry<K, MetadataValue<V>>> iterator() {
+      Iterator<Map.Entry<K, Object>> it = map.entrySet().iterator();
+      return new Iterator<>() {
+         private Map.Entry<K, MetadataValue<V>> next;
+
+         @Override
+         public boolean hasNext() {
+            while (next == null && it.hasNext()) {
+               Map.Entry<K, Object> entry = it.next();
+               MetadataValue<V> value = load(entry.getValue());
+               // Values evicted since the iterator read the entry are skipped
+               if (value != null) {
+                  next = Map.entry(entry.getKey(), value);
+               }
+            }
+            return next != null;
+         }
+
+         @Override
+         public Map.Entry<K, MetadataValue<V>> next() {
+            if (!hasNext()) {
+               throw new NoSuchElementException();
+            }
+            Map.Entry<K, MetadataValue<V>> entry = next;
+            next = null;
+            return entry;
+         }
+      };
+   }
+
+   private Object store(MetadataValue<V> value) {
+      byte[] bytes;
+      if (value instanceof OffHeapMetadataValue<V> loaded && loaded.owner == this) {
+         // Already stored by this near cache, share its memory if it was not freed yet
+         if (loaded.stored.retain()) {
+            return loaded.stored;
+         }
+         bytes = remote.getDataFormat().valueToBytes(loaded.value);
+      } else {
+         V v = value.getValue();
+         if (v == null) {
+            return value;
+         }
+         bytes = remote.getDataFormat().valueToBytes(v);
+      }
+      ByteBuf buf = Unpooled.directBuffer(HEADER_SIZE + bytes.length, HEADER_SIZE + bytes.length);
+      buf.writeLong(value.getCreated())
+            .writeInt(value.getLifespan())
+            .writeLong(value.getLastUsed())
+            .writeInt(value.getMaxIdle())
+            .writeLong(value.getVersion())
+            .writeBytes(bytes);
+      OffHeapValue offHeap = new OffHeapValue(buf);
+      // The next read does not need to deserialize the value just serialized
+      offHeap.loaded = new SoftReference<>(new OffHeapMetadataValue<>(this, offHeap, value.getCreated(),
+            value.getLifespan(), value.getLastUsed(), value.getMaxIdle(), value.getVersion(), value.getValue()));
+      return offHeap;
+   }
+
+   private static void discard(Object stored) {
+      if (stored instanceof OffHeapValue offHeap) {
+         offHeap.release();
+      }
+   }
+
+   private Object stored(MetadataValue<V> value) {
+      return value instanceof OffHeapMetadataValue<V> loaded && loaded.owner == this ? loaded.stored : value;
+   }
+
+   @SuppressWarnings("unchecked")
+   private MetadataValue<V> load(Object stored) {
+      if (!(stored instanceof OffHeapValue offHeap)) {
+         return (MetadataValue<V>) stored;
+      }
+      SoftReference<OffHeapMetadataValue<?>> reference = offHeap.loaded;
+      OffHeapMetadataValue<?> loaded = reference != null ? reference.get() : null;
+      if (loaded != null) {
+         return (MetadataValue<V>) loaded;
+      }
+      // The value can be evicted and its memory freed concurrently
+      if (!offHeap.retain()) {
+         return null;
+      }
+      try {
+         ByteBuf buf = offHeap.buf;
+         V value = remote.getDataFormat().valueToObj(
+               new ByteBufInputStream(buf.slice(HEADER_SIZE, buf.writerIndex() - HEADER_SIZE)), allowList);
+         OffHeapMetadataValue<V> metadataValue = new OffHeapMetadataValue<>(this, offHeap, buf.getLong(0),
+               buf.getInt(8), buf.getLong(12), buf.getInt(20), buf.getLong(24), value);
+         offHeap.loaded = new SoftReference<>(metadataValue);
+         return metadataValue;
+      } finally {
+         offHeap.release();
+      }
+   }
+
+   private static final class OffHeapValue {
+      private static final AtomicIntegerFieldUpdater<OffHeapValue> REF_CNT =
+            AtomicIntegerFieldUpdater.newUpdater(OffHeapValue.class, "refCnt");
+
+      private final ByteBuf buf;
+      private volatile int refCnt = 1;
+      // The value last read or stored, reclaimed by the garbage collector when the heap runs low
+      private volatile SoftReference<OffHeapMetadataValue<?>> loaded;
+
+      OffHeapValue(ByteBuf buf) {
+         this.buf = buf;
+      }
+
+      int size() {
+         return buf.capacity();
+      }
+
+      boolean retain() {
+         int cnt;
+         do {
+            cnt = refCnt;
+            if (cnt == 0) {
+               return false;
+            }
+         } while (!REF_CNT.compareAndSet(this, cnt, cnt + 1));
+         return true;
+      }
+
+      void release() {
+         if (REF_CNT.decrementAndGet(this) == 0) {
+            buf.release();
+         }
+      }
+   }
+
+   private static final class OffHeapMetadataValue<V> implements MetadataValue<V> {
+      private final OffHeapNearCache<?, V> owner;
+      private final OffHeapValue stored;
+      private final long created;
+      private final int lifespan;
+      private final long lastUsed;
+      private final int maxIdle;
+      private final long version;
+      private final V value;
+
+      OffHeapMetadataValue(OffHeapNearCache<?, V> owner, OffHeapValue stored, long created, int lifespan,
+                           long lastUsed, int maxIdle, long version, V value) {
+         this.owner = owner;
+         this.stored = stored;
+         this.created = created;
+         this.lifespan = lifespan;
+         this.lastUsed = lastUsed;
+         this.maxIdle = maxIdle;
+         this.version = version;
+         this.value = value;
+      }
+
+      @Override
+      public long getCreated() {
+         return created;
+      }
+
+      @Override
+      public int getLifespan() {
+         return lifespan;
+      }
+
+      @Override
+      public long getLastUsed() {
+         return lastUsed;
+      }
+
+      @Override
+      public int getMaxIdle() {
+         return maxIdle;
+      }
+
+      @Override
+      public long getVersion() {
+         return version;
+      }
+
+      @Override
+      public V getValue() {
+         return value;
+      }
+
+      @Override
+      public String toString() {
+         return "OffHeapMetadataValue [created=" + created + ", lifespan=" + lifespan + ", lastUsed=" + lastUsed +
+               ", maxIdle=" + maxIdle + ", version=" + version + ", size=" + stored.size() + "]";
+      }
+   }
+}
@@ -8,6 +8,7 @@
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_SERVER_NAME;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_USERNAME;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CLUSTER_PROPERTIES_PREFIX;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.COALESCING_WINDOW;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_EXHAUSTED_ACTION;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_MAX_ACTIVE;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_MAX_PENDING_REQUESTS;
@@ -112,6 +113,7 @@ public class ConfigurationTest extends AbstractInfinispanTest {
       OPTIONS.put(SO_TIMEOUT, Configuration::socketTimeout);
       OPTIONS.put(TCP_NO_DELAY, Configuration::tcpNoDelay);
       OPTIONS.put(TCP_KEEP_ALIVE, Configuration::tcpKeepAlive);
+      OPTIONS.put(COALESCING_WINDOW, c -> TimeUnit.NANOSECONDS.toMicros(c.coalescingWindow()));
       OPTIONS.put(KEY_SIZE_ESTIMATE, Configuration::keySizeEstimate);
       OPTIONS.put(VALUE_SIZE_ESTIMATE, Configuration::valueSizeEstimate);
       OPTIONS.put(MAX_RETRIES, Configuration::maxRetries);
@@ -200,6 +202,7 @@ public void testConfiguration() {
             .valueSizeEstimate(1024)
             .maxRetries(0)
             .tcpKeepAlive(true)
+            .coalescingWindow(50, TimeUnit.MICROSECONDS)
             .security()
             .ssl()
             .enable()
@@ -258,6 +261,7 @@ public void testWithProperties() {
       p.setProperty(SO_TIMEOUT, "100");
       p.setProperty(TCP_NO_DELAY, "false");
       p.setProperty(TCP_KEEP_ALIVE, "true");
+      p.setProperty(COALESCING_WINDOW, "50");
       p.setProperty(KEY_SIZE_ESTIMATE, "128");
       p.setProperty(VALUE_SIZE_ESTIMATE, "1024");
       p.setProperty(MAX_RETRIES, "0");
@@ -582,6 +586,7 @@ private void validateConfiguration(Configuration configuration) {
       assertEqualsConfig(100, SO_TIMEOUT, configuration);
       assertEqualsConfig(false, TCP_NO_DELAY, configuration);
       assertEqualsConfig(true, TCP_KEEP_ALIVE, configuration);
+      assertEqualsConfig(50L, COALESCING_WINDOW, configuration);
       assertEqualsConfig(128, KEY_SIZE_ESTIMATE, configuration);
       assertEqualsConfig(1024, VALUE_SIZE_ESTIMATE, configuration);
       assertEqualsConfig(0, MAX_RETRIES, configuration);
@@ -0,0 +1,157 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.metrics.HotRodClientMetricsRegistry;
+import org.infinispan.client.hotrod.metrics.RemoteCacheManagerMetricsRegistry;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.infinispan.commons.stat.CounterTracker;
+import org.infinispan.commons.stat.DistributionSummaryTracker;
+import org.infinispan.commons.stat.TimerTracker;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the operations sent to a server within the coalescing window share a flush, and that the flushes are
+ * recorded by the client metrics.
+ */
+@Test(groups = "functional", testName = "client.hotrod.impl.transport.netty.OperationChannelCoalescingTest")
+public class OperationChannelCoalescingTest extends SingleHotRodServerTest {
+
+   private static final int NUM_OPERATIONS = 20;
+
+   public void testZeroWindowFlushesEachOperation() {
+      FlushMetrics metrics = new FlushMetrics();
+      RemoteCacheManager rcm = createRemoteCacheManager(0, metrics);
+      try {
+         RemoteCache<String, String> cache = rcm.getCache();
+         // Establish the connection first
+         cache.put("warmup", "value");
+         long flushes = metrics.flushes.sum();
+         metrics.operationsPerFlush.clear();
+
+         for (int i = 0; i < NUM_OPERATIONS; i++) {
+            cache.put("k" + i, "v" + i);
+         }
+
+         // Without a window, every operation is written as soon as it is sent
+         assertEquals(NUM_OPERATIONS, metrics.flushes.sum() - flushes);
+         assertEquals(Collections.nCopies(NUM_OPERATIONS, 1.0), new ArrayList<>(metrics.operationsPerFlush));
+      } finally {
+         killRemoteCacheManager(rcm);
+      }
+   }
+
+   public void testOperationsWithinWindowShareFlush() {
+      FlushMetrics metrics = new FlushMetrics();
+      long window = TimeUnit.MILLISECONDS.toMicros(500);
+      RemoteCacheManager rcm = createRemoteCacheManager(window, metrics);
+      try {
+         RemoteCache<String, String> cache = rcm.getCache();
+         cache.put("warmup", "value");
+         long flushes = metrics.flushes.sum();
+         metrics.operationsPerFlush.clear();
+
+         long start = System.nanoTime();
+         List<CompletableFuture<String>> futures = new ArrayList<>(NUM_OPERATIONS);
+         for (int i = 0; i < NUM_OPERATIONS; i++) {
+            futures.add(cache.putAsync("k" + i, "v" + i));
+         }
+         CompletableFutures.uncheckedAwait(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])));
+         long elapsed = System.nanoTime() - start;
+
+         // The operations sent while the flush was pending are written with it
+         assertEquals(1, metrics.flushes.sum() - flushes);
+         assertEquals(List.of((double) NUM_OPERATIONS), new ArrayList<>(metrics.operationsPerFlush));
+         assertTrue("Flushed after " + elapsed + " ns", elapsed >= TimeUnit.MICROSECONDS.toNanos(window));
+      } finally {
+         killRemoteCacheManager(rcm);
+      }
+   }
+
+   private RemoteCacheManager createRemoteCacheManager(long windowMicros, FlushMetrics metrics) {
+      ConfigurationBuilder builder = createHotRodClientConfigurationBuilder("127.0.0.1", hotrodServer.getPort());
+      builder.coalescingWindow(windowMicros, TimeUnit.MICROSECONDS)
+            .withMetricRegistry(metrics);
+      return new InternalRemoteCacheManager(builder.build());
+   }
+
+   /**
+    * Records the flush metrics, the other metrics are disabled.
+    */
+   private static class FlushMetrics implements RemoteCacheManagerMetricsRegistry {
+      final LongAdder flushes = new LongAdder();
+      final Queue<Double> operationsPerFlush = new ConcurrentLinkedQueue<>();
+
+      @Override
+      public CounterTracker createCounter(String metricName, String description, Map<String, String> tags, Consumer<Object> generatedId) {
+         if (!"connection.pool.flushes".equals(metricName)) {
+            return CounterTracker.NO_OP;
+         }
+         return new CounterTracker() {
+            @Override
+            public void increment() {
+               flushes.increment();
+            }
+
+            @Override
+            public void increment(double amount) {
+               flushes.add((long) amount);
+            }
+         };
+      }
+
+      @Override
+      public DistributionSummaryTracker createDistributionSummery(String metricName, String description, Map<String, String> tags, Consumer<Object> generatedId) {
+         return "connection.pool.flush.operations".equals(metricName) ? operationsPerFlush::add : DistributionSummaryTracker.NO_OP;
+      }
+
+      @Override
+      public HotRodClientMetricsRegistry withCache(String cacheName) {
+         return HotRodClientMetricsRegistry.DISABLED;
+      }
+
+      @Override
+      public void removeCache(String cacheName) {
+      }
+
+      @Override
+      public void createGauge(String metricName, String description, Supplier<Number> gauge, Map<String, String> tags, Consumer<Object> generatedId) {
+      }
+
+      @Override
+      public void createTimeGauge(String metricName, String description, Supplier<Number> gauge, TimeUnit timeUnit, Map<String, String> tags, Consumer<Object> generatedId) {
+      }
+
+      @Override
+      public TimerTracker createTimer(String metricName, String description, Map<String, String> tags, Consumer<Object> generatedId) {
+         return TimerTracker.NO_OP;
+      }
+
+      @Override
+      public void close() {
+      }
+
+      @Override
+      public void removeMetric(Object id) {
+      }
+   }
+}
@@ -0,0 +1,85 @@
+package org.infinispan.client.hotrod.near;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
+import org.infinispan.client.hotrod.jmx.RemoteCacheClientStatisticsMXBean;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the near cache storing its values off-heap, bounded by memory.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.near.OffHeapNearCacheTest")
+public class OffHeapNearCacheTest extends SingleHotRodServerTest {
+   private static final int MAX_MEMORY = 16 * 1024;
+   private static final String VALUE = "v".repeat(1000);
+
+   {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = createHotRodClientConfigurationBuilder("127.0.0.1", hotrodServer.getPort());
+      builder.statistics().enable();
+      builder.remoteCache("").nearCacheMode(NearCacheMode.INVALIDATED).nearCacheMaxMemory(MAX_MEMORY);
+      return new InternalRemoteCacheManager(builder.build());
+   }
+
+   public void testValuesBoundedByMemory() {
+      RemoteCache<Integer, String> remote = remoteCacheManager.getCache();
+      RemoteCacheClientStatisticsMXBean stats = remote.clientStatistics();
+      for (int i = 0; i < 100; i++) {
+         remote.put(i, VALUE + i);
+         assertEquals(VALUE + i, remote.get(i));
+      }
+      assertEquals(100, stats.getNearCacheMisses());
+      long size = stats.getNearCacheSize();
+      assertTrue("Near cache size " + size, size > 0 && size < 16);
+      assertEquals(100 - size, stats.getNearCacheEvictions());
+
+      // The values still in the near cache are read without going to the server
+      for (int i = 0; i < 100; i++) {
+         assertEquals(VALUE + i, remote.get(i));
+      }
+      assertTrue(stats.getNearCacheHits() > 0);
+
+      remote.put(99, "updated");
+      eventually(() -> stats.getNearCacheInvalidations() == 1);
+      assertEquals("updated", remote.get(99));
+   }
+
+   public void testValueReadAfterRemoval() {
+      RemoteCache<Integer, String> remote = remoteCacheManager.getCache();
+      remote.put(1, VALUE);
+      // The first read caches the value, the second one reads it from the near cache
+      assertEquals(VALUE, remote.get(1));
+      MetadataValue<String> value = remote.getWithMetadata(1);
+      assertEquals(1, remote.clientStatistics().getNearCacheHits());
+
+      // Free the memory of the value, the value already read remains valid
+      remote.clear();
+      eventually(() -> remote.clientStatistics().getNearCacheSize() == 0);
+      assertEquals(VALUE, value.getValue());
+   }
+
+   public void testRepeatedReadsShareValue() {
+      RemoteCache<Integer, String> remote = remoteCacheManager.getCache();
+      remote.put(1, VALUE);
+      String first = remote.get(1);
+      // Neither storing the value nor reading it again deserializes a new copy
+      assertSame(first, remote.get(1));
+      assertSame(first, remote.get(1));
+      assertEquals(2, remote.clientStatistics().getNearCacheHits());
+   }
+}
@@ -0,0 +1,101 @@
+package org.infinispan.client.hotrod.near;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
+import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the near caches with a bloom filter connected to a server share a single listener on the cache.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.near.SharedBloomNearCacheListenerTest")
+public class SharedBloomNearCacheListenerTest extends SingleHotRodServerTest {
+   private static final int NUM_CLIENTS = 3;
+
+   public void testClientsShareListener() {
+      int listeners = cache.getAdvancedCache().getListeners().size();
+      List<RemoteCacheManager> managers = new ArrayList<>();
+      try {
+         List<RemoteCache<Integer, String>> remotes = createClients(managers);
+         assertEquals(listeners + 1, cache.getAdvancedCache().getListeners().size());
+
+         remotes.get(0).put(1, "v1");
+         for (RemoteCache<Integer, String> remote : remotes) {
+            assertEquals("v1", remote.get(1));
+         }
+
+         // Every client which read the key has its near cache invalidated
+         remotes.get(0).put(1, "v2");
+         for (RemoteCache<Integer, String> remote : remotes) {
+            eventually(() -> "v2".equals(remote.get(1)));
+         }
+      } finally {
+         managers.forEach(HotRodClientTestingUtil::killRemoteCacheManager);
+      }
+      eventuallyEquals(listeners, () -> cache.getAdvancedCache().getListeners().size());
+   }
+
+   public void testWritesOnlyDispatchedToReaders() {
+      List<RemoteCacheManager> managers = new ArrayList<>();
+      try {
+         List<RemoteCache<Integer, String>> remotes = createClients(managers);
+         remotes.get(0).put(2, "v1");
+         // The last client never reads the key
+         for (int i = 0; i < NUM_CLIENTS - 1; i++) {
+            assertEquals("v1", remotes.get(i).get(2));
+         }
+         assertEquals(NUM_CLIENTS - 1, trackedReaders());
+
+         // The write is dispatched to the readers, which are no longer tracked until they read the key again
+         remotes.get(NUM_CLIENTS - 1).put(2, "v2");
+         eventuallyEquals(0, this::trackedReaders);
+         for (int i = 0; i < NUM_CLIENTS - 1; i++) {
+            RemoteCache<Integer, String> remote = remotes.get(i);
+            eventually(() -> "v2".equals(remote.get(2)));
+         }
+         assertEquals(NUM_CLIENTS - 1, trackedReaders());
+      } finally {
+         managers.forEach(HotRodClientTestingUtil::killRemoteCacheManager);
+      }
+   }
+
+   private List<RemoteCache<Integer, String>> createClients(List<RemoteCacheManager> managers) {
+      List<RemoteCache<Integer, String>> remotes = new ArrayList<>();
+      for (int i = 0; i < NUM_CLIENTS; i++) {
+         ConfigurationBuilder builder = createHotRodClientConfigurationBuilder("127.0.0.1", hotrodServer.getPort());
+         builder.remoteCache("").nearCacheMode(NearCacheMode.INVALIDATED).nearCacheMaxEntries(16)
+               .nearCacheUseBloomFilter(true);
+         RemoteCacheManager manager = new InternalRemoteCacheManager(builder.build());
+         managers.add(manager);
+         remotes.add(manager.getCache());
+      }
+      return remotes;
+   }
+
+   private int trackedReaders() {
+      Map<?, ?> bloomListeners = TestingUtil.extractField(
+            TestingUtil.extractField(hotrodServer, "clientListenerRegistry"), "bloomListeners");
+      int readers = 0;
+      for (Object listener : bloomListeners.values()) {
+         Map<?, ? extends Set<?>> keyReaders = TestingUtil.extractField(listener, "readers");
+         for (Set<?> keyReader : keyReaders.values()) {
+            readers += keyReader.size();
+         }
+      }
+      return readers;
+   }
+}
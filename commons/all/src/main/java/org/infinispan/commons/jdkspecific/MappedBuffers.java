@@ -0,0 +1,22 @@
+package org.infinispan.commons.jdkspecific;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases the memory mapping of a file without waiting for its buffer to be garbage collected.
+ *
+ * @since 16.0
+ */
+public class MappedBuffers {
+
+   private MappedBuffers() {
+   }
+
+   /**
+    * Unmaps the buffer returned by {@link java.nio.channels.FileChannel#map}. Any later access to the buffer, or to a
+    * buffer derived from it, crashes the JVM, so the caller must ensure the buffer is no longer used.
+    */
+   public static void unmap(MappedByteBuffer buffer) {
+      UnsafeHolder.UNSAFE.invokeCleaner(buffer);
+   }
+}
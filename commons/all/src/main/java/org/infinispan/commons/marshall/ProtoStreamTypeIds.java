@@ -436,6 +436,9 @@ public interface ProtoStreamTypeIds {
    int KEY_FUNCTION_ENCODER = CORE_LOWER_BOUND + 331;
    int NON_NULL_PREDICATE = CORE_LOWER_BOUND + 332;
 
+   int CONFLICT_RESOLUTION_DIGEST_COMMAND = CORE_LOWER_BOUND + 333;
+   int SEGMENT_DIGESTS = CORE_LOWER_BOUND + 334;
+
    // Counter range 4000 -> 4199
    int COUNTERS_LOWER_BOUND = 4000;
    int COUNTER_STATE = COUNTERS_LOWER_BOUND;
@@ -479,6 +482,18 @@ public interface ProtoStreamTypeIds {
    int QUERY_DEFINITION = QUERY_LOWER_BOUND + 21;
    int QUERY_RESPONSE = QUERY_LOWER_BOUND + 22;
    int SEGMENTS_CLUSTERED_QUERY_COMMAND = QUERY_LOWER_BOUND + 23;
+   int FIELD_INDEX_LOOKUP_TASK = QUERY_LOWER_BOUND + 24;
+   int FIELD_INDEX_LOOKUP_RESULT = QUERY_LOWER_BOUND + 25;
+   int QUERY_RESULT_CACHE_VERSIONS_TASK = QUERY_LOWER_BOUND + 26;
+   int QUERY_RESULT_CACHE_SEGMENT_VERSIONS = QUERY_LOWER_BOUND + 27;
+   int ICKLE_AGGREGATION_FUNCTION = QUERY_LOWER_BOUND + 28;
+   int ICKLE_AGGREGATION_COUNTER = QUERY_LOWER_BOUND + 29;
+   int ICKLE_AGGREGATION_DOUBLE_STAT = QUERY_LOWER_BOUND + 30;
+   int QUERY_ACCUMULATOR_DEFINITION = QUERY_LOWER_BOUND + 31;
+   int QUERY_PARTIAL_AGGREGATION = QUERY_LOWER_BOUND + 32;
+   int QUERY_PARTIAL_AGGREGATOR = QUERY_LOWER_BOUND + 33;
+   int QUERY_PARTIAL_AGGREGATION_ADD_ROW = QUERY_LOWER_BOUND + 34;
+   int QUERY_PARTIAL_AGGREGATION_COMBINE = QUERY_LOWER_BOUND + 35;
 
    // Remote Query range 4400 -> 4599
    int REMOTE_QUERY_LOWER_BOUND = 4400;
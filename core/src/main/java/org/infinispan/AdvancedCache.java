@@ -38,6 +38,7 @@
 import org.infinispan.util.concurrent.locks.LockManager;
 import org.infinispan.util.function.SerializableBiFunction;
 import org.infinispan.util.function.SerializableFunction;
+import org.reactivestreams.Publisher;
 
 /**
  * An advanced interface that exposes additional methods not available on {@link Cache}.
@@ -266,6 +267,25 @@ default CompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> map, M
       return putAllAsync(map, metadata.lifespan(), TimeUnit.MILLISECONDS, metadata.maxIdle(), TimeUnit.MILLISECONDS);
    }
 
+   /**
+    * Stores all the entries of the publisher, for example when populating a cache from an external source. The entries
+    * are grouped by segment and written in batches, each batch being a single {@link #putAllAsync(Map, Metadata)}
+    * invocation, so that every batch is replicated to a single set of owners and written to the stores in one go.
+    * Entries sorted or grouped by segment are batched best. Previous values are never returned nor loaded.
+    * <p>
+    * Locking and listener notifications can be skipped for the whole load with {@link Flag#SKIP_LOCKING} and
+    * {@link Flag#SKIP_LISTENER_NOTIFICATION}.
+    * <p>
+    * This API is currently Experimental and may be changed or even removed later, use at your own risk.
+    *
+    * @param entries the entries to store
+    * @param metadata information to store alongside every entry
+    * @return a stage completed once all the entries are stored
+    * @since 16.0
+    */
+   @Experimental
+   CompletionStage<Void> bulkLoad(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries, Metadata metadata);
+
    /**
     * An overloaded form of {@link Cache#replace(Object, Object)}, which takes in an instance of {@link Metadata} which can be used to
     * provide metadata information for the entry being stored, such as lifespan, version of value...etc. The {@link
@@ -39,6 +39,7 @@
 import org.infinispan.stats.Stats;
 import org.infinispan.topology.LocalTopologyManager;
 import org.infinispan.util.concurrent.locks.LockManager;
+import org.reactivestreams.Publisher;
 
 import jakarta.transaction.TransactionManager;
 
@@ -473,6 +474,11 @@ public CompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> map, Me
       return cache.putAllAsync(map, metadata);
    }
 
+   @Override
+   public CompletionStage<Void> bulkLoad(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries, Metadata metadata) {
+      return cache.bulkLoad(entries, metadata);
+   }
+
    @Override
    public CacheSet<CacheEntry<K, V>> cacheEntrySet() {
       return cache.cacheEntrySet();
@@ -0,0 +1,62 @@
+package org.infinispan.cache.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Writes the entries of {@link org.infinispan.AdvancedCache#bulkLoad(Publisher, org.infinispan.metadata.Metadata)} in
+ * batches of entries of the same segment, so every batch is replicated to a single set of owners.
+ *
+ * @since 16.0
+ */
+public final class BulkLoader {
+   // entries of the same segment written by a single putAll
+   static final int BATCH_SIZE = 512;
+   // putAll batches in flight at the same time
+   static final int CONCURRENCY = 16;
+
+   private BulkLoader() {
+   }
+
+   /**
+    * @param entries        the entries to write
+    * @param keyPartitioner the partitioner grouping the entries by segment, or {@code null} to batch them in order
+    * @param numSegments    the number of segments of the cache
+    * @param putAll         writes a batch of entries without returning the previous values
+    */
+   public static <K, V> CompletionStage<Void> load(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries,
+                                                   KeyPartitioner keyPartitioner, int numSegments,
+                                                   Function<Map<K, V>, CompletionStage<Void>> putAll) {
+      requireNonNull(entries, "entries");
+      Flowable<Map.Entry<? extends K, ? extends V>> flowable = Flowable.fromPublisher(entries);
+      Flowable<List<Map.Entry<? extends K, ? extends V>>> batches;
+      if (keyPartitioner == null) {
+         batches = flowable.buffer(BATCH_SIZE);
+      } else {
+         batches = flowable
+               .groupBy(entry -> keyPartitioner.getSegment(requireNonNull(entry.getKey(), "key")))
+               // groupBy stops emitting when a group is not subscribed, every segment must be able to be in flight
+               .flatMap(segmentEntries -> segmentEntries.buffer(BATCH_SIZE), numSegments);
+      }
+      return batches
+            .flatMapCompletable(batch -> {
+               Map<K, V> map = new HashMap<>(batch.size() * 4 / 3 + 1);
+               for (Map.Entry<? extends K, ? extends V> entry : batch) {
+                  map.put(entry.getKey(), entry.getValue());
+               }
+               return Completable.fromCompletionStage(putAll.apply(map));
+            }, false, CONCURRENCY)
+            .toCompletionStage(null);
+   }
+}
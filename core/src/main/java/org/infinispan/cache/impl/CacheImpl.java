@@ -125,6 +125,7 @@
 import org.infinispan.util.concurrent.locks.LockManager;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
+import org.reactivestreams.Publisher;
 
 import jakarta.transaction.SystemException;
 import jakarta.transaction.Transaction;
@@ -1456,6 +1457,17 @@ final CompletableFuture<Void> putAllAsync(final Map<? extends K, ? extends V> da
       return invocationHelper.invokeAsync(contextBuilder, command, data.size());
    }
 
+   @Override
+   public final CompletionStage<Void> bulkLoad(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries, Metadata metadata) {
+      return bulkLoad(entries, metadata, EnumUtil.EMPTY_BIT_SET, defaultContextBuilderForWrite());
+   }
+
+   final CompletionStage<Void> bulkLoad(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries, Metadata metadata,
+                                        long explicitFlags, ContextBuilder contextBuilder) {
+      return BulkLoader.load(entries, keyPartitioner, config.clustering().hash().numSegments(),
+            batch -> putAllAsync(batch, metadata, explicitFlags, contextBuilder));
+   }
+
    @Override
    public final CompletableFuture<Void> clearAsync() {
       return clearAsync(EnumUtil.EMPTY_BIT_SET);
@@ -30,6 +30,7 @@
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilter;
 import org.infinispan.stream.StreamMarshalling;
 import org.infinispan.stream.impl.local.ValueCacheCollection;
+import org.reactivestreams.Publisher;
 
 /**
  * A decorator to a cache, which can be built with a specific set of {@link Flag}s.  This
@@ -348,6 +349,11 @@ public CompletableFuture<Void> putAllAsync(final Map<? extends K, ? extends V> d
       return cacheImplementation.putAllAsync(data, metadata, flags, contextBuilder);
    }
 
+   @Override
+   public CompletionStage<Void> bulkLoad(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries, Metadata metadata) {
+      return cacheImplementation.bulkLoad(entries, metadata, flags, contextBuilder);
+   }
+
    @Override
    public CompletableFuture<Void> clearAsync() {
       return cacheImplementation.clearAsync(flags);
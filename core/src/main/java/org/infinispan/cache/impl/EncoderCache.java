@@ -51,6 +51,8 @@
 import org.infinispan.util.function.SerializableFunction;
 import org.reactivestreams.Publisher;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 /**
  * Cache decoration that makes use of the {@link Encoder} and {@link Wrapper} to convert between storage value and
  * read/write value.
@@ -296,6 +298,12 @@ public CompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> map, Me
       return cache.putAllAsync(encodeMapForWrite(map), metadata);
    }
 
+   @Override
+   public CompletionStage<Void> bulkLoad(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries, Metadata metadata) {
+      return cache.bulkLoad(Flowable.fromPublisher(entries)
+            .map(entry -> new AbstractMap.SimpleImmutableEntry<>(keyToStorage(entry.getKey()), valueToStorage(entry.getValue()))), metadata);
+   }
+
    @Override
    public CompletableFuture<V> putIfAbsentAsync(K key, V value) {
       return cache.putIfAbsentAsync(keyToStorage(key), valueToStorage(value)).thenApply(decodedValueForRead);
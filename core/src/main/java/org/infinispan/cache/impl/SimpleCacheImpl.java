@@ -1011,6 +1011,19 @@ public CompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> map, Me
       return CompletableFutures.completedNull();
    }
 
+   @Override
+   public CompletionStage<Void> bulkLoad(Publisher<? extends Entry<? extends K, ? extends V>> entries, Metadata metadata) {
+      Metadata merged = applyDefaultMetadata(metadata);
+      return Flowable.<Entry<? extends K, ? extends V>>fromPublisher(entries)
+            .doOnNext(entry -> {
+               K key = Objects.requireNonNull(entry.getKey(), NULL_KEYS_NOT_SUPPORTED);
+               V value = Objects.requireNonNull(entry.getValue(), NULL_VALUES_NOT_SUPPORTED);
+               getAndPutInternal(key, value, merged);
+            })
+            .ignoreElements()
+            .toCompletionStage(null);
+   }
+
    @Override
    public CompletableFuture<Void> clearAsync() {
       clear();
@@ -49,6 +49,7 @@
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
 import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
+import org.infinispan.commands.statetransfer.ConflictResolutionDigestCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.StateResponseCommand;
 import org.infinispan.commands.statetransfer.StateTransferCancelCommand;
@@ -104,6 +105,7 @@
 import org.infinispan.reactive.publisher.impl.commands.batch.NextPublisherCommand;
 import org.infinispan.reactive.publisher.impl.commands.reduction.ReductionPublisherRequestCommand;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.SegmentDigests;
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
@@ -422,6 +424,14 @@ ComputeIfAbsentCommand buildComputeIfAbsentCommand(Object key, Function mappingF
 
    ConflictResolutionStartCommand buildConflictResolutionStartCommand(int topologyId, IntSet segments);
 
+   /**
+    * Builds a ConflictResolutionStartCommand asking the provider to skip the entries matching the given digests.
+    */
+   ConflictResolutionStartCommand buildConflictResolutionStartCommand(int topologyId, IntSet segments,
+                                                                      SegmentDigests digests);
+
+   ConflictResolutionDigestCommand buildConflictResolutionDigestCommand(int topologyId, IntSet segments);
+
    StateTransferCancelCommand buildStateTransferCancelCommand(int topologyId, IntSet segments);
 
    StateTransferGetListenersCommand buildStateTransferGetListenersCommand(int topologyId);
@@ -430,6 +440,11 @@ ComputeIfAbsentCommand buildComputeIfAbsentCommand(Object key, Function mappingF
 
    StateTransferStartCommand buildStateTransferStartCommand(int topologyId, IntSet segments);
 
+   /**
+    * Builds a StateTransferStartCommand asking the provider to skip the entries matching the given digests.
+    */
+   StateTransferStartCommand buildStateTransferStartCommand(int topologyId, IntSet segments, SegmentDigests digests);
+
    /**
     * Builds a StateResponseCommand used for pushing cache entries to another node.
     */
@@ -49,6 +49,7 @@
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
 import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
+import org.infinispan.commands.statetransfer.ConflictResolutionDigestCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.StateResponseCommand;
 import org.infinispan.commands.statetransfer.StateTransferCancelCommand;
@@ -118,6 +119,7 @@
 import org.infinispan.reactive.publisher.impl.commands.batch.NextPublisherCommand;
 import org.infinispan.reactive.publisher.impl.commands.reduction.ReductionPublisherRequestCommand;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.SegmentDigests;
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.ByteString;
@@ -325,6 +327,17 @@ public ConflictResolutionStartCommand buildConflictResolutionStartCommand(int to
       return new ConflictResolutionStartCommand(cacheName, topologyId, segments);
    }
 
+   @Override
+   public ConflictResolutionStartCommand buildConflictResolutionStartCommand(int topologyId, IntSet segments,
+                                                                             SegmentDigests digests) {
+      return new ConflictResolutionStartCommand(cacheName, topologyId, segments, digests);
+   }
+
+   @Override
+   public ConflictResolutionDigestCommand buildConflictResolutionDigestCommand(int topologyId, IntSet segments) {
+      return new ConflictResolutionDigestCommand(cacheName, topologyId, segments);
+   }
+
    @Override
    public StateTransferCancelCommand buildStateTransferCancelCommand(int topologyId, IntSet segments) {
       return new StateTransferCancelCommand(cacheName, topologyId, segments);
@@ -345,6 +358,12 @@ public StateTransferStartCommand buildStateTransferStartCommand(int topologyId,
       return new StateTransferStartCommand(cacheName, topologyId, segments);
    }
 
+   @Override
+   public StateTransferStartCommand buildStateTransferStartCommand(int topologyId, IntSet segments,
+                                                                   SegmentDigests digests) {
+      return new StateTransferStartCommand(cacheName, topologyId, segments, digests);
+   }
+
    @Override
    public StateResponseCommand buildStateResponseCommand(int topologyId, Collection<StateChunk> stateChunks, boolean applyState) {
       return new StateResponseCommand(cacheName, topologyId, stateChunks, applyState);
@@ -28,6 +28,8 @@
 public final class ReadWriteKeyCommand<K, V, R> extends AbstractWriteKeyCommand<K, V> {
 
    private Function<ReadWriteEntryView<K, V>, R> f;
+   // Set by the primary owner when f is a DeltaFunction, never marshalled
+   private Function<ReadWriteEntryView<K, V>, ?> backupFunction;
 
    public ReadWriteKeyCommand(ByteString cacheName, Object key, Function<ReadWriteEntryView<K, V>, R> f, int segment,
                               CommandInvocationId id, ValueMatcher valueMatcher, Params params,
@@ -84,6 +86,34 @@ public Function<ReadWriteEntryView<K, V>, R> getFunction() {
       return f;
    }
 
+   /**
+    * @return the function the backup owners have to apply, the delta recorded by a
+    * {@link org.infinispan.commands.functional.functions.DeltaFunction} or the command function otherwise.
+    */
+   public Function<ReadWriteEntryView<K, V>, ?> getBackupFunction() {
+      return backupFunction == null ? f : backupFunction;
+   }
+
+   public void setBackupFunction(Function<ReadWriteEntryView<K, V>, ?> backupFunction) {
+      this.backupFunction = backupFunction;
+   }
+
+   /**
+    * @return the command to send to the backup owners. It is this command unless a delta function was recorded when
+    * the command was executed.
+    */
+   public ReadWriteKeyCommand<K, V, ?> toBackupCommand() {
+      if (backupFunction == null) {
+         return this;
+      }
+      ReadWriteKeyCommand<K, V, ?> cmd = new ReadWriteKeyCommand<>(cacheName, key, backupFunction, segment,
+            commandInvocationId, valueMatcher, params, keyDataConversion, valueDataConversion);
+      cmd.setFlagsBitSet(getFlagsBitSet());
+      cmd.setTopologyId(topologyId);
+      cmd.setInternalMetadata(internalMetadata);
+      return cmd;
+   }
+
    @Override
    public NodeVersion supportedSince() {
       return NodeVersion.SIXTEEN;
@@ -0,0 +1,41 @@
+package org.infinispan.commands.functional.functions;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.infinispan.functional.EntryView.ReadWriteEntryView;
+
+/**
+ * A read-write function that is able to describe the effect it had on the entry.
+ * <p>
+ * Non-transactional caches replicate a {@link org.infinispan.commands.functional.ReadWriteKeyCommand} by sending
+ * the function to the backup owners, which evaluate it again against their own copy of the entry. When the function
+ * is not deterministic, or when evaluating it is considerably more expensive than applying its outcome, the
+ * implementation can hand a second function to the {@code delta} consumer. That function, which must be
+ * marshallable, is then sent to the backup owners instead of this one and is expected to leave the entry in the same
+ * state this function did on the primary owner.
+ * <p>
+ * The delta is only taken into account when the entry was modified. Transactional caches and local evaluations
+ * ignore it.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @param <R> the return type
+ * @since 16.0
+ */
+public interface DeltaFunction<K, V, R> extends Function<ReadWriteEntryView<K, V>, R> {
+
+   /**
+    * Applies the function to the entry.
+    *
+    * @param view  the entry view
+    * @param delta receives the function to apply on the backup owners, if any
+    * @return the function result
+    */
+   R apply(ReadWriteEntryView<K, V> view, Consumer<Function<ReadWriteEntryView<K, V>, ?>> delta);
+
+   @Override
+   default R apply(ReadWriteEntryView<K, V> view) {
+      return apply(view, ignore -> { });
+   }
+}
@@ -0,0 +1,54 @@
+package org.infinispan.commands.statetransfer;
+
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.marshall.protostream.impl.WrappedMessages;
+import org.infinispan.protostream.WrappedMessage;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+import org.infinispan.remoting.transport.NodeVersion;
+import org.infinispan.statetransfer.SegmentDigests;
+import org.infinispan.statetransfer.StateProvider;
+import org.infinispan.util.ByteString;
+
+/**
+ * Get the digests of the entries in the specified segments, so conflict resolution only fetches the entries that
+ * differ between the owners.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.CONFLICT_RESOLUTION_DIGEST_COMMAND)
+public class ConflictResolutionDigestCommand extends AbstractStateTransferCommand {
+
+   @ProtoFactory
+   ConflictResolutionDigestCommand(ByteString cacheName, int topologyId, WrappedMessage wrappedSegments) {
+      this(cacheName, topologyId, WrappedMessages.<IntSet>unwrap(wrappedSegments));
+   }
+
+   public ConflictResolutionDigestCommand(ByteString cacheName, int topologyId, IntSet segments) {
+      super(cacheName, topologyId, segments);
+   }
+
+   @Override
+   public CompletionStage<SegmentDigests> invokeAsync(ComponentRegistry registry) throws Throwable {
+      StateProvider stateProvider = registry.getStateTransferManager().getStateProvider();
+      return stateProvider.getSegmentDigests(segments);
+   }
+
+   @Override
+   public NodeVersion supportedSince() {
+      return NodeVersion.SIXTEEN;
+   }
+
+   @Override
+   public String toString() {
+      return "ConflictResolutionDigestCommand{" +
+            "topologyId=" + topologyId +
+            ", segments=" + segments +
+            ", cacheName=" + cacheName +
+            '}';
+   }
+}
@@ -9,8 +9,10 @@
 import org.infinispan.marshall.protostream.impl.WrappedMessages;
 import org.infinispan.protostream.WrappedMessage;
 import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
 import org.infinispan.protostream.annotations.ProtoTypeId;
 import org.infinispan.remoting.transport.NodeVersion;
+import org.infinispan.statetransfer.SegmentDigests;
 import org.infinispan.statetransfer.StateProvider;
 import org.infinispan.util.ByteString;
 
@@ -23,19 +25,33 @@
 @ProtoTypeId(ProtoStreamTypeIds.CONFLICT_RESOLUTION_START_COMMAND)
 public class ConflictResolutionStartCommand extends AbstractStateTransferCommand {
 
+   private final SegmentDigests digests;
+
    @ProtoFactory
-   ConflictResolutionStartCommand(ByteString cacheName, int topologyId, WrappedMessage wrappedSegments) {
-      this(cacheName, topologyId, WrappedMessages.<IntSet>unwrap(wrappedSegments));
+   ConflictResolutionStartCommand(ByteString cacheName, int topologyId, WrappedMessage wrappedSegments,
+                                  SegmentDigests digests) {
+      this(cacheName, topologyId, WrappedMessages.<IntSet>unwrap(wrappedSegments), digests);
    }
 
    public ConflictResolutionStartCommand(ByteString cacheName, int topologyId, IntSet segments) {
+      this(cacheName, topologyId, segments, null);
+   }
+
+   public ConflictResolutionStartCommand(ByteString cacheName, int topologyId, IntSet segments,
+                                         SegmentDigests digests) {
       super(cacheName, topologyId, segments);
+      this.digests = digests;
+   }
+
+   @ProtoField(4)
+   SegmentDigests getDigests() {
+      return digests;
    }
 
    @Override
    public CompletionStage<?> invokeAsync(ComponentRegistry registry) throws Throwable {
       StateProvider stateProvider = registry.getStateTransferManager().getStateProvider();
-      stateProvider.startOutboundTransfer(origin, topologyId, segments, false);
+      stateProvider.startOutboundTransfer(origin, topologyId, segments, false, digests);
       return CompletableFutures.completedNull();
    }
 
@@ -49,6 +65,7 @@ public String toString() {
       return "ConflictResolutionStartCommand{" +
             "topologyId=" + topologyId +
             ", segments=" + segments +
+            ", digests=" + digests +
             ", cacheName=" + cacheName +
             '}';
    }
@@ -28,6 +28,11 @@ public IndexShardingConfigurationBuilder sharding() {
       return indexingBuilder.sharding();
    }
 
+   @Override
+   public MassIndexerConfigurationBuilder massIndexer() {
+      return indexingBuilder.massIndexer();
+   }
+
    @Override
    public IndexingConfigurationBuilder addIndexedEntity(String entity) {
       return indexingBuilder.addIndexedEntities(entity);
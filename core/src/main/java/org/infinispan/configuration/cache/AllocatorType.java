@@ -0,0 +1,20 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Enumeration defining how native memory is allocated when the storage is {@link StorageType#OFF_HEAP}.
+ *
+ * @since 16.0
+ */
+public enum AllocatorType {
+   /**
+    * Every entry is allocated and freed with the native allocator.
+    */
+   UNPOOLED,
+
+   /**
+    * Entries are allocated from size-classed slabs carved out of large native pages, which are reused for new entries
+    * and returned to the operating system once empty. Reduces the allocator contention and native memory
+    * fragmentation of write heavy caches.
+    */
+   POOLED
+}
@@ -43,12 +43,15 @@ static AttributeSet attributeDefinitionSet() {
    private final IndexReaderConfiguration readerConfiguration;
    private final IndexWriterConfiguration writerConfiguration;
    private final IndexShardingConfiguration shardingConfiguration;
+   private final MassIndexerConfiguration massIndexerConfiguration;
 
-   IndexingConfiguration(AttributeSet attributes, IndexReaderConfiguration readerConfiguration, IndexWriterConfiguration writerConfiguration, IndexShardingConfiguration shardingConfiguration) {
+   IndexingConfiguration(AttributeSet attributes, IndexReaderConfiguration readerConfiguration, IndexWriterConfiguration writerConfiguration,
+                         IndexShardingConfiguration shardingConfiguration, MassIndexerConfiguration massIndexerConfiguration) {
       super(Element.INDEXING, attributes);
       this.readerConfiguration = readerConfiguration;
       this.writerConfiguration = writerConfiguration;
       this.shardingConfiguration = shardingConfiguration;
+      this.massIndexerConfiguration = massIndexerConfiguration;
    }
 
    /**
@@ -124,6 +127,10 @@ public IndexShardingConfiguration sharding() {
       return shardingConfiguration;
    }
 
+   public MassIndexerConfiguration massIndexer() {
+      return massIndexerConfiguration;
+   }
+
    /**
     * Does the index use a provider that does not persist upon restart?
     */
@@ -136,6 +143,7 @@ public String toString() {
       return attributes.toString(null) +
             ", reader=" + readerConfiguration +
             ", writer=" + writerConfiguration +
-            ", sharding=" + shardingConfiguration;
+            ", sharding=" + shardingConfiguration +
+            ", massIndexer=" + massIndexerConfiguration;
    }
 }
@@ -34,6 +34,7 @@ public class IndexingConfigurationBuilder extends AbstractConfigurationChildBuil
    private final IndexReaderConfigurationBuilder readerConfigurationBuilder;
    private final IndexWriterConfigurationBuilder writerConfigurationBuilder;
    private final IndexShardingConfigurationBuilder shardingConfigurationBuilder;
+   private final MassIndexerConfigurationBuilder massIndexerConfigurationBuilder;
 
    IndexingConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -41,6 +42,7 @@ public class IndexingConfigurationBuilder extends AbstractConfigurationChildBuil
       readerConfigurationBuilder = new IndexReaderConfigurationBuilder(this);
       writerConfigurationBuilder = new IndexWriterConfigurationBuilder(this);
       shardingConfigurationBuilder = new IndexShardingConfigurationBuilder(this);
+      massIndexerConfigurationBuilder = new MassIndexerConfigurationBuilder(this);
    }
 
    @Override
@@ -65,6 +67,10 @@ public IndexShardingConfigurationBuilder sharding() {
       return shardingConfigurationBuilder;
    }
 
+   public MassIndexerConfigurationBuilder massIndexer() {
+      return massIndexerConfigurationBuilder;
+   }
+
    public IndexingConfigurationBuilder enable() {
       return enabled(true);
    }
@@ -187,6 +193,7 @@ public void validate() {
          }
       }
 
+      massIndexerConfigurationBuilder.validate();
       ensureSingleIndexingConfig();
    }
 
@@ -230,7 +237,7 @@ public void validate(GlobalConfiguration globalConfig) {
    @Override
    public IndexingConfiguration create() {
       return new IndexingConfiguration(attributes.protect(), readerConfigurationBuilder.create(),
-            writerConfigurationBuilder.create(), shardingConfigurationBuilder.create());
+            writerConfigurationBuilder.create(), shardingConfigurationBuilder.create(), massIndexerConfigurationBuilder.create());
    }
 
    @Override
@@ -239,6 +246,7 @@ public IndexingConfigurationBuilder read(IndexingConfiguration template, Combine
       this.readerConfigurationBuilder.read(template.reader(), combine);
       this.writerConfigurationBuilder.read(template.writer(), combine);
       this.shardingConfigurationBuilder.read(template.sharding(), combine);
+      this.massIndexerConfigurationBuilder.read(template.massIndexer(), combine);
       return this;
    }
 
@@ -249,6 +257,7 @@ public String toString() {
             ", readerConfigurationBuilder=" + readerConfigurationBuilder +
             ", writerConfigurationBuilder=" + writerConfigurationBuilder +
             ", shardingConfigurationBuilder=" + shardingConfigurationBuilder +
+            ", massIndexerConfigurationBuilder=" + massIndexerConfigurationBuilder +
             '}';
    }
 
@@ -11,6 +11,8 @@ public interface IndexingConfigurationChildBuilder extends ConfigurationChildBui
 
    IndexShardingConfigurationBuilder sharding();
 
+   MassIndexerConfigurationBuilder massIndexer();
+
    IndexingConfigurationBuilder addKeyTransformer(Class<?> keyClass, Class<?> keyTransformerClass);
 
    IndexingConfigurationBuilder addIndexedEntity(String indexedEntity);
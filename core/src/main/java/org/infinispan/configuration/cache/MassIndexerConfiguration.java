@@ -0,0 +1,58 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.commons.configuration.attributes.Attribute;
+import org.infinispan.commons.configuration.attributes.AttributeDefinition;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.commons.configuration.attributes.ConfigurationElement;
+import org.infinispan.configuration.parsing.Element;
+
+/**
+ * Configures how the mass indexer rebuilds the indexes from the data of each node.
+ *
+ * @since 16.0
+ */
+public class MassIndexerConfiguration extends ConfigurationElement<MassIndexerConfiguration> {
+
+   public static final AttributeDefinition<Integer> THREAD_POOL_SIZE =
+         AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.THREAD_POOL_SIZE, 1, Integer.class).immutable().build();
+   public static final AttributeDefinition<Integer> BATCH_SIZE =
+         AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.BATCH_SIZE, 1000, Integer.class).immutable().build();
+   public static final AttributeDefinition<Integer> MAX_ENTRIES_PER_SECOND =
+         AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.MAX_ENTRIES_PER_SECOND, 0, Integer.class).immutable().build();
+
+   static AttributeSet attributeDefinitionSet() {
+      return new AttributeSet(MassIndexerConfiguration.class, THREAD_POOL_SIZE, BATCH_SIZE, MAX_ENTRIES_PER_SECOND);
+   }
+
+   private final Attribute<Integer> threadPoolSize;
+   private final Attribute<Integer> batchSize;
+   private final Attribute<Integer> maxEntriesPerSecond;
+
+   MassIndexerConfiguration(AttributeSet attributes) {
+      super(Element.MASS_INDEXER, attributes);
+      this.threadPoolSize = attributes.attribute(THREAD_POOL_SIZE);
+      this.batchSize = attributes.attribute(BATCH_SIZE);
+      this.maxEntriesPerSecond = attributes.attribute(MAX_ENTRIES_PER_SECOND);
+   }
+
+   /**
+    * The number of segments each node reindexes concurrently.
+    */
+   public int threadPoolSize() {
+      return threadPoolSize.get();
+   }
+
+   /**
+    * The number of entries written to the index together, before waiting for their completion.
+    */
+   public int batchSize() {
+      return batchSize.get();
+   }
+
+   /**
+    * The maximum number of entries each node reindexes per second, 0 if unlimited.
+    */
+   public int maxEntriesPerSecond() {
+      return maxEntriesPerSecond.get();
+   }
+}
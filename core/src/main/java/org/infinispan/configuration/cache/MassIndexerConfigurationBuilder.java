@@ -0,0 +1,87 @@
+package org.infinispan.configuration.cache;
+
+import static org.infinispan.configuration.cache.MassIndexerConfiguration.BATCH_SIZE;
+import static org.infinispan.configuration.cache.MassIndexerConfiguration.MAX_ENTRIES_PER_SECOND;
+import static org.infinispan.configuration.cache.MassIndexerConfiguration.THREAD_POOL_SIZE;
+import static org.infinispan.util.logging.Log.CONFIG;
+
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.commons.configuration.Combine;
+import org.infinispan.commons.configuration.attributes.AttributeDefinition;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+
+/**
+ * @since 16.0
+ */
+public class MassIndexerConfigurationBuilder extends AbstractIndexingConfigurationChildBuilder
+      implements Builder<MassIndexerConfiguration> {
+
+   private final AttributeSet attributes;
+
+   MassIndexerConfigurationBuilder(IndexingConfigurationBuilder builder) {
+      super(builder);
+      this.attributes = MassIndexerConfiguration.attributeDefinitionSet();
+   }
+
+   @Override
+   public AttributeSet attributes() {
+      return attributes;
+   }
+
+   /**
+    * The number of segments each node reindexes concurrently. By default, 1.
+    */
+   public MassIndexerConfigurationBuilder threadPoolSize(int value) {
+      attributes.attribute(THREAD_POOL_SIZE).set(value);
+      return this;
+   }
+
+   /**
+    * The number of entries written to the index together, before waiting for their completion. By default, 1000.
+    */
+   public MassIndexerConfigurationBuilder batchSize(int value) {
+      attributes.attribute(BATCH_SIZE).set(value);
+      return this;
+   }
+
+   /**
+    * Limits the number of entries each node reindexes per second, to reduce the impact of the mass indexer on the
+    * other operations. By default, 0, meaning unlimited.
+    */
+   public MassIndexerConfigurationBuilder maxEntriesPerSecond(int value) {
+      attributes.attribute(MAX_ENTRIES_PER_SECOND).set(value);
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      validateMinimum(THREAD_POOL_SIZE, 1);
+      validateMinimum(BATCH_SIZE, 1);
+      validateMinimum(MAX_ENTRIES_PER_SECOND, 0);
+   }
+
+   private void validateMinimum(AttributeDefinition<Integer> definition, int minimum) {
+      int value = attributes.attribute(definition).get();
+      if (value < minimum) {
+         throw CONFIG.invalidMassIndexerAttribute(value, definition.name(), minimum);
+      }
+   }
+
+   @Override
+   public MassIndexerConfiguration create() {
+      return new MassIndexerConfiguration(attributes.protect());
+   }
+
+   @Override
+   public MassIndexerConfigurationBuilder read(MassIndexerConfiguration template, Combine combine) {
+      this.attributes.read(template.attributes(), combine);
+      return this;
+   }
+
+   @Override
+   public String toString() {
+      return "MassIndexerConfigurationBuilder{" +
+            "attributes=" + attributes +
+            '}';
+   }
+}
@@ -21,9 +21,10 @@ public class MemoryConfiguration extends ConfigurationElement<MemoryConfiguratio
    public static final AttributeDefinition<String> MAX_SIZE = AttributeDefinition.builder(Attribute.MAX_SIZE, null, String.class).matcher((a1, a2) -> maxSizeToBytes(a1.get()) == maxSizeToBytes(a2.get())).build();
    public static final AttributeDefinition<Long> MAX_COUNT = AttributeDefinition.builder(Attribute.MAX_COUNT, -1L).build();
    public static final AttributeDefinition<EvictionStrategy> WHEN_FULL = AttributeDefinition.builder(Attribute.WHEN_FULL, EvictionStrategy.NONE).immutable().build();
+   public static final AttributeDefinition<AllocatorType> ALLOCATOR = AttributeDefinition.builder(Attribute.ALLOCATOR, AllocatorType.UNPOOLED).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(MemoryConfiguration.class, STORAGE, MAX_SIZE, MAX_COUNT, WHEN_FULL);
+      return new AttributeSet(MemoryConfiguration.class, STORAGE, MAX_SIZE, MAX_COUNT, WHEN_FULL, ALLOCATOR);
    }
 
    MemoryConfiguration(AttributeSet attributes) {
@@ -85,6 +86,14 @@ public EvictionStrategy whenFull() {
       return attributes.attribute(WHEN_FULL).get();
    }
 
+   /**
+    * The allocator used for native memory when the storage is off-heap
+    * @return The configured {@link AllocatorType}.
+    */
+   public AllocatorType allocator() {
+      return attributes.attribute(ALLOCATOR).get();
+   }
+
    /**
     * Returns whether remove eviction is in use
     */
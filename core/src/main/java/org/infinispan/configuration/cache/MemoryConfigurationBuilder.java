@@ -95,6 +95,25 @@ public EvictionStrategy whenFull() {
       return attributes.attribute(MemoryConfiguration.WHEN_FULL).get();
    }
 
+   /**
+    * Sets how native memory is allocated when the storage is {@link StorageType#OFF_HEAP}:
+    * <ul>
+    *    <li>UNPOOLED - every entry is allocated and freed with the native allocator</li>
+    *    <li>POOLED - entries are allocated from size-classed slabs carved out of large native pages</li>
+    * </ul>
+    *
+    * @param allocator the allocator type
+    * @return this
+    */
+   public MemoryConfigurationBuilder allocator(AllocatorType allocator) {
+      attributes.attribute(MemoryConfiguration.ALLOCATOR).set(allocator);
+      return this;
+   }
+
+   public AllocatorType allocator() {
+      return attributes.attribute(MemoryConfiguration.ALLOCATOR).get();
+   }
+
    boolean isSizeBounded() {
       return maxSize() != null;
    }
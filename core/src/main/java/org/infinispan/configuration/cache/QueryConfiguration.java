@@ -1,5 +1,11 @@
 package org.infinispan.configuration.cache;
 
+import static org.infinispan.commons.configuration.attributes.AttributeSerializer.STRING_COLLECTION;
+import static org.infinispan.commons.configuration.attributes.CollectionAttributeCopier.collectionCopier;
+
+import java.util.HashSet;
+import java.util.Set;
+
 import org.infinispan.commons.configuration.AbstractTypedPropertiesConfiguration;
 import org.infinispan.commons.configuration.attributes.AttributeDefinition;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
@@ -13,9 +19,25 @@ public class QueryConfiguration extends ConfigurationElement<QueryConfiguration>
 
    public static final AttributeDefinition<Integer> DEFAULT_MAX_RESULTS = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.DEFAULT_MAX_RESULTS, 100).immutable().build();
    public static final AttributeDefinition<Integer> HIT_COUNT_ACCURACY = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.HIT_COUNT_ACCURACY, 10_000).immutable().build();
+   public static final AttributeDefinition<Integer> RESULT_CACHE_SIZE = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.RESULT_CACHE_SIZE, 0)
+         .since(16, 0)
+         .immutable().build();
+   public static final AttributeDefinition<Set<String>> HASH_INDEXED_FIELDS = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.HASH_INDEXED_FIELDS, null, (Class<Set<String>>) (Class<?>) Set.class)
+         .since(16, 0)
+         .copier(collectionCopier())
+         .initializer(HashSet::new)
+         .serializer(STRING_COLLECTION)
+         .immutable().build();
+   public static final AttributeDefinition<Set<String>> SORTED_INDEXED_FIELDS = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.SORTED_INDEXED_FIELDS, null, (Class<Set<String>>) (Class<?>) Set.class)
+         .since(16, 0)
+         .copier(collectionCopier())
+         .initializer(HashSet::new)
+         .serializer(STRING_COLLECTION)
+         .immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(QueryConfiguration.class, AbstractTypedPropertiesConfiguration.attributeSet(), DEFAULT_MAX_RESULTS, HIT_COUNT_ACCURACY);
+      return new AttributeSet(QueryConfiguration.class, AbstractTypedPropertiesConfiguration.attributeSet(), DEFAULT_MAX_RESULTS, HIT_COUNT_ACCURACY,
+            HASH_INDEXED_FIELDS, SORTED_INDEXED_FIELDS, RESULT_CACHE_SIZE);
    }
 
    protected QueryConfiguration(AttributeSet attributes) {
@@ -39,4 +61,28 @@ public int defaultMaxResults() {
    public int hitCountAccuracy() {
       return attributes.attribute(HIT_COUNT_ACCURACY).get();
    }
+
+   /**
+    * The fields of non-indexed entities with an in-memory hash index, used by the queries comparing them for equality.
+    * Every field is the fully qualified entity name followed by the property path, e.g. {@code book_sample.Book.title}.
+    */
+   public Set<String> hashIndexedFields() {
+      return attributes.attribute(HASH_INDEXED_FIELDS).get();
+   }
+
+   /**
+    * The fields of non-indexed entities with an in-memory sorted index, used by the queries comparing them for equality
+    * or with a range. The fields have the same format as the {@link #hashIndexedFields()}.
+    */
+   public Set<String> sortedIndexedFields() {
+      return attributes.attribute(SORTED_INDEXED_FIELDS).get();
+   }
+
+   /**
+    * The maximum number of query results kept in the result cache, which returns the results of a repeated query until
+    * a write modifies the segments it read. A value of 0, the default, disables the result cache.
+    */
+   public int resultCacheSize() {
+      return attributes.attribute(RESULT_CACHE_SIZE).get();
+   }
 }
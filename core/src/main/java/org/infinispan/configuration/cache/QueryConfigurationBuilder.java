@@ -1,11 +1,17 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.QueryConfiguration.DEFAULT_MAX_RESULTS;
+import static org.infinispan.configuration.cache.QueryConfiguration.HASH_INDEXED_FIELDS;
 import static org.infinispan.configuration.cache.QueryConfiguration.HIT_COUNT_ACCURACY;
+import static org.infinispan.configuration.cache.QueryConfiguration.RESULT_CACHE_SIZE;
+import static org.infinispan.configuration.cache.QueryConfiguration.SORTED_INDEXED_FIELDS;
+
+import java.util.Set;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.Combine;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.util.logging.Log;
 
 public class QueryConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<QueryConfiguration> {
 
@@ -55,6 +61,55 @@ public int hitCountAccuracy() {
       return attributes.attribute(HIT_COUNT_ACCURACY).get();
    }
 
+   /**
+    * Keeps the results of up to the given number of queries, so a query repeated with the same parameters returns the
+    * same result until a write modifies the segments it read. Applies to indexed, non-indexed, and hybrid queries.
+    * The result cache is disabled for invalidation caches, and for indexed caches using manual indexing or a periodic
+    * index reader refresh.
+    *
+    * @param resultCacheSize The maximum number of cached results, 0 disables the result cache
+    * @return <code>this</code>, for method chaining
+    */
+   public QueryConfigurationBuilder resultCacheSize(int resultCacheSize) {
+      attributes.attribute(RESULT_CACHE_SIZE).set(resultCacheSize);
+      return this;
+   }
+
+   public int resultCacheSize() {
+      return attributes.attribute(RESULT_CACHE_SIZE).get();
+   }
+
+   /**
+    * Maintains an in-memory hash index of a field, so the non-indexed queries comparing it for equality only read the
+    * matching entries. The index is ignored when the cache is indexed.
+    *
+    * @param field The fully qualified entity name followed by the property path, e.g. {@code book_sample.Book.title}
+    * @return <code>this</code>, for method chaining
+    */
+   public QueryConfigurationBuilder addHashIndexedField(String field) {
+      return addIndexedField(HASH_INDEXED_FIELDS.name(), attributes.attribute(HASH_INDEXED_FIELDS).get(), field);
+   }
+
+   /**
+    * Maintains an in-memory sorted index of a field, so the non-indexed queries comparing it for equality or with a
+    * range only read the matching entries. The index is ignored when the cache is indexed.
+    *
+    * @param field The fully qualified entity name followed by the property path, e.g. {@code book_sample.Book.year}
+    * @return <code>this</code>, for method chaining
+    */
+   public QueryConfigurationBuilder addSortedIndexedField(String field) {
+      return addIndexedField(SORTED_INDEXED_FIELDS.name(), attributes.attribute(SORTED_INDEXED_FIELDS).get(), field);
+   }
+
+   private QueryConfigurationBuilder addIndexedField(String attributeName, Set<String> fields, String field) {
+      if (field == null || field.indexOf('.') <= 0 || field.endsWith(".")) {
+         throw Log.CONFIG.invalidIndexedField(attributeName, field);
+      }
+      fields.add(field);
+      attributes.attribute(attributeName).set(fields);
+      return this;
+   }
+
    @Override
    public QueryConfiguration create() {
       return new QueryConfiguration(attributes.protect());
@@ -18,6 +18,7 @@ public enum Attribute {
     ADDRESS_COUNT,
     AFTER,
     ALIASES,
+    ALLOCATOR,
     @Deprecated(forRemoval=true, since = "11.0")
     ALLOW_DUPLICATE_DOMAINS("duplicate-domains"),
     @Deprecated(forRemoval=true, since = "11.0")
@@ -27,6 +28,7 @@ public enum Attribute {
     AVAILABILITY_INTERVAL,
     AWAIT_INITIAL_TRANSFER,
     BACKUP_FAILURE_POLICY("failure-policy"),
+    BATCH_SIZE,
     BEFORE,
     BIAS_ACQUISITION,
     BIAS_LIFESPAN,
@@ -96,6 +98,7 @@ public enum Attribute {
     KEY_EQUIVALENCE,
     KEY_PARTITIONER,
     HASH_FUNCTION,
+    HASH_INDEXED_FIELDS,
     HIT_COUNT_ACCURACY,
     L1_LIFESPAN("l1-lifespan"),
     LEGACY,
@@ -112,6 +115,7 @@ public enum Attribute {
     MAX_CLEANUP_DELAY,
     MAX_COUNT,
     MAX_ENTRIES,
+    MAX_ENTRIES_PER_SECOND,
     MAX_FILE_SIZE,
     MAX_IDLE,
     MAX_NODE_SIZE,
@@ -124,6 +128,7 @@ public enum Attribute {
     MBEAN_SERVER_LOOKUP,
     MERGE_POLICY,
     MEDIA_TYPE,
+    MEMORY_MAPPED,
     MIN_NODE_SIZE,
     MODE,
     NODE_NAME,
@@ -168,6 +173,7 @@ public enum Attribute {
     REMOTE_COMMAND_EXECUTOR,
     REMOTE_SITE,
     REMOTE_TIMEOUT,
+    RESULT_CACHE_SIZE,
     ROLES,
     SCHEMA_COMPATIBILITY,
     SECURITY,
@@ -180,6 +186,7 @@ public enum Attribute {
     SIMPLE_CACHE,
     SITE,
     SIZE,
+    SORTED_INDEXED_FIELDS,
     STATISTICS,
     START,
     STARTUP_MODE,
@@ -1059,6 +1059,9 @@ private void parseData(ConfigurationReader reader, SoftIndexFileStoreConfigurati
             case SYNC_WRITES:
                builder.syncWrites(ParseUtils.parseBoolean(reader, i, value));
                break;
+            case MEMORY_MAPPED:
+               builder.memoryMapped(ParseUtils.parseBoolean(reader, i, value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1365,6 +1368,19 @@ private void parseQuery(ConfigurationReader reader, ConfigurationBuilderHolder h
             case HIT_COUNT_ACCURACY:
                builder.query().hitCountAccuracy(ParseUtils.parseInt(reader, i, value));
                break;
+            case HASH_INDEXED_FIELDS:
+               for (String field : reader.getListAttributeValue(i)) {
+                  builder.query().addHashIndexedField(field);
+               }
+               break;
+            case SORTED_INDEXED_FIELDS:
+               for (String field : reader.getListAttributeValue(i)) {
+                  builder.query().addSortedIndexedField(field);
+               }
+               break;
+            case RESULT_CACHE_SIZE:
+               builder.query().resultCacheSize(ParseUtils.parseInt(reader, i, value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1455,6 +1471,10 @@ private void parseIndexing(ConfigurationReader reader, ConfigurationBuilderHolde
                parseIndexSharding(reader, builder);
                break;
             }
+            case MASS_INDEXER: {
+               parseMassIndexer(reader, builder);
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedElement(reader);
             }
@@ -1545,6 +1565,11 @@ private void parseIndexSharding(ConfigurationReader reader, ConfigurationBuilder
       ParseUtils.requireNoContent(reader);
    }
 
+   private void parseMassIndexer(ConfigurationReader reader, ConfigurationBuilder builder) {
+      ParseUtils.parseAttributes(reader, builder.indexing().massIndexer());
+      ParseUtils.requireNoContent(reader);
+   }
+
    private void parseIndexWriterMerge(ConfigurationReader reader, ConfigurationBuilder builder) {
       IndexMergeConfigurationBuilder mergeBuilder = builder.indexing().writer().merge();
       ParseUtils.parseAttributes(reader, mergeBuilder);
@@ -86,6 +86,7 @@ public enum Element {
     PERSISTENT_LOCATION,
     LOCKING,
     MANAGED_CONFIGURATION_STORAGE,
+    MASS_INDEXER,
     MEMORY,
     METRICS,
     MODULES,
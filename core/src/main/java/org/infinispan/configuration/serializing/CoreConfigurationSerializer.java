@@ -41,6 +41,7 @@
 import org.infinispan.configuration.cache.IndexReaderConfiguration;
 import org.infinispan.configuration.cache.IndexWriterConfiguration;
 import org.infinispan.configuration.cache.IndexingConfiguration;
+import org.infinispan.configuration.cache.MassIndexerConfiguration;
 import org.infinispan.configuration.cache.MemoryConfiguration;
 import org.infinispan.configuration.cache.PartitionHandlingConfiguration;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
@@ -670,6 +671,7 @@ private void writeMemory(ConfigurationWriter writer, Configuration configuration
             attributes.write(writer, MemoryConfiguration.MAX_SIZE, Attribute.MAX_SIZE);
          }
          attributes.write(writer, MemoryConfiguration.WHEN_FULL, Attribute.WHEN_FULL);
+         attributes.write(writer, MemoryConfiguration.ALLOCATOR, Attribute.ALLOCATOR);
          writer.writeEndElement();
       }
    }
@@ -681,6 +683,9 @@ private void writeQuery(ConfigurationWriter writer, Configuration configuration)
          writer.writeStartElement(Element.QUERY);
          attributes.write(writer, QueryConfiguration.DEFAULT_MAX_RESULTS, Attribute.DEFAULT_MAX_RESULTS);
          attributes.write(writer, QueryConfiguration.HIT_COUNT_ACCURACY, Attribute.HIT_COUNT_ACCURACY);
+         attributes.write(writer, QueryConfiguration.HASH_INDEXED_FIELDS, Attribute.HASH_INDEXED_FIELDS);
+         attributes.write(writer, QueryConfiguration.SORTED_INDEXED_FIELDS, Attribute.SORTED_INDEXED_FIELDS);
+         attributes.write(writer, QueryConfiguration.RESULT_CACHE_SIZE, Attribute.RESULT_CACHE_SIZE);
          writer.writeEndElement();
       }
    }
@@ -710,6 +715,14 @@ private void writeIndexing(ConfigurationWriter writer, Configuration configurati
             writer.writeAttribute(Attribute.SHARDS, Integer.toString(shards));
             writer.writeEndElement();
          }
+         AttributeSet massIndexerAttributes = indexing.massIndexer().attributes();
+         if (massIndexerAttributes.isModified()) {
+            writer.writeStartElement(Element.MASS_INDEXER);
+            massIndexerAttributes.write(writer, MassIndexerConfiguration.THREAD_POOL_SIZE, Attribute.THREAD_POOL_SIZE);
+            massIndexerAttributes.write(writer, MassIndexerConfiguration.BATCH_SIZE, Attribute.BATCH_SIZE);
+            massIndexerAttributes.write(writer, MassIndexerConfiguration.MAX_ENTRIES_PER_SECOND, Attribute.MAX_ENTRIES_PER_SECOND);
+            writer.writeEndElement();
+         }
          IndexWriterConfiguration indexWriter = indexing.writer();
          IndexMergeConfiguration indexMerge = indexWriter.merge();
          AttributeSet writerAttributes = indexWriter.attributes();
@@ -844,7 +857,8 @@ private void writeDataElement(ConfigurationWriter writer, SoftIndexFileStoreConf
       configuration.data().attributes().write(writer, Element.DATA.getLocalName(),
             DataConfiguration.DATA_LOCATION,
             DataConfiguration.MAX_FILE_SIZE,
-            DataConfiguration.SYNC_WRITES);
+            DataConfiguration.SYNC_WRITES,
+            DataConfiguration.MEMORY_MAPPED);
    }
 
    private void writeIndexElement(ConfigurationWriter writer, SoftIndexFileStoreConfiguration configuration) {
@@ -3,6 +3,7 @@
 import java.util.Map;
 import java.util.stream.Stream;
 
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.distribution.DistributionInfo;
@@ -43,6 +44,21 @@
     */
    Stream<Map<Address, CacheEntry<K, V>>> getConflicts();
 
+   /**
+    * Verifies the consistency of the replicas without transferring any entry. The owners of every segment compute a
+    * digest of their entries, and only the digests are compared. This is much cheaper than {@link #getConflicts()},
+    * which can then be used to inspect the conflicts if any segment is inconsistent.
+    * <p>
+    * The digests cover the keys, values and metadata of the entries stored as bytes, and the keys and versions of the
+    * other entries. Segments containing entries with neither are always reported as inconsistent.
+    *
+    * @return the segments whose replicas may differ.
+    * @throws IllegalStateException if called whilst state transfer is in progress.
+    * @throws org.infinispan.commons.CacheException if the digests of one or more segments cannot be retrieved.
+    * @since 16.0
+    */
+   IntSet getInconsistentSegments();
+
    /**
     * Utilises {@link ConflictManager#getConflicts()} to discover conflicts between Key replicas and utilises the configured
     * {@link EntryMergePolicy} to determine which entry should take precedence. The
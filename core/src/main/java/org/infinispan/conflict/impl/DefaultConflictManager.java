@@ -20,6 +20,7 @@
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -34,6 +35,7 @@
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.PartitionHandlingConfiguration;
 import org.infinispan.conflict.EntryMergePolicy;
@@ -221,6 +223,29 @@ private Stream<Map<Address, CacheEntry<K, V>>> getConflicts(LocalizedCacheTopolo
             .filter(filterConsistentEntries());
    }
 
+   @Override
+   public IntSet getInconsistentSegments() {
+      checkIsRunning();
+      if (stateConsumer.running().isStateTransferInProgress()) {
+         throw CLUSTER.getConflictsStateTransferInProgress(cacheName);
+      }
+
+      LocalizedCacheTopology topology = distributionManager.getCacheTopology();
+      try {
+         return stateReceiver.getInconsistentSegments(topology, conflictTimeout).get(conflictTimeout, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof CacheException)
+            throw (CacheException) e.getCause();
+
+         throw new CacheException(e.getCause());
+      } catch (TimeoutException e) {
+         throw new CacheException(e);
+      }
+   }
+
    @Override
    public boolean isConflictResolutionInProgress() {
       return streamInProgress.get();
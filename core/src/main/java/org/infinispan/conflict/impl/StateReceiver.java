@@ -5,11 +5,13 @@
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.distribution.LocalizedCacheTopology;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.SegmentDigests;
 import org.infinispan.statetransfer.StateChunk;
 
 /**
@@ -33,5 +35,21 @@
     */
    CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> getAllReplicasForSegment(int segmentId, LocalizedCacheTopology topology, long timeout);
 
+   /**
+    * Return the digests of a segment that are the same on all its write owners, without fetching any entry. The
+    * digests of the buckets that differ between the owners are {@link SegmentDigests#UNKNOWN}.
+    *
+    * @since 16.0
+    */
+   CompletableFuture<SegmentDigests> getSegmentDigests(int segmentId, LocalizedCacheTopology topology, long timeout);
+
+   /**
+    * Return the segments whose write owners may not have the same entries, comparing only the digests of the entries.
+    * The segments where some entries can be hashed neither by version nor by value are always included.
+    *
+    * @since 16.0
+    */
+   CompletableFuture<IntSet> getInconsistentSegments(LocalizedCacheTopology topology, long timeout);
+
    void receiveState(Address sender, int topologyId, Collection<StateChunk> stateChunks);
 }
@@ -10,14 +10,19 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.statetransfer.ConflictResolutionDigestCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.logging.Log;
 import org.infinispan.commons.logging.LogFactory;
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.NullCacheEntry;
 import org.infinispan.container.impl.InternalDataContainer;
@@ -27,16 +32,23 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.impl.ComponentRef;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.notifications.cachelistener.annotation.DataRehashed;
 import org.infinispan.notifications.cachelistener.event.DataRehashedEvent;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.impl.SingleResponseCollector;
 import org.infinispan.statetransfer.InboundTransferTask;
+import org.infinispan.statetransfer.SegmentDigests;
 import org.infinispan.statetransfer.StateChunk;
+import org.infinispan.statetransfer.StateProvider;
 import org.infinispan.topology.CacheTopology;
 
 /**
@@ -55,6 +67,7 @@
    @Inject CommandsFactory commandsFactory;
    @Inject InternalDataContainer<K, V> dataContainer;
    @Inject RpcManager rpcManager;
+   @Inject ComponentRef<StateProvider> stateProvider;
    @Inject @ComponentName(NON_BLOCKING_EXECUTOR)
    ExecutorService nonBlockingExecutor;
 
@@ -98,6 +111,68 @@ public CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> getAllReplicasFor
       return requestMap.computeIfAbsent(segmentId, id -> new SegmentRequest(id, topology, timeout)).requestState();
    }
 
+   @Override
+   public CompletableFuture<SegmentDigests> getSegmentDigests(int segmentId, LocalizedCacheTopology topology, long timeout) {
+      IntSet segments = IntSets.immutableSet(segmentId);
+      List<Address> owners = topology.getSegmentDistribution(segmentId).writeOwners();
+      RpcOptions rpcOptions = new RpcOptions(DeliverOrder.NONE, timeout, TimeUnit.MILLISECONDS);
+      List<CompletableFuture<SegmentDigests>> futures = new ArrayList<>(owners.size());
+      for (Address owner : owners) {
+         futures.add(requestDigests(owner, segments, topology.getTopologyId(), rpcOptions));
+      }
+      return CompletableFutures.sequence(futures).thenApply(SegmentDigests::common);
+   }
+
+   @Override
+   public CompletableFuture<IntSet> getInconsistentSegments(LocalizedCacheTopology topology, long timeout) {
+      int numSegments = topology.getNumSegments();
+      Map<Address, IntSet> ownedSegments = new HashMap<>();
+      for (int segment = 0; segment < numSegments; segment++) {
+         List<Address> owners = topology.getSegmentDistribution(segment).writeOwners();
+         if (owners.size() > 1) {
+            for (Address owner : owners) {
+               ownedSegments.computeIfAbsent(owner, o -> IntSets.mutableEmptySet(numSegments)).set(segment);
+            }
+         }
+      }
+
+      // Request the digests of all the segments owned by a node at once
+      RpcOptions rpcOptions = new RpcOptions(DeliverOrder.NONE, timeout, TimeUnit.MILLISECONDS);
+      Map<Address, CompletableFuture<SegmentDigests>> futures = new HashMap<>();
+      ownedSegments.forEach((owner, segments) ->
+            futures.put(owner, requestDigests(owner, segments, topology.getTopologyId(), rpcOptions)));
+      return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+         IntSet inconsistent = IntSets.mutableEmptySet(numSegments);
+         for (int segment = 0; segment < numSegments; segment++) {
+            List<Address> owners = topology.getSegmentDistribution(segment).writeOwners();
+            if (owners.size() > 1) {
+               List<SegmentDigests> digests = new ArrayList<>(owners.size());
+               owners.forEach(owner -> digests.add(futures.get(owner).join()));
+               if (!SegmentDigests.isConsistent(segment, digests)) {
+                  inconsistent.set(segment);
+               }
+            }
+         }
+         return inconsistent;
+      });
+   }
+
+   private CompletableFuture<SegmentDigests> requestDigests(Address owner, IntSet segments, int topologyId,
+                                                            RpcOptions rpcOptions) {
+      if (owner.equals(rpcManager.getAddress())) {
+         return stateProvider.running().getSegmentDigests(segments).toCompletableFuture();
+      }
+      ConflictResolutionDigestCommand cmd = commandsFactory.buildConflictResolutionDigestCommand(topologyId, segments);
+      return rpcManager.invokeCommand(owner, cmd, SingleResponseCollector.validOnly(), rpcOptions)
+            .thenApply(response -> {
+               if (response instanceof SuccessfulResponse) {
+                  return (SegmentDigests) response.getResponseValue();
+               }
+               throw new CacheException(String.format("Unable to retrieve the digests of segments %s from %s: %s",
+                     segments, owner, response));
+            }).toCompletableFuture();
+   }
+
    @Override
    public void receiveState(Address sender, int topologyId, Collection<StateChunk> stateChunks) {
       if (stateChunks.isEmpty()) {
@@ -138,6 +213,8 @@ class SegmentRequest {
       final Map<K, Map<Address, CacheEntry<K, V>>> keyReplicaMap = new HashMap<>();
       final Map<Address, InboundTransferTask> transferTaskMap = new ConcurrentHashMap<>();
       CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> future;
+      // The buckets with the same digest on all the owners, their entries are not fetched
+      int knownBuckets;
 
       SegmentRequest(int segmentId, LocalizedCacheTopology topology, long timeout) {
          this.segmentId = segmentId;
@@ -166,6 +243,36 @@ synchronized CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> requestStat
             }
          });
 
+         for (final Address replica : replicaHosts) {
+            if (!replica.equals(rpcManager.getAddress())) {
+               transferTaskMap.put(replica, createTransferTask(segmentId, replica, topology, timeout));
+            }
+         }
+
+         // Compare the digests of the owners first, and only fetch the entries of the buckets that differ
+         getSegmentDigests(segmentId, topology, timeout).whenComplete((digests, throwable) -> {
+            if (throwable != null) {
+               log.debugf(throwable, "Cache %s unable to compare the digests of segment %s, fetching all the entries",
+                     cacheName, segmentId);
+               digests = null;
+            }
+            requestEntries(digests);
+         });
+         return future;
+      }
+
+      private synchronized void requestEntries(SegmentDigests digests) {
+         if (future.isDone())
+            return;
+
+         knownBuckets = digests != null ? digests.knownBuckets(segmentId) : 0;
+         if (log.isTraceEnabled()) log.tracef("Cache %s requesting entries for segment %s, known buckets %s",
+               cacheName, segmentId, Integer.toHexString(knownBuckets));
+         if (knownBuckets == SegmentDigests.ALL_BUCKETS) {
+            completeRequest();
+            return;
+         }
+
          for (final Address replica : replicaHosts) {
             if (replica.equals(rpcManager.getAddress())) {
                dataContainer.forEach(entry -> {
@@ -179,16 +286,16 @@ synchronized CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> requestStat
                   completeRequest();
                }
             } else {
-               final InboundTransferTask transferTask = createTransferTask(segmentId, replica, topology, timeout);
-               transferTaskMap.put(replica, transferTask);
-
+               final InboundTransferTask transferTask = transferTaskMap.get(replica);
                stateReceiverExecutor.execute(() -> {
                   // If the transferTaskMap does not contain an entry for this replica, then it must have been cancelled
                   // before this request was executed..
                   if (!transferTaskMap.containsKey(replica))
                      return;
 
-                  transferTask.requestSegments().exceptionally(throwable -> {
+                  CompletionStage<Void> stage = digests != null ?
+                        transferTask.requestSegments(digests) : transferTask.requestSegments();
+                  stage.exceptionally(throwable -> {
                      if (log.isTraceEnabled()) log.tracef(throwable, "Cache %s exception when processing InboundTransferTask", cacheName);
                      cancel(throwable);
                      return null;
@@ -196,7 +303,6 @@ synchronized CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> requestStat
                });
             }
          }
-         return future;
       }
 
       synchronized void clear() {
@@ -261,6 +367,11 @@ synchronized void completeRequest() {
       }
 
       void addKeyToReplicaMap(Address address, CacheEntry<K, V> ice) {
+         // Owners may still send entries of the known buckets if they were modified after computing the digests,
+         // but the other owners did not send them, so they must be ignored
+         if (knownBuckets != 0 && SegmentDigests.isInBuckets(knownBuckets, ice.getKey()))
+            return;
+
          // If a map doesn't already exist for a given key, then init a map that contains all hos with a NullValueEntry
          // This is necessary to determine if a key is missing on a given host as it artificially introduces a conflict
          keyReplicaMap.computeIfAbsent(ice.getKey(), k -> {
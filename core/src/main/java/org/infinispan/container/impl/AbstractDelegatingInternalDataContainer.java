@@ -1,5 +1,6 @@
 package org.infinispan.container.impl;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.concurrent.CompletionStage;
@@ -222,4 +223,14 @@ public void resize(long newSize) {
    public boolean hasExpirable() {
       return delegate().hasExpirable();
    }
+
+   @Override
+   public Collection<InternalCacheEntry<K, V>> expiredEntries(long currentTimeMillis) {
+      return delegate().expiredEntries(currentTimeMillis);
+   }
+
+   @Override
+   public Collection<InternalCacheEntry<K, V>> expiredEntries(IntSet segments, long currentTimeMillis) {
+      return delegate().expiredEntries(segments, currentTimeMillis);
+   }
 }
@@ -3,6 +3,8 @@
 import static org.infinispan.commons.util.Util.toStr;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -37,6 +39,7 @@
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.impl.ComponentRef;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
@@ -81,6 +84,20 @@
     */
    private final AtomicLong expirable = new AtomicLong();
 
+   /**
+    * Keys of the expirable entries by expiration time, only maintained when the expiration reaper runs as nothing
+    * else polls it.
+    */
+   private ExpirationIndex<K> expirationIndex;
+
+   @Start
+   void startExpirationIndex() {
+      long wakeUpInterval = configuration.expiration().wakeUpInterval();
+      if (configuration.expiration().reaperEnabled() && wakeUpInterval > 0) {
+         expirationIndex = new ExpirationIndex<>(wakeUpInterval);
+      }
+   }
+
    protected abstract PeekableTouchableMap<K, V> getMapForSegment(int segment);
    protected abstract int getSegmentForKey(Object key);
 
@@ -307,13 +324,52 @@ public boolean hasExpirable() {
       return expirable.get() > 0;
    }
 
+   @Override
+   public Collection<InternalCacheEntry<K, V>> expiredEntries(long currentTimeMillis) {
+      return expiredEntries(null, currentTimeMillis);
+   }
+
+   @Override
+   public Collection<InternalCacheEntry<K, V>> expiredEntries(IntSet segments, long currentTimeMillis) {
+      ExpirationIndex<K> index = expirationIndex;
+      if (index == null) {
+         return null;
+      }
+      List<InternalCacheEntry<K, V>> expired = new ArrayList<>();
+      index.pollDue(currentTimeMillis, key -> {
+         int segment = segments == null ? getSegmentForKey(key) : keyPartitioner.getSegment(key);
+         InternalCacheEntry<K, V> ice = peek(segment, key);
+         if (ice == null || !ice.canExpire()) {
+            // Removed or written without expiration since it was indexed
+            return;
+         }
+         // Expired entries stay indexed as well, so that they are checked again if their removal does not happen
+         index.add(key, Math.max(ice.getExpiryTime(), currentTimeMillis + 1));
+         if (ice.isExpired(currentTimeMillis) && (segments == null || segments.contains(segment))) {
+            expired.add(ice);
+         }
+      });
+      return expired;
+   }
+
    protected final void entryAdded(InternalCacheEntry<K, V> ice) {
       if (ice.canExpire()) {
          expirable.incrementAndGet();
+         if (expirationIndex != null) {
+            expirationIndex.add(ice.getKey(), ice.getExpiryTime());
+         }
       }
    }
 
    protected final void entryUpdated(InternalCacheEntry<K, V> curr, InternalCacheEntry<K, V> prev) {
+      if (expirationIndex != null) {
+         if (prev.canExpire()) {
+            expirationIndex.remove(prev.getKey(), prev.getExpiryTime());
+         }
+         if (curr.canExpire()) {
+            expirationIndex.add(curr.getKey(), curr.getExpiryTime());
+         }
+      }
       byte combination = 0b00;
       if (curr.canExpire()) combination |= 0b01;
       if (prev.canExpire()) combination |= 0b10;
@@ -336,11 +392,22 @@ protected final void entryUpdated(InternalCacheEntry<K, V> curr, InternalCacheEn
    protected final void entryRemoved(InternalCacheEntry<K, V> ice) {
       if (ice.canExpire()) {
          expirable.decrementAndGet();
+         if (expirationIndex != null) {
+            expirationIndex.remove(ice.getKey(), ice.getExpiryTime());
+         }
       }
    }
 
    protected final void segmentRemoved(Map<K, InternalCacheEntry<K, V>> segment) {
-      long expirableInSegment = segment.values().stream().filter(InternalCacheEntry::canExpire).count();
+      long expirableInSegment = 0;
+      for (InternalCacheEntry<K, V> ice : segment.values()) {
+         if (ice.canExpire()) {
+            expirableInSegment++;
+            if (expirationIndex != null) {
+               expirationIndex.remove(ice.getKey(), ice.getExpiryTime());
+            }
+         }
+      }
       expirable.addAndGet(-expirableInSegment);
    }
 
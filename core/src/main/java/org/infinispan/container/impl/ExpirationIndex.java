@@ -0,0 +1,90 @@
+package org.infinispan.container.impl;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keys of the entries which can expire, bucketed by expiration time, so that the expired entries can be found without
+ * iterating over the whole container.
+ * <p>
+ * A key is placed in the bucket of the first multiple of the granularity not before the expiration time of its entry.
+ * The index is only a hint: an entry read since it was indexed (max idle) or written again without expiration is
+ * still found in its old bucket, and it is up to the caller to check the entry and to index it again if needed.
+ *
+ * @since 16.0
+ */
+final class ExpirationIndex<K> {
+   private final long granularity;
+   private final ConcurrentSkipListMap<Long, Bucket<K>> buckets = new ConcurrentSkipListMap<>();
+
+   ExpirationIndex(long granularity) {
+      this.granularity = granularity;
+   }
+
+   void add(K key, long expiryTime) {
+      long bucketId = bucketId(expiryTime);
+      // A bucket being polled is closed, retry so that the key goes into a new bucket instead of being lost
+      while (!buckets.computeIfAbsent(bucketId, ignore -> new Bucket<>()).add(key)) {
+         Thread.onSpinWait();
+      }
+   }
+
+   void remove(K key, long expiryTime) {
+      Bucket<K> bucket = buckets.get(bucketId(expiryTime));
+      if (bucket != null) {
+         bucket.keys.remove(key);
+      }
+   }
+
+   /**
+    * Removes the buckets due at the given time from the index and passes their keys to the consumer. Keys indexed
+    * again by the consumer with an expiration time after the given time are not passed again.
+    */
+   void pollDue(long currentTimeMillis, Consumer<? super K> consumer) {
+      Map.Entry<Long, Bucket<K>> first;
+      while ((first = buckets.firstEntry()) != null && first.getKey() * granularity <= currentTimeMillis) {
+         Bucket<K> bucket = first.getValue();
+         bucket.close();
+         buckets.remove(first.getKey(), bucket);
+         bucket.keys.forEach(consumer);
+      }
+   }
+
+   private long bucketId(long expiryTime) {
+      return (expiryTime + granularity - 1) / granularity;
+   }
+
+   private static final class Bucket<K> {
+      private final Set<K> keys = ConcurrentHashMap.newKeySet();
+      // Writers add keys concurrently, the read lock only excludes them from the poller closing the bucket
+      private final ReadWriteLock lock = new ReentrantReadWriteLock();
+      private boolean closed;
+
+      boolean add(K key) {
+         lock.readLock().lock();
+         try {
+            if (closed) {
+               return false;
+            }
+            keys.add(key);
+            return true;
+         } finally {
+            lock.readLock().unlock();
+         }
+      }
+
+      void close() {
+         lock.writeLock().lock();
+         try {
+            closed = true;
+         } finally {
+            lock.writeLock().unlock();
+         }
+      }
+   }
+}
@@ -1,5 +1,6 @@
 package org.infinispan.container.impl;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.concurrent.CompletionStage;
@@ -267,4 +268,28 @@ default void cleanUp() {
     * @return true if any entry can expire, false otherwise.
     */
    boolean hasExpirable();
+
+   /**
+    * Returns the entries that have expired by the given time, without iterating over the container. The container
+    * keeps an index of the entries that can expire to do so, and only looks at the entries due at that time.
+    * <p>
+    * Every entry is returned at least once after it expires, until it is removed from the container.
+    *
+    * @param currentTimeMillis the current wall clock time
+    * @return the expired entries, or {@code null} if the container does not index the entries that can expire
+    */
+   default Collection<InternalCacheEntry<K, V>> expiredEntries(long currentTimeMillis) {
+      return null;
+   }
+
+   /**
+    * Same as {@link #expiredEntries(long)} except that only the entries mapping to the provided segments are returned.
+    *
+    * @param segments the segments of the entries to return
+    * @param currentTimeMillis the current wall clock time
+    * @return the expired entries, or {@code null} if the container does not index the entries that can expire
+    */
+   default Collection<InternalCacheEntry<K, V>> expiredEntries(IntSet segments, long currentTimeMillis) {
+      return null;
+   }
 }
@@ -21,6 +21,7 @@
 import java.util.stream.LongStream;
 
 import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.spi.OffHeapMemory;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.IteratorMapper;
@@ -96,6 +97,7 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    /* ---------------- Constants -------------- */
 
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+   private static final OffHeapMemory MEMORY = org.infinispan.commons.jdkspecific.OffHeapMemory.getInstance();
 
    // We always have to have more buckets than locks
    public static final int INITIAL_SIZE = 256;
@@ -531,6 +533,10 @@ private void transfer(int lockOffset) {
             long nextAddress = offHeapEntryFactory.getNext(address);
             offHeapEntryFactory.setNext(address, 0);
 
+            if (listener == null) {
+               address = relocateIfNeeded(address);
+            }
+
             int hashCode = offHeapEntryFactory.getHashCode(address);
             int memoryOffset = getMemoryOffset(hashCode);
             long newBucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
@@ -543,6 +549,25 @@ private void transfer(int lockOffset) {
       });
    }
 
+   /**
+    * Moves the entry to a new memory location if the allocator asks for it, which allows pooled allocators to reclaim
+    * sparsely used memory while the entries are being rehashed. This is not done when there is a listener, as the
+    * listener would see the relocation as a replacement and e.g. update the entry recency.
+    * @param address the address of an entry that is not referenced by any bucket
+    * @return the address of the entry after the relocation
+    */
+   @GuardedBy("locks#writeLock")
+   private long relocateIfNeeded(long address) {
+      long size = offHeapEntryFactory.getSize(address, false);
+      if (!allocator.shouldRelocate(address, size)) {
+         return address;
+      }
+      long newAddress = allocator.allocate(size);
+      MEMORY.copy(address, 0, newAddress, 0, size);
+      allocator.deallocate(address, size);
+      return newAddress;
+   }
+
    @Override
    public void close() {
       locks.lockAll();
@@ -23,4 +23,16 @@ public interface OffHeapMemoryAllocator {
    void deallocate(long memoryAddress, long size);
 
    long getAllocatedAmount();
+
+   /**
+    * Returns whether the memory at the given address should be moved to a newly allocated location, so that the
+    * allocator can reclaim the memory around it. This is invoked by the data container while it has exclusive access
+    * to the entry, e.g. when rehashing.
+    * @param memoryAddress the address of the allocation
+    * @param size the size that was provided to allocate
+    * @return true if the caller should reallocate the memory, copy it and deallocate the old address
+    */
+   default boolean shouldRelocate(long memoryAddress, long size) {
+      return false;
+   }
 }
@@ -0,0 +1,378 @@
+package org.infinispan.container.offheap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.spi.OffHeapMemory;
+import org.infinispan.commons.util.ProcessorInfo;
+import org.infinispan.commons.util.Util;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Memory allocator that carves allocations out of large native pages instead of invoking the native allocator for
+ * every entry.
+ * <p>
+ * Allocations up to {@link #MAX_POOLED_SIZE} bytes are rounded up to a size class (16 byte steps up to 256 bytes and
+ * then 4 steps per power of two). Every size class is split into a number of arenas, and a thread always allocates
+ * from the arena its thread id maps to, so that concurrent writers rarely contend on the same lock. Each arena owns
+ * {@link #PAGE_SIZE} pages, from which fixed size slots are handed out. Freed slots are kept in a free list inside the
+ * page that owns them, and a page is returned to the operating system as soon as its last slot is freed. Larger
+ * allocations are delegated directly to the native allocator.
+ * <p>
+ * Pages are reserved with their exact size and are not aligned, so a page overlaps at most two {@link #PAGE_SIZE}
+ * aligned regions of the address space, and a region overlaps at most two pages: one starting in it and one ending in
+ * it. The page owning an address is found from the region the address belongs to.
+ * <p>
+ * Slots of a page are only touched when handed out, therefore a page only contributes to the resident memory of the
+ * process once it is used. {@link #getAllocatedAmount()} however reports the full size of every page reserved.
+ * <p>
+ * Pages with a low occupancy are reported by {@link #shouldRelocate(long, long)}, which allows the data container to
+ * move their entries to fuller pages while it rehashes them, so that the sparse pages can be released.
+ * <p>
+ * Note that this allocator hands out addresses that were not returned by {@link OffHeapMemory#allocate(long)}, so the
+ * address verification performed by the off-heap memory implementation when its logger is at {@code FINER} level
+ * cannot be used with it.
+ *
+ * @since 16.0
+ */
+@Scope(Scopes.NAMED_CACHE)
+public class PooledOffHeapMemoryAllocator implements OffHeapMemoryAllocator {
+   private static final Log log = LogFactory.getLog(PooledOffHeapMemoryAllocator.class, Log.class);
+   private static final OffHeapMemory MEMORY = org.infinispan.commons.jdkspecific.OffHeapMemory.getInstance();
+
+   /**
+    * Size of the native pages slots are carved from.
+    */
+   static final long PAGE_SIZE = 1 << 21;
+   private static final int PAGE_SHIFT = Long.numberOfTrailingZeros(PAGE_SIZE);
+   /**
+    * Allocations larger than this are not pooled.
+    */
+   static final int MAX_POOLED_SIZE = 1 << 14;
+   /**
+    * A page with less than 1/{@code RELOCATION_RATIO} of its slots in use is a candidate for relocation.
+    */
+   private static final int RELOCATION_RATIO = 4;
+
+   private static final int SMALL_CLASS_COUNT = 16;
+   private static final int SMALL_CLASS_MAX = SMALL_CLASS_COUNT << 4;
+   private static final int[] SLOT_SIZES;
+
+   static {
+      int classCount = sizeClassIndex(MAX_POOLED_SIZE) + 1;
+      SLOT_SIZES = new int[classCount];
+      for (int i = 0; i < classCount; ++i) {
+         if (i < SMALL_CLASS_COUNT) {
+            SLOT_SIZES[i] = (i + 1) << 4;
+         } else {
+            int log2 = 8 + ((i - SMALL_CLASS_COUNT) >> 2);
+            int step = (i - SMALL_CLASS_COUNT) & 3;
+            SLOT_SIZES[i] = (1 << log2) + ((step + 1) << (log2 - 2));
+         }
+      }
+   }
+
+   private final int arenaMask;
+   // Indexed by size class and then by arena
+   private final Arena[][] arenas;
+   private final LongAdder pooledAmount = new LongAdder();
+   private final LongAdder unpooledAmount = new LongAdder();
+
+   private final Object pagesLock = new Object();
+   // The regions overlapped by the reserved pages, by address >>> PAGE_SHIFT. Written while holding pagesLock, read
+   // without it to find the page an address belongs to
+   private final ConcurrentMap<Long, Region> regions = new ConcurrentHashMap<>();
+
+   public PooledOffHeapMemoryAllocator() {
+      this(Math.min(Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors()), 16));
+   }
+
+   PooledOffHeapMemoryAllocator(int arenaCount) {
+      arenaCount = Util.findNextHighestPowerOfTwo(arenaCount);
+      arenaMask = arenaCount - 1;
+      arenas = new Arena[SLOT_SIZES.length][arenaCount];
+      for (int i = 0; i < SLOT_SIZES.length; ++i) {
+         for (int j = 0; j < arenaCount; ++j) {
+            arenas[i][j] = new Arena(SLOT_SIZES[i]);
+         }
+      }
+   }
+
+   /**
+    * Returns the size class used for an allocation of the given size, which must be between 1 and
+    * {@link #MAX_POOLED_SIZE}.
+    */
+   static int sizeClassIndex(long size) {
+      if (size <= SMALL_CLASS_MAX) {
+         return (int) ((size + 15) >>> 4) - 1;
+      }
+      int log2 = 63 - Long.numberOfLeadingZeros(size - 1);
+      int step = (int) ((size - 1) >>> (log2 - 2)) & 3;
+      return SMALL_CLASS_COUNT + ((log2 - 8) << 2) + step;
+   }
+
+   /**
+    * Returns the size of the slot used to store an allocation of the given size.
+    */
+   static int slotSize(long size) {
+      return SLOT_SIZES[sizeClassIndex(size)];
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      if (memoryLength > MAX_POOLED_SIZE) {
+         long memoryLocation = MEMORY.allocate(memoryLength);
+         unpooledAmount.add(UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryLength));
+         return memoryLocation;
+      }
+      Arena arena = arenas[sizeClassIndex(memoryLength)][(int) Thread.currentThread().getId() & arenaMask];
+      long memoryLocation = arena.allocate();
+      if (log.isTraceEnabled()) {
+         log.tracef("Allocated pooled off-heap memory at 0x%016x with %d bytes. Total size: %d", memoryLocation,
+               arena.slotSize, getAllocatedAmount());
+      }
+      return memoryLocation;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress, long size) {
+      if (size > MAX_POOLED_SIZE) {
+         unpooledAmount.add(-UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size));
+         MEMORY.free(memoryAddress);
+         return;
+      }
+      Page page = pageOf(memoryAddress);
+      if (log.isTraceEnabled()) {
+         log.tracef("Deallocating pooled off-heap memory at 0x%016x with %d bytes. Total size: %d", memoryAddress,
+               page.arena.slotSize, getAllocatedAmount());
+      }
+      page.arena.free(page, memoryAddress);
+   }
+
+   @Override
+   public long getAllocatedAmount() {
+      return pooledAmount.sum() + unpooledAmount.sum();
+   }
+
+   /**
+    * Returns {@code true} if the allocation at the given address lives in a page that is mostly free, and that would
+    * have a chance to be released if the allocation were moved somewhere else.
+    */
+   @Override
+   public boolean shouldRelocate(long memoryAddress, long size) {
+      if (size > MAX_POOLED_SIZE) {
+         return false;
+      }
+      Page page = pageOf(memoryAddress);
+      // Racy read, but relocation is only a hint
+      return page.arena.current != page && page.live * RELOCATION_RATIO < page.capacity;
+   }
+
+   /**
+    * Returns the number of pages currently reserved from the operating system.
+    */
+   int getPageCount() {
+      return (int) (pooledAmount.sum() / PAGE_SIZE);
+   }
+
+   /**
+    * Releases all pages back to the operating system. Any address handed out by this allocator must not be used
+    * afterward.
+    */
+   @Stop
+   public void stop() {
+      for (Arena[] sizeClassArenas : arenas) {
+         for (Arena arena : sizeClassArenas) {
+            arena.reset();
+         }
+      }
+      List<Page> reserved = new ArrayList<>();
+      for (Region region : regions.values()) {
+         if (region.starting != null) {
+            reserved.add(region.starting);
+         }
+      }
+      reserved.forEach(this::releasePage);
+   }
+
+   private Page pageOf(long memoryAddress) {
+      Region region = regions.get(memoryAddress >>> PAGE_SHIFT);
+      Page starting = region.starting;
+      return starting != null && memoryAddress >= starting.address ? starting : region.ending;
+   }
+
+   /**
+    * Returns the address of the page holding the given pooled allocation.
+    */
+   long pageAddress(long memoryAddress) {
+      return pageOf(memoryAddress).address;
+   }
+
+   private Page reservePage(Arena arena) {
+      Page page = new Page(MEMORY.allocate(PAGE_SIZE), arena);
+      long first = page.address >>> PAGE_SHIFT;
+      long last = (page.address + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+      synchronized (pagesLock) {
+         regions.computeIfAbsent(first, k -> new Region()).starting = page;
+         if (last != first) {
+            regions.computeIfAbsent(last, k -> new Region()).ending = page;
+         }
+      }
+      pooledAmount.add(PAGE_SIZE);
+      if (log.isTraceEnabled()) {
+         log.tracef("Reserved off-heap page at 0x%016x for slots of %d bytes", page.address, arena.slotSize);
+      }
+      return page;
+   }
+
+   private void releasePage(Page page) {
+      long first = page.address >>> PAGE_SHIFT;
+      long last = (page.address + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+      synchronized (pagesLock) {
+         Region region = regions.get(first);
+         region.starting = null;
+         if (region.ending == null) {
+            regions.remove(first);
+         }
+         if (last != first) {
+            region = regions.get(last);
+            region.ending = null;
+            if (region.starting == null) {
+               regions.remove(last);
+            }
+         }
+      }
+      MEMORY.free(page.address);
+      pooledAmount.add(-PAGE_SIZE);
+      if (log.isTraceEnabled()) {
+         log.tracef("Released off-heap page at 0x%016x", page.address);
+      }
+   }
+
+   /**
+    * The pages overlapping a {@link #PAGE_SIZE} aligned region of the address space.
+    */
+   private static final class Region {
+      // The page starting in the region
+      volatile Page starting;
+      // The page starting in the previous region and ending in this one
+      volatile Page ending;
+   }
+
+   /**
+    * The pages of a single size class owned by a group of threads.
+    */
+   private final class Arena {
+      private final int slotSize;
+      // Pages with at least one free slot, other than the current one
+      @GuardedBy("this")
+      private final List<Page> partialPages = new ArrayList<>();
+      // Read without the lock by shouldRelocate
+      private volatile Page current;
+
+      Arena(int slotSize) {
+         this.slotSize = slotSize;
+      }
+
+      synchronized long allocate() {
+         Page page = current;
+         if (page == null || page.isFull()) {
+            page = nextPage();
+            current = page;
+         }
+         return page.take();
+      }
+
+      synchronized void free(Page page, long memoryAddress) {
+         boolean wasFull = page.isFull();
+         page.give(memoryAddress);
+         if (page == current) {
+            return;
+         }
+         if (page.live == 0) {
+            if (!wasFull) {
+               partialPages.remove(page);
+            }
+            releasePage(page);
+         } else if (wasFull) {
+            partialPages.add(page);
+         }
+      }
+
+      @GuardedBy("this")
+      private Page nextPage() {
+         // Prefer the fullest page, so that mostly empty pages have a chance to drain and be released
+         int best = -1;
+         for (int i = 0; i < partialPages.size(); ++i) {
+            if (best < 0 || partialPages.get(i).live > partialPages.get(best).live) {
+               best = i;
+            }
+         }
+         if (best >= 0) {
+            Page page = partialPages.get(best);
+            int last = partialPages.size() - 1;
+            partialPages.set(best, partialPages.get(last));
+            partialPages.remove(last);
+            return page;
+         }
+         return reservePage(this);
+      }
+
+      synchronized void reset() {
+         partialPages.clear();
+         current = null;
+      }
+   }
+
+   /**
+    * A native page split into slots of the same size. All fields but the final ones are guarded by the owning arena.
+    */
+   private static final class Page {
+      final long address;
+      final Arena arena;
+      final int capacity;
+      // Read without the lock by shouldRelocate
+      volatile int live;
+      // Address of the first freed slot, the address of the next one is stored in its first 8 bytes
+      long freeList;
+      // Number of slots handed out at least once, slots after it have never been touched
+      int used;
+
+      Page(long address, Arena arena) {
+         this.address = address;
+         this.arena = arena;
+         this.capacity = (int) (PAGE_SIZE / arena.slotSize);
+      }
+
+      boolean isFull() {
+         return freeList == 0 && used == capacity;
+      }
+
+      long take() {
+         long slot;
+         if (freeList != 0) {
+            slot = freeList;
+            freeList = MEMORY.getLong(slot, 0);
+         } else {
+            slot = address + (long) used++ * arena.slotSize;
+         }
+         live++;
+         return slot;
+      }
+
+      void give(long slot) {
+         MEMORY.putLong(slot, 0, freeList);
+         freeList = slot;
+         live--;
+      }
+   }
+}
@@ -2,6 +2,7 @@
 
 import static org.infinispan.commons.util.Util.toStr;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -125,7 +126,11 @@ private boolean purgeInMemoryContents(LocalizedCacheTopology topology) {
             segments = IntSets.immutableEmptySet();
          }
 
-         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().iteratorIncludingExpired(segments);
+         // Only the entries due are visited when the container indexes them by expiration time. Those not removed due
+         // to a topology change remain indexed and are visited again on the next run.
+         Collection<InternalCacheEntry<K, V>> expired = dataContainer.running().expiredEntries(segments, currentTimeMillis);
+         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = expired != null ? expired.iterator() :
+                    dataContainer.running().iteratorIncludingExpired(segments);
               purgeCandidates.hasNext();) {
             InternalCacheEntry<K, V> ice = purgeCandidates.next();
             if (ice.canExpire()) {
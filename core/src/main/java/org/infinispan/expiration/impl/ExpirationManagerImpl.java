@@ -2,6 +2,7 @@
 
 import static org.infinispan.util.logging.Log.CONTAINER;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -18,6 +19,7 @@
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.ByRef;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.AggregateCompletionStage;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -47,6 +49,8 @@
 @Scope(Scopes.NAMED_CACHE)
 public class ExpirationManagerImpl<K, V> implements InternalExpirationManager<K, V> {
    private static final Log log = LogFactory.getLog(ExpirationManagerImpl.class);
+   // Expired entries removed concurrently by the reaper
+   private static final int EXPIRATION_BATCH_SIZE = 100;
 
    @Inject @ComponentName(KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR)
    protected ScheduledExecutorService executor;
@@ -105,13 +109,24 @@ public void processExpiration() {
                start = timeService.time();
             }
             long currentTimeMillis = timeService.wallClockTime();
-            for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().iteratorIncludingExpired();
-                 purgeCandidates.hasNext();) {
+            // Only the entries due are visited when the container indexes them by expiration time
+            Collection<InternalCacheEntry<K, V>> expired = dataContainer.running().expiredEntries(currentTimeMillis);
+            Iterator<InternalCacheEntry<K, V>> purgeCandidates = expired != null ? expired.iterator() :
+                  dataContainer.running().iteratorIncludingExpired();
+            AggregateCompletionStage<Void> batch = CompletionStages.aggregateCompletionStage();
+            int batchSize = 0;
+            while (purgeCandidates.hasNext()) {
                InternalCacheEntry<K, V> e = purgeCandidates.next();
                if (e.isExpired(currentTimeMillis)) {
-                  CompletionStages.join(entryExpiredInMemory(e, currentTimeMillis, false));
+                  batch.dependsOn(entryExpiredInMemory(e, currentTimeMillis, false));
+                  if (++batchSize == EXPIRATION_BATCH_SIZE) {
+                     CompletionStages.join(batch.freeze());
+                     batch = CompletionStages.aggregateCompletionStage();
+                     batchSize = 0;
+                  }
                }
             }
+            CompletionStages.join(batch.freeze());
             if (log.isTraceEnabled()) {
                log.tracef("Purging data container completed in %s",
                      Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
@@ -19,6 +19,7 @@
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.functional.ReadOnlyKeyCommand;
 import org.infinispan.commands.functional.ReadOnlyManyCommand;
+import org.infinispan.commands.functional.ReadWriteKeyCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
 import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
@@ -254,10 +255,11 @@ protected Object primaryReturnHandler(InvocationContext ctx, AbstractDataWriteCo
       boolean hadIgnoreReturnValues = command.hasAnyFlag(FlagBitSets.IGNORE_RETURN_VALUES);
       command.addFlags(FlagBitSets.IGNORE_RETURN_VALUES);
       if (!isSynchronous(command)) {
+         CacheRpcCommand backupCommand = backupCommand(command);
          if (isReplicated) {
-            rpcManager.sendToAll(command, DeliverOrder.PER_SENDER);
+            rpcManager.sendToAll(backupCommand, DeliverOrder.PER_SENDER);
          } else {
-            rpcManager.sendToMany(owners, command, DeliverOrder.PER_SENDER);
+            rpcManager.sendToMany(owners, backupCommand, DeliverOrder.PER_SENDER);
          }
          // Switch to the retry policy, in case the primary owner changes before we commit locally
          command.setValueMatcher(originalMatcher.matcherForRetry());
@@ -269,9 +271,10 @@ protected Object primaryReturnHandler(InvocationContext ctx, AbstractDataWriteCo
       RpcOptions rpcOptions = rpcManager.getSyncRpcOptions();
       // Mark the command as a backup write so it can skip some checks
       command.addFlags(FlagBitSets.BACKUP_WRITE);
+      CacheRpcCommand backupCommand = backupCommand(command);
       CompletionStage<Void> remoteInvocation = isReplicated ?
-            rpcManager.invokeCommandOnAll(command, collector, rpcOptions) :
-            rpcManager.invokeCommand(owners, command, collector, rpcOptions);
+            rpcManager.invokeCommandOnAll(backupCommand, collector, rpcOptions) :
+            rpcManager.invokeCommand(owners, backupCommand, collector, rpcOptions);
       return asyncValue(remoteInvocation.handle((ignored, t) -> {
          // Unset the backup write bit as the command will be retried
          command.setFlagsBitSet(command.getFlagsBitSet() & ~FlagBitSets.BACKUP_WRITE);
@@ -284,6 +287,11 @@ protected Object primaryReturnHandler(InvocationContext ctx, AbstractDataWriteCo
       }));
    }
 
+   private static CacheRpcCommand backupCommand(AbstractDataWriteCommand command) {
+      // Functions that recorded a delta on the primary owner have it applied on the backups instead
+      return command instanceof ReadWriteKeyCommand ? ((ReadWriteKeyCommand<?, ?, ?>) command).toBackupCommand() : command;
+   }
+
    @Override
    public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
       if (command.hasAnyFlag(FlagBitSets.CACHE_MODE_LOCAL | FlagBitSets.SKIP_REMOTE_LOOKUP)) {
@@ -6,6 +6,7 @@
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.SegmentSpecificCommand;
@@ -52,6 +53,8 @@
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.persistence.async.AsyncNonBlockingStore;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.MarshallableEntryFactory;
@@ -437,6 +440,7 @@ protected boolean isProperWriter(InvocationContext ctx, FlagAffectedCommand comm
    @Override
    public void resetStatistics() {
       cacheStores.set(0);
+      writeBehindStores().forEach(AsyncNonBlockingStore::resetStatistics);
    }
 
    @ManagedAttribute(
@@ -457,6 +461,38 @@ public int getNumberOfPersistedEntries() {
       return (int) Math.min(size, Integer.MAX_VALUE);
    }
 
+   @ManagedAttribute(
+         description = "Number of modifications queued by write-behind stores and not yet written",
+         displayName = "Write-behind queue size"
+   )
+   public long getWriteBehindQueueSize() {
+      return writeBehindStores().mapToLong(AsyncNonBlockingStore::getQueueSize).sum();
+   }
+
+   @ManagedAttribute(
+         description = "Number of batches written by write-behind stores",
+         displayName = "Number of write-behind flushes",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getWriteBehindFlushes() {
+      return writeBehindStores().mapToLong(AsyncNonBlockingStore::getFlushCount).sum();
+   }
+
+   @ManagedAttribute(
+         description = "Average time taken to write a batch by the slowest write-behind store",
+         displayName = "Average write-behind flush time",
+         units = Units.MILLISECONDS
+   )
+   public long getAverageWriteBehindFlushTime() {
+      return writeBehindStores().mapToLong(AsyncNonBlockingStore::getAverageFlushTime).max().orElse(0);
+   }
+
+   private Stream<AsyncNonBlockingStore<?, ?>> writeBehindStores() {
+      return persistenceManager.getAllStores(characteristics -> true).stream()
+            .filter(AsyncNonBlockingStore.class::isInstance)
+            .map(store -> (AsyncNonBlockingStore<?, ?>) store);
+   }
+
    CompletionStage<Void> storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       return storeEntry(ctx, key, command, true);
    }
@@ -40,6 +40,7 @@
 import org.infinispan.commands.functional.WriteOnlyKeyValueCommand;
 import org.infinispan.commands.functional.WriteOnlyManyCommand;
 import org.infinispan.commands.functional.WriteOnlyManyEntriesCommand;
+import org.infinispan.commands.functional.functions.DeltaFunction;
 import org.infinispan.commands.read.EntrySetCommand;
 import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
@@ -1007,7 +1008,12 @@ public Object visitReadWriteKeyCommand(InvocationContext ctx, ReadWriteKeyComman
       boolean exists = e.getValue() != null;
       EntryViews.AccessLoggingReadWriteView view = EntryViews.readWrite(e, command.getKeyDataConversion(),
             command.getValueDataConversion());
-      ret = snapshot(command.getFunction().apply(view));
+      command.setBackupFunction(null);
+      if (command.getFunction() instanceof DeltaFunction) {
+         ret = snapshot(((DeltaFunction) command.getFunction()).apply(view, delta -> command.setBackupFunction((Function) delta)));
+      } else {
+         ret = snapshot(command.getFunction().apply(view));
+      }
       // The effective result of retried command is not safe; we'll go to backup anyway
       if (!e.isChanged() && !command.hasAnyFlag(FlagBitSets.COMMAND_RETRY)) {
          command.fail();
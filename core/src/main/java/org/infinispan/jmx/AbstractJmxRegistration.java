@@ -229,6 +229,15 @@ private ResourceDMBean getResourceDMBean(Object instance, String componentName)
     * perform unregistration using the returned ObjectName.
     */
    public ObjectName registerExternalMBean(Object managedComponent, String groupName) throws Exception {
+      return registerExternalMBean(managedComponent, groupName, null);
+   }
+
+   /**
+    * Registers a MBean under the given component name instead of the one from its metadata, so that several instances
+    * of the same component can be registered in a group. The MBean is not tracked to perform automatic unregistration
+    * on stop, the caller is expected to perform unregistration using the returned ObjectName.
+    */
+   public ObjectName registerExternalMBean(Object managedComponent, String groupName, String resourceName) throws Exception {
       if (mBeanServer == null) {
          throw new IllegalStateException("MBean server not initialized");
       }
@@ -236,7 +245,7 @@ public ObjectName registerExternalMBean(Object managedComponent, String groupNam
       if (resourceDMBean == null) {
          throw new IllegalArgumentException("No MBean metadata found for " + managedComponent.getClass().getName());
       }
-      ObjectName objectName = getObjectName(groupName, resourceDMBean.getMBeanName());
+      ObjectName objectName = getObjectName(groupName, resourceName != null ? resourceName : resourceDMBean.getMBeanName());
       register(resourceDMBean, objectName, mBeanServer);
       return objectName;
    }
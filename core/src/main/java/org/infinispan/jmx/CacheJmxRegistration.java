@@ -62,8 +62,15 @@ public void stop() {
 
    @Override
    protected String initGroup() {
+      return groupName(cacheName, cacheConfiguration, globalConfig.cacheManagerName());
+   }
+
+   /**
+    * @return the group name of the MBeans of a cache, for the components that register their MBeans themselves
+    */
+   public static String groupName(String cacheName, Configuration cacheConfiguration, String cacheManagerName) {
       return String.format(GROUP_PATTERN,
             ObjectName.quote(cacheName + "(" + cacheConfiguration.clustering().cacheModeString().toLowerCase() + ")"),
-            ObjectName.quote(globalConfig.cacheManagerName()));
+            ObjectName.quote(cacheManagerName));
    }
 }
@@ -67,6 +67,7 @@
             org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand.class,
             org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand.class,
             org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand.class,
+            org.infinispan.commands.statetransfer.ConflictResolutionDigestCommand.class,
             org.infinispan.commands.statetransfer.ConflictResolutionStartCommand.class,
             org.infinispan.commands.statetransfer.StateResponseCommand.class,
             org.infinispan.commands.statetransfer.StateTransferCancelCommand.class,
@@ -270,6 +271,7 @@
             org.infinispan.remoting.responses.SuccessfulTransientMortalCacheValueResponse.class,
             org.infinispan.remoting.responses.UnsuccessfulResponse.class,
             org.infinispan.remoting.responses.UnsureResponse.class,
+            org.infinispan.statetransfer.SegmentDigests.class,
             org.infinispan.statetransfer.StateChunk.class,
             org.infinispan.statetransfer.TransactionInfo.class,
             org.infinispan.stats.impl.ClusterCacheStatsImpl.DistributedCacheStatsCallable.class,
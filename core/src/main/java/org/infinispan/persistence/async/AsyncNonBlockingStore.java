@@ -2,8 +2,10 @@
 
 import java.lang.invoke.MethodHandles;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -11,6 +13,8 @@
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -19,6 +23,7 @@
 import org.infinispan.commons.IllegalLifecycleStateException;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.reactive.RxJavaInterop;
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
@@ -45,15 +50,25 @@
 
 /**
  * A delegating NonBlockingStore implementation that batches write operations and runs the resulting batches on the
- * delegate store in a non overlapping manner. That is that only a single batch will be running at a time.
+ * delegate store.
+ * <p>
+ * Modifications are spread over a number of partitions by segment, or by key when the delegate store is not segmented.
+ * Every partition runs its batches in a non overlapping manner, that is only a single batch of a given partition will
+ * be running at a time, which guarantees that writes to the same key reach the delegate store in order. Batches of
+ * different partitions are independent of each other and are written concurrently, so that a slow batch only delays
+ * the modifications of its own partition.
  * <p>
  * Whenever a write operation is performed it will also attempt to start a batch write immediately to the delegate store.
  * Any concurrent writes during this time may be included in the batch. Any additional writes will be enqueued until
- * the batch completes in which case it will automatically submit the pending batch, if there is one.  Write operations
- * to the same key in the same batch will be coalesced with only the last write being written to the underlying store.
- * If the number of enqueued pending write operations becomes equal or larger than the modification queue, then any
- * subsequent write will be added to the queue, but the returned Stage will not complete until the current batch completes
- * in an attempt to provide some backpressure to slow writes.
+ * the batch of their partition completes in which case it will automatically submit the pending batch, if there is one.
+ * Write operations to the same key in the same batch will be coalesced with only the last write being written to the
+ * underlying store. If the number of enqueued pending write operations, over all the partitions, becomes equal or
+ * larger than the modification queue, then any subsequent write will be added to the queue, but the returned Stage will
+ * not complete until the current batch of its partition completes in an attempt to provide some backpressure to slow
+ * writes.
+ * <p>
+ * A clear discards the pending modifications of every partition and is only sent to the delegate store once the
+ * batches being written complete. Partitions do not start a new batch until the clear has been applied.
  * <p>
  * Read operations may be resolved by this store immediately if the given key is still being updated in the
  * delegate store or if it is enqueued for the next batch. If the key is in neither it will query the underlying store
@@ -65,9 +80,12 @@
  */
 public class AsyncNonBlockingStore<K, V> extends DelegatingNonBlockingStore<K, V> {
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+   // Batches are bound by the delegate store latency rather than by the CPU, so this does not depend on the processors
+   static final int PARTITIONS = 8;
    private final NonBlockingStore<K, V> actual;
 
    private Executor nonBlockingExecutor;
+   private TimeService timeService;
    private int segmentCount;
    private int modificationQueueSize;
    private PersistenceConfiguration persistenceConfiguration;
@@ -76,33 +94,23 @@
    // "Non blocking" scheduler used for the purpose of delaying retry batch operations on failures
    private ScheduledExecutorService scheduler;
 
-   // This variable will be non null if there is a pending batch being sent to the underlying store
-   // If a request causes the modification queue to overflow it will receive a stage back that is only complete
-   // when this future is completed (aka. previous replication has completed)
-   @GuardedBy("this")
-   private CompletableFuture<Void> batchFuture;
+   private Partition[] partitions;
+
+   // Number of modifications either pending or being replicated, over all the partitions
+   private final AtomicInteger queueSize = new AtomicInteger();
+   private final LongAdder flushCount = new LongAdder();
+   private final LongAdder flushTime = new LongAdder();
 
    // This variable will be non null if the underlying store has been found to be not available
-   // Note that the async store will still be available as long as the queue size (ie. modificationMap.size) is not
+   // Note that the async store will still be available as long as the queue size (ie. queueSize) is not
    // greater than the configured modificationQueueSize
    @GuardedBy("this")
    private CompletableFuture<Void> delegateAvailableFuture;
 
-   // Any pending modifications will be enqueued in this map
-   @GuardedBy("this")
-   private Map<Object, Modification> pendingModifications = new HashMap<>();
-   // If there is a pending clear this will be true
-   @GuardedBy("this")
-   private boolean hasPendingClear;
-   // The next two variables are held temporarily until a replication of the values is complete. We need to retain
-   // these values until we are sure the entries are actually in the store - note these variables are only written to
-   // via reference (thus the map is safe to read outside of this lock, but the reference must be read in synchronized)
-   // This map contains all the modifications currently being replicated to the delegating store
-   @GuardedBy("this")
-   private Map<Object, Modification> replicatingModifications = Collections.emptyMap();
-   // True if there is an outstanding clear that is being ran on the delegating store
+   // Completed when the last clear submitted has been applied to the delegate store. Clears are submitted while
+   // holding this lock so that all the partitions observe them in the same order
    @GuardedBy("this")
-   private boolean isReplicatingClear;
+   private CompletableFuture<Void> lastClearFuture = CompletableFutures.completedNull();
    private volatile boolean stopped = true;
 
    public AsyncNonBlockingStore(NonBlockingStore<K, V> actual) {
@@ -128,6 +136,14 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       asyncConfiguration = storeConfiguration.async();
       modificationQueueSize = asyncConfiguration.modificationQueueSize();
       nonBlockingExecutor = ctx.getNonBlockingExecutor();
+      timeService = ctx.getTimeService();
+      int partitionCount = segmentCount > 1 ? Math.min(PARTITIONS, segmentCount) : PARTITIONS;
+      @SuppressWarnings("unchecked")
+      Partition[] partitions = new AsyncNonBlockingStore.Partition[partitionCount];
+      for (int i = 0; i < partitionCount; i++) {
+         partitions[i] = new Partition();
+      }
+      this.partitions = partitions;
       stopped = false;
       return actual.start(ctx);
    }
@@ -152,109 +168,209 @@ public CompletionStage<Void> stop() {
     * Returns a stage that when complete, this store has submitted and completed all pending modifications
     */
    private CompletionStage<Void> awaitQuiescence() {
-      CompletionStage<Void> stage;
+      List<CompletableFuture<Void>> stages = new ArrayList<>();
       synchronized (this) {
-         stage = batchFuture;
+         if (!lastClearFuture.isDone()) {
+            stages.add(lastClearFuture);
+         }
       }
-      if (stage == null) {
+      for (Partition partition : partitions) {
+         synchronized (partition) {
+            if (partition.batchFuture != null) {
+               stages.add(partition.batchFuture);
+            }
+         }
+      }
+      if (stages.isEmpty()) {
          return CompletableFutures.completedNull();
       }
       if (log.isTraceEnabled()) {
-         log.tracef("Must wait until prior batch completes for %s", actual);
+         log.tracef("Must wait until %d prior batches complete for %s", stages.size(), actual);
       }
-      return stage.thenCompose(ignore -> awaitQuiescence());
-   }
-
-   void putModification(Object key, Modification modification) {
-      pendingModifications.put(key, modification);
+      return CompletableFuture.allOf(stages.toArray(new CompletableFuture[0]))
+            .handle((ignore, t) -> null)
+            .thenCompose(ignore -> awaitQuiescence());
    }
 
-   void putClearModification() {
-      pendingModifications.clear();
-      hasPendingClear = true;
+   /**
+    * Returns the partition holding the modifications of the given key. Segmented stores are partitioned by segment,
+    * so that a batch contains whole segments, the others by key.
+    */
+   private Partition partition(Object wrappedKey, int segment) {
+      if (partitions.length == 1) {
+         return partitions[0];
+      }
+      int hash = segmentCount == 1 ? wrappedKey.hashCode() : segment;
+      return partitions[(hash & Integer.MAX_VALUE) % partitions.length];
    }
 
    /**
-    * This method submits a batch of modifications to the underlying store and completes {@code batchFuture}
-    * when the modifications are done.
-    *
-    * If there are any pending modifications at that time, it automatically submits a new batch,
-    * otherwise it sets {@code batchFuture} to null.
-    *
-    * Callers must atomically check that {@code batchFuture} is null and set it to a non-null value,
-    * to ensure that only one batch is being processed at any time.
+    * The modifications of a subset of the segments. All the fields are guarded by the partition monitor.
     */
-   private void submitTask() {
-      Map<Object, Modification> newMap = new HashMap<>();
-      if (log.isTraceEnabled()) {
-         log.tracef("Starting new batch with id %s", System.identityHashCode(newMap));
-      }
-      boolean ourClearToReplicate;
-      Map<Object, Modification> ourModificationsToReplicate;
-      synchronized (this) {
-         // The isReplicatingClear would be true or replicatingModifications non empty if an update was currently pending
-         // But we should only allow one at a time
-         assert replicatingModifications.isEmpty() && !isReplicatingClear;
-         replicatingModifications = pendingModifications;
-         ourModificationsToReplicate = pendingModifications;
-         pendingModifications = newMap;
-         isReplicatingClear = hasPendingClear;
-         ourClearToReplicate = hasPendingClear;
-         hasPendingClear = false;
+   private final class Partition {
+      // This variable will be non null if there is a pending batch being sent to the underlying store
+      // If a request causes the modification queue to overflow it will receive a stage back that is only complete
+      // when this future is completed (aka. previous replication has completed)
+      private CompletableFuture<Void> batchFuture;
+      // Any pending modifications will be enqueued in this map
+      private Map<Object, Modification> pendingModifications = new HashMap<>();
+      // This map contains all the modifications currently being replicated to the delegating store. We need to
+      // retain these values until we are sure the entries are actually in the store - note this variable is only
+      // written to via reference (thus the map is safe to read outside of this lock, but the reference must be read
+      // in synchronized)
+      private Map<Object, Modification> replicatingModifications = Collections.emptyMap();
+      // True from the moment the pending modifications are moved to replicatingModifications until the batch completes
+      private boolean replicating;
+      // The clear the next batch must wait for, all the modifications pending were submitted after it
+      private CompletableFuture<Void> clearFuture = CompletableFutures.completedNull();
+
+      CompletionStage<Void> submit(Object wrappedKey, Modification modification) {
+         boolean isTraceEnabled = log.isTraceEnabled();
+         boolean startNewBatch;
+         CompletionStage<Void> submitStage;
+         synchronized (this) {
+            if (isTraceEnabled) {
+               log.tracef("Adding modification %s to batch %s", modification, System.identityHashCode(pendingModifications));
+            }
+            if (pendingModifications.put(wrappedKey, modification) == null) {
+               queueSize.incrementAndGet();
+            }
+
+            startNewBatch = batchFuture == null;
+            if (startNewBatch) {
+               batchFuture = new CompletableFuture<>();
+            }
+
+            int currentQueueSize = queueSize.get();
+            submitStage = currentQueueSize > modificationQueueSize ? batchFuture : null;
+            if (submitStage != null && isTraceEnabled) {
+               log.tracef("Too many modifications queued (%d), operation must wait until previous batch %d completes",
+                     currentQueueSize, System.identityHashCode(replicatingModifications));
+            }
+         }
+
+         if (startNewBatch) {
+            submitTask();
+         }
+         return submitStage == null ? CompletableFutures.completedNull() :
+               submitStage.thenApplyAsync(CompletableFutures.toNullFunction(), nonBlockingExecutor);
       }
 
-      CompletionStage<Void> asyncBatchStage;
-      if (ourClearToReplicate) {
-         if (log.isTraceEnabled()) {
-            log.tracef("Sending clear to underlying store for id %s", System.identityHashCode(ourModificationsToReplicate));
+      /**
+       * This method submits a batch of modifications to the underlying store and completes {@code batchFuture}
+       * when the modifications are done. If a clear is still being applied, the batch is only started once the clear
+       * completes.
+       *
+       * If there are any pending modifications at that time, it automatically submits a new batch,
+       * otherwise it sets {@code batchFuture} to null.
+       *
+       * Callers must atomically check that {@code batchFuture} is null and set it to a non-null value,
+       * to ensure that only one batch of the partition is being processed at any time.
+       */
+      private void submitTask() {
+         Map<Object, Modification> ourModificationsToReplicate;
+         CompletableFuture<Void> clearToAwait;
+         synchronized (this) {
+            assert !replicating && batchFuture != null;
+            clearToAwait = clearFuture;
+            if (clearToAwait.isDone()) {
+               replicatingModifications = pendingModifications;
+               ourModificationsToReplicate = pendingModifications;
+               pendingModifications = new HashMap<>();
+               replicating = true;
+            } else {
+               ourModificationsToReplicate = null;
+            }
          }
-         asyncBatchStage = retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
-            synchronized (this) {
-               isReplicatingClear = false;
+         if (ourModificationsToReplicate == null) {
+            if (log.isTraceEnabled()) {
+               log.trace("Batch must wait until the pending clear completes");
             }
-         });
-      } else {
-         asyncBatchStage = CompletableFutures.completedNull();
-      }
+            // Another clear may be submitted in the meantime, so the clear to wait for is read again
+            clearToAwait.whenComplete((ignore, t) -> submitTask());
+            return;
+         }
 
-      if (!ourModificationsToReplicate.isEmpty()) {
-         asyncBatchStage = asyncBatchStage.thenCompose(ignore -> {
+         long start = timeService.time();
+         CompletionStage<Void> asyncBatchStage;
+         if (!ourModificationsToReplicate.isEmpty()) {
             if (log.isTraceEnabled()) {
                log.tracef("Sending batch of %d write/remove operations to underlying store with id %s", ourModificationsToReplicate.size(),
                      System.identityHashCode(ourModificationsToReplicate));
             }
-            return retry(() -> replicateModifications(ourModificationsToReplicate), persistenceConfiguration.connectionAttempts())
-                  .whenComplete((ignore2, t) -> {
-               synchronized (this) {
-                  replicatingModifications = Collections.emptyMap();
+            asyncBatchStage = retry(() -> replicateModifications(ourModificationsToReplicate), persistenceConfiguration.connectionAttempts());
+         } else {
+            // A clear discarded the modifications while the batch was waiting
+            asyncBatchStage = CompletableFutures.completedNull();
+         }
+
+         asyncBatchStage.whenComplete((ignore, t) -> {
+            if (log.isTraceEnabled()) {
+               log.tracef("Async operations completed for id %s", System.identityHashCode(ourModificationsToReplicate));
+            }
+            if (!ourModificationsToReplicate.isEmpty()) {
+               flushCount.increment();
+               flushTime.add(timeService.timeDuration(start, TimeUnit.NANOSECONDS));
+            }
+            boolean submitNewBatch;
+            CompletableFuture<Void> future;
+            synchronized (this) {
+               queueSize.addAndGet(-replicatingModifications.size());
+               replicatingModifications = Collections.emptyMap();
+               replicating = false;
+               submitNewBatch = !pendingModifications.isEmpty();
+               future = batchFuture;
+               batchFuture = submitNewBatch ? new CompletableFuture<>() : null;
+            }
+            if (t != null) {
+               future.completeExceptionally(t);
+            } else {
+               future.complete(null);
+            }
+            if (submitNewBatch) {
+               if (log.isTraceEnabled()) {
+                  log.trace("Submitting new batch after completion of prior");
                }
-            });
+               submitTask();
+            }
          });
       }
+   }
 
-      asyncBatchStage.whenComplete((ignore, t) -> {
-         if (log.isTraceEnabled()) {
-            log.tracef("Async operations completed for id %s", System.identityHashCode(ourModificationsToReplicate));
-         }
-         boolean submitNewBatch;
-         CompletableFuture<Void> future;
-         synchronized (this) {
-            submitNewBatch = !pendingModifications.isEmpty() || hasPendingClear;
-            future = batchFuture;
-            batchFuture = submitNewBatch ? new CompletableFuture<>() : null;
-         }
-         if (t != null) {
-            future.completeExceptionally(t);
-         } else {
-            future.complete(null);
-         }
-         if (submitNewBatch) {
-            if (log.isTraceEnabled()) {
-               log.trace("Submitting new batch after completion of prior");
+   /**
+    * Discards the pending modifications of every partition and clears the delegate store once the batches currently
+    * being replicated complete.
+    */
+   private void submitClear() {
+      CompletableFuture<Void> clearFuture = new CompletableFuture<>();
+      List<CompletableFuture<Void>> stagesToAwait = new ArrayList<>(partitions.length + 1);
+      synchronized (this) {
+         stagesToAwait.add(lastClearFuture);
+         lastClearFuture = clearFuture;
+         for (Partition partition : partitions) {
+            synchronized (partition) {
+               queueSize.addAndGet(-partition.pendingModifications.size());
+               partition.pendingModifications.clear();
+               if (partition.replicating) {
+                  stagesToAwait.add(partition.batchFuture);
+               }
+               partition.clearFuture = clearFuture;
             }
-            submitTask();
          }
-      });
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("Sending clear to underlying store once %d prior batches complete", stagesToAwait.size());
+      }
+      CompletableFuture.allOf(stagesToAwait.toArray(new CompletableFuture[0]))
+            .handle((ignore, t) -> null)
+            .thenCompose(ignore -> retry(actual::clear, persistenceConfiguration.connectionAttempts()))
+            .whenComplete((ignore, t) -> {
+               if (t != null) {
+                  clearFuture.completeExceptionally(t);
+               } else {
+                  clearFuture.complete(null);
+               }
+            });
    }
 
    /**
@@ -394,54 +510,63 @@ private <E> Publisher<E> abstractPublish(IntSet segments, Predicate<? super K> f
    }
 
    private Map.Entry<Boolean, Map<Object, Modification>> flattenModificationMaps() {
-      Map<Object, Modification> modificationCopy;
-      Map<Object, Modification> modificationsToReplicate;
+      List<Map<Object, Modification>> modificationsToReplicate = new ArrayList<>(partitions.length);
+      List<Map<Object, Modification>> pendingCopies = new ArrayList<>(partitions.length);
       boolean clearToReplicate;
+      // Prevents a clear from being submitted while the partitions are read
       synchronized (this) {
-         modificationCopy = new HashMap<>(pendingModifications);
-         if (hasPendingClear) {
-            return new AbstractMap.SimpleImmutableEntry<>(Boolean.TRUE, modificationCopy);
+         clearToReplicate = !lastClearFuture.isDone();
+         for (Partition partition : partitions) {
+            synchronized (partition) {
+               pendingCopies.add(new HashMap<>(partition.pendingModifications));
+               modificationsToReplicate.add(partition.replicatingModifications);
+            }
          }
-         modificationsToReplicate = this.replicatingModifications;
-         clearToReplicate = this.isReplicatingClear;
       }
 
-      modificationCopy.putAll(modificationsToReplicate);
+      Map<Object, Modification> modificationCopy = new HashMap<>();
+      for (int i = 0; i < partitions.length; i++) {
+         // The modifications being replicated were submitted before the clear
+         if (!clearToReplicate) {
+            modificationCopy.putAll(modificationsToReplicate.get(i));
+         }
+         modificationCopy.putAll(pendingCopies.get(i));
+      }
       return new AbstractMap.SimpleImmutableEntry<>(clearToReplicate, modificationCopy);
    }
 
    @Override
    public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       assertNotStopped();
-      CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(key);
+      CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(segment, key);
       if (pendingStage != null) {
          return pendingStage;
       }
       return actual.load(segment, key);
    }
 
-   private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key) {
+   private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(int segment, Object key) {
       Object wrappedKey = wrapKeyIfNeeded(key);
+      Partition partition = partition(wrappedKey, segmentToUse(segment));
       Map<Object, Modification> modificationsToReplicate;
-      boolean clearToReplicate;
-      synchronized (this) {
+      synchronized (partition) {
          // Note that writes to this map are done only in synchronized block, so we have to do same for get
-         Modification modification = pendingModifications.get(wrappedKey);
+         Modification modification = partition.pendingModifications.get(wrappedKey);
          if (modification != null) {
             if (log.isTraceEnabled()) {
                log.tracef("Found entry was pending write in async store: %s", modification);
             }
             return modification.asStage();
          }
-         if (hasPendingClear) {
+         if (!partition.clearFuture.isDone()) {
+            // Modifications being replicated, if any, were submitted before the clear
             if (log.isTraceEnabled()) {
-               log.trace("There is a pending clear from async store, returning null");
+               log.trace("There is a clear being replicated from async store, returning null");
             }
             return CompletableFutures.completedNull();
          }
          // This map is never written to so just reading reference in synchronized block is sufficient
-         modificationsToReplicate = this.replicatingModifications;
-         clearToReplicate = this.isReplicatingClear;
+         modificationsToReplicate = partition.replicatingModifications;
       }
       Modification modification = modificationsToReplicate.get(wrappedKey);
       if (modification != null) {
@@ -449,11 +574,6 @@ private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key)
             log.tracef("Found entry was replicating write in async store: %s", modification);
          }
          return modification.asStage();
-      } else if (clearToReplicate) {
-         if (log.isTraceEnabled()) {
-            log.trace("There is a clear being replicated from async store, returning null");
-         }
-         return CompletableFutures.completedNull();
       }
       return null;
    }
@@ -477,38 +597,8 @@ public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublis
    }
 
    CompletionStage<Void> submitModification(Modification modification) {
-      boolean isTraceEnabled = log.isTraceEnabled();
-      boolean startNewBatch;
-      CompletionStage<Void> submitStage;
-      synchronized (this) {
-         int previousBatchId;
-         if (isTraceEnabled) {
-            previousBatchId = System.identityHashCode(replicatingModifications);
-            int currentBatchId = System.identityHashCode(pendingModifications);
-            log.tracef("Adding modification %s to batch %s", modification, currentBatchId);
-         } else {
-            previousBatchId = 0;
-         }
-         modification.apply(this);
-
-         startNewBatch = batchFuture == null;
-         if (startNewBatch) {
-            batchFuture = new CompletableFuture<>();
-         }
-
-         int queueSize = pendingModifications.size() + replicatingModifications.size();
-         submitStage = queueSize > modificationQueueSize ? batchFuture : null;
-         if (submitStage != null && isTraceEnabled) {
-            log.tracef("Too many modifications queued (%d), operation must wait until previous batch %d completes",
-                       queueSize, previousBatchId);
-         }
-      }
-
-      if (startNewBatch) {
-         submitTask();
-      }
-      return submitStage == null ? CompletableFutures.completedNull() :
-             submitStage.thenApplyAsync(CompletableFutures.toNullFunction(), nonBlockingExecutor);
+      Object wrappedKey = wrapKeyIfNeeded(modification.getKey());
+      return partition(wrappedKey, modification.getSegment()).submit(wrappedKey, modification);
    }
 
    @Override
@@ -528,7 +618,7 @@ public CompletionStage<Boolean> delete(int segment, Object key) {
    @Override
    public CompletionStage<Void> clear() {
       assertNotStopped();
-      submitModification(ClearModification.INSTANCE);
+      submitClear();
       return CompletableFutures.completedNull();
    }
 
@@ -550,8 +640,12 @@ public CompletionStage<Void> addSegments(IntSet segments) {
    @Override
    public CompletionStage<Void> removeSegments(IntSet segments) {
       assertNotStopped();
-      synchronized (this) {
-         pendingModifications.values().removeIf(modification -> segments.contains(modification.getSegment()));
+      for (Partition partition : partitions) {
+         synchronized (partition) {
+            int sizeBefore = partition.pendingModifications.size();
+            partition.pendingModifications.values().removeIf(modification -> segments.contains(modification.getSegment()));
+            queueSize.addAndGet(partition.pendingModifications.size() - sizeBefore);
+         }
       }
       return actual.removeSegments(segments);
    }
@@ -596,21 +690,51 @@ public CompletionStage<Boolean> isAvailable() {
 
          boolean delegateUnavailable;
          boolean isReplicating;
-         int queueSize;
          synchronized (this) {
-            isReplicating = !replicatingModifications.isEmpty() || isReplicatingClear;
-            queueSize = pendingModifications.size();
+            isReplicating = !lastClearFuture.isDone();
             if (delegateUnavailable = delegateAvailableFuture == null) {
                delegateAvailableFuture = new CompletableFuture<>();
             }
          }
+         for (int i = 0; !isReplicating && i < partitions.length; i++) {
+            synchronized (partitions[i]) {
+               isReplicating = partitions[i].replicating;
+            }
+         }
          if (delegateUnavailable) {
             log.debugf("Underlying delegate %s is now unavailable!", actual);
          }
-         return queueSize < modificationQueueSize || !isReplicating;
+         return queueSize.get() < modificationQueueSize || !isReplicating;
       });
    }
 
+   /**
+    * @return the number of modifications not yet written to the delegate store, including the ones being written.
+    */
+   public int getQueueSize() {
+      return queueSize.get();
+   }
+
+   /**
+    * @return the number of batches written to the delegate store since the store was started or the statistics reset.
+    */
+   public long getFlushCount() {
+      return flushCount.sum();
+   }
+
+   /**
+    * @return the average time, in milliseconds, taken to write a batch to the delegate store, including retries.
+    */
+   public long getAverageFlushTime() {
+      long count = flushCount.sum();
+      return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(flushTime.sum() / count);
+   }
+
+   public void resetStatistics() {
+      flushCount.reset();
+      flushTime.reset();
+   }
+
    @Override
    public NonBlockingStore<K, V> delegate() {
       return actual;
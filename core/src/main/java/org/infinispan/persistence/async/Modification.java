@@ -6,14 +6,10 @@
 
 interface Modification {
    /**
-    * Applies the modification to the provided async store.
-    * <p>
-    * This method is not thread safe, callers must ensure that it is not invoked on multiple threads in parallel.
-    * @param store the store to apply the modification to
-    * @param <K> key type
-    * @param <V> value type
+    * Returns the key that is modified.
+    * @return the key of the modification
     */
-   <K, V> void apply(AsyncNonBlockingStore<K, V> store);
+   Object getKey();
 
    /**
     * Returns the segment that maps to this modification. Some modifications may not map to a given
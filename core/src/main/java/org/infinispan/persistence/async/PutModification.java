@@ -15,8 +15,8 @@ class PutModification implements Modification {
    }
 
    @Override
-   public <K, V> void apply(AsyncNonBlockingStore<K, V> store) {
-      store.putModification(AsyncNonBlockingStore.wrapKeyIfNeeded(entry.getKey()), this);
+   public Object getKey() {
+      return entry.getKey();
    }
 
    @Override
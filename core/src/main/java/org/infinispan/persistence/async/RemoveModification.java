@@ -14,11 +14,6 @@ class RemoveModification implements Modification {
       this.key = key;
    }
 
-   @Override
-   public <K, V> void apply(AsyncNonBlockingStore<K, V> store) {
-      store.putModification(AsyncNonBlockingStore.wrapKeyIfNeeded(key), this);
-   }
-
    @Override
    public int getSegment() {
       return segment;
@@ -29,6 +24,7 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> asStage() {
       return CompletableFutures.completedNull();
    }
 
+   @Override
    public Object getKey() {
       return key;
    }
@@ -29,6 +29,10 @@
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -134,6 +138,10 @@
    // bytes required by created and lastUsed timestamps
    private static final int TIMESTAMP_BYTES = 8 + 8;
    private static final int SMALLEST_ENTRY_SIZE = 128;
+   // defragmentation starts once this share of the file is free
+   private static final float DEFRAGMENTATION_RATIO = .5f;
+   // smaller files are only defragmented on start, purge and segment removal
+   private static final long DEFRAGMENTATION_MIN_FILE_SIZE = 64 * 1024;
 
    private SingleFileStoreConfiguration configuration;
 
@@ -142,8 +150,14 @@
    private FileChannel channel;
    @GuardedBy("resizeLock")
    private Map<K, FileEntry>[] entries;
-   private SortedSet<FileEntry> freeList;
+   private FreeList freeList;
+   @GuardedBy("tailLock")
    private long filePos;
+   // Orders appends at the end of the file with its truncation
+   private final Object tailLock = new Object();
+   private final AtomicBoolean defragmenting = new AtomicBoolean();
+   // free space left by the last defragmentation run
+   private volatile long defragmentedFreeBytes;
    private File file;
    private float fragmentationFactor = .75f;
    // Prevent clear() from truncating the file after a write() allocated the entry but before it wrote the data
@@ -178,7 +192,8 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       }
 
       entries = new Map[actualNumSegments];
-      freeList = Collections.synchronizedSortedSet(new TreeSet<>());
+      freeList = new FreeList();
+      defragmentedFreeBytes = 0;
 
       // Not really blocking because no other thread can access the lock during start
       blockingAddSegments(IntSets.immutableRangeSet(actualNumSegments));
@@ -829,34 +844,24 @@ private boolean blockingContainsKey(int segment, Object key) {
     */
    @GuardedBy("resizeLock.readLock()")
    private FileEntry allocate(int len) {
-      synchronized (freeList) {
-         // lookup a free entry of sufficient size
-         SortedSet<FileEntry> candidates = freeList.tailSet(new FileEntry(0, len));
-         for (Iterator<FileEntry> it = candidates.iterator(); it.hasNext(); ) {
-            FileEntry free = it.next();
-            // ignore entries that are still in use by concurrent readers
-            if (free.isLocked())
-               continue;
-
-            // There's no race condition risk between locking the entry on
-            // loading and checking whether it's locked (or store allocation),
-            // because for the entry to be lockable, it needs to be in the
-            // entries collection, in which case it's not in the free list.
-            // The only way an entry can be found in the free list is if it's
-            // been removed, and to remove it, lock on "entries" needs to be
-            // acquired, which is also a pre-requisite for loading data.
-
-            // found one, remove from freeList
-            it.remove();
-            return allocateExistingEntry(free, len);
-         }
-
-         // no appropriate free section available, append at end of file
-         FileEntry fe = new FileEntry(filePos, len);
+      // lookup a free entry of sufficient size, ignoring entries that are still in use by concurrent readers.
+      // There's no race condition risk between locking the entry on loading and checking whether it's locked (or store
+      // allocation), because for the entry to be lockable, it needs to be in the entries collection, in which case it's
+      // not in the free list. The only way an entry can be found in the free list is if it's been removed, and to
+      // remove it, lock on "entries" needs to be acquired, which is also a pre-requisite for loading data.
+      FileEntry free = freeList.take(len, Long.MAX_VALUE);
+      if (free != null) {
+         return allocateExistingEntry(free, len);
+      }
+
+      // no appropriate free section available, append at end of file
+      FileEntry fe;
+      synchronized (tailLock) {
+         fe = new FileEntry(filePos, len);
          filePos += len;
-         if (log.isTraceEnabled()) log.tracef("New entry allocated at %d:%d, %d free entries, file size is %d", fe.offset, fe.size, freeList.size(), filePos);
-         return fe;
       }
+      if (log.isTraceEnabled()) log.tracef("New entry allocated at %d:%d, %d free entries, file size is %d", fe.offset, fe.size, freeList.size(), fe.offset + len);
+      return fe;
    }
 
    private FileEntry allocateExistingEntry(FileEntry free, int len) {
@@ -914,9 +919,122 @@ private void free(FileEntry fe) throws IOException {
             throw new IllegalStateException(String.format("Trying to free an entry that was not allocated: %s", fe));
          }
          if (log.isTraceEnabled()) log.tracef("Deleted entry at %d:%d, there are now %d free entries", fe.offset, fe.size, freeList.size());
+         if (isFragmented()) {
+            scheduleDefragmentation();
+         }
       }
    }
 
+   private boolean isFragmented() {
+      long fileSize = filePos;
+      long freeBytes = freeList.bytes();
+      return fileSize >= DEFRAGMENTATION_MIN_FILE_SIZE && freeBytes >= fileSize * DEFRAGMENTATION_RATIO &&
+            // don't retry before more space was freed if the last run couldn't move the entries
+            freeBytes - defragmentedFreeBytes >= fileSize / 8;
+   }
+
+   private void scheduleDefragmentation() {
+      if (defragmenting.compareAndSet(false, true)) {
+         blockingManager.runBlocking(this::defragment, "sfs-defragment").whenComplete((ignore, t) -> {
+            if (t != null) {
+               log.debugf(t, "Error while defragmenting store %s", cacheName());
+            }
+         });
+      }
+   }
+
+   /**
+    * Moves the entries at the end of the file to free blocks closer to its start, then truncates the file.
+    */
+   private void defragment() {
+      long stamp = resizeLock.readLock();
+      try {
+         // the store may have been stopped in the meantime
+         if (channel == null) {
+            return;
+         }
+         long startTime = 0;
+         if (log.isTraceEnabled()) startTime = timeService.wallClockTime();
+         long fileSize = filePos;
+
+         int moved = relocateTailEntries();
+         compactFreeEntries();
+
+         defragmentedFreeBytes = freeList.bytes();
+         if (log.isTraceEnabled())
+            log.tracef("Defragmented store %s in %d ms, moved %d entries, file size %d -> %d, %d bytes still free",
+                  cacheName(), timeService.wallClockTime() - startTime, moved, fileSize, filePos, defragmentedFreeBytes);
+      } catch (IOException e) {
+         throw new PersistenceException(e);
+      } finally {
+         resizeLock.unlockRead(stamp);
+         defragmenting.set(false);
+      }
+   }
+
+   @GuardedBy("resizeLock#readLock")
+   private int relocateTailEntries() throws IOException {
+      List<LiveEntry<K>> liveEntries = new ArrayList<>();
+      for (Map<K, FileEntry> segmentEntries : entries) {
+         if (segmentEntries == null)
+            continue;
+
+         synchronized (segmentEntries) {
+            for (Map.Entry<K, FileEntry> e : segmentEntries.entrySet()) {
+               liveEntries.add(new LiveEntry<>(segmentEntries, e.getKey(), e.getValue()));
+            }
+         }
+      }
+      liveEntries.sort(Comparator.comparingLong(le -> -le.fileEntry().offset));
+
+      int moved = 0;
+      for (LiveEntry<K> liveEntry : liveEntries) {
+         Map<K, FileEntry> segmentEntries = liveEntry.segmentEntries();
+         FileEntry fe = liveEntry.fileEntry();
+         synchronized (segmentEntries) {
+            // the entry was replaced or removed since it was collected
+            if (segmentEntries.get(liveEntry.key()) != fe)
+               continue;
+
+            // prevents the entry from being freed while it is copied
+            fe.lock();
+         }
+         FileEntry newEntry;
+         try {
+            int len = fe.actualSize();
+            FileEntry free = freeList.take(len, fe.offset);
+            if (free == null) {
+               // Entries are visited from the end of the file, moving the next ones would not allow to truncate more
+               break;
+            }
+            FileEntry block = allocateExistingEntry(free, len);
+            newEntry = new FileEntry(block.offset, block.size, fe.keyLen, fe.dataLen, fe.metadataLen, fe.internalMetadataLen, fe.expiryTime);
+
+            ByteBuffer buf = ByteBuffer.allocate(len);
+            channel.read(buf, fe.offset);
+            buf.flip();
+            // the copy keeps the header, except for the size of the block it now occupies
+            buf.putInt(0, newEntry.size);
+            channel.write(buf, newEntry.offset);
+         } finally {
+            fe.unlock();
+         }
+
+         if (segmentEntries.replace(liveEntry.key(), fe, newEntry)) {
+            if (log.isTraceEnabled()) log.tracef("Moved entry %s from %d:%d to %d:%d", liveEntry.key(), fe.offset, fe.size, newEntry.offset, newEntry.size);
+            free(fe);
+            moved++;
+         } else {
+            // A concurrent write or delete already released the old block
+            free(newEntry);
+         }
+      }
+      return moved;
+   }
+
+   private record LiveEntry<K>(Map<K, FileEntry> segmentEntries, K key, FileEntry fileEntry) {
+   }
+
    @Override
    public CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> marshalledEntry) {
       return blockingManager.runBlocking(() -> blockingWrite(segment, marshalledEntry), "sfs-write");
@@ -1031,19 +1149,25 @@ private void blockingClear() {
          }
 
          // Then free entries that others might still be reading
-         synchronized (freeList) {
-            for (FileEntry fe : freeList)
+         freeList.lockAll();
+         try {
+            for (FileEntry fe : freeList.entries())
                fe.waitUnlocked();
 
             // clear in-memory state
             freeList.clear();
+         } finally {
+            freeList.unlockAll();
          }
 
          // All readers are done, reset file
-         if (log.isTraceEnabled()) log.tracef("Truncating file, current size is %d", filePos);
-         channel.truncate(4);
-         channel.write(ByteBuffer.wrap(MAGIC_LATEST), 0);
-         filePos = MAGIC_LATEST.length;
+         synchronized (tailLock) {
+            if (log.isTraceEnabled()) log.tracef("Truncating file, current size is %d", filePos);
+            channel.truncate(4);
+            channel.write(ByteBuffer.wrap(MAGIC_LATEST), 0);
+            filePos = MAGIC_LATEST.length;
+         }
+         defragmentedFreeBytes = 0;
       } catch (Exception e) {
          throw new PersistenceException(e);
       } finally {
@@ -1354,17 +1478,27 @@ private Flowable<MarshallableEntry<K, V>> blockingPublishSegmentEntries(int segm
    private void processFreeEntries() {
       long stamp = resizeLock.readLock();
       try {
-         synchronized (freeList) {
-            // Get a reverse sorted list of free entries based on file offset (bigger entries will be ahead of smaller entries)
-            // This helps to work backwards with free entries at end of the file
-            List<FileEntry> l = new ArrayList<>(freeList);
-            l.sort(Comparator.comparingLong(fe -> -fe.offset));
+         compactFreeEntries();
+      } finally {
+         resizeLock.unlockRead(stamp);
+      }
+   }
+
+   @GuardedBy("resizeLock#readLock")
+   private void compactFreeEntries() {
+      freeList.lockAll();
+      try {
+         // Get a reverse sorted list of free entries based on file offset (bigger entries will be ahead of smaller entries)
+         // This helps to work backwards with free entries at end of the file
+         List<FileEntry> l = freeList.entries();
+         l.sort(Comparator.comparingLong(fe -> -fe.offset));
 
+         synchronized (tailLock) {
             truncateFile(l);
-            mergeFreeEntries(l);
          }
+         mergeFreeEntries(l);
       } finally {
-         resizeLock.unlockRead(stamp);
+         freeList.unlockAll();
       }
    }
 
@@ -1581,7 +1715,12 @@ Map<K, FileEntry> getEntries() {
    }
 
    SortedSet<FileEntry> getFreeList() {
-      return freeList;
+      freeList.lockAll();
+      try {
+         return new TreeSet<>(freeList.entries());
+      } finally {
+         freeList.unlockAll();
+      }
    }
 
    long getFileSize() {
@@ -1655,6 +1794,146 @@ private void blockingRemoveSegments(IntSet segments) {
       processFreeEntries();
    }
 
+   /**
+    * The free blocks of the file, grouped in buckets by the highest bit of their size.
+    * <p>
+    * Each bucket is sorted by size and then by offset and is guarded by its own lock, so that writes allocating or
+    * freeing blocks of different sizes don't contend. Operations which need all the free blocks, like merging and
+    * truncation, lock every bucket in ascending order.
+    */
+   private static final class FreeList {
+      private static final int BUCKETS = Integer.SIZE;
+
+      private final ReentrantLock[] locks = new ReentrantLock[BUCKETS];
+      @SuppressWarnings("unchecked")
+      private final TreeSet<FileEntry>[] buckets = new TreeSet[BUCKETS];
+      // allows to skip empty buckets without locking them
+      private final AtomicInteger[] bucketSizes = new AtomicInteger[BUCKETS];
+      private final AtomicLong bytes = new AtomicLong();
+
+      FreeList() {
+         for (int i = 0; i < BUCKETS; i++) {
+            locks[i] = new ReentrantLock();
+            buckets[i] = new TreeSet<>();
+            bucketSizes[i] = new AtomicInteger();
+         }
+      }
+
+      private static int bucket(int size) {
+         return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(Math.max(size, 1));
+      }
+
+      boolean add(FileEntry fe) {
+         int bucket = bucket(fe.size);
+         locks[bucket].lock();
+         try {
+            if (!buckets[bucket].add(fe))
+               return false;
+            bucketSizes[bucket].incrementAndGet();
+            bytes.addAndGet(fe.size);
+            return true;
+         } finally {
+            locks[bucket].unlock();
+         }
+      }
+
+      boolean remove(FileEntry fe) {
+         int bucket = bucket(fe.size);
+         locks[bucket].lock();
+         try {
+            if (!buckets[bucket].remove(fe))
+               return false;
+            bucketSizes[bucket].decrementAndGet();
+            bytes.addAndGet(-fe.size);
+            return true;
+         } finally {
+            locks[bucket].unlock();
+         }
+      }
+
+      /**
+       * Removes the smallest block of at least {@code len} bytes which starts before {@code maxOffset} and which is not
+       * being read.
+       *
+       * @return the block, or {@code null} if there is none
+       */
+      FileEntry take(int len, long maxOffset) {
+         FileEntry bound = new FileEntry(0, len);
+         for (int bucket = bucket(len); bucket < BUCKETS; bucket++) {
+            if (bucketSizes[bucket].get() == 0)
+               continue;
+
+            locks[bucket].lock();
+            try {
+               for (Iterator<FileEntry> it = buckets[bucket].tailSet(bound).iterator(); it.hasNext(); ) {
+                  FileEntry free = it.next();
+                  if (free.offset >= maxOffset || free.isLocked())
+                     continue;
+
+                  it.remove();
+                  bucketSizes[bucket].decrementAndGet();
+                  bytes.addAndGet(-free.size);
+                  return free;
+               }
+            } finally {
+               locks[bucket].unlock();
+            }
+         }
+         return null;
+      }
+
+      int size() {
+         int size = 0;
+         for (AtomicInteger bucketSize : bucketSizes) {
+            size += bucketSize.get();
+         }
+         return size;
+      }
+
+      long bytes() {
+         return bytes.get();
+      }
+
+      void lockAll() {
+         for (ReentrantLock lock : locks) {
+            lock.lock();
+         }
+      }
+
+      void unlockAll() {
+         for (int i = BUCKETS - 1; i >= 0; i--) {
+            locks[i].unlock();
+         }
+      }
+
+      /**
+       * Note: Caller must hold all the locks.
+       */
+      List<FileEntry> entries() {
+         List<FileEntry> entries = new ArrayList<>(size());
+         for (TreeSet<FileEntry> bucket : buckets) {
+            entries.addAll(bucket);
+         }
+         return entries;
+      }
+
+      /**
+       * Note: Caller must hold all the locks.
+       */
+      void clear() {
+         for (int i = 0; i < BUCKETS; i++) {
+            buckets[i].clear();
+            bucketSizes[i].set(0);
+         }
+         bytes.set(0);
+      }
+
+      @Override
+      public String toString() {
+         return "FreeList{size=" + size() + ", bytes=" + bytes() + '}';
+      }
+   }
+
    /**
     * Helper class to represent an entry in the cache file.
         * The format of a FileEntry on disk is as follows:
@@ -1,6 +1,7 @@
 package org.infinispan.persistence.manager;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.function.BiPredicate;
@@ -85,6 +86,12 @@ interface StoreChangeListener {
 
    Collection<String> getStoresAsString();
 
+   /**
+    * Returns the stores whose characteristics match the predicate, as they are invoked by this manager. Unlike
+    * {@link #getStores(Class)}, stores configured with write-behind are not unwrapped.
+    */
+   <K, V> List<NonBlockingStore<K, V>> getAllStores(Predicate<Set<NonBlockingStore.Characteristic>> predicate);
+
    /**
     * Removes the expired entries from all the existing storage.
     */
@@ -1509,6 +1509,7 @@ private static boolean shouldInvokeSegmentMethods(StoreStatus storeStatus) {
             !storeStatus.hasCharacteristic(Characteristic.SHAREABLE);
    }
 
+   @Override
    public <K, V> List<NonBlockingStore<K, V>> getAllStores(Predicate<Set<Characteristic>> predicate) {
       long stamp = acquireReadLock();
       try {
@@ -2,18 +2,22 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.io.ByteBufferImpl;
@@ -44,6 +48,10 @@
  */
 class Compactor {
    private static final Log log = LogFactory.getLog(Compactor.class, Log.class);
+   // Number of records read ahead of the one being compacted
+   private static final int LOOKAHEAD_SIZE = 256;
+   // Do not hand fewer lookups than this to another thread
+   private static final int MIN_LOOKUPS_PER_THREAD = 16;
 
    private final NonBlockingManager nonBlockingManager;
    private final ConcurrentMap<Integer, Stats> fileStats = new ConcurrentHashMap<>();
@@ -55,6 +63,11 @@ class Compactor {
    private final int maxFileSize;
    private final double compactionThreshold;
    private final Executor blockingExecutor;
+   private final int lookupConcurrency;
+   private final LongAdder compactedFiles = new LongAdder();
+   private final LongAdder movedEntries = new LongAdder();
+   private final LongAdder droppedEntries = new LongAdder();
+   private final LongAdder indexLookups = new LongAdder();
 
    // Initialize so we can enqueue operations until start begins
    private FlowableProcessor<CompletableFuture<Void>> processor = UnicastProcessor.<CompletableFuture<Void>>create().toSerialized();
@@ -77,7 +90,7 @@ class Compactor {
 
    public Compactor(NonBlockingManager nonBlockingManager, FileProvider fileProvider, TemporaryTable temporaryTable,
          Marshaller marshaller, TimeService timeService, KeyPartitioner keyPartitioner, int maxFileSize,
-         double compactionThreshold, Executor blockingExecutor) {
+         double compactionThreshold, Executor blockingExecutor, int lookupConcurrency) {
       this.nonBlockingManager = nonBlockingManager;
       this.fileProvider = fileProvider;
       this.temporaryTable = temporaryTable;
@@ -87,6 +100,7 @@ public Compactor(NonBlockingManager nonBlockingManager, FileProvider fileProvide
       this.maxFileSize = maxFileSize;
       this.compactionThreshold = compactionThreshold;
       this.blockingExecutor = blockingExecutor;
+      this.lookupConcurrency = lookupConcurrency;
    }
 
    public void setIndex(Index index) {
@@ -493,33 +507,24 @@ private void compactSingleFile(CompactionRequest compactionRequest,
          throw new IllegalStateException("Compactor should not get deleted file for compaction!");
       }
       try (handle) {
-         long fileSize = handle.getFileSize();
          AggregateCompletionStage<Void> aggregateCompletionStage = CompletionStages.aggregateCompletionStage();
-         EntryHeader header;
-         while ((header = EntryRecord.readEntryHeader(handle, scheduledOffset)) != null) {
-            long remainingBytes = fileSize - scheduledOffset;
-            if (header.totalLength() > remainingBytes) {
-               if (isLogFile) {
-                  log.tracef("Log file %d compacted %d bytes, but file is now larger ignoring remaining contents", scheduledFile, scheduledOffset);
+         Lookahead lookahead = new Lookahead(handle, isLogFile);
+         Iterator<PendingEntry> pending = Collections.emptyIterator();
+         while (true) {
+            if (!pending.hasNext()) {
+               List<PendingEntry> batch = lookahead.next();
+               if (batch.isEmpty()) {
                   break;
                }
-
-               byte[] serializedKey = null;
-               // Attempt to read the key to give a better warning
-               if (header.keyLength() < remainingBytes) {
-                  serializedKey = EntryRecord.readKey(handle, header, scheduledOffset);
-               }
-               log.compactedFileNotLongEnough(serializedKey, scheduledFile, scheduledOffset, fileSize, header);
-               break;
-            }
-            byte[] serializedKey = EntryRecord.readKey(handle, header, scheduledOffset);
-            if (serializedKey == null) {
-               throw new IllegalStateException("Concurrent update to compacting file when reading key on "
-                     + handle.getFileId() + ": " + scheduledOffset + ": " + header + "|" + handle.getFileSize());
+               pending = batch.iterator();
             }
-
-            Object key = marshaller.objectFromByteBuffer(serializedKey);
-            int segment = keyPartitioner.getSegment(key);
+            PendingEntry pendingEntry = pending.next();
+            scheduledOffset = pendingEntry.offset;
+            EntryHeader header = pendingEntry.header;
+            byte[] serializedKey = pendingEntry.serializedKey;
+            Object key = pendingEntry.key;
+            ByteBuffer keyBuffer = ByteBufferImpl.create(serializedKey);
+            int segment = pendingEntry.segment;
 
             int valueLength = header.valueLength();
             int indexedOffset = valueLength > 0 ? scheduledOffset : ~scheduledOffset;
@@ -532,7 +537,7 @@ private void compactSingleFile(CompactionRequest compactionRequest,
             boolean drop = !isLogFile;
             // Whether to truncate the value
             boolean truncate = false;
-            EntryPosition entry = temporaryTable.get(segment, key);
+            EntryPosition entry = temporaryTable.get(segment, keyBuffer);
             if (entry != null) {
                synchronized (entry) {
                   if (log.isTraceEnabled()) {
@@ -570,8 +575,8 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                // we could remove the entry and delete would not find it
                drop = false;
             } else {
-               log.tracef("Loading from index for key %s when processing file %s", key, scheduledFile);
-               EntryInfo info = index.getInfo(key, segment, serializedKey);
+               // A key in the temporary table during the lookahead may have been indexed since
+               EntryInfo info = pendingEntry.indexed ? pendingEntry.info : getInfo(key, segment, serializedKey);
                if (info == null) {
                   if (isLogFile) {
                      // LogFile may have written the data but not updated temporary table yet
@@ -639,7 +644,8 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                   log.tracef("Drop index for key %s, file %d:%d (%s)", key, scheduledFile, scheduledOffset,
                         header.valueLength() > 0 ? "record" : "tombstone");
                }
-               index.handleRequest(IndexRequest.dropped(segment, key, ByteBufferImpl.create(serializedKey), prevFile, prevOffset, scheduledFile, scheduledOffset));
+               index.handleRequest(IndexRequest.dropped(segment, key, keyBuffer, prevFile, prevOffset, scheduledFile, scheduledOffset));
+               droppedEntries.increment();
             } else {
                if (logFile == null || currentOffset + header.totalLength() > maxFileSize) {
                   if (logFile != null) {
@@ -674,7 +680,7 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                   writtenLength = header.getHeaderLength() + header.keyLength();
                }
                EntryRecord.writeEntry(logFile.fileChannel, REUSED_BUFFER, serializedKey, metadata, serializedValue, serializedInternalMetadata, header.seqId(), header.expiryTime());
-               TemporaryTable.LockedEntry lockedEntry = temporaryTable.replaceOrLock(segment, key, logFile.fileId, entryOffset, scheduledFile, indexedOffset);
+               TemporaryTable.LockedEntry lockedEntry = temporaryTable.replaceOrLock(segment, keyBuffer, logFile.fileId, entryOffset, scheduledFile, indexedOffset);
                if (lockedEntry == null) {
                   if (log.isTraceEnabled()) {
                      log.trace("Found entry in temporary table");
@@ -697,7 +703,7 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                      if (update) {
                         temporaryTable.updateAndUnlock(lockedEntry, logFile.fileId, entryOffset);
                      } else {
-                        temporaryTable.removeAndUnlock(lockedEntry, segment, key);
+                        temporaryTable.removeAndUnlock(lockedEntry);
                      }
                   }
                }
@@ -706,7 +712,6 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                         logFile.fileId, entryOffset, logFile.fileChannel.position(), logFile.fileChannel.size());
                }
                IndexRequest indexRequest;
-               ByteBuffer keyBuffer = ByteBufferImpl.create(serializedKey);
                if (isLogFile) {
                   // When it is a log file we are still keeping the original entry, we are just updating it to say
                   // it was expired
@@ -717,6 +722,7 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                         scheduledFile, indexedOffset);
                }
                aggregateCompletionStage.dependsOn(index.handleRequest(indexRequest));
+               movedEntries.increment();
 
                currentOffset += writtenLength;
             }
@@ -771,7 +777,163 @@ private void compactSingleFile(CompactionRequest compactionRequest,
             stats.markForDeletion();
          }
          index.deleteFileAsync(scheduledFile);
+         compactedFiles.increment();
+      }
+   }
+
+   /**
+    * A record read from the file being compacted, along with the lookups that do not depend on the records written
+    * before it.
+    */
+   private static final class PendingEntry {
+      final int offset;
+      final EntryHeader header;
+      final byte[] serializedKey;
+      Object key;
+      int segment;
+      // Whether the key was not in the temporary table before the lookahead, so that every write preceding it is
+      // reflected by info
+      boolean indexed;
+      // Only used if the key is not in the temporary table when the record is processed
+      EntryInfo info;
+
+      PendingEntry(int offset, EntryHeader header, byte[] serializedKey) {
+         this.offset = offset;
+         this.header = header;
+         this.serializedKey = serializedKey;
+      }
+   }
+
+   /**
+    * Reads the file being compacted in batches. The keys of a batch are unmarshalled and looked up in the index by up
+    * to {@link #lookupConcurrency} threads before the compactor thread goes through the records one by one, checking
+    * the temporary table first as usual.
+    * <p>
+    * A key is only looked up in the index if it is not in the temporary table. As the temporary table entries are
+    * removed after the index is updated, the lookup then reflects every write preceding it, and can only be outdated by
+    * a newer write. Every move is conditional on the previous position of the key, so that costs a useless copy at
+    * worst. A key that was in the temporary table is looked up when its record is processed, if it is no longer there.
+    * Either way every record costs at most one index lookup.
+    */
+   private final class Lookahead {
+      private final FileProvider.Handle handle;
+      private final long fileSize;
+      private final boolean isLogFile;
+      private int offset;
+      private boolean done;
+
+      Lookahead(FileProvider.Handle handle, boolean isLogFile) throws IOException {
+         this.handle = handle;
+         this.fileSize = handle.getFileSize();
+         this.isLogFile = isLogFile;
+      }
+
+      List<PendingEntry> next() throws IOException, ClassNotFoundException {
+         if (done) {
+            return Collections.emptyList();
+         }
+         List<PendingEntry> batch = new ArrayList<>(LOOKAHEAD_SIZE);
+         EntryHeader header = null;
+         while (batch.size() < LOOKAHEAD_SIZE && (header = EntryRecord.readEntryHeader(handle, offset)) != null) {
+            long remainingBytes = fileSize - offset;
+            if (header.totalLength() > remainingBytes) {
+               done = true;
+               if (isLogFile) {
+                  log.tracef("Log file %d compacted %d bytes, but file is now larger ignoring remaining contents", handle.getFileId(), offset);
+                  break;
+               }
+
+               byte[] serializedKey = null;
+               // Attempt to read the key to give a better warning
+               if (header.keyLength() < remainingBytes) {
+                  serializedKey = EntryRecord.readKey(handle, header, offset);
+               }
+               log.compactedFileNotLongEnough(serializedKey, handle.getFileId(), offset, fileSize, header);
+               break;
+            }
+            byte[] serializedKey = EntryRecord.readKey(handle, header, offset);
+            if (serializedKey == null) {
+               throw new IllegalStateException("Concurrent update to compacting file when reading key on "
+                     + handle.getFileId() + ": " + offset + ": " + header + "|" + handle.getFileSize());
+            }
+            batch.add(new PendingEntry(offset, header, serializedKey));
+            offset += header.totalLength();
+         }
+         if (header == null) {
+            done = true;
+         }
+         lookup(batch);
+         return batch;
       }
+
+      private void lookup(List<PendingEntry> batch) throws IOException, ClassNotFoundException {
+         int parallelism = Math.min(lookupConcurrency, batch.size() / MIN_LOOKUPS_PER_THREAD);
+         if (parallelism <= 1) {
+            lookup(batch, 0, batch.size());
+            return;
+         }
+         int chunk = (batch.size() + parallelism - 1) / parallelism;
+         CompletableFuture<?>[] futures = new CompletableFuture[parallelism - 1];
+         for (int i = 1; i < parallelism; ++i) {
+            int from = i * chunk;
+            int to = Math.min(from + chunk, batch.size());
+            futures[i - 1] = CompletableFuture.runAsync(() -> {
+               try {
+                  lookup(batch, from, to);
+               } catch (IOException | ClassNotFoundException e) {
+                  throw new CompletionException(e);
+               }
+            }, blockingExecutor);
+         }
+         // The compactor thread takes the first chunk itself
+         lookup(batch, 0, chunk);
+         try {
+            CompletableFuture.allOf(futures).join();
+         } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+               throw (IOException) cause;
+            } else if (cause instanceof ClassNotFoundException) {
+               throw (ClassNotFoundException) cause;
+            }
+            throw e;
+         }
+      }
+
+      private void lookup(List<PendingEntry> batch, int from, int to) throws IOException, ClassNotFoundException {
+         for (int i = from; i < to; ++i) {
+            PendingEntry entry = batch.get(i);
+            entry.key = marshaller.objectFromByteBuffer(entry.serializedKey);
+            entry.segment = keyPartitioner.getSegment(entry.key);
+            // The temporary table must be checked first, its entries are removed after updating the index
+            entry.indexed = temporaryTable.get(entry.segment, ByteBufferImpl.create(entry.serializedKey)) == null;
+            if (entry.indexed) {
+               entry.info = getInfo(entry.key, entry.segment, entry.serializedKey);
+            }
+         }
+      }
+   }
+
+   private EntryInfo getInfo(Object key, int segment, byte[] serializedKey) throws IOException {
+      indexLookups.increment();
+      return index.getInfo(key, segment, serializedKey);
+   }
+
+   // Present for testing only - the number of index lookups made while compacting
+   long getIndexLookups() {
+      return indexLookups.sum();
+   }
+
+   long getCompactedFiles() {
+      return compactedFiles.sum();
+   }
+
+   long getMovedEntries() {
+      return movedEntries.sum();
+   }
+
+   long getDroppedEntries() {
+      return droppedEntries.sum();
    }
 
 
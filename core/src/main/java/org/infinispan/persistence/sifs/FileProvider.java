@@ -9,6 +9,7 @@
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,6 +25,7 @@
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.infinispan.commons.jdkspecific.MappedBuffers;
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.ProgressTracker;
 import org.infinispan.persistence.sifs.pmem.PmemUtilWrapper;
@@ -32,6 +34,10 @@
 /**
  * Provides resource management for files - only limited amount of files may be opened in one moment, and opened file
  * should not be deleted. Also allows to generate file indexes.
+ * <p>
+ * When created as memory mapped, files which are no longer being appended to are mapped in memory the first time they
+ * are read and further reads copy straight from the mapping, without a system call. Files currently used as a log,
+ * or which cannot be mapped, are read through their channel. The mapping is released as soon as the file is closed.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -52,6 +58,7 @@ public class FileProvider {
    private final Set<FileIterator> iterators = ConcurrentHashMap.newKeySet();
    private final String prefix;
    private final int maxFileSize;
+   private final boolean memoryMapped;
 
    private boolean canTryPmem = true;
 
@@ -70,11 +77,16 @@ public class FileProvider {
    }
 
    public FileProvider(Path fileDirectory, int openFileLimit, String prefix, int maxFileSize) {
+      this(fileDirectory, openFileLimit, prefix, maxFileSize, false);
+   }
+
+   public FileProvider(Path fileDirectory, int openFileLimit, String prefix, int maxFileSize, boolean memoryMapped) {
       this.openFileLimit = openFileLimit;
       this.recordQueue = new ArrayBlockingQueue<>(openFileLimit);
       this.directoryFile = fileDirectory.toFile();
       this.prefix = prefix;
       this.maxFileSize = maxFileSize;
+      this.memoryMapped = memoryMapped;
       try {
          Files.createDirectories(fileDirectory);
       } catch (IOException e) {
@@ -417,7 +429,23 @@ private Handle(Record record) {
 
       public int read(ByteBuffer buffer, long offset) throws IOException {
          if (!usable) throw new IllegalStateException();
-         return record.getFileChannel().read(buffer, offset);
+         ByteBuffer mapping = record.getMapping();
+         if (mapping == null) {
+            return record.getFileChannel().read(buffer, offset);
+         }
+         int limit = mapping.limit();
+         if (offset >= limit) {
+            return -1;
+         }
+         int length = Math.min(buffer.remaining(), limit - (int) offset);
+         int position = buffer.position();
+         if (buffer.hasArray()) {
+            mapping.get((int) offset, buffer.array(), buffer.arrayOffset() + position, length);
+         } else {
+            buffer.put(position, mapping, (int) offset, length);
+         }
+         buffer.position(position + length);
+         return length;
       }
 
       @Override
@@ -457,6 +485,9 @@ private class Record {
       private FileChannel fileChannel;
       private int handleCount;
       private boolean deleteOnClose = false;
+      // set once the file is known to be immutable, cleared together with fileChannel
+      private volatile MappedByteBuffer mapping;
+      private boolean mappable = memoryMapped;
 
       private Record(FileChannel fileChannel, int fileId) {
          this.fileChannel = fileChannel;
@@ -467,6 +498,37 @@ FileChannel getFileChannel() {
          return fileChannel;
       }
 
+      /**
+       * @return the mapping of the whole file, or {@code null} if the file should be read through its channel.
+       */
+      ByteBuffer getMapping() throws IOException {
+         MappedByteBuffer mapping = this.mapping;
+         if (mapping != null || !mappable) {
+            return mapping;
+         }
+         // the file of the log appender or compactor keeps growing, and the mapping would miss the latest entries
+         if (isLogFile(fileId)) {
+            return null;
+         }
+         synchronized (this) {
+            if (this.mapping == null && mappable) {
+               try {
+                  long size = fileChannel.size();
+                  if (size > Integer.MAX_VALUE) {
+                     mappable = false;
+                     return null;
+                  }
+                  this.mapping = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+               } catch (UnsupportedOperationException | IOException | OutOfMemoryError e) {
+                  // "Map failed" when the address space or the map count is exhausted
+                  log.debugf(e, "File %d cannot be memory mapped, reading through its channel", fileId);
+                  mappable = false;
+               }
+            }
+            return this.mapping;
+         }
+      }
+
       void increaseHandleCount() {
          handleCount++;
       }
@@ -476,8 +538,7 @@ void decreaseHandleCount() throws IOException {
          if (handleCount == 0 && deleteOnClose) {
             // we cannot easily remove the record from queue - keep it there until collection,
             // but physically close and delete the file
-            fileChannel.close();
-            fileChannel = null;
+            closeChannel();
             openFiles.remove(fileId, this);
             delete();
          }
@@ -496,13 +557,25 @@ public int getFileId() {
       }
 
       public void close() throws IOException {
-         fileChannel.close();
-         fileChannel = null;
+         closeChannel();
          if (deleteOnClose) {
             delete();
          }
       }
 
+      /**
+       * Closes the file, which has no handle left, so its mapping can no longer be read and is released right away.
+       */
+      private void closeChannel() throws IOException {
+         fileChannel.close();
+         fileChannel = null;
+         MappedByteBuffer mapping = this.mapping;
+         if (mapping != null) {
+            this.mapping = null;
+            MappedBuffers.unmap(mapping);
+         }
+      }
+
       public void delete() throws IOException {
          log.debugf("Deleting file %s", fileIdToString(fileId));
          //noinspection ResultOfMethodCallIgnored
@@ -512,8 +585,7 @@ public void delete() throws IOException {
       public void deleteOnClose() throws IOException {
          if (handleCount == 0) {
             if (fileChannel != null) {
-               fileChannel.close();
-               fileChannel = null;
+               closeChannel();
             }
             openFiles.remove(fileId, this);
             delete();
@@ -838,7 +838,7 @@ public void accept(IndexRequest request) throws Throwable {
          } catch (Throwable e) {
             request.completeExceptionally(e);
          }
-         temporaryTable.removeConditionally(request.getSegment(), request.getKey(), request.getFile(), request.getOffset());
+         temporaryTable.removeConditionally(request.getSegment(), request.getSerializedKey(), request.getFile(), request.getOffset());
          if (request.getType() != IndexRequest.Type.UPDATE) {
             // The update type will complete it in the switch statement above
             index.nonBlockingManager.complete(request, null);
@@ -1,6 +1,7 @@
 package org.infinispan.persistence.sifs;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.util.concurrent.FileSystemLock;
@@ -103,4 +104,12 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Failed acquiring lock '%s' for SIFS", id = 29025)
    PersistenceException failedAcquiringLockFile(@Cause Throwable cause, FileSystemLock lock);
+
+   @LogMessage(level = Logger.Level.INFO)
+   @Message(value = "Rebuilt index of cache '%s' from %d data files (%d entries, %d bytes) in %d ms reading %d files concurrently", id = 29026)
+   void indexRebuilt(String cacheName, long files, long entries, long bytes, long millis, int concurrency);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(value = "Unable to register the statistics MBean of the store with data location '%s'", id = 29027)
+   void unableToRegisterMBean(Path dataLocation, @Cause Throwable cause);
 }
@@ -118,7 +118,7 @@ public synchronized CompletionStage<Long> stop() {
 
    void handleRequestCompletion(LogRequest request) {
       int offset = request.getSerializedValue() == null ? ~request.getFileOffset() : request.getFileOffset();
-      temporaryTable.set(request.getSegment(), request.getKey(), request.getFile(), offset);
+      temporaryTable.set(request.getSegment(), request.getSerializedKey(), request.getFile(), offset);
       IndexRequest indexRequest = IndexRequest.update(request.getSegment(), request.getKey(), request.getSerializedKey(),
             request.getFile(), offset, request.length());
       request.setIndexRequest(indexRequest);
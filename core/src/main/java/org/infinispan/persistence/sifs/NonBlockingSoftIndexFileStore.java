@@ -7,6 +7,7 @@
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Path;
+import java.util.AbstractMap;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Map;
@@ -21,6 +22,8 @@
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
+import javax.management.ObjectName;
+
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.configuration.ConfiguredBy;
 import org.infinispan.commons.io.ByteBuffer;
@@ -34,6 +37,7 @@
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.ProgressTracker;
 import org.infinispan.commons.util.Util;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
@@ -43,6 +47,10 @@
 import org.infinispan.container.entries.ExpiryHelper;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.jmx.CacheJmxRegistration;
+import org.infinispan.jmx.CacheManagerJmxRegistration;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.PrivateMetadata;
 import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration;
@@ -59,8 +67,11 @@
 
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.functions.Function;
 import io.reactivex.rxjava3.processors.FlowableProcessor;
 import io.reactivex.rxjava3.processors.UnicastProcessor;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Local file-based cache store, optimized for write-through use with strong consistency guarantees
@@ -135,6 +146,7 @@
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 @ConfiguredBy(SoftIndexFileStoreConfigurationBuilder.class)
+@MBean(objectName = NonBlockingSoftIndexFileStore.MBEAN_NAME, description = "Soft-index file store statistics")
 public class NonBlockingSoftIndexFileStore<K, V> implements NonBlockingStore<K, V> {
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass(), Log.class);
 
@@ -142,6 +154,7 @@
    public static final String PREFIX_11_0 = "ispn.";
    public static final String PREFIX_12_0 = "ispn12.";
    public static final String PREFIX_LATEST = PREFIX_12_0;
+   static final String MBEAN_NAME = "SoftIndexFileStore";
 
    private FileSystemLock directoryLock;
    private SoftIndexFileStoreConfiguration configuration;
@@ -160,6 +173,9 @@
    private KeyPartitioner keyPartitioner;
    private InitializationContext ctx;
    private ProgressTracker progressTracker;
+   private int rebuildConcurrency;
+   private CacheManagerJmxRegistration jmxRegistration;
+   private ObjectName objectName;
 
    @Override
    public Set<Characteristic> characteristics() {
@@ -203,6 +219,8 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       // Use index files between 1 and cacheSegments
       int maxOpenIndexFiles = Math.min(Math.max(maxOpenFiles / 10, 1), cacheSegments);
       int maxOpenDataFiles = maxOpenFiles - maxOpenIndexFiles;
+      // Leave half of the data files to the readers while the index is being rebuilt
+      rebuildConcurrency = Math.max(1, Math.min(ProcessorInfo.availableProcessors(), maxOpenDataFiles / 2));
 
       directoryLock = new FileSystemLock(getDataCacheRootLocation(), ctx.getCache().getName());
       try {
@@ -214,10 +232,11 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       }
 
       fileProvider = new FileProvider(getDataLocation(), maxOpenDataFiles, PREFIX_LATEST,
-            configuration.maxFileSize());
+            configuration.maxFileSize(), configuration.memoryMapped());
       compactor = new Compactor(ctx.getNonBlockingManager(), fileProvider, temporaryTable, marshaller, timeService,
             keyPartitioner, configuration.maxFileSize(), configuration.compactionThreshold(),
-            blockingManager.asExecutor("sifs-compactor"));
+            blockingManager.asExecutor("sifs-compactor"),
+            Math.max(1, Math.min(ProcessorInfo.availableProcessors(), maxOpenIndexFiles)));
       try {
          index = new Index(ctx.getNonBlockingManager(), fileProvider, getIndexLocation(), cacheSegments,
                configuration.minNodeSize(), configuration.maxNodeSize(), temporaryTable, compactor,
@@ -226,6 +245,7 @@ public CompletionStage<Void> start(InitializationContext ctx) {
          throw log.cannotOpenIndex(configuration.indexLocation(), e);
       }
       compactor.setIndex(index);
+      registerMBean();
       logAppender = new LogAppender(ctx.getNonBlockingManager(), index, temporaryTable, compactor, fileProvider,
             configuration.syncWrites(), configuration.maxFileSize());
       logAppender.start(blockingManager.asExecutor("sifs-log-processor"));
@@ -413,9 +433,22 @@ private <T> T unmarshallLegacy(ByteBuffer buf, boolean allowInternal) throws Cla
       }
    }
 
+   /**
+    * Rebuilds the index from the data files. Files are read concurrently, up to {@link #rebuildConcurrency} at a time,
+    * while the records of a given segment are applied one at a time, as a key can have records in several files and
+    * only the one with the highest sequence id must end up in the index.
+    */
    private void buildIndex(final AtomicLong maxSeqId) {
-      Flowable<Integer> filePublisher = filePublisher();
-      CompletionStage<Void> stage = filePublisher.flatMap(outerFile -> {
+      long start = timeService.time();
+      AtomicLong files = new AtomicLong();
+      AtomicLong entries = new AtomicLong();
+      AtomicLong bytes = new AtomicLong();
+      Object[] segmentLocks = new Object[temporaryTable.getSegmentMax()];
+      for (int i = 0; i < segmentLocks.length; ++i) {
+         segmentLocks[i] = new Object();
+      }
+      Scheduler scheduler = Schedulers.from(blockingManager.asExecutor("sifs-index-rebuild"));
+      CompletionStage<Void> stage = filePublisher(fileIds -> fileIds.flatMap(outerFile -> {
          ByRef.Long nextExpirationTime = new ByRef.Long(-1);
          return handleFilePublisher(outerFile, false, false,
                (file, offset, size, serializedKey, entryMetadata, serializedValue, serializedInternalMetadata, seqId, expiration) -> {
@@ -426,31 +459,40 @@ private void buildIndex(final AtomicLong maxSeqId) {
                   if (log.isTraceEnabled()) {
                      log.tracef("Loaded %d:%d (seqId %d, expiration %d)", file, offset, seqId, expiration);
                   }
+                  entries.incrementAndGet();
+                  bytes.addAndGet(size);
                   // Make sure to keep track of the lowest expiration that isn't -1
                   nextExpirationTime.set(ExpiryHelper.mostRecentExpirationTime(nextExpirationTime.get(), expiration));
                   int segment = keyPartitioner.getSegment(key);
-                  // We may check the seqId safely as we are the only thread writing to index
-                  if (isSeqIdOld(seqId, segment, key, serializedKey)) {
-                     index.handleRequest(IndexRequest.foundOld(segment, key, ByteBufferImpl.create(serializedKey), file, offset, size));
-                     return null;
-                  }
-                  if (temporaryTable.set(segment, key, file, offset)) {
-                     index.handleRequest(IndexRequest.update(segment, key, ByteBufferImpl.create(serializedKey), file, offset, size));
+                  // Other files with records for this key may be loaded concurrently, the seqId can only be checked
+                  // safely while no other thread updates the segment
+                  ByteBuffer keyBuffer = ByteBufferImpl.create(serializedKey);
+                  synchronized (segmentLocks[segment]) {
+                     if (isSeqIdOld(seqId, segment, key, serializedKey)) {
+                        index.handleRequest(IndexRequest.foundOld(segment, key, keyBuffer, file, offset, size));
+                        return null;
+                     }
+                     if (temporaryTable.set(segment, keyBuffer, file, offset)) {
+                        index.handleRequest(IndexRequest.update(segment, key, keyBuffer, file, offset, size));
+                     }
                   }
                   return null;
                }).doOnComplete(() -> {
+                  files.incrementAndGet();
                   progressTracker.removeTasks(1);
                   compactor.completeFile(outerFile, -1, nextExpirationTime.get(), false);
-               });
-      }).ignoreElements().toCompletionStage(null);
+               }).subscribeOn(scheduler);
+      }, false, rebuildConcurrency)).ignoreElements().toCompletionStage(null);
       CompletionStages.join(stage);
+      log.indexRebuilt(ctx.getCache().getName(), files.get(), entries.get(), bytes.get(),
+            timeService.timeDuration(start, TimeUnit.MILLISECONDS), rebuildConcurrency);
    }
 
    private Path getDataCacheRootLocation() {
       return getQualifiedLocation(ctx.getGlobalConfiguration(), configuration.dataLocation(), ctx.getCache().getName(), "");
    }
 
-   private Path getDataLocation() {
+   Path getDataLocation() {
       return getQualifiedLocation(ctx.getGlobalConfiguration(), configuration.dataLocation(), ctx.getCache().getName(), "data");
    }
 
@@ -459,8 +501,9 @@ protected Path getIndexLocation() {
    }
 
    protected boolean isSeqIdOld(long seqId, int segment, Object key, byte[] serializedKey) throws IOException {
+      ByteBuffer keyBuffer = ByteBufferImpl.create(serializedKey);
       for (; ; ) {
-         EntryPosition entry = temporaryTable.get(segment, key);
+         EntryPosition entry = temporaryTable.get(segment, keyBuffer);
          if (entry == null) {
             entry = index.getInfo(key, segment, serializedKey);
          }
@@ -492,6 +535,61 @@ protected boolean isSeqIdOld(long seqId, int segment, Object key, byte[] seriali
       }
    }
 
+   private void registerMBean() {
+      if (!ctx.getGlobalConfiguration().jmx().enabled()) {
+         return;
+      }
+      // The cache MBeans are registered after the stores start, so use the cache manager registration
+      jmxRegistration = ComponentRegistry.of(ctx.getCache()).getGlobalComponentRegistry()
+            .getComponent(CacheManagerJmxRegistration.class);
+      if (!jmxRegistration.enabled()) {
+         return;
+      }
+      String groupName = CacheJmxRegistration.groupName(ctx.getCache().getName(),
+            ctx.getCache().getCacheConfiguration(), ctx.getGlobalConfiguration().cacheManagerName());
+      // A cache may have several stores, and a restarted store registers again, so the name includes the data location
+      String resourceName = ObjectName.quote(MBEAN_NAME + "(" + getDataLocation() + ")");
+      try {
+         objectName = jmxRegistration.registerExternalMBean(this, groupName, resourceName);
+      } catch (Exception e) {
+         // The statistics are optional, the store works without them
+         log.unableToRegisterMBean(getDataLocation(), e);
+      }
+   }
+
+   private void unregisterMBean() {
+      if (objectName == null) {
+         return;
+      }
+      try {
+         jmxRegistration.unregisterMBean(objectName);
+      } catch (Exception e) {
+         log.debugf(e, "Unable to unregister the soft-index file store MBean %s", objectName);
+      }
+      objectName = null;
+   }
+
+   @ManagedAttribute(description = "Number of data files compacted since the store started",
+         displayName = "Compacted files")
+   public long getCompactedFiles() {
+      Compactor compactor = this.compactor;
+      return compactor != null ? compactor.getCompactedFiles() : 0;
+   }
+
+   @ManagedAttribute(description = "Number of live entries moved to another data file by the compaction",
+         displayName = "Moved entries")
+   public long getMovedEntries() {
+      Compactor compactor = this.compactor;
+      return compactor != null ? compactor.getMovedEntries() : 0;
+   }
+
+   @ManagedAttribute(description = "Number of obsolete records dropped by the compaction",
+         displayName = "Dropped entries")
+   public long getDroppedEntries() {
+      Compactor compactor = this.compactor;
+      return compactor != null ? compactor.getDroppedEntries() : 0;
+   }
+
    protected void startIndex() {
       // this call is extracted for better testability
       index.start();
@@ -501,6 +599,7 @@ protected void startIndex() {
    public CompletionStage<Void> stop() {
       return blockingManager.runBlocking(() -> {
          try {
+            unregisterMBean();
             long maxSeqId = CompletionStages.join(logAppender.stop());
             compactor.stopOperations();
             compactor = null;
@@ -604,9 +703,10 @@ public CompletionStage<Boolean> delete(int segment, Object key) {
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       try {
+         ByteBuffer serializedKey = marshaller.objectToBuffer(key);
          for (;;) {
             // TODO: consider storing expiration timestamp in temporary table
-            EntryPosition entry = temporaryTable.get(segment, key);
+            EntryPosition entry = temporaryTable.get(segment, serializedKey);
             if (entry != null) {
                if (entry.offset < 0) {
                   return CompletableFutures.completedFalse();
@@ -630,7 +730,7 @@ public CompletionStage<Boolean> containsKey(int segment, Object key) {
                   }, "soft-index-containsKey");
                }
             } else {
-               EntryPosition position = index.getPosition(key, segment, marshaller.objectToBuffer(key));
+               EntryPosition position = index.getPosition(key, segment, serializedKey);
                return CompletableFutures.booleanStage(position != null);
             }
          }
@@ -644,8 +744,9 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return blockingManager.supplyBlocking(() -> {
          log.tracef("Loading key %s for segment %d", key, segment);
          try {
+            ByteBuffer serializedKey = marshaller.objectToBuffer(key);
             for (;;) {
-               EntryPosition entry = temporaryTable.get(segment, key);
+               EntryPosition entry = temporaryTable.get(segment, serializedKey);
                if (entry != null) {
                   if (entry.offset < 0) {
                      log.tracef("Entry for key=%s found in temporary table on %d:%d but it is a tombstone", key, entry.file, entry.offset);
@@ -656,7 +757,7 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
                      return marshallableEntry;
                   }
                } else {
-                  EntryRecord record = index.getRecord(key, segment, marshaller.objectToBuffer(key));
+                  EntryRecord record = index.getRecord(key, segment, serializedKey);
                   if (record == null) {
                      log.tracef("Entry for key=%s not found in index, returning null", key);
                      return null;
@@ -764,10 +865,10 @@ private ByteBuffer toBuffer(byte[] array) {
       R apply(int file, int offset, int size, byte[] serializedKey, EntryMetadata metadata, byte[] serializedValue, byte[] serializedInternalMetadata, long seqId, long expiration) throws Exception;
    }
 
-   private Flowable<Integer> filePublisher() {
-      return Flowable.using(() -> fileProvider.getFileIterator(progressTracker), it -> Flowable.fromIterable(() -> it),
-            // This close happens after the last file iterator is returned, but before processing it.
-            // TODO: Is this okay or can compaction etc affect this?
+   private <R> Flowable<R> filePublisher(Function<Flowable<Integer>, Flowable<R>> transformer) {
+      return Flowable.using(() -> fileProvider.getFileIterator(progressTracker),
+            it -> transformer.apply(Flowable.fromIterable(() -> it)),
+            // This close happens after every file has been processed by the transformer
             it -> {
          progressTracker.finishedAllTasks();
          it.close();
@@ -811,6 +912,7 @@ public Publisher<MarshallableEntry<K, V>> publishEntries(IntSet segments, Predic
       return blockingManager.blockingPublisher(Flowable.defer(() -> {
          Set<Object> seenKeys = new HashSet<>();
          Flowable<Map.Entry<Object, EntryPosition>> tableFlowable = temporaryTable.publish(segments)
+               .<Map.Entry<Object, EntryPosition>>map(entry -> new AbstractMap.SimpleImmutableEntry<>(marshaller.objectFromByteBuffer(entry.getKey()), entry.getValue()))
                .doOnNext(entry -> seenKeys.add(entry.getKey()));
          if (filter != null) {
             tableFlowable = tableFlowable.filter(entry -> filter.test((K) entry.getKey()));
@@ -1,25 +1,33 @@
 package org.infinispan.persistence.sifs;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.IntConsumer;
 
+import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.util.logging.LogFactory;
 
 import io.reactivex.rxjava3.core.Flowable;
+import net.jcip.annotations.GuardedBy;
 
 /**
  * Table holding the entry positions in log before these are persisted to the index.
+ * <p>
+ * Entries are looked up by their serialized key. Every segment is an open addressing hash table with linear probing,
+ * where the file and offset of an entry are packed into a single long and the serialized key is the only object
+ * retained per entry. This keeps write bursts, during which the table may hold millions of entries, from filling the
+ * heap with deserialized keys and map nodes. Each segment is guarded by its own monitor.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 public class TemporaryTable {
    private static final Log log = LogFactory.getLog(TemporaryTable.class, Log.class);
-   private final AtomicReferenceArray<ConcurrentMap<Object, Entry>> table;
+   private final AtomicReferenceArray<Segment> table;
 
    public TemporaryTable(int numSegments) {
       table = new AtomicReferenceArray<>(numSegments);
@@ -30,223 +38,348 @@ public int getSegmentMax() {
    }
 
    public void addSegments(IntSet segments) {
-      segments.forEach((IntConsumer) segment -> table.compareAndSet(segment, null, new ConcurrentHashMap<>()));
+      segments.forEach((IntConsumer) segment -> table.compareAndSet(segment, null, new Segment()));
    }
 
    public void removeSegments(IntSet segments) {
       segments.forEach((IntConsumer) segment -> table.set(segment, null));
    }
 
-   public boolean set(int segment, Object key, int file, int offset) {
-      ConcurrentMap<Object, Entry> map = table.get(segment);
+   public boolean set(int segment, ByteBuffer serializedKey, int file, int offset) {
+      Segment map = table.get(segment);
       if (map == null) {
          log.tracef("Table did not have segment %s", segment);
          return false;
       }
-      for (; ; ) {
-         Entry entry = map.putIfAbsent(key, new Entry(file, offset, false));
-         if (entry != null) {
-            synchronized (entry) {
-               if (entry.isRemoved()) {
-                  continue;
-               } else if (entry.isLocked()) {
-                  try {
-                     if (log.isTraceEnabled()) {
-                        log.tracef("Waiting for lock on %s", key);
-                     }
-                     entry.wait();
-                     continue;
-                  } catch (InterruptedException e) {
-                     Thread.currentThread().interrupt();
-                     throw new IllegalStateException("Unexpected interruption!", e);
+      int hash = hash(serializedKey);
+      synchronized (map) {
+         for (; ; ) {
+            int slot = map.indexOf(serializedKey, hash);
+            if (slot < 0) {
+               log.tracef("Set key to %s:%s", file, offset);
+               map.insert(~slot, toArray(serializedKey), hash, file, offset);
+               break;
+            } else if (map.isLocked(slot)) {
+               try {
+                  if (log.isTraceEnabled()) {
+                     log.tracef("Waiting for lock on key to be set to %s:%s", file, offset);
                   }
+                  map.wait();
+                  continue;
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new IllegalStateException("Unexpected interruption!", e);
                }
-               log.tracef("Updated key to %s:%s", file, offset);
-               entry.update(file, offset);
-               break;
             }
-         } else {
-            log.tracef("Set key to %s:%s", file, offset);
+            log.tracef("Updated key to %s:%s", file, offset);
+            map.update(slot, file, offset);
             break;
          }
       }
       return true;
    }
 
-   public LockedEntry replaceOrLock(int segment, Object key, int file, int offset, int prevFile, int prevOffset) {
-      ConcurrentMap<Object, Entry> map = table.get(segment);
+   public LockedEntry replaceOrLock(int segment, ByteBuffer serializedKey, int file, int offset, int prevFile, int prevOffset) {
+      Segment map = table.get(segment);
       if (map == null) {
          log.tracef("Table did not have segment %s", segment);
          return null;
       }
-      for (;;) {
-         Entry lockedEntry = new Entry(-1, -1, true);
-         Entry entry = map.putIfAbsent(key, lockedEntry);
-         if (entry != null) {
-            synchronized (entry) {
-               if (entry.isRemoved()) {
-                  continue;
-               }
-               if (entry.isLocked()) {
-                  throw new IllegalStateException("Unexpected double locking");
-               }
-               if (entry.getFile() == prevFile && entry.getOffset() == prevOffset) {
-                  log.tracef("Updated entry for key %s to %s:%s from %s:%s", key, file, offset, prevFile, prevOffset);
-                  entry.update(file, offset);
-               } else {
-                  log.tracef("Did not update entry for key %s as %s:%s does not match %s:%s", key, prevFile, prevOffset, entry.getFile(), entry.getOffset());
-               }
-               return null;
-            }
+      int hash = hash(serializedKey);
+      synchronized (map) {
+         int slot = map.indexOf(serializedKey, hash);
+         if (slot < 0) {
+            byte[] key = toArray(serializedKey);
+            map.insert(~slot, key, hash, -1, -1);
+            log.tracef("Locked entry for key to be moved from %s:%s", prevFile, prevOffset);
+            return new LockedEntry(map, key, hash);
+         }
+         if (map.isLocked(slot)) {
+            throw new IllegalStateException("Unexpected double locking");
+         }
+         if (map.file(slot) == prevFile && map.offset(slot) == prevOffset) {
+            log.tracef("Updated entry to %s:%s from %s:%s", file, offset, prevFile, prevOffset);
+            map.update(slot, file, offset);
          } else {
-            log.tracef("Locked entry for key %s", key);
-            return lockedEntry;
+            log.tracef("Did not update entry as %s:%s does not match %s:%s", prevFile, prevOffset, map.file(slot), map.offset(slot));
          }
+         return null;
       }
    }
 
    public void updateAndUnlock(LockedEntry lockedEntry, int file, int offset) {
-      Entry entry = (Entry) lockedEntry;
-      synchronized (entry) {
-         log.tracef("Updating entry to %s:%s from %s:%s", file, offset, entry.file, entry.offset);
-         entry.file = file;
-         entry.offset = offset;
-         entry.locked = false;
-         entry.notifyAll();
+      Segment map = lockedEntry.segment;
+      synchronized (map) {
+         int slot = map.indexOf(lockedEntry.key, lockedEntry.hash);
+         if (slot >= 0) {
+            log.tracef("Updating locked entry to %s:%s", file, offset);
+            map.update(slot, file, offset);
+         } else {
+            log.tracef("Locked entry was cleared before it could be updated to %s:%s", file, offset);
+         }
+         map.notifyAll();
       }
    }
 
-   public void removeAndUnlock(LockedEntry lockedEntry, int segment, Object key) {
-      Entry entry = (Entry) lockedEntry;
-      synchronized (entry) {
-         ConcurrentMap<Object, Entry> map = table.get(segment);
-         if (map != null) {
-            Entry removedEntry = map.remove(key);
-            assert removedEntry == entry : "Removed entry " + removedEntry + " for key which didn't match " + lockedEntry;
-            log.tracef("Removed and unlocking entry %s", entry);
-         } else {
-            log.tracef("Table did not have segment %s", segment);
+   public void removeAndUnlock(LockedEntry lockedEntry) {
+      Segment map = lockedEntry.segment;
+      synchronized (map) {
+         int slot = map.indexOf(lockedEntry.key, lockedEntry.hash);
+         if (slot >= 0) {
+            assert map.isLocked(slot) : "Removed entry for key which was not locked";
+            map.remove(slot);
+            log.tracef("Removed and unlocking entry");
          }
-         entry.setRemoved(true);
-         entry.notifyAll();
+         map.notifyAll();
       }
    }
 
-   public EntryPosition get(int segment, Object key) {
-      ConcurrentMap<Object, Entry> map = table.get(segment);
+   public EntryPosition get(int segment, ByteBuffer serializedKey) {
+      Segment map = table.get(segment);
       if (map == null) {
          log.tracef("Table did not have segment %s", segment);
          return null;
       }
-      Entry entry = map.get(key);
-      if (entry == null) {
-         log.tracef("Key %s not present in temporary table", key);
-         return null;
-      }
-      synchronized (entry) {
+      int hash = hash(serializedKey);
+      synchronized (map) {
+         int slot = map.indexOf(serializedKey, hash);
+         if (slot < 0) {
+            log.tracef("Key not present in temporary table");
+            return null;
+         }
          // when the entry is locked, it means that it was not in the table before
          // and it's protected against writes, but its value is not up-to-date
-         if (entry.isLocked()) {
-            log.tracef("Key %s was present in temporary table with %s:%s, but locked", key, entry.getFile(),
-                  entry.getOffset());
+         if (map.isLocked(slot)) {
+            log.tracef("Key was present in temporary table but locked");
             return null;
          }
-         log.tracef("Key %s was present in temporary table with %s:%s", key, entry.getFile(), entry.getOffset());
-         return new EntryPosition(entry.getFile(), entry.getOffset());
+         log.tracef("Key was present in temporary table with %s:%s", map.file(slot), map.offset(slot));
+         return new EntryPosition(map.file(slot), map.offset(slot));
       }
    }
 
    public void clear() {
       log.tracef("Clearing TemporaryTable");
       for (int i = 0; i < table.length(); ++i) {
-         ConcurrentMap<Object, Entry> map = table.get(i);
+         Segment map = table.get(i);
          if (map != null) {
-            map.clear();
+            synchronized (map) {
+               map.clear();
+               map.notifyAll();
+            }
          }
       }
    }
 
-   public void removeConditionally(int segment, Object key, int file, int offset) {
-      ConcurrentMap<Object, Entry> map = table.get(segment);
+   public void removeConditionally(int segment, ByteBuffer serializedKey, int file, int offset) {
+      Segment map = table.get(segment);
       if (map == null) {
          log.tracef("Table did not have segment %s", segment);
          return;
       }
-      Entry tempEntry = map.get(key);
-      if (tempEntry != null) {
-         synchronized (tempEntry) {
-            if (tempEntry.isLocked()) {
-               log.tracef("Key %s was present in temporary table with %s:%s, but locked", key, tempEntry.getFile(),
-                     tempEntry.getOffset());
-               return;
-            }
-            if (tempEntry.getFile() == file && tempEntry.getOffset() == offset) {
-               log.tracef("Removed Key %s was present in temporary table with %s:%s", key, file, offset);
-               map.remove(key, tempEntry);
-               tempEntry.setRemoved(true);
-            } else {
-               log.tracef("Key %s was present in temporary table with %s:%s, which doesn't match %s:%s", key, tempEntry.getFile(),
-                     tempEntry.getOffset(), file, offset);
-            }
+      int hash = hash(serializedKey);
+      synchronized (map) {
+         int slot = map.indexOf(serializedKey, hash);
+         if (slot < 0) {
+            log.tracef("Table did not contain key on %s:%s", file, offset);
+         } else if (map.isLocked(slot)) {
+            log.tracef("Key on %s:%s was present in temporary table, but locked", file, offset);
+         } else if (map.file(slot) == file && map.offset(slot) == offset) {
+            log.tracef("Removed key present in temporary table with %s:%s", file, offset);
+            map.remove(slot);
+         } else {
+            log.tracef("Key was present in temporary table with %s:%s, which doesn't match %s:%s", map.file(slot),
+                  map.offset(slot), file, offset);
          }
-      } else {
-         log.tracef("Table did contain key %s", key);
       }
    }
 
-   private static class Entry extends LockedEntry {
-      private int file;
-      private int offset;
-      private boolean locked;
-      private boolean removed = false;
+   /**
+    * @return the serialized key and position of every entry which is not locked, the positions of a segment being read
+    * atomically.
+    */
+   Flowable<Map.Entry<byte[], EntryPosition>> publish(IntSet segments) {
+      return Flowable.fromIterable(segments)
+            .flatMap(segment -> {
+               Segment map = table.get(segment);
+               if (map == null) {
+                  return Flowable.empty();
+               }
+               synchronized (map) {
+                  return Flowable.fromIterable(map.entries());
+               }
+            });
+   }
 
-      Entry(int file, int offset, boolean locked) {
-         this.file = file;
-         this.offset = offset;
-         this.locked = locked;
+   private static int hash(ByteBuffer serializedKey) {
+      byte[] buf = serializedKey.getBuf();
+      int h = 1;
+      for (int i = serializedKey.getOffset(), end = i + serializedKey.getLength(); i < end; i++) {
+         h = 31 * h + buf[i];
       }
+      // murmur3 finalizer, linear probing needs the low bits to be well distributed
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      h *= 0xc2b2ae35;
+      return h ^ (h >>> 16);
+   }
 
-      public int getFile() {
-         return file;
+   private static byte[] toArray(ByteBuffer serializedKey) {
+      byte[] buf = serializedKey.getBuf();
+      if (serializedKey.getOffset() == 0 && serializedKey.getLength() == buf.length) {
+         return buf;
       }
+      return Arrays.copyOfRange(buf, serializedKey.getOffset(), serializedKey.getOffset() + serializedKey.getLength());
+   }
 
-      public int getOffset() {
-         return offset;
+   /**
+    * An entry inserted by {@link #replaceOrLock(int, ByteBuffer, int, int, int, int)}. Writes to the key wait until
+    * it is either updated or removed.
+    */
+   public static final class LockedEntry {
+      private final Segment segment;
+      private final byte[] key;
+      private final int hash;
+
+      private LockedEntry(Segment segment, byte[] key, int hash) {
+         this.segment = segment;
+         this.key = key;
+         this.hash = hash;
       }
+   }
+
+   private static final class Segment {
+      private static final int INITIAL_CAPACITY = 16;
+      // position of an entry inserted by replaceOrLock, file ids are never negative
+      private static final long LOCKED = -1L;
+
+      @GuardedBy("this")
+      private byte[][] keys;
+      @GuardedBy("this")
+      private int[] hashes;
+      // file in the upper 32 bits and offset in the lower 32 bits, the offset being negative for removed entries
+      @GuardedBy("this")
+      private long[] positions;
+      @GuardedBy("this")
+      private int size;
 
-      public void update(int currentFile, int currentOffset) {
-         this.file = currentFile;
-         this.offset = currentOffset;
+      Segment() {
+         allocate(INITIAL_CAPACITY);
       }
 
-      public boolean isRemoved() {
-         return removed;
+      private void allocate(int capacity) {
+         keys = new byte[capacity][];
+         hashes = new int[capacity];
+         positions = new long[capacity];
       }
 
-      public void setRemoved(boolean removed) {
-         this.removed = removed;
+      /**
+       * @return the slot holding the key or, if it is not present, the complement of the slot where it would be inserted.
+       */
+      int indexOf(ByteBuffer serializedKey, int hash) {
+         return indexOf(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength(), hash);
       }
 
-      public boolean isLocked() {
-         return locked;
+      int indexOf(byte[] key, int hash) {
+         return indexOf(key, 0, key.length, hash);
       }
-   }
 
-   public abstract static class LockedEntry {
-      private LockedEntry() {}
-   }
+      private int indexOf(byte[] buf, int offset, int length, int hash) {
+         int mask = keys.length - 1;
+         for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            byte[] key = keys[slot];
+            if (key == null) {
+               return ~slot;
+            }
+            if (hashes[slot] == hash && Arrays.equals(key, 0, key.length, buf, offset, offset + length)) {
+               return slot;
+            }
+         }
+      }
 
-   <K, V> Flowable<Map.Entry<Object, EntryPosition>> publish(IntSet segments) {
-      return Flowable.fromIterable(segments)
-            .flatMap(segment -> {
-               ConcurrentMap<Object, Entry> map = table.get(segment);
-               if (map == null) {
-                  return Flowable.empty();
+      boolean isLocked(int slot) {
+         return positions[slot] == LOCKED;
+      }
+
+      int file(int slot) {
+         return (int) (positions[slot] >> 32);
+      }
+
+      int offset(int slot) {
+         return (int) positions[slot];
+      }
+
+      void update(int slot, int file, int offset) {
+         positions[slot] = position(file, offset);
+      }
+
+      void insert(int slot, byte[] key, int hash, int file, int offset) {
+         keys[slot] = key;
+         hashes[slot] = hash;
+         positions[slot] = position(file, offset);
+         // keep the load factor under 3/4
+         if (++size > keys.length - (keys.length >> 2)) {
+            resize(keys.length << 1);
+         }
+      }
+
+      void remove(int slot) {
+         int mask = keys.length - 1;
+         // backward shift deletion: move up the entries of the probe sequence that would no longer be reachable
+         for (int next = (slot + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+               keys[slot] = keys[next];
+               hashes[slot] = hashes[next];
+               positions[slot] = positions[next];
+               slot = next;
+            }
+         }
+         keys[slot] = null;
+         --size;
+         // release the memory once a burst has been applied to the index
+         if (keys.length > INITIAL_CAPACITY && size < keys.length >> 3) {
+            resize(keys.length >> 1);
+         }
+      }
+
+      void clear() {
+         allocate(INITIAL_CAPACITY);
+         size = 0;
+      }
+
+      List<Map.Entry<byte[], EntryPosition>> entries() {
+         List<Map.Entry<byte[], EntryPosition>> entries = new ArrayList<>(size);
+         for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && !isLocked(slot)) {
+               entries.add(new AbstractMap.SimpleImmutableEntry<>(keys[slot], new EntryPosition(file(slot), offset(slot))));
+            }
+         }
+         return entries;
+      }
+
+      private void resize(int capacity) {
+         byte[][] oldKeys = keys;
+         int[] oldHashes = hashes;
+         long[] oldPositions = positions;
+         allocate(capacity);
+         int mask = capacity - 1;
+         for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+               int slot = oldHashes[i] & mask;
+               while (keys[slot] != null) {
+                  slot = (slot + 1) & mask;
                }
-               return Flowable.fromIterable(map.entrySet())
-                     .filter(entry -> !entry.getValue().isLocked())
-                     .map(entry -> new AbstractMap.SimpleImmutableEntry<>(entry.getKey(),
-                           new EntryPosition(entry.getValue().getFile(), entry.getValue().getOffset())));
-            });
+               keys[slot] = oldKeys[i];
+               hashes[slot] = oldHashes[i];
+               positions[slot] = oldPositions[i];
+            }
+         }
+      }
+
+      private static long position(int file, int offset) {
+         return ((long) file << 32) | (offset & 0xFFFFFFFFL);
+      }
    }
 }
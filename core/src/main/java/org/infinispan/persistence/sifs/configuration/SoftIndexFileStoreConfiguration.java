@@ -71,6 +71,10 @@ public boolean syncWrites() {
       return data.syncWrites();
    }
 
+   public boolean memoryMapped() {
+      return data.memoryMapped();
+   }
+
    /**
     * The maximum number of files that will be open at a given time for all the data and index files, which does
     * not include compactor and current log file (which will always be 2).
@@ -120,6 +120,20 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   /**
+    * Sets whether data files that are no longer being appended to should be read through a memory mapping instead of
+    * positional reads on their channel. The file currently being written is always read through its channel.
+    * <p>
+    * The mappings are released by the garbage collector once a file is closed, so on platforms which do not allow
+    * deleting a mapped file, removal of compacted files may be delayed.
+    * <p>
+    * Defaults to <code>false</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder memoryMapped(boolean memoryMapped) {
+      data.memoryMapped(memoryMapped);
+      return this;
+   }
+
    /**
     * Sets the maximum number of open files.
     * <p>
@@ -1,6 +1,7 @@
 package org.infinispan.persistence.support;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.function.BiPredicate;
@@ -22,6 +23,7 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.transaction.impl.AbstractCacheTransaction;
 import org.infinispan.util.function.TriPredicate;
@@ -109,6 +111,11 @@ public Collection<String> getStoresAsString() {
       return persistenceManager.getStoresAsString();
    }
 
+   @Override
+   public <K, V> List<NonBlockingStore<K, V>> getAllStores(Predicate<Set<NonBlockingStore.Characteristic>> predicate) {
+      return persistenceManager.getAllStores(predicate);
+   }
+
    @Override
    public CompletionStage<Void> purgeExpired() {
       return persistenceManager.purgeExpired();
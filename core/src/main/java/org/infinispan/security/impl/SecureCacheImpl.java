@@ -46,6 +46,7 @@
 import org.infinispan.security.SecureCache;
 import org.infinispan.stats.Stats;
 import org.infinispan.util.concurrent.locks.LockManager;
+import org.reactivestreams.Publisher;
 
 import jakarta.transaction.TransactionManager;
 
@@ -987,6 +988,12 @@ public CompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> map, Me
       return delegate.putAllAsync(map, metadata);
    }
 
+   @Override
+   public CompletionStage<Void> bulkLoad(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries, Metadata metadata) {
+      authzManager.checkPermission(subject, writePermission);
+      return delegate.bulkLoad(entries, metadata);
+   }
+
    @Override
    public void putAll(Map<? extends K, ? extends V> m) {
       authzManager.checkPermission(subject, writePermission);
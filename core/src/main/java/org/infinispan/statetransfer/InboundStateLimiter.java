@@ -0,0 +1,105 @@
+package org.infinispan.statetransfer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Bounds the state applied concurrently by {@link StateConsumerImpl}, by the estimated size of the received chunks.
+ * <p>
+ * A command is admitted when it fits in the remaining budget, or when no other command is being applied so commands
+ * larger than the budget still make progress. Waiting commands are admitted in arrival order.
+ * <p>
+ * Only the state being applied is bounded. A waiting command was already received and deserialized, and it keeps its
+ * chunks in memory until it is admitted. The state waiting here is limited through the senders instead: the reply to
+ * each command grants its sender {@link #credits(long, int)} commands in flight, fewer as the budget fills up, down to
+ * a single command per sender while commands are waiting.
+ *
+ * @since 16.0
+ */
+final class InboundStateLimiter {
+   private final long maxBytes;
+   private final Executor executor;
+
+   @GuardedBy("this")
+   private final Queue<Waiter> waiters = new ArrayDeque<>();
+   @GuardedBy("this")
+   private long usedBytes;
+   @GuardedBy("this")
+   private long waitingBytes;
+
+   InboundStateLimiter(long maxBytes, Executor executor) {
+      this.maxBytes = maxBytes;
+      this.executor = executor;
+   }
+
+   /**
+    * @return a stage completed once the state can be applied. {@link #release(long)} must be invoked afterwards.
+    */
+   CompletionStage<Void> acquire(long bytes) {
+      synchronized (this) {
+         if (waiters.isEmpty() && fits(bytes)) {
+            usedBytes += bytes;
+            return CompletableFutures.completedNull();
+         }
+         Waiter waiter = new Waiter(bytes);
+         waiters.add(waiter);
+         waitingBytes += bytes;
+         return waiter.future;
+      }
+   }
+
+   void release(long bytes) {
+      List<Waiter> admitted = null;
+      synchronized (this) {
+         usedBytes -= bytes;
+         Waiter waiter;
+         while ((waiter = waiters.peek()) != null && fits(waiter.bytes)) {
+            waiters.poll();
+            waitingBytes -= waiter.bytes;
+            usedBytes += waiter.bytes;
+            if (admitted == null) {
+               admitted = new ArrayList<>();
+            }
+            admitted.add(waiter);
+         }
+      }
+      if (admitted != null) {
+         // Do not apply the admitted state in the thread which completed the previous one
+         for (Waiter w : admitted) {
+            w.future.completeAsync(() -> null, executor);
+         }
+      }
+   }
+
+   /**
+    * @return the number of commands of up to {@code commandBytes} a sender may have in flight, between 1 and
+    * {@code maxCredits}, according to the budget left once the applied and waiting state is accounted for
+    */
+   synchronized int credits(long commandBytes, int maxCredits) {
+      if (!waiters.isEmpty()) {
+         return 1;
+      }
+      long free = maxBytes - usedBytes - waitingBytes;
+      return (int) Math.max(1, Math.min(maxCredits, free / commandBytes));
+   }
+
+   @GuardedBy("this")
+   private boolean fits(long bytes) {
+      return usedBytes == 0 || usedBytes + bytes <= maxBytes;
+   }
+
+   private record Waiter(long bytes, CompletableFuture<Void> future) {
+      Waiter(long bytes) {
+         this(bytes, new CompletableFuture<>());
+      }
+   }
+}
@@ -123,6 +123,21 @@ public CompletionStage<Void> requestSegments() {
             segments -> commandsFactory.buildConflictResolutionStartCommand(topologyId, segments));
    }
 
+   /**
+    * Send START_STATE_TRANSFER request to source node, with the digests of the entries the source can skip.
+    *
+    * @param digests the digests, or {@code null} to request all the entries
+    * @return a {@code CompletableFuture} that completes when the transfer is done.
+    */
+   public CompletionStage<Void> requestSegments(SegmentDigests digests) {
+      if (digests == null) {
+         return requestSegments();
+      }
+      return startTransfer(applyState ?
+            segments -> commandsFactory.buildStateTransferStartCommand(topologyId, segments, digests) :
+            segments -> commandsFactory.buildConflictResolutionStartCommand(topologyId, segments, digests));
+   }
+
    /**
     * Request the segments from the source
     *
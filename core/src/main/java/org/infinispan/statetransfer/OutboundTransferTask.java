@@ -1,10 +1,14 @@
 package org.infinispan.statetransfer;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -18,6 +22,7 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.reactive.publisher.impl.SegmentPublisherSupplier;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.responses.ValidResponse;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
@@ -33,6 +38,13 @@
  * Outbound state transfer task. Pushes data segments to another cluster member on request. Instances of
  * OutboundTransferTask are created and managed by StateTransferManagerImpl. There should be at most
  * one such task per destination at any time.
+ * <p>
+ * Entries are sent in commands of at most {@code chunkSize} entries and {@link #MAX_COMMAND_BYTES} bytes, and up to
+ * {@link #INITIAL_COMMANDS_IN_FLIGHT} commands are sent before waiting for the destination to apply one of them. The
+ * reply to each command tells how many commands the destination accepts in flight, between 1 and
+ * {@link #MAX_COMMANDS_IN_FLIGHT}, according to the state it still has to apply. The
+ * destination only replies once it applied a command, so it can slow down the transfer by delaying its replies.
+ * A command completing a segment is only sent after all the previous commands were applied.
  *
  * @author anistor@redhat.com
  * @since 5.2
@@ -41,6 +53,21 @@ public class OutboundTransferTask {
 
    private static final Log log = LogFactory.getLog(OutboundTransferTask.class);
 
+   /**
+    * The estimated size above which a command is split, as computed by {@link StateChunk#estimateSize()}.
+    */
+   static final long MAX_COMMAND_BYTES = 4 * 1024 * 1024;
+
+   /**
+    * The number of commands sent without waiting for the destination to apply them, until it replies.
+    */
+   static final int INITIAL_COMMANDS_IN_FLIGHT = 2;
+
+   /**
+    * The most commands a destination may accept in flight.
+    */
+   static final int MAX_COMMANDS_IN_FLIGHT = 4;
+
    private final Consumer<Collection<StateChunk>> onChunkReplicated;
 
    private final int topologyId;
@@ -65,6 +92,11 @@ public class OutboundTransferTask {
 
    private volatile boolean cancelled;
 
+   // Only accessed while sending the commands, which happens sequentially
+   private final Deque<CompletableFuture<Void>> inFlight = new ArrayDeque<>(MAX_COMMANDS_IN_FLIGHT);
+   // Updated by the replies of the destination
+   private volatile int commandsInFlight = INITIAL_COMMANDS_IN_FLIGHT;
+
    public OutboundTransferTask(Address destination, IntSet segments, int segmentCount, int chunkSize, int topologyId,
                                Consumer<Collection<StateChunk>> onChunkReplicated, RpcManager rpcManager,
                                CommandsFactory commandsFactory, long timeout, String cacheName, boolean applyState) {
@@ -114,6 +146,7 @@ public CompletionStage<Void> execute(Flowable<SegmentPublisherSupplier.Notificat
       return notifications
             .buffer(chunkSize)
             .takeUntil(batch -> cancelled)
+            .concatMapIterable(this::splitBySize)
             // Here we receive a batch of notifications, a list with size up to chunkSize.
             // Although the notification list has the chunkSize the list contains not only data segments.
             // The notification contains data segments which hold values; lost and completed segments. This means that
@@ -137,11 +170,72 @@ public CompletionStage<Void> execute(Flowable<SegmentPublisherSupplier.Notificat
                   }
                }
 
-               return Completable.fromCompletionStage(sendChunks(chunks));
+               return Completable.fromCompletionStage(sendWhenReady(chunks));
             }, 1)
+            .andThen(Completable.defer(() -> Completable.fromCompletionStage(allInFlight())))
             .toCompletionStage(null);
    }
 
+   private List<List<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>>> splitBySize(
+         List<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> batch) {
+      List<List<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>>> batches = null;
+      long bytes = 0;
+      int start = 0;
+      for (int i = 0; i < batch.size(); i++) {
+         SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>> notification = batch.get(i);
+         if (!notification.isValue()) {
+            continue;
+         }
+         long entryBytes = StateChunk.estimateSize(notification.value());
+         if (bytes + entryBytes > MAX_COMMAND_BYTES && i > start) {
+            if (batches == null) {
+               batches = new ArrayList<>();
+            }
+            batches.add(batch.subList(start, i));
+            start = i;
+            bytes = 0;
+         }
+         bytes += entryBytes;
+      }
+      if (batches == null) {
+         return Collections.singletonList(batch);
+      }
+      batches.add(batch.subList(start, batch.size()));
+      return batches;
+   }
+
+   private CompletionStage<Void> sendWhenReady(Map<Integer, StateChunk> chunks) {
+      if (chunks.isEmpty())
+         return CompletableFutures.completedNull();
+
+      inFlight.removeIf(CompletableFuture::isDone);
+      CompletionStage<Void> ready;
+      if (chunks.values().stream().anyMatch(StateChunk::isLastChunk)) {
+         // The destination must apply all the entries of a segment before it is marked as completed
+         ready = allInFlight();
+      } else {
+         ready = commandSlot();
+      }
+      return ready.thenAccept(ignore -> {
+         if (!cancelled) {
+            inFlight.addLast(sendChunks(chunks).toCompletableFuture());
+         }
+      });
+   }
+
+   private CompletionStage<Void> commandSlot() {
+      inFlight.removeIf(CompletableFuture::isDone);
+      if (inFlight.size() < commandsInFlight) {
+         return CompletableFutures.completedNull();
+      }
+      // The destination may have reduced the commands in flight below the commands already sent
+      return CompletableFuture.anyOf(inFlight.toArray(new CompletableFuture[0])).thenCompose(ignore -> commandSlot());
+   }
+
+   private CompletionStage<Void> allInFlight() {
+      return CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0]));
+   }
+
    private CompletionStage<Void> sendChunks(Map<Integer, StateChunk> chunks) {
       if (chunks.isEmpty())
          return CompletableFutures.completedNull();
@@ -156,6 +250,7 @@ private CompletionStage<Void> sendChunks(Map<Integer, StateChunk> chunks) {
          return rpcManager.invokeCommand(destination, cmd, SingleResponseCollector.validOnly(), rpcOptions)
                           .handle((response, throwable) -> {
                              if (throwable == null) {
+                                updateCommandsInFlight(response);
                                 onChunkReplicated.accept(chunks.values());
                                 return null;
                              }
@@ -174,6 +269,13 @@ private CompletionStage<Void> sendChunks(Map<Integer, StateChunk> chunks) {
       return CompletableFutures.completedNull();
    }
 
+   private void updateCommandsInFlight(Object response) {
+      // Destinations running an older version, or not applying the state, do not reply with a number
+      if (response instanceof ValidResponse<?> validResponse && validResponse.getResponseValue() instanceof Integer commands) {
+         commandsInFlight = Math.max(1, Math.min(MAX_COMMANDS_IN_FLIGHT, commands));
+      }
+   }
+
    private void logSendException(Throwable throwable) {
       Throwable t = CompletableFutures.extractException(throwable);
       if (t instanceof SuspectException) {
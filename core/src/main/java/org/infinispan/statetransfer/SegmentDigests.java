@@ -0,0 +1,265 @@
+package org.infinispan.statetransfer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+import org.infinispan.reactive.publisher.impl.SegmentPublisherSupplier;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Summary of the entries a node holds in some segments, used to transfer only the entries that changed.
+ * <p>
+ * The entries of each segment are split in {@link #BUCKETS} buckets by the hash of their keys, and every bucket has a
+ * digest that does not depend on the iteration order: the sum of the hashes of its entries. The hash of an entry
+ * covers the key, the value, the version and the expiration settings. Values that are not stored as bytes are hashed
+ * with their {@link Object#hashCode()} and only when the entry also has a version, so a bucket containing an entry
+ * with neither a version nor a value stored as bytes has the {@link #UNKNOWN} digest, which never matches.
+ * <p>
+ * A node rejoining the cluster with a private store sends the digests of the segments it requests, and the provider
+ * does not send the entries of the buckets whose digests are the same on both nodes. Conflict resolution compares the
+ * digests of all the owners of a segment first, and only fetches the entries of the buckets where they differ.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.SEGMENT_DIGESTS)
+public final class SegmentDigests {
+   static final int BUCKETS = 16;
+   public static final int ALL_BUCKETS = (1 << BUCKETS) - 1;
+   public static final long UNKNOWN = Long.MIN_VALUE;
+
+   private final Map<Integer, long[]> digests;
+
+   private SegmentDigests(Map<Integer, long[]> digests) {
+      this.digests = digests;
+   }
+
+   /**
+    * Computes the digests of the entries published, leaving out the segments without entries.
+    */
+   static Single<SegmentDigests> compute(Flowable<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> entries) {
+      return entries.filter(SegmentPublisherSupplier.Notification::isValue)
+            .collect(HashMap<Integer, long[]>::new,
+                     (map, notification) -> add(map, notification.valueSegment(), notification.value()))
+            .map(SegmentDigests::new);
+   }
+
+   private static void add(Map<Integer, long[]> map, int segment, InternalCacheEntry<?, ?> entry) {
+      long[] buckets = map.computeIfAbsent(segment, s -> new long[BUCKETS]);
+      long keyHash = hash(entry.getKey());
+      int bucket = bucket(keyHash);
+      if (buckets[bucket] == UNKNOWN) {
+         return;
+      }
+      long entryHash = entryHash(keyHash, entry);
+      buckets[bucket] = entryHash == UNKNOWN ? UNKNOWN : buckets[bucket] + entryHash;
+   }
+
+   @ProtoFactory
+   static SegmentDigests protoFactory(long[] digests) {
+      Map<Integer, long[]> map = new HashMap<>();
+      for (int i = 0; i < digests.length; i += BUCKETS + 1) {
+         map.put((int) digests[i], Arrays.copyOfRange(digests, i + 1, i + 1 + BUCKETS));
+      }
+      return new SegmentDigests(map);
+   }
+
+   /**
+    * The segment id followed by the digests of its buckets, for every segment.
+    */
+   @ProtoField(1)
+   long[] getDigests() {
+      long[] array = new long[digests.size() * (BUCKETS + 1)];
+      int i = 0;
+      for (Map.Entry<Integer, long[]> e : digests.entrySet()) {
+         array[i] = e.getKey();
+         System.arraycopy(e.getValue(), 0, array, i + 1, BUCKETS);
+         i += BUCKETS + 1;
+      }
+      return array;
+   }
+
+   /**
+    * @return the digests of the buckets that are the same in all the instances, and {@link #UNKNOWN} for the others.
+    * The segments missing from an instance are considered empty.
+    */
+   public static SegmentDigests common(Collection<SegmentDigests> all) {
+      Map<Integer, long[]> common = new HashMap<>();
+      for (SegmentDigests digests : all) {
+         for (Integer segment : digests.digests.keySet()) {
+            common.computeIfAbsent(segment, s -> commonBuckets(s, all));
+         }
+      }
+      return new SegmentDigests(common);
+   }
+
+   private static long[] commonBuckets(int segment, Collection<SegmentDigests> all) {
+      long[] common = null;
+      for (SegmentDigests digests : all) {
+         long[] buckets = digests.digests.getOrDefault(segment, new long[BUCKETS]);
+         if (common == null) {
+            common = buckets.clone();
+         } else {
+            for (int i = 0; i < BUCKETS; i++) {
+               if (common[i] != buckets[i]) {
+                  common[i] = UNKNOWN;
+               }
+            }
+         }
+      }
+      return common;
+   }
+
+   /**
+    * @return whether all the instances have the same digests for the segment, and none of them is {@link #UNKNOWN}.
+    */
+   public static boolean isConsistent(int segment, Collection<SegmentDigests> all) {
+      if (all.isEmpty()) {
+         return true;
+      }
+      for (long digest : commonBuckets(segment, all)) {
+         if (digest == UNKNOWN) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   public boolean isEmpty() {
+      return digests.isEmpty();
+   }
+
+   public IntSet getSegments() {
+      return IntSets.from(digests.keySet());
+   }
+
+   /**
+    * @return the buckets of every segment that do not have the {@link #UNKNOWN} digest, as a bit mask, or
+    * {@link #ALL_BUCKETS} if the segment has no entries.
+    */
+   public int knownBuckets(int segment) {
+      long[] buckets = digests.get(segment);
+      if (buckets == null) {
+         return ALL_BUCKETS;
+      }
+      int mask = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         if (buckets[i] != UNKNOWN) {
+            mask |= 1 << i;
+         }
+      }
+      return mask;
+   }
+
+   /**
+    * @return the segments with their buckets that have the same digests in both instances, as a bit mask.
+    */
+   Map<Integer, Integer> unchangedBuckets(SegmentDigests other) {
+      Map<Integer, Integer> unchanged = new HashMap<>();
+      for (Map.Entry<Integer, long[]> e : digests.entrySet()) {
+         long[] otherBuckets = other.digests.get(e.getKey());
+         if (otherBuckets == null) {
+            continue;
+         }
+         long[] buckets = e.getValue();
+         int mask = 0;
+         for (int i = 0; i < BUCKETS; i++) {
+            if (buckets[i] != UNKNOWN && buckets[i] == otherBuckets[i]) {
+               mask |= 1 << i;
+            }
+         }
+         if (mask != 0) {
+            unchanged.put(e.getKey(), mask);
+         }
+      }
+      return unchanged;
+   }
+
+   /**
+    * @return whether the bucket of the key is marked in the mask returned by {@link #unchangedBuckets(SegmentDigests)}.
+    */
+   static boolean isUnchanged(Map<Integer, Integer> unchangedBuckets, int segment, Object key) {
+      Integer mask = unchangedBuckets.get(segment);
+      return mask != null && isInBuckets(mask, key);
+   }
+
+   /**
+    * @return whether the bucket of the key is marked in the mask.
+    */
+   public static boolean isInBuckets(int mask, Object key) {
+      return (mask & (1 << bucket(hash(key)))) != 0;
+   }
+
+   private static int bucket(long keyHash) {
+      return (int) (keyHash >>> 60);
+   }
+
+   private static long entryHash(long keyHash, InternalCacheEntry<?, ?> entry) {
+      Metadata metadata = entry.getMetadata();
+      EntryVersion version = metadata != null ? metadata.version() : null;
+      Object value = entry.getValue();
+      long valueHash;
+      if (value instanceof WrappedBytes || value instanceof byte[]) {
+         valueHash = hash(value) + (version != null ? version.hashCode() : 0);
+      } else if (version != null) {
+         // Partitions can write different values with the same version during a split brain
+         valueHash = (value != null ? hash(value) : 0) + version.hashCode();
+      } else {
+         return UNKNOWN;
+      }
+      long h = mix(keyHash ^ mix(valueHash));
+      if (metadata != null) {
+         h = mix(h + metadata.lifespan() * 31 + metadata.maxIdle());
+      }
+      return h;
+   }
+
+   /**
+    * Hashes the content of byte arrays, and uses {@link Object#hashCode()} otherwise: the keys must have the same hash
+    * code in every node to be mapped to the same segment anyway.
+    */
+   private static long hash(Object o) {
+      long h = 0xcbf29ce484222325L;
+      if (o instanceof byte[] bytes) {
+         for (byte b : bytes) {
+            h = (h ^ b) * 0x100000001b3L;
+         }
+      } else if (o instanceof WrappedBytes bytes) {
+         byte[] array = bytes.getBytes();
+         int offset = bytes.backArrayOffset();
+         for (int i = 0; i < bytes.getLength(); i++) {
+            h = (h ^ (array != null ? array[offset + i] : bytes.getByte(i))) * 0x100000001b3L;
+         }
+      } else {
+         h = o.hashCode();
+      }
+      return mix(h);
+   }
+
+   private static long mix(long h) {
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+   }
+
+   @Override
+   public String toString() {
+      return "SegmentDigests{segments=" + digests.keySet() + '}';
+   }
+}
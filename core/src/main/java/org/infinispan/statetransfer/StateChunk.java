@@ -3,6 +3,7 @@
 import java.util.List;
 
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.marshall.protostream.impl.MarshallableList;
 import org.infinispan.protostream.annotations.ProtoFactory;
@@ -18,6 +19,8 @@
  */
 @ProtoTypeId(ProtoStreamTypeIds.STATE_CHUNK)
 public class StateChunk {
+   // Approximate size of an entry besides its key and value
+   private static final int ENTRY_OVERHEAD = 64;
 
    /**
     * The id of the segment for which we push cache entries.
@@ -62,6 +65,34 @@ public boolean isLastChunk() {
       return isLastChunk;
    }
 
+   /**
+    * @return an estimate of the memory used by the entries of the chunk.
+    */
+   public long estimateSize() {
+      long size = 0;
+      for (InternalCacheEntry<?, ?> entry : cacheEntries) {
+         size += estimateSize(entry);
+      }
+      return size;
+   }
+
+   /**
+    * Estimates the memory used by an entry. Only keys and values stored as bytes, as in the server caches, are
+    * measured, other objects are only counted as part of a fixed overhead.
+    */
+   static long estimateSize(InternalCacheEntry<?, ?> entry) {
+      return ENTRY_OVERHEAD + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+   }
+
+   private static int estimateSize(Object o) {
+      if (o instanceof WrappedBytes bytes) {
+         return bytes.getLength();
+      } else if (o instanceof byte[] bytes) {
+         return bytes.length;
+      }
+      return 0;
+   }
+
    @ProtoField(3)
    MarshallableList<InternalCacheEntry<?, ?>> getEntries() {
       return MarshallableList.create(cacheEntries);
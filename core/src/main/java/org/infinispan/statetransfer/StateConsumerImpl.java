@@ -11,6 +11,7 @@
 import static org.infinispan.context.Flag.SKIP_REMOTE_LOOKUP;
 import static org.infinispan.context.Flag.SKIP_SHARED_CACHE_STORE;
 import static org.infinispan.context.Flag.SKIP_XSITE_BACKUP;
+import static org.infinispan.context.Flag.STATE_TRANSFER_PROGRESS;
 import static org.infinispan.factories.KnownComponentNames.NON_BLOCKING_EXECUTOR;
 import static org.infinispan.factories.KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR;
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.PRIVATE;
@@ -35,6 +36,7 @@
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.infinispan.Cache;
@@ -81,7 +83,10 @@
 import org.infinispan.notifications.cachelistener.annotation.DataRehashed;
 import org.infinispan.notifications.cachelistener.cluster.ClusterListenerReplicateCallable;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.reactive.publisher.impl.DeliveryGuarantee;
 import org.infinispan.reactive.publisher.impl.LocalPublisherManager;
+import org.infinispan.reactive.publisher.impl.SegmentAwarePublisherSupplier;
+import org.infinispan.reactive.publisher.impl.SegmentPublisherSupplier;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.inboundhandler.PerCacheInboundInvocationHandler;
 import org.infinispan.remoting.responses.CacheNotFoundResponse;
@@ -129,6 +134,15 @@ public class StateConsumerImpl implements StateConsumer {
                                                                         SKIP_XSITE_BACKUP, SKIP_LOCKING, IRAC_STATE);
    protected static final long INVALIDATE_FLAGS = STATE_TRANSFER_FLAGS & ~FlagBitSets.PUT_FOR_STATE_TRANSFER;
    public static final String NO_KEY = "N/A";
+   /**
+    * The estimated size of the received state applied concurrently, from all the senders. The received state waiting
+    * to be applied is not included.
+    */
+   static final long MAX_APPLYING_STATE_BYTES = 64 * 1024 * 1024;
+   /**
+    * Flags used when reading the local entries to compute their digests, the same used by the provider.
+    */
+   private static final long SEGMENT_DIGESTS_FLAGS = EnumUtil.bitSetOf(STATE_TRANSFER_PROGRESS);
 
    @Inject protected ComponentRef<Cache<Object, Object>> cache;
    @Inject protected Configuration configuration;
@@ -159,6 +173,11 @@ public class StateConsumerImpl implements StateConsumer {
    protected String cacheName;
    protected long timeout;
    protected boolean isFetchEnabled;
+   /**
+    * Whether the entries in the private stores may survive a restart, so requests carry the digests of the local
+    * entries and the providers only send the entries that changed.
+    */
+   private boolean useSegmentDigests;
    protected boolean isTransactional;
    protected boolean isInvalidationMode;
    protected volatile KeyInvalidationListener keyInvalidationListener; //for test purpose only!
@@ -214,6 +233,11 @@ public class StateConsumerImpl implements StateConsumer {
     */
    private ProgressTracker progressTracker;
 
+   /**
+    * Bounds the received state applied concurrently.
+    */
+   private InboundStateLimiter inboundStateLimiter;
+
    private volatile boolean ownsData = false;
 
    // Use the state transfer timeout for RPCs instead of the regular remote timeout
@@ -631,16 +655,27 @@ public CompletionStage<?> applyState(final Address sender, int topologyId, Colle
                     dataContainer.sizeIncludingExpired());
       }
       IntSet mySegments = IntSets.from(wCh.getSegmentsForOwner(rpcManager.getAddress()));
-      Iterator<StateChunk> iterator = stateChunks.iterator();
-      return applyStateIteration(sender, mySegments, iterator).whenComplete((v, t) -> {
-         if (log.isTraceEnabled()) {
-            log.tracef("After applying the received state the data container of cache %s has %d keys", cacheName,
-                       dataContainer.sizeIncludingExpired());
-            synchronized (transferMapsLock) {
-               log.tracef("Segments not received yet for cache %s: %s", cacheName, transfersBySource);
-            }
-         }
-      });
+      long bytes = 0;
+      for (StateChunk stateChunk : stateChunks) {
+         bytes += stateChunk.estimateSize();
+      }
+      long acquiredBytes = bytes;
+      // The chunks stay in memory while waiting, the limiter only bounds the state being applied
+      // The reply grants the sender the commands it may keep in flight, so it sends less while this node is behind
+      return inboundStateLimiter.acquire(acquiredBytes)
+            .thenCompose(ignore -> applyStateIteration(sender, mySegments, stateChunks.iterator()))
+            .whenComplete((v, t) -> {
+               inboundStateLimiter.release(acquiredBytes);
+               if (log.isTraceEnabled()) {
+                  log.tracef("After applying the received state the data container of cache %s has %d keys", cacheName,
+                             dataContainer.sizeIncludingExpired());
+                  synchronized (transferMapsLock) {
+                     log.tracef("Segments not received yet for cache %s: %s", cacheName, transfersBySource);
+                  }
+               }
+            })
+            .thenApply(ignore -> inboundStateLimiter.credits(OutboundTransferTask.MAX_COMMAND_BYTES,
+                  OutboundTransferTask.MAX_COMMANDS_IN_FLIGHT));
    }
 
    private CompletionStage<?> applyStateIteration(Address sender, IntSet mySegments,
@@ -838,12 +873,15 @@ public void start() {
       numSegments = configuration.clustering().hash().numSegments();
 
       isFetchEnabled = isFetchEnabled();
+      useSegmentDigests = isFetchEnabled && !isInvalidationMode &&
+            persistenceManager.hasStore(c -> !c.shared() && !c.purgeOnStartup());
 
       rpcOptions = new RpcOptions(DeliverOrder.NONE, timeout, TimeUnit.MILLISECONDS);
 
       requestedTransactionalSegments = IntSets.concurrentSet(numSegments);
 
       stateRequestExecutor = new LimitedExecutor("StateRequest-" + cacheName, nonBlockingExecutor, 1);
+      inboundStateLimiter = new InboundStateLimiter(MAX_APPLYING_STATE_BYTES, nonBlockingExecutor);
       progressTracker = new ProgressTracker("state-transfer-" + cacheName, timeoutExecutor, timeService, timeout >> 2, TimeUnit.MILLISECONDS);
       running = true;
    }
@@ -1248,11 +1286,38 @@ private void addTransfer(Address source, IntSet segmentsFromSource) {
       }
 
       stateRequestExecutor.executeAsync(() -> {
-         CompletionStage<Void> transferStarted = inboundTransfer.requestSegments();
+         CompletionStage<Void> transferStarted = localDigests(segmentsFromSource)
+               .thenCompose(inboundTransfer::requestSegments);
          return transferStarted.whenComplete((aVoid, throwable) -> onTaskCompletion(inboundTransfer));
       });
    }
 
+   /**
+    * @return the digests of the entries stored locally in the given segments, or {@code null} if they are not used.
+    */
+   private CompletionStage<SegmentDigests> localDigests(IntSet segments) {
+      if (!useSegmentDigests) {
+         return CompletableFutures.completedNull();
+      }
+      SegmentAwarePublisherSupplier<?> publisher =
+            localPublisherManager.entryPublisher(segments, null, null, SEGMENT_DIGESTS_FLAGS,
+                                                 DeliveryGuarantee.AT_MOST_ONCE, Function.identity());
+      Flowable<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> entries =
+            Flowable.fromPublisher(publisher.publisherWithSegments())
+                    .map(notification -> (SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>) notification);
+      return SegmentDigests.compute(entries).toCompletionStage()
+            .handle((digests, t) -> {
+               if (t != null) {
+                  log.debugf(t, "Failed to compute the digests of segments %s of cache %s, requesting all the entries",
+                             segments, cacheName);
+                  return null;
+               }
+               if (log.isTraceEnabled()) log.tracef("Computed local digests %s of cache %s", digests, cacheName);
+               // Without local entries there is nothing to compare
+               return digests.isEmpty() ? null : digests;
+            });
+   }
+
    @GuardedBy("transferMapsLock")
    protected void addTransfer(InboundTransferTask inboundTransfer, IntSet segments) {
       if (!running)
@@ -58,6 +58,31 @@ public interface StateProvider {
     */
    void startOutboundTransfer(Address destination, int topologyId, IntSet segments, boolean applyState);
 
+   /**
+    * Start to send the cache entries that belong to the given set of segments, skipping the entries in the buckets
+    * whose digests are the same in this node and in the {@link SegmentDigests} sent by the requester.
+    *
+    * @param destination the address of the requester
+    * @param topologyId  the topology id of the request
+    * @param segments    the requested segments
+    * @param applyState  whether the entries are applied at the destination, see
+    *                    {@link #startOutboundTransfer(Address, int, IntSet, boolean)}
+    * @param digests     the digests sent by the requester, or {@code null} to send all the entries
+    */
+   default void startOutboundTransfer(Address destination, int topologyId, IntSet segments, boolean applyState,
+                                      SegmentDigests digests) {
+      startOutboundTransfer(destination, topologyId, segments, applyState);
+   }
+
+   /**
+    * Computes the digests of the entries in the given segments. This is invoked in response to a
+    * {@link org.infinispan.commands.statetransfer.ConflictResolutionDigestCommand}.
+    *
+    * @param segments the segments to summarise
+    * @return a {@code CompletionStage} that completes with the digests of the local entries
+    */
+   CompletionStage<SegmentDigests> getSegmentDigests(IntSet segments);
+
    /**
     * Cancel sending of cache entries that belong to the given set of segments. This is invoked in response to a
     * {@link org.infinispan.commands.statetransfer.StateTransferCancelCommand}.
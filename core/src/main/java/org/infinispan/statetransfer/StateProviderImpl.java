@@ -283,9 +283,15 @@ private void collectTransactionsToTransfer(Address destination,
 
    @Override
    public void startOutboundTransfer(Address destination, int requestTopologyId, IntSet segments, boolean applyState) {
+      startOutboundTransfer(destination, requestTopologyId, segments, applyState, null);
+   }
+
+   @Override
+   public void startOutboundTransfer(Address destination, int requestTopologyId, IntSet segments, boolean applyState,
+                                     SegmentDigests digests) {
       if (log.isTraceEnabled()) {
-         log.tracef("Starting outbound transfer to node %s for cache %s, topology id %d, segments %s", destination,
-                    cacheName, requestTopologyId, segments);
+         log.tracef("Starting outbound transfer to node %s for cache %s, topology id %d, segments %s, digests %s",
+                    destination, cacheName, requestTopologyId, segments, digests);
       }
 
       // the destination node must already have an InboundTransferTask waiting for these segments
@@ -294,7 +300,9 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, In
                                   chunkSize, requestTopologyId, chunks -> {}, rpcManager,
                                   commandsFactory, timeout, cacheName, applyState);
       addTransfer(outboundTransfer);
-      outboundTransfer.execute(readEntries(segments))
+      Flowable<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> entries =
+            digests == null || digests.isEmpty() ? readEntries(segments) : readChangedEntries(segments, digests);
+      outboundTransfer.execute(entries)
                       .whenComplete((ignored, throwable) -> {
                          if (throwable != null) {
                             logError(outboundTransfer, throwable);
@@ -311,6 +319,32 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, In
             .map(notification -> (SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>) notification);
    }
 
+   @Override
+   public CompletionStage<SegmentDigests> getSegmentDigests(IntSet segments) {
+      return SegmentDigests.compute(readEntries(segments)).toCompletionStage();
+   }
+
+   /**
+    * Reads the entries in the requested segments, except those in buckets with the same digest in the requester.
+    * The segments with digests are read twice, first to compute the local digests and then to send the entries.
+    */
+   private Flowable<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> readChangedEntries(
+         IntSet segments, SegmentDigests digests) {
+      IntSet digestedSegments = IntSets.mutableCopyFrom(digests.getSegments());
+      digestedSegments.retainAll(segments);
+      return SegmentDigests.compute(readEntries(digestedSegments))
+            .flatMapPublisher(localDigests -> {
+               Map<Integer, Integer> unchangedBuckets = localDigests.unchangedBuckets(digests);
+               if (log.isTraceEnabled()) {
+                  log.tracef("Skipping unchanged buckets %s of cache %s", unchangedBuckets, cacheName);
+               }
+               return readEntries(segments)
+                     .filter(notification -> !notification.isValue() ||
+                           !SegmentDigests.isUnchanged(unchangedBuckets, notification.valueSegment(),
+                                                       notification.value().getKey()));
+            });
+   }
+
    protected void addTransfer(OutboundTransferTask transferTask) {
       if (log.isTraceEnabled()) {
          log.tracef("Adding outbound transfer to %s for segments %s", transferTask.getDestination(),
@@ -2427,4 +2427,10 @@ CacheConfigurationException storeConfiguredHasBothReadAndWriteOnly(String storeC
    @LogMessage(level = WARN)
    @Message(value = "The single file store has been deprecated. Please use the Soft-Index File Store instead", id = 713)
    void singleFileStoreDeprecated();
+
+   @Message(value = "Invalid field '%2$s' in '%1$s': it must be the entity name followed by the property path", id = 714)
+   CacheConfigurationException invalidIndexedField(String attributeName, String field);
+
+   @Message(value = "Invalid value %d for the '%s' attribute of the mass indexer: it must be at least %d", id = 715)
+   CacheConfigurationException invalidMassIndexerAttribute(int value, String attributeName, int minimum);
 }
@@ -0,0 +1,104 @@
+package org.infinispan.api;
+
+import static org.infinispan.commons.util.concurrent.CompletionStages.join;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.AbstractMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.cache.impl.AliasCache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.functional.decorators.FunctionalAdvancedCache;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Tests {@link org.infinispan.AdvancedCache#bulkLoad(org.reactivestreams.Publisher, Metadata)}.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "api.BulkLoadTest")
+public class BulkLoadTest extends MultipleCacheManagersTest {
+   private static final int NUM_ENTRIES = 2000;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC);
+      builder.clustering().hash().numOwners(2);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testBulkLoad() {
+      join(cache(0).getAdvancedCache().bulkLoad(entries(), new EmbeddedMetadata.Builder().build()));
+      assertLoaded();
+   }
+
+   public void testBulkLoadThroughDelegatingCache() {
+      AdvancedCache<Object, Object> alias = new AliasCache<>(cache(0).getAdvancedCache(), "alias");
+      join(alias.bulkLoad(entries(), new EmbeddedMetadata.Builder().build()));
+      assertLoaded();
+   }
+
+   public void testBulkLoadDefaultImplementation() {
+      // FunctionalAdvancedCache does not override bulkLoad, the default batches its putAllAsync invocations
+      AdvancedCache<Object, Object> functional = FunctionalAdvancedCache.create(cache(0).getAdvancedCache());
+      join(functional.bulkLoad(entries(), new EmbeddedMetadata.Builder().build()));
+      assertLoaded();
+   }
+
+   private void assertLoaded() {
+      int stored = 0;
+      for (Cache<Object, Object> cache : caches()) {
+         for (int i = 0; i < NUM_ENTRIES; i++) {
+            assertEquals("v" + i, cache.get("k" + i));
+         }
+         stored += cache.getAdvancedCache().getDataContainer().size();
+      }
+      // Every entry is stored on both of its owners only
+      assertEquals(2 * NUM_ENTRIES, stored);
+   }
+
+   public void testBulkLoadSkipListenerNotification() {
+      CountingListener listener = new CountingListener();
+      cache(0).addListener(listener);
+      try {
+         join(cache(0).getAdvancedCache().withFlags(Flag.SKIP_LISTENER_NOTIFICATION)
+               .bulkLoad(entries(), new EmbeddedMetadata.Builder().build()));
+         assertEquals(0, listener.created.get());
+         assertEquals(NUM_ENTRIES, cache(0).size());
+
+         cache(0).clear();
+         join(cache(0).getAdvancedCache().bulkLoad(entries(), new EmbeddedMetadata.Builder().build()));
+         assertEquals(NUM_ENTRIES, listener.created.get());
+      } finally {
+         cache(0).removeListener(listener);
+      }
+   }
+
+   private static Flowable<AbstractMap.SimpleImmutableEntry<Object, Object>> entries() {
+      return Flowable.range(0, NUM_ENTRIES)
+            .map(i -> new AbstractMap.SimpleImmutableEntry<>("k" + i, "v" + i));
+   }
+
+   @Listener(clustered = true)
+   public static class CountingListener {
+      final AtomicInteger created = new AtomicInteger();
+
+      @CacheEntryCreated
+      public void entryCreated(CacheEntryCreatedEvent<?, ?> event) {
+         created.incrementAndGet();
+      }
+   }
+}
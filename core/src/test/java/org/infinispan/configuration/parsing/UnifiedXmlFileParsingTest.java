@@ -23,6 +23,7 @@
 import org.infinispan.commons.executors.ScheduledThreadPoolExecutorFactory;
 import org.infinispan.commons.util.FileLookupFactory;
 import org.infinispan.commons.util.Version;
+import org.infinispan.configuration.cache.AllocatorType;
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.BackupConfiguration;
 import org.infinispan.configuration.cache.BackupFailurePolicy;
@@ -35,6 +36,7 @@
 import org.infinispan.configuration.cache.IndexingConfiguration;
 import org.infinispan.configuration.cache.IndexingMode;
 import org.infinispan.configuration.cache.IsolationLevel;
+import org.infinispan.configuration.cache.MassIndexerConfiguration;
 import org.infinispan.configuration.cache.MemoryConfiguration;
 import org.infinispan.configuration.cache.PartitionHandlingConfiguration;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
@@ -115,6 +117,31 @@ public void testParseAndConstructUnifiedXmlFile(Path config) throws IOException
    }
 
    public enum ParserVersionCheck {
+      INFINISPAN_160(16, 0) {
+         @Override
+         public void check(ConfigurationBuilderHolder holder, int schemaMajor, int schemaMinor) {
+            MemoryConfiguration mc = getConfiguration(holder, "off_heap_pooled").memory();
+            assertEquals(StorageType.OFF_HEAP, mc.storage());
+            assertEquals(AllocatorType.POOLED, mc.allocator());
+
+            mc = getConfiguration(holder, "off_heap_no_eviction").memory();
+            assertEquals(AllocatorType.UNPOOLED, mc.allocator());
+
+            MassIndexerConfiguration massIndexer = getConfiguration(holder, "indexed-manual-indexing").indexing().massIndexer();
+            assertThat(massIndexer.threadPoolSize()).isEqualTo(4);
+            assertThat(massIndexer.batchSize()).isEqualTo(500);
+            assertThat(massIndexer.maxEntriesPerSecond()).isEqualTo(10000);
+
+            QueryConfiguration query = getConfiguration(holder, "custom-default-max-results").query();
+            assertThat(query.hashIndexedFields()).containsExactlyInAnyOrder("book_sample.Book.title", "book_sample.Book.author");
+            assertThat(query.sortedIndexedFields()).containsExactly("book_sample.Book.year");
+            assertThat(query.resultCacheSize()).isEqualTo(50);
+
+            SoftIndexFileStoreConfiguration fileStore = getStoreConfiguration(getConfiguration(holder, "local"),
+                  SoftIndexFileStoreConfiguration.class);
+            assertTrue(fileStore.memoryMapped());
+         }
+      },
       INFINISPAN_151(15, 1) {
          @Override
          public void check(ConfigurationBuilderHolder holder, int schemaMajor, int schemaMinor) {
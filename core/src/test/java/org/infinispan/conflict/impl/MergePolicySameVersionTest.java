@@ -0,0 +1,57 @@
+package org.infinispan.conflict.impl;
+
+import static org.infinispan.configuration.cache.CacheMode.DIST_SYNC;
+import static org.infinispan.configuration.cache.CacheMode.REPL_SYNC;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.conflict.MergePolicy;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.partitionhandling.AvailabilityMode;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the segment digests compared before fetching the entries detect a conflict between object values written
+ * with the same version in both partitions.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "partitionhandling.MergePolicySameVersionTest")
+public class MergePolicySameVersionTest extends BaseMergePolicyTest {
+
+   @Override
+   public Object[] factory() {
+      return new Object[] {
+            new MergePolicySameVersionTest(REPL_SYNC, 2, "4N", new int[]{0,1}, new int[]{2,3}),
+            new MergePolicySameVersionTest(REPL_SYNC, 2, "2N", new int[]{0}, new int[]{1}),
+
+            new MergePolicySameVersionTest(DIST_SYNC, 2, "4N-2", new int[]{0,1}, new int[]{2,3}),
+            new MergePolicySameVersionTest(DIST_SYNC, 2, "2N-2", new int[]{0}, new int[]{1})
+      };
+   }
+
+   public MergePolicySameVersionTest(){}
+
+   public MergePolicySameVersionTest(CacheMode cacheMode, int owners, String description, int[] partition1, int[] partition2) {
+      super(cacheMode, owners, description, AvailabilityMode.AVAILABLE, partition1, partition2);
+      this.mergePolicy = MergePolicy.PREFERRED_ALWAYS;
+   }
+
+   @Override
+   protected void beforeSplit() {
+      super.beforeSplit();
+      cache(p0.node(0)).getAdvancedCache().put(conflictKey, "BEFORE SPLIT", version(1));
+   }
+
+   @Override
+   protected void duringSplit(AdvancedCache preferredPartitionCache, AdvancedCache otherCache) {
+      preferredPartitionCache.put(conflictKey, "DURING SPLIT", version(2));
+      otherCache.put(conflictKey, "DURING SPLIT IN THE OTHER PARTITION", version(2));
+   }
+
+   private static Metadata version(long version) {
+      return new EmbeddedMetadata.Builder().version(new NumericVersion(version)).build();
+   }
+}
@@ -154,6 +154,9 @@ private void createAndInitStateReceiver() {
       stateReceiver.onDataRehash(createEventImpl(2, 4, Event.Type.DATA_REHASHED));
       this.localizedCacheTopology = createLocalizedCacheTopology(4);
       this.stateReceiver = spy(stateReceiver);
+      // Without digests all the entries are requested
+      doReturn(CompletableFuture.completedFuture(null)).when(this.stateReceiver)
+            .getSegmentDigests(any(Integer.class), any(LocalizedCacheTopology.class), any(Long.class));
    }
 
    @AfterClass(alwaysRun = true)
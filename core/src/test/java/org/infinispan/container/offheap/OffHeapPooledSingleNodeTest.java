@@ -0,0 +1,56 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.AllocatorType;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the off-heap single node tests with the {@link PooledOffHeapMemoryAllocator}.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapPooledSingleNodeTest")
+public class OffHeapPooledSingleNodeTest extends OffHeapSingleNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, false);
+      dcc.memory().storage(StorageType.OFF_HEAP).allocator(AllocatorType.POOLED);
+      addClusterEnabledCacheManager(dcc);
+
+      configureTimeService();
+   }
+
+   public void testPooledAllocatorInUse() {
+      assertTrue(TestingUtil.extractComponent(cache(0), OffHeapMemoryAllocator.class) instanceof PooledOffHeapMemoryAllocator);
+   }
+
+   public void testEntriesSurviveRehashAfterRemovals() {
+      Cache<String, String> cache = cache(0);
+      for (int i = 0; i < 10_000; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      // Leave the early pages sparse, then force further rehashes that may relocate the remaining entries
+      for (int i = 0; i < 10_000; ++i) {
+         if (i % 10 != 0) {
+            cache.remove("key" + i);
+         }
+      }
+      for (int i = 10_000; i < 40_000; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      for (int i = 0; i < 10_000; i += 10) {
+         assertEquals("value" + i, cache.get("key" + i));
+      }
+      for (int i = 10_000; i < 40_000; ++i) {
+         assertEquals("value" + i, cache.get("key" + i));
+      }
+   }
+}
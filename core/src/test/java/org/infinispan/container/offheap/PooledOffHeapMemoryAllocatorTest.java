@@ -0,0 +1,132 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.commons.spi.OffHeapMemory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "container.offheap.PooledOffHeapMemoryAllocatorTest")
+public class PooledOffHeapMemoryAllocatorTest {
+   private static final OffHeapMemory MEMORY = org.infinispan.commons.jdkspecific.OffHeapMemory.getInstance();
+
+   private PooledOffHeapMemoryAllocator allocator;
+
+   @BeforeMethod
+   void createAllocator() {
+      allocator = new PooledOffHeapMemoryAllocator(1);
+   }
+
+   @AfterMethod
+   void stopAllocator() {
+      allocator.stop();
+   }
+
+   @DataProvider(name = "slotSizes")
+   Object[][] slotSizes() {
+      return new Object[][] {
+            { 1, 16 },
+            { 16, 16 },
+            { 17, 32 },
+            { 256, 256 },
+            { 257, 320 },
+            { 321, 384 },
+            { 512, 512 },
+            { 513, 640 },
+            { 1000, 1024 },
+            { 16384, 16384 },
+      };
+   }
+
+   @Test(dataProvider = "slotSizes")
+   public void testSlotSizes(long size, int expected) {
+      assertEquals(expected, PooledOffHeapMemoryAllocator.slotSize(size));
+   }
+
+   public void testSlotsDoNotOverlap() {
+      Set<Long> addresses = new HashSet<>();
+      for (int i = 0; i < 1000; ++i) {
+         long address = allocator.allocate(40);
+         assertEquals(0, address & 15);
+         MEMORY.putLong(address, 0, i);
+         MEMORY.putLong(address, 32, i);
+         assertTrue(addresses.add(address));
+      }
+      for (long address : addresses) {
+         assertEquals(MEMORY.getLong(address, 0), MEMORY.getLong(address, 32));
+      }
+      assertEquals(1, allocator.getPageCount());
+      assertEquals(PooledOffHeapMemoryAllocator.PAGE_SIZE, allocator.getAllocatedAmount());
+   }
+
+   public void testFreedSlotIsReused() {
+      long first = allocator.allocate(100);
+      allocator.allocate(100);
+      allocator.deallocate(first, 100);
+      assertEquals(first, allocator.allocate(100));
+   }
+
+   public void testEmptyPageIsReleased() {
+      int slotsPerPage = (int) (PooledOffHeapMemoryAllocator.PAGE_SIZE / 1024);
+      List<Long> firstPage = new ArrayList<>();
+      for (int i = 0; i < slotsPerPage; ++i) {
+         firstPage.add(allocator.allocate(1024));
+      }
+      // The first page is full, so this one comes from a new page that becomes the current one
+      long secondPage = allocator.allocate(1024);
+      assertEquals(2, allocator.getPageCount());
+      assertEquals(2 * PooledOffHeapMemoryAllocator.PAGE_SIZE, allocator.getAllocatedAmount());
+
+      for (long address : firstPage) {
+         allocator.deallocate(address, 1024);
+      }
+      assertEquals(1, allocator.getPageCount());
+
+      allocator.deallocate(secondPage, 1024);
+      // The current page is kept around for the next allocations
+      assertEquals(1, allocator.getPageCount());
+   }
+
+   public void testSparsePageShouldRelocate() {
+      int slotsPerPage = (int) (PooledOffHeapMemoryAllocator.PAGE_SIZE / 1024);
+      List<Long> firstPage = new ArrayList<>();
+      for (int i = 0; i < slotsPerPage; ++i) {
+         firstPage.add(allocator.allocate(1024));
+      }
+      long current = allocator.allocate(1024);
+      long survivor = firstPage.remove(0);
+      assertFalse(allocator.shouldRelocate(survivor, 1024));
+
+      for (long address : firstPage) {
+         allocator.deallocate(address, 1024);
+      }
+      assertTrue(allocator.shouldRelocate(survivor, 1024));
+      assertFalse(allocator.shouldRelocate(current, 1024));
+
+      long relocated = allocator.allocate(1024);
+      assertEquals(allocator.pageAddress(current), allocator.pageAddress(relocated));
+      assertFalse(allocator.pageAddress(survivor) == allocator.pageAddress(relocated));
+      allocator.deallocate(survivor, 1024);
+      assertEquals(1, allocator.getPageCount());
+   }
+
+   public void testLargeAllocationsAreNotPooled() {
+      long address = allocator.allocate(PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1);
+      assertEquals(0, allocator.getPageCount());
+      assertFalse(allocator.shouldRelocate(address, PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1));
+      allocator.deallocate(address, PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1);
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+}
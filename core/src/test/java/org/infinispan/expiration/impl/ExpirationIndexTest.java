@@ -0,0 +1,123 @@
+package org.infinispan.expiration.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.infinispan.commons.time.ControlledTimeService;
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.impl.InternalDataContainer;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the reaper only visits the entries due through the data container expiration index.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "expiration.impl.ExpirationIndexTest")
+public class ExpirationIndexTest extends SingleCacheManagerTest {
+   private final ControlledTimeService timeService = new ControlledTimeService();
+   private StorageType storage;
+
+   @Factory
+   public Object[] factory() {
+      return new Object[]{
+            new ExpirationIndexTest().withStorage(StorageType.HEAP),
+            new ExpirationIndexTest().withStorage(StorageType.OFF_HEAP),
+      };
+   }
+
+   private ExpirationIndexTest withStorage(StorageType storage) {
+      this.storage = storage;
+      return this;
+   }
+
+   @Override
+   protected String parameters() {
+      return "[" + storage + "]";
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      // The reaper is enabled for the index to be maintained, but never runs during the test
+      builder.expiration().wakeUpInterval(1, TimeUnit.HOURS)
+            .memory().storage(storage);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(new GlobalConfigurationBuilder().nonClusteredDefault(),
+            builder, false);
+      TestingUtil.replaceComponent(cm, TimeService.class, timeService, true);
+      cm.start();
+      cache = cm.getCache();
+      return cm;
+   }
+
+   public void testOnlyDueEntriesReturned() {
+      cache.clear();
+      for (int i = 0; i < 100; i++) {
+         cache.put("immortal-" + i, "value");
+         cache.put("long-" + i, "value", 10, TimeUnit.HOURS);
+      }
+      for (int i = 0; i < 10; i++) {
+         cache.put("short-" + i, "value", 1, TimeUnit.MINUTES);
+      }
+      // Written again without expiration, so it is no longer expired
+      cache.put("short-0", "value");
+
+      // Buckets are as wide as the wake-up interval, the entries are only due at the end of theirs
+      timeService.advance(TimeUnit.HOURS.toMillis(2));
+      Set<Object> expired = expiredKeys();
+      assertEquals(9, expired.size());
+      for (int i = 1; i < 10; i++) {
+         assertTrue(expired.contains("short-" + i));
+      }
+
+      // Expired entries stay indexed until they are removed
+      timeService.advance(TimeUnit.HOURS.toMillis(1));
+      cache.getAdvancedCache().getExpirationManager().processExpiration();
+      assertEquals(201, cache.getAdvancedCache().withFlags(Flag.SKIP_SIZE_OPTIMIZATION).size());
+
+      timeService.advance(TimeUnit.HOURS.toMillis(1));
+      assertEquals(0, expiredKeys().size());
+   }
+
+   public void testMaxIdleReadPostponesExpiration() {
+      cache.clear();
+      cache.put("idle", "value", -1, TimeUnit.MILLISECONDS, 10, TimeUnit.HOURS);
+
+      timeService.advance(TimeUnit.HOURS.toMillis(5));
+      assertNotNull(cache.get("idle"));
+
+      // Due after its original expiration time, but read since
+      timeService.advance(TimeUnit.HOURS.toMillis(6) + 1);
+      assertEquals(0, expiredKeys().size());
+
+      timeService.advance(TimeUnit.HOURS.toMillis(5));
+      assertEquals(Set.of("idle"), expiredKeys());
+   }
+
+   private Set<Object> expiredKeys() {
+      InternalDataContainer<Object, Object> container = TestingUtil.extractComponent(cache, InternalDataContainer.class);
+      Collection<InternalCacheEntry<Object, Object>> expired = container.expiredEntries(timeService.wallClockTime());
+      assertNotNull(expired);
+      return expired.stream().map(InternalCacheEntry::getKey).map(this::unwrap).collect(Collectors.toSet());
+   }
+
+   private Object unwrap(Object key) {
+      return cache.getAdvancedCache().getKeyDataConversion().fromStorage(key);
+   }
+}
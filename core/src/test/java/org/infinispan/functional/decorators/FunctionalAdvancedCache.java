@@ -65,6 +65,7 @@
 import org.infinispan.security.AuthorizationManager;
 import org.infinispan.stats.Stats;
 import org.infinispan.util.concurrent.locks.LockManager;
+import org.reactivestreams.Publisher;
 
 import jakarta.transaction.TransactionManager;
 
@@ -406,6 +407,11 @@ public void putForExternalRead(K key, V value, Metadata metadata) {
       // TODO: Customise this generated block
    }
 
+   @Override
+   public CompletionStage<Void> bulkLoad(Publisher<? extends Map.Entry<? extends K, ? extends V>> entries, Metadata metadata) {
+      throw new UnsupportedOperationException();
+   }
+
    @Override
    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
       throw new UnsupportedOperationException();
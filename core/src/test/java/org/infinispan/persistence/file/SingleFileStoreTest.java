@@ -1,6 +1,8 @@
 package org.infinispan.persistence.file;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 import java.util.concurrent.CompletionStage;
@@ -110,6 +112,30 @@ public void testSegmentsRemovedAndAdded() {
       assertTrue(store.contains(key));
    }
 
+   public void testDefragmentationTruncatesFile() {
+      String value = "v".repeat(1024);
+      int count = 400;
+      int kept = 20;
+      for (int i = 0; i < count; i++) {
+         InternalCacheEntry entry = TestInternalCacheEntryFactory.create("key-" + i, value);
+         store.write(MarshalledEntryUtil.create(entry, getMarshaller()));
+      }
+      SingleFileStore<?, ?> singleFileStore = (SingleFileStore<?, ?>) store.delegate();
+      long fileSize = singleFileStore.getFileSize();
+
+      // Only the entries at the end of the file are kept, they must be moved before the file can shrink
+      for (int i = 0; i < count - kept; i++) {
+         assertTrue(store.delete("key-" + i));
+      }
+      eventually(() -> singleFileStore.getFileSize() < fileSize / 4);
+
+      for (int i = count - kept; i < count; i++) {
+         MarshallableEntry<?, ?> entry = store.loadEntry("key-" + i);
+         assertNotNull(entry);
+         assertEquals(entry.getValue(), value);
+      }
+   }
+
    public void testStopDuringClear() {
       InternalCacheEntry entry = TestInternalCacheEntryFactory.create("key", "value");
       MarshallableEntry me = MarshalledEntryUtil.create(entry, getMarshaller());
@@ -0,0 +1,81 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the mapping of a memory mapped file is released when the file is closed, and that the file is mapped
+ * again when it is read after being reopened.
+ *
+ * @since 16.0
+ */
+@Test(groups = "unit", testName = "persistence.sifs.FileProviderMappingTest")
+public class FileProviderMappingTest extends AbstractInfinispanTest {
+
+   private String tmpDirectory;
+   private FileProvider fileProvider;
+
+   @BeforeMethod
+   protected void createFileProvider() {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+      // a single open file, every file read closes the previous one
+      fileProvider = new FileProvider(Paths.get(tmpDirectory), 1, "data", 1000, true);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   protected void removeFiles() {
+      fileProvider.stop();
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testMappingReleasedOnClose() throws Exception {
+      int first = writeFile("first");
+      int second = writeFile("second");
+
+      for (int round = 0; round < 3; round++) {
+         assertEquals("first", read(first));
+         Object firstRecord = openRecord(first);
+         assertNotNull(TestingUtil.extractField(firstRecord, "mapping"));
+
+         assertEquals("second", read(second));
+         // the first file was closed to open the second one
+         assertNull(TestingUtil.extractField(firstRecord, "mapping"));
+         assertNull(TestingUtil.extractField(firstRecord, "fileChannel"));
+         assertNotNull(TestingUtil.extractField(openRecord(second), "mapping"));
+      }
+   }
+
+   private int writeFile(String content) throws Exception {
+      try (FileProvider.Log log = fileProvider.getFileForLog()) {
+         log.fileChannel.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+         return log.fileId;
+      }
+   }
+
+   private String read(int fileId) throws Exception {
+      try (FileProvider.Handle handle = fileProvider.getFile(fileId)) {
+         ByteBuffer buffer = ByteBuffer.allocate(100);
+         handle.read(buffer, 0);
+         return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+      }
+   }
+
+   private Object openRecord(int fileId) {
+      Map<Integer, ?> openFiles = TestingUtil.extractField(fileProvider, "openFiles");
+      return openFiles.get(fileId);
+   }
+}
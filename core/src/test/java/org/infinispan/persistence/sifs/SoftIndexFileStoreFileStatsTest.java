@@ -27,6 +27,7 @@
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
 import org.infinispan.configuration.global.GlobalConfigurationBuilder;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
 import org.infinispan.persistence.support.WaitDelegatingNonBlockingStore;
 import org.infinispan.test.SingleCacheManagerTest;
 import org.infinispan.test.TestingUtil;
@@ -313,4 +314,51 @@ public void testExpirationCompactionOnLogFile(Method m) throws InterruptedExcept
          TestingUtil.replaceComponent(cacheManager, TimeService.class, controlledTimeService.getActualTimeService(), true);
       }
    }
+
+   public void testCompactionLooksUpEachRecordAtMostOnce(Method m) throws Exception {
+      String cacheName = m.getName();
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      createCacheStoreConfig(cb.persistence());
+      // Only compact when forced, no file is left without live records below
+      ((SoftIndexFileStoreConfigurationBuilder) cb.persistence().stores().get(0)).compactionThreshold(1.0);
+      TestingUtil.defineConfiguration(cacheManager, cacheName, cb.build());
+
+      Cache<String, Object> cache = cacheManager.getCache(cacheName);
+      int numKeys = 100;
+      for (int i = 0; i < numKeys; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      // Half of the records of the full files are dead after overwriting every other key
+      for (int i = 0; i < numKeys; i += 2) {
+         cache.put("k" + i, "updated" + i);
+      }
+
+      WaitDelegatingNonBlockingStore store = TestingUtil.getFirstStoreWait(cache);
+      Compactor compactor = TestingUtil.extractField(store.delegate(), "compactor");
+      FileProvider fileProvider = TestingUtil.extractField(store.delegate(), "fileProvider");
+      int records = 0;
+      for (int file : compactor.getFiles()) {
+         if (fileProvider.isLogFile(file)) {
+            continue;
+         }
+         try (FileProvider.Handle handle = fileProvider.getFile(file)) {
+            EntryHeader header;
+            long offset = 0;
+            while ((header = EntryRecord.readEntryHeader(handle, offset)) != null) {
+               records++;
+               offset += header.totalLength();
+            }
+         }
+      }
+      assertTrue(records > 0);
+
+      compactor.forceCompactionForAllNonLogFiles().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+      // Dead records must not be looked up again after the lookahead
+      long lookups = compactor.getIndexLookups();
+      assertTrue("Index lookups " + lookups + " for " + records + " records", lookups > 0 && lookups <= records);
+      for (int i = 0; i < numKeys; i++) {
+         assertEquals((i % 2 == 0 ? "updated" : "v") + i, cache.get("k" + i));
+      }
+   }
 }
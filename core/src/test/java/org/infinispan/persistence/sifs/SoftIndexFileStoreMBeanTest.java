@@ -0,0 +1,93 @@
+package org.infinispan.persistence.sifs;
+
+import static org.infinispan.test.TestingUtil.getCacheObjectName;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.infinispan.commons.jmx.MBeanServerLookup;
+import org.infinispan.commons.jmx.TestMBeanServerLookup;
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the compaction statistics exposed by the soft-index file store MBean, and its registration across restarts.
+ */
+@Test(groups = "functional", testName = "persistence.sifs.SoftIndexFileStoreMBeanTest")
+public class SoftIndexFileStoreMBeanTest extends SingleCacheManagerTest {
+
+   private static final String JMX_DOMAIN = SoftIndexFileStoreMBeanTest.class.getSimpleName();
+
+   private final MBeanServerLookup mBeanServerLookup = TestMBeanServerLookup.create();
+   private String tmpDirectory;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.jmx().enabled(true).mBeanServerLookup(mBeanServerLookup).domain(JMX_DOMAIN);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.persistence()
+            .addSoftIndexFileStore()
+            .dataLocation(Paths.get(tmpDirectory, "data").toString())
+            .indexLocation(Paths.get(tmpDirectory, "index").toString())
+            .maxFileSize(1000);
+      return TestCacheManagerFactory.createCacheManager(global, builder);
+   }
+
+   @AfterClass(alwaysRun = true)
+   @Override
+   protected void destroyAfterClass() {
+      super.destroyAfterClass();
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testCompactionStatistics() throws Exception {
+      MBeanServer mBeanServer = mBeanServerLookup.getMBeanServer();
+      NonBlockingSoftIndexFileStore<Object, Object> store =
+            SoftIndexFileStoreRestartTest.getStoreFromCache(cache);
+      // The name includes the data location, so that several stores can be registered
+      ObjectName name = getCacheObjectName(JMX_DOMAIN, getDefaultCacheName() + "(local)",
+            ObjectName.quote(NonBlockingSoftIndexFileStore.MBEAN_NAME + "(" + store.getDataLocation() + ")"));
+      assertTrue(mBeanServer.isRegistered(name));
+      assertEquals(0L, mBeanServer.getAttribute(name, "CompactedFiles"));
+
+      // Overwrite the keys so that the full files only hold obsolete records
+      for (int round = 0; round < 5; round++) {
+         for (int i = 0; i < 50; i++) {
+            cache.put(i, "value-" + i + "-" + round);
+         }
+      }
+      Compactor compactor = TestingUtil.extractField(store, "compactor");
+      compactor.forceCompactionForAllNonLogFiles().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+      long compactedFiles = (long) mBeanServer.getAttribute(name, "CompactedFiles");
+      long movedEntries = (long) mBeanServer.getAttribute(name, "MovedEntries");
+      long droppedEntries = (long) mBeanServer.getAttribute(name, "DroppedEntries");
+      assertTrue(compactedFiles > 0);
+      assertTrue(movedEntries + droppedEntries > 0);
+      assertTrue(compactedFiles <= store.getCompactedFiles());
+
+      cache.stop();
+      assertFalse(mBeanServer.isRegistered(name));
+
+      // The restarted store registers the MBean again
+      cache.start();
+      assertTrue(mBeanServer.isRegistered(name));
+      assertEquals(0L, mBeanServer.getAttribute(name, "CompactedFiles"));
+   }
+}
@@ -4,6 +4,7 @@
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
 import java.io.File;
@@ -39,6 +40,7 @@ public class SoftIndexFileStoreRestartTest extends BaseDistStoreTest<Integer, St
    protected String tmpDirectory;
    protected int fileSize;
    protected boolean hasPassivation;
+   protected boolean memoryMapped;
 
    {
       // We don't really need a cluster
@@ -59,6 +61,11 @@ SoftIndexFileStoreRestartTest hasPassivation(boolean passivation) {
       return this;
    }
 
+   SoftIndexFileStoreRestartTest memoryMapped(boolean memoryMapped) {
+      this.memoryMapped = memoryMapped;
+      return this;
+   }
+
    @Override
    public Object[] factory() {
       return Stream.of(CacheMode.DIST_SYNC, CacheMode.LOCAL)
@@ -66,6 +73,7 @@ public Object[] factory() {
                   .flatMap(hasPassivation -> Stream.builder()
                         .add(new SoftIndexFileStoreRestartTest().hasPassivation(hasPassivation).fileSize(1_000).cacheMode(type))
                         .add(new SoftIndexFileStoreRestartTest().hasPassivation(hasPassivation).fileSize(10_000).cacheMode(type))
+                        .add(new SoftIndexFileStoreRestartTest().hasPassivation(hasPassivation).fileSize(10_000).memoryMapped(true).cacheMode(type))
                         .add(new SoftIndexFileStoreRestartTest().hasPassivation(hasPassivation).fileSize(320_000).cacheMode(type))
                         .add(new SoftIndexFileStoreRestartTest().hasPassivation(hasPassivation).fileSize(2_000_000).cacheMode(type))
                         .add(new SoftIndexFileStoreRestartTest().hasPassivation(hasPassivation).fileSize(DataConfiguration.MAX_FILE_SIZE.getDefaultValue()).cacheMode(type))
@@ -76,12 +84,12 @@ public Object[] factory() {
 
    @Override
    protected String[] parameterNames() {
-      return concat(super.parameterNames(), "fileSize", "hasPassivation");
+      return concat(super.parameterNames(), "fileSize", "hasPassivation", "memoryMapped");
    }
 
    @Override
    protected Object[] parameterValues() {
-      return concat(super.parameterValues(), fileSize, hasPassivation);
+      return concat(super.parameterValues(), fileSize, hasPassivation, memoryMapped);
    }
 
 
@@ -119,6 +127,7 @@ protected StoreConfigurationBuilder addStore(PersistenceConfigurationBuilder per
       return persistenceConfigurationBuilder.addSoftIndexFileStore()
             // Force some extra files
             .maxFileSize(fileSize)
+            .memoryMapped(memoryMapped)
             .dataLocation(Paths.get(tmpDirectory, "data").toString())
             .indexLocation(Paths.get(tmpDirectory, "index").toString());
    }
@@ -150,6 +159,47 @@ public void testRestartWithNoIndex() throws Throwable {
       }
    }
 
+   public void testRebuildAndCompactKeysSpreadOverFiles() throws Throwable {
+      int size = 200;
+      int rounds = 5;
+      // Every key has records in several files, which are read concurrently when rebuilding the index
+      for (int round = 0; round < rounds; round++) {
+         for (int i = 0; i < size; i++) {
+            cache(0, cacheName).put(i, "value-" + i + "-" + round);
+         }
+      }
+      for (int i = 0; i < size; i += 10) {
+         cache(0, cacheName).remove(i);
+      }
+
+      killMember(0, cacheName);
+
+      Util.recursiveFileRemove(Paths.get(tmpDirectory, "index"));
+
+      createCacheManagers();
+
+      assertEquals(size - size / 10, cache(0, cacheName).size());
+      for (int i = 0; i < size; i++) {
+         if (i % 10 == 0) {
+            assertNull(cache(0, cacheName).get(i));
+         } else {
+            assertEquals("value-" + i + "-" + (rounds - 1), cache(0, cacheName).get(i));
+         }
+      }
+
+      NonBlockingSoftIndexFileStore<Integer, String> store = getStoreFromCache(cache(0, cacheName));
+      Compactor compactor = TestingUtil.extractField(store, "compactor");
+      compactor.forceCompactionForAllNonLogFiles()
+            .toCompletableFuture().get(10, TimeUnit.SECONDS);
+      // The files written before the restart are no longer log files, so they are all compacted
+      assertTrue(store.getCompactedFiles() > 0);
+      assertTrue(store.getMovedEntries() + store.getDroppedEntries() > 0);
+
+      for (int i = 1; i < size; i += 10) {
+         assertEquals("value-" + i + "-" + (rounds - 1), cache(0, cacheName).get(i));
+      }
+   }
+
    static <K, V> NonBlockingSoftIndexFileStore<K, V> getStoreFromCache(Cache<K, V> cache) {
       WaitDelegatingNonBlockingStore<K, V> storeDel = TestingUtil.getFirstStoreWait(cache);
       return (NonBlockingSoftIndexFileStore<K, V>) storeDel.delegate();
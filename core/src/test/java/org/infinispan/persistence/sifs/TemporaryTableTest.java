@@ -0,0 +1,103 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the {@link TemporaryTable} against a {@link HashMap} under random updates.
+ *
+ * @since 16.0
+ */
+@Test(groups = "unit", testName = "persistence.sifs.TemporaryTableTest")
+public class TemporaryTableTest extends AbstractInfinispanTest {
+
+   public void testRandomOperations() {
+      Random random = new Random(42);
+      TemporaryTable table = new TemporaryTable(1);
+      table.addSegments(IntSets.immutableSet(0));
+      Map<String, EntryPosition> expected = new HashMap<>();
+
+      for (int i = 0; i < 20000; i++) {
+         // Grow the table and then shrink it again
+         int keys = i < 10000 ? 2000 : 50;
+         String key = "k" + random.nextInt(keys);
+         EntryPosition previous = expected.get(key);
+         switch (random.nextInt(3)) {
+            case 0:
+               int file = random.nextInt(100);
+               int offset = random.nextBoolean() ? random.nextInt(1000) : ~random.nextInt(1000);
+               table.set(0, serialize(key), file, offset);
+               expected.put(key, new EntryPosition(file, offset));
+               break;
+            case 1:
+               if (previous != null) {
+                  table.removeConditionally(0, serialize(key), previous.file, previous.offset);
+                  expected.remove(key);
+               }
+               break;
+            default:
+               if (previous != null) {
+                  // Not matching the position, nothing is removed
+                  table.removeConditionally(0, serialize(key), previous.file + 1, previous.offset);
+               }
+         }
+         if (i % 500 == 0) {
+            assertSame(expected, table);
+         }
+      }
+      assertSame(expected, table);
+   }
+
+   public void testReplaceOrLock() {
+      TemporaryTable table = new TemporaryTable(1);
+      table.addSegments(IntSets.immutableSet(0));
+      ByteBuffer key = serialize("k");
+
+      TemporaryTable.LockedEntry lockedEntry = table.replaceOrLock(0, key, 2, 20, 1, 10);
+      assertNotNull(lockedEntry);
+      assertNull(table.get(0, key));
+      table.updateAndUnlock(lockedEntry, 2, 20);
+      assertEquals(new EntryPosition(2, 20), table.get(0, key));
+
+      // The previous position does not match, the entry is left untouched
+      assertNull(table.replaceOrLock(0, key, 3, 30, 1, 10));
+      assertEquals(new EntryPosition(2, 20), table.get(0, key));
+      assertNull(table.replaceOrLock(0, key, 3, 30, 2, 20));
+      assertEquals(new EntryPosition(3, 30), table.get(0, key));
+
+      ByteBuffer otherKey = serialize("other");
+      lockedEntry = table.replaceOrLock(0, otherKey, 4, 40, 1, 10);
+      assertNotNull(lockedEntry);
+      table.removeAndUnlock(lockedEntry);
+      assertNull(table.get(0, otherKey));
+      assertEquals(1, table.publish(IntSets.immutableSet(0)).count().blockingGet().intValue());
+   }
+
+   private static void assertSame(Map<String, EntryPosition> expected, TemporaryTable table) {
+      for (Map.Entry<String, EntryPosition> entry : expected.entrySet()) {
+         assertEquals(entry.getValue(), table.get(0, serialize(entry.getKey())));
+      }
+      Map<String, EntryPosition> published = new HashMap<>();
+      table.publish(IntSets.immutableSet(0))
+            .blockingForEach(entry -> published.put(new String(entry.getKey(), StandardCharsets.UTF_8), entry.getValue()));
+      assertEquals(expected, published);
+   }
+
+   private static ByteBuffer serialize(String key) {
+      // An offset in the buffer, as the keys of the marshaller buffers may not start at 0
+      byte[] bytes = ("#" + key).getBytes(StandardCharsets.UTF_8);
+      return ByteBufferImpl.create(bytes, 1, bytes.length - 1);
+   }
+}
@@ -305,6 +305,38 @@ public void testModificationQueueSize(final Method m) throws Exception {
       }
    }
 
+   public void testSlowBatchDoesNotDelayOtherSegments(final Method m) throws Exception {
+      DelayStore underlying = new DelayStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+             .addStore(DelayStore.ConfigurationBuilder.class)
+             .async();
+
+      store = new AsyncNonBlockingStore<>(underlying);
+      InitializationContext ctx = PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller);
+      CompletionStages.join(store.start(ctx));
+      // Segments 0 and 1 belong to different partitions, only the batch of segment 0 is delayed
+      underlying.delayBeforeModification(1);
+      try {
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, 0), v(m, 0), marshaller)));
+         CompletionStages.join(store.write(1, MarshalledEntryUtil.create(k(m, 1), v(m, 1), marshaller)));
+
+         eventually(() -> CompletionStages.join(underlying.load(1, k(m, 1))) != null);
+         assertNull(CompletionStages.join(underlying.load(0, k(m, 0))));
+         assertEquals(v(m, 0), CompletionStages.join(store.load(0, k(m, 0))).getValue());
+         eventually(() -> store.getQueueSize() == 1);
+         assertEquals(1, store.getFlushCount());
+
+         underlying.endDelay();
+         eventually(() -> store.getQueueSize() == 0);
+         assertEquals(2, underlying.size());
+         assertEquals(2, store.getFlushCount());
+      } finally {
+         underlying.endDelay();
+         CompletionStages.join(store.stop());
+      }
+   }
+
    private abstract static class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final DelayStore store;
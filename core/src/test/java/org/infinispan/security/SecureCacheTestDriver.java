@@ -3,6 +3,7 @@
 import static org.infinispan.commons.dataconversion.MediaType.APPLICATION_OBJECT;
 import static org.infinispan.commons.dataconversion.MediaType.APPLICATION_OBJECT_TYPE;
 
+import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -22,6 +23,7 @@
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilter;
 import org.infinispan.partitionhandling.AvailabilityMode;
 
+import io.reactivex.rxjava3.core.Flowable;
 import jakarta.transaction.NotSupportedException;
 import jakarta.transaction.SystemException;
 
@@ -597,6 +599,11 @@ public void testPutAllAsync_Map_Metadata(SecureCache<String, String> cache) {
       cache.putAllAsync(Collections.singletonMap("a", "a"), new EmbeddedMetadata.Builder().build());
    }
 
+   @TestCachePermission(AuthorizationPermission.WRITE)
+   public void testBulkLoad_Publisher_Metadata(SecureCache<String, String> cache) {
+      cache.bulkLoad(Flowable.just(new AbstractMap.SimpleImmutableEntry<>("a", "a")), new EmbeddedMetadata.Builder().build());
+   }
+
    @TestCachePermission(AuthorizationPermission.READ)
    public void testGet_Object(SecureCache<String, String> cache) {
       cache.get("a");
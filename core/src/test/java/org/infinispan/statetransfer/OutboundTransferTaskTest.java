@@ -6,10 +6,15 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -24,6 +29,7 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.reactive.publisher.impl.Notifications;
 import org.infinispan.reactive.publisher.impl.SegmentPublisherSupplier;
+import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.test.TestException;
@@ -96,4 +102,122 @@ public void shouldNotifyForAllSegments() throws InterruptedException {
 
       assertEquals(transferred, segments);
    }
+
+   public void shouldSplitCommandsBySize() {
+      IntSet segments = IntSets.immutableSet(0);
+      RpcManager rpcManager = mock(RpcManager.class);
+      CommandsFactory commandsFactory = mock(CommandsFactory.class);
+      OutboundTransferTask task = new OutboundTransferTask(Address.LOCAL, segments, 1, 30, 1, chunks -> {},
+            rpcManager, commandsFactory, 10_000, "mock-cache", true);
+
+      ArgumentCaptor<Collection<StateChunk>> cmdCaptor = ArgumentCaptor.forClass(Collection.class);
+      when(commandsFactory.buildStateResponseCommand(anyInt(), cmdCaptor.capture(), anyBoolean()))
+            .thenReturn(mock(StateResponseCommand.class));
+      when(rpcManager.invokeCommand(any(Address.class), any(), any(), any()))
+            .thenAnswer(i -> CompletableFutures.completedNull());
+
+      List<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> entries = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+         entries.add(Notifications.value(new ImmortalCacheEntry("key" + i, new byte[1024 * 1024]), 0));
+      }
+      entries.add(Notifications.segmentComplete(0));
+      assertTrue(task.execute(Flowable.fromIterable(entries)).toCompletableFuture().isDone());
+
+      // Only 3 values of 1 MiB fit in a command
+      List<Integer> sizes = new ArrayList<>();
+      for (Collection<StateChunk> chunks : cmdCaptor.getAllValues()) {
+         assertEquals(chunks.size(), 1);
+         StateChunk chunk = chunks.iterator().next();
+         assertTrue(chunk.estimateSize() <= OutboundTransferTask.MAX_COMMAND_BYTES);
+         sizes.add(chunk.getCacheEntries().size());
+      }
+      assertEquals(sizes, List.of(3, 3, 3, 1));
+      assertTrue(cmdCaptor.getValue().iterator().next().isLastChunk());
+   }
+
+   public void shouldLimitCommandsInFlight() {
+      IntSet segments = IntSets.immutableSet(0);
+      RpcManager rpcManager = mock(RpcManager.class);
+      CommandsFactory commandsFactory = mock(CommandsFactory.class);
+      OutboundTransferTask task = new OutboundTransferTask(Address.LOCAL, segments, 1, 1, 1, chunks -> {},
+            rpcManager, commandsFactory, 10_000, "mock-cache", true);
+
+      ArgumentCaptor<Collection<StateChunk>> cmdCaptor = ArgumentCaptor.forClass(Collection.class);
+      when(commandsFactory.buildStateResponseCommand(anyInt(), cmdCaptor.capture(), anyBoolean()))
+            .thenReturn(mock(StateResponseCommand.class));
+      List<CompletableFuture<Object>> responses = new CopyOnWriteArrayList<>();
+      when(rpcManager.invokeCommand(any(Address.class), any(), any(), any())).thenAnswer(i -> {
+         CompletableFuture<Object> response = new CompletableFuture<>();
+         responses.add(response);
+         return response;
+      });
+
+      List<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> entries = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+         entries.add(Notifications.value(new ImmortalCacheEntry("key" + i, "value"), 0));
+      }
+      entries.add(Notifications.segmentComplete(0));
+      CompletionStage<Void> stage = task.execute(Flowable.fromIterable(entries));
+      assertEquals(responses.size(), OutboundTransferTask.INITIAL_COMMANDS_IN_FLIGHT);
+
+      responses.get(0).complete(null);
+      assertEquals(responses.size(), 3);
+      responses.get(2).complete(null);
+      assertEquals(responses.size(), 4);
+
+      // The segment is only completed once every previous command was applied
+      responses.get(3).complete(null);
+      assertEquals(responses.size(), 4);
+      responses.get(1).complete(null);
+      assertEquals(responses.size(), 5);
+      assertTrue(cmdCaptor.getValue().iterator().next().isLastChunk());
+
+      assertFalse(stage.toCompletableFuture().isDone());
+      responses.get(4).complete(null);
+      assertTrue(stage.toCompletableFuture().isDone());
+   }
+
+   public void shouldFollowCommandsInFlightFromDestination() {
+      IntSet segments = IntSets.immutableSet(0);
+      RpcManager rpcManager = mock(RpcManager.class);
+      CommandsFactory commandsFactory = mock(CommandsFactory.class);
+      OutboundTransferTask task = new OutboundTransferTask(Address.LOCAL, segments, 1, 1, 1, chunks -> {},
+            rpcManager, commandsFactory, 10_000, "mock-cache", true);
+
+      when(commandsFactory.buildStateResponseCommand(anyInt(), any(), anyBoolean()))
+            .thenReturn(mock(StateResponseCommand.class));
+      List<CompletableFuture<Object>> responses = new CopyOnWriteArrayList<>();
+      when(rpcManager.invokeCommand(any(Address.class), any(), any(), any())).thenAnswer(i -> {
+         CompletableFuture<Object> response = new CompletableFuture<>();
+         responses.add(response);
+         return response;
+      });
+
+      List<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> entries = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+         entries.add(Notifications.value(new ImmortalCacheEntry("key" + i, "value"), 0));
+      }
+      entries.add(Notifications.segmentComplete(0));
+      CompletionStage<Void> stage = task.execute(Flowable.fromIterable(entries));
+      assertEquals(responses.size(), OutboundTransferTask.INITIAL_COMMANDS_IN_FLIGHT);
+
+      // The destination is behind, the command still in flight uses its only slot
+      responses.get(0).complete(SuccessfulResponse.create(1));
+      assertEquals(responses.size(), 2);
+
+      // The destination caught up and accepts 3 commands in flight
+      responses.get(1).complete(SuccessfulResponse.create(3));
+      assertEquals(responses.size(), 5);
+
+      // A reply without a number keeps the current commands in flight
+      responses.get(2).complete(SuccessfulResponse.SUCCESSFUL_EMPTY_RESPONSE);
+      assertEquals(responses.size(), 6);
+
+      for (int i = 3; i < 6; i++) {
+         responses.get(i).complete(SuccessfulResponse.create(3));
+      }
+      assertEquals(responses.size(), 7);
+      responses.get(6).complete(SuccessfulResponse.SUCCESSFUL_EMPTY_RESPONSE);
+      assertTrue(stage.toCompletableFuture().isDone());
+   }
 }
@@ -0,0 +1,155 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.reactive.publisher.impl.Notifications;
+import org.infinispan.reactive.publisher.impl.SegmentPublisherSupplier;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Tests the digests used to skip the unchanged entries during state transfer.
+ *
+ * @since 16.0
+ */
+@Test(groups = "unit", testName = "statetransfer.SegmentDigestsTest")
+public class SegmentDigestsTest extends AbstractInfinispanTest {
+   private static final int SEGMENTS = 4;
+
+   public void testSkipUnchangedBuckets() {
+      Map<Integer, InternalCacheEntry<?, ?>> provider = new HashMap<>();
+      for (int i = 0; i < 400; i++) {
+         provider.put(i, bytesEntry(i, "v" + i));
+      }
+      Map<Integer, InternalCacheEntry<?, ?>> requester = new HashMap<>(provider);
+      requester.put(7, bytesEntry(7, "changed"));
+      requester.remove(42);
+      requester.put(1000, bytesEntry(1000, "removed in the provider"));
+
+      SegmentDigests providerDigests = digests(provider);
+      SegmentDigests requesterDigests = digests(requester);
+      assertEquals(IntSets.immutableRangeSet(SEGMENTS), requesterDigests.getSegments());
+
+      Map<Integer, Integer> unchangedBuckets = providerDigests.unchangedBuckets(requesterDigests);
+      Set<Integer> sent = provider.entrySet().stream()
+            .filter(e -> !SegmentDigests.isUnchanged(unchangedBuckets, e.getKey() % SEGMENTS, e.getValue()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+      assertTrue(sent.contains(7));
+      assertTrue(sent.contains(42));
+      // Only the buckets with the changed keys are sent
+      assertTrue(sent.size() < provider.size() / 4);
+      for (Map.Entry<Integer, InternalCacheEntry<?, ?>> e : provider.entrySet()) {
+         if (!sent.contains(e.getKey())) {
+            assertEquals(e.getValue().getValue(), requester.get(e.getKey()).getValue());
+         }
+      }
+   }
+
+   public void testVersionedEntries() {
+      Map<Integer, InternalCacheEntry<?, ?>> provider = new HashMap<>();
+      for (int i = 0; i < 100; i++) {
+         provider.put(i, versionedEntry(i, 1));
+      }
+      Map<Integer, InternalCacheEntry<?, ?>> requester = new HashMap<>(provider);
+      requester.put(3, versionedEntry(3, 2));
+
+      Map<Integer, Integer> unchangedBuckets = digests(provider).unchangedBuckets(digests(requester));
+      assertFalse(SegmentDigests.isUnchanged(unchangedBuckets, 3 % SEGMENTS, provider.get(3)));
+      assertFalse(unchangedBuckets.isEmpty());
+   }
+
+   public void testSameVersionDifferentValues() {
+      Map<Integer, InternalCacheEntry<?, ?>> provider = new HashMap<>();
+      for (int i = 0; i < 100; i++) {
+         provider.put(i, versionedEntry(i, 1));
+      }
+      Map<Integer, InternalCacheEntry<?, ?>> requester = new HashMap<>(provider);
+      requester.put(3, new MetadataImmortalCacheEntry("k3", "diverged",
+            new EmbeddedMetadata.Builder().version(new NumericVersion(1)).build()));
+
+      Map<Integer, Integer> unchangedBuckets = digests(provider).unchangedBuckets(digests(requester));
+      assertFalse(SegmentDigests.isUnchanged(unchangedBuckets, 3 % SEGMENTS, provider.get(3)));
+   }
+
+   public void testEntriesWithoutDigest() {
+      Map<Integer, InternalCacheEntry<?, ?>> entries = new HashMap<>();
+      for (int i = 0; i < 100; i++) {
+         entries.put(i, new ImmortalCacheEntry(i, "v" + i));
+      }
+      SegmentDigests digests = digests(entries);
+      assertEquals(IntSets.immutableRangeSet(SEGMENTS), digests.getSegments());
+      assertEquals(0, digests.knownBuckets(0));
+      assertTrue(digests.unchangedBuckets(digests).isEmpty());
+      assertFalse(SegmentDigests.isConsistent(0, List.of(digests, digests)));
+   }
+
+   public void testCommonDigests() {
+      Map<Integer, InternalCacheEntry<?, ?>> first = new HashMap<>();
+      for (int i = 0; i < 400; i++) {
+         first.put(i, bytesEntry(i, "v" + i));
+      }
+      Map<Integer, InternalCacheEntry<?, ?>> second = new HashMap<>(first);
+      second.put(5, bytesEntry(5, "changed"));
+      Map<Integer, InternalCacheEntry<?, ?>> third = new HashMap<>(first);
+      // Segment 2 is empty in the third instance
+      third.keySet().removeIf(k -> k % SEGMENTS == 2);
+
+      List<SegmentDigests> all = List.of(digests(first), digests(second), digests(third));
+      SegmentDigests common = SegmentDigests.common(all);
+      assertEquals(SegmentDigests.ALL_BUCKETS, SegmentDigests.common(List.of(digests(first))).knownBuckets(1));
+      assertFalse(SegmentDigests.isInBuckets(common.knownBuckets(1), first.get(5).getKey()));
+      assertTrue(common.knownBuckets(2) != SegmentDigests.ALL_BUCKETS);
+      assertEquals(SegmentDigests.ALL_BUCKETS, common.knownBuckets(3));
+      assertTrue(SegmentDigests.isConsistent(3, all));
+      assertFalse(SegmentDigests.isConsistent(1, all));
+      // Missing segments are considered empty
+      assertEquals(SegmentDigests.ALL_BUCKETS, common.knownBuckets(SEGMENTS));
+   }
+
+   public void testProtoRoundTrip() {
+      Map<Integer, InternalCacheEntry<?, ?>> entries = new HashMap<>();
+      for (int i = 0; i < 100; i++) {
+         entries.put(i, bytesEntry(i, "v" + i));
+      }
+      SegmentDigests digests = digests(entries);
+      SegmentDigests copy = SegmentDigests.protoFactory(digests.getDigests());
+      assertEquals(digests.getSegments(), copy.getSegments());
+      assertEquals(SEGMENTS, digests.unchangedBuckets(copy).size());
+      assertTrue(SegmentDigests.protoFactory(new long[0]).isEmpty());
+   }
+
+   private static InternalCacheEntry<?, ?> bytesEntry(int key, String value) {
+      return new ImmortalCacheEntry(new WrappedByteArray(("k" + key).getBytes()), new WrappedByteArray(value.getBytes()));
+   }
+
+   private static InternalCacheEntry<?, ?> versionedEntry(int key, long version) {
+      return new MetadataImmortalCacheEntry("k" + key, "v" + key,
+            new EmbeddedMetadata.Builder().version(new NumericVersion(version)).build());
+   }
+
+   private static SegmentDigests digests(Map<Integer, InternalCacheEntry<?, ?>> entries) {
+      List<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>> notifications = entries.entrySet().stream()
+            .<SegmentPublisherSupplier.Notification<InternalCacheEntry<?, ?>>>map(
+                  e -> Notifications.value(e.getValue(), e.getKey() % SEGMENTS))
+            .collect(Collectors.toList());
+      return SegmentDigests.compute(Flowable.fromIterable(notifications)).blockingGet();
+   }
+}
@@ -0,0 +1,327 @@
+package org.infinispan.multimap.impl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Persistent list backing {@link ListBucket}.
+ * <p>
+ * Elements are stored in chunks of at most {@link #CHUNK_SIZE} elements, with the position of the first element of
+ * every chunk, so positional access is a binary search over the chunks followed by an array access. Chunks are never
+ * modified once created. An update copies the chunk it touches and the array of chunk references, and shares every
+ * other chunk with the original list, which stays unchanged.
+ * <p>
+ * Pushing or popping at either end and updating a single position are {@code O(n / CHUNK_SIZE + CHUNK_SIZE)}, instead
+ * of copying every element.
+ *
+ * @since 16.0
+ */
+final class ChunkedList<V> extends AbstractList<V> {
+   static final int CHUNK_SIZE = 128;
+
+   private static final ChunkedList<?> EMPTY = new ChunkedList<>(new Object[0][], new int[1]);
+
+   private final Object[][] chunks;
+   // offsets[i] is the position of the first element of chunks[i], offsets[chunks.length] is the size
+   private final int[] offsets;
+
+   private ChunkedList(Object[][] chunks, int[] offsets) {
+      this.chunks = chunks;
+      this.offsets = offsets;
+   }
+
+   @SuppressWarnings("unchecked")
+   static <V> ChunkedList<V> empty() {
+      return (ChunkedList<V>) EMPTY;
+   }
+
+   static <V> ChunkedList<V> of(Collection<? extends V> values) {
+      if (values.isEmpty()) {
+         return empty();
+      }
+      List<Object[]> chunks = new ArrayList<>(values.size() / CHUNK_SIZE + 1);
+      split(values.toArray(), chunks);
+      return fromChunks(chunks);
+   }
+
+   private static <V> ChunkedList<V> fromChunks(List<Object[]> chunks) {
+      if (chunks.isEmpty()) {
+         return empty();
+      }
+      int[] offsets = new int[chunks.size() + 1];
+      for (int i = 0; i < chunks.size(); i++) {
+         offsets[i + 1] = offsets[i] + chunks.get(i).length;
+      }
+      return new ChunkedList<>(chunks.toArray(new Object[0][]), offsets);
+   }
+
+   private static void split(Object[] values, List<Object[]> chunks) {
+      for (int i = 0; i < values.length; i += CHUNK_SIZE) {
+         chunks.add(Arrays.copyOfRange(values, i, Math.min(values.length, i + CHUNK_SIZE)));
+      }
+   }
+
+   @Override
+   public int size() {
+      return offsets[chunks.length];
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return chunks.length == 0;
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public V get(int index) {
+      int chunk = chunkOf(index);
+      return (V) chunks[chunk][index - offsets[chunk]];
+   }
+
+   private int chunkOf(int index) {
+      if (index < 0 || index >= size()) {
+         throw new IndexOutOfBoundsException(index);
+      }
+      // Chunks are never empty, so every offset is distinct
+      int pos = Arrays.binarySearch(offsets, 0, chunks.length, index);
+      return pos >= 0 ? pos : -pos - 2;
+   }
+
+   /**
+    * @return a list with the element at the given position replaced.
+    */
+   ChunkedList<V> replace(int index, V value) {
+      int chunk = chunkOf(index);
+      Object[] updated = chunks[chunk].clone();
+      updated[index - offsets[chunk]] = value;
+      Object[][] newChunks = chunks.clone();
+      newChunks[chunk] = updated;
+      // The chunk sizes did not change
+      return new ChunkedList<>(newChunks, offsets);
+   }
+
+   /**
+    * @return a list with the element inserted at the given position, shifting the following elements.
+    */
+   ChunkedList<V> insert(int index, V value) {
+      if (index == size()) {
+         return append(Collections.singletonList(value));
+      }
+      int chunk = chunkOf(index);
+      Object[] old = chunks[chunk];
+      int pos = index - offsets[chunk];
+      Object[] inserted = new Object[old.length + 1];
+      System.arraycopy(old, 0, inserted, 0, pos);
+      inserted[pos] = value;
+      System.arraycopy(old, pos, inserted, pos + 1, old.length - pos);
+
+      List<Object[]> newChunks = new ArrayList<>(chunks.length + 1);
+      newChunks.addAll(Arrays.asList(chunks).subList(0, chunk));
+      if (inserted.length <= CHUNK_SIZE) {
+         newChunks.add(inserted);
+      } else {
+         int half = inserted.length / 2;
+         newChunks.add(Arrays.copyOfRange(inserted, 0, half));
+         newChunks.add(Arrays.copyOfRange(inserted, half, inserted.length));
+      }
+      newChunks.addAll(Arrays.asList(chunks).subList(chunk + 1, chunks.length));
+      return fromChunks(newChunks);
+   }
+
+   /**
+    * @return a list with the values added after the last element, in iteration order.
+    */
+   ChunkedList<V> append(Collection<? extends V> values) {
+      if (values.isEmpty()) {
+         return this;
+      }
+      List<Object[]> newChunks = new ArrayList<>(chunks.length + values.size() / CHUNK_SIZE + 1);
+      Object[] added = values.toArray();
+      if (chunks.length > 0 && chunks[chunks.length - 1].length + added.length <= CHUNK_SIZE) {
+         Object[] last = chunks[chunks.length - 1];
+         Object[] merged = Arrays.copyOf(last, last.length + added.length);
+         System.arraycopy(added, 0, merged, last.length, added.length);
+         newChunks.addAll(Arrays.asList(chunks).subList(0, chunks.length - 1));
+         newChunks.add(merged);
+      } else {
+         newChunks.addAll(Arrays.asList(chunks));
+         split(added, newChunks);
+      }
+      return fromChunks(newChunks);
+   }
+
+   /**
+    * @return a list with the values added before the first element, in iteration order.
+    */
+   ChunkedList<V> prepend(Collection<? extends V> values) {
+      if (values.isEmpty()) {
+         return this;
+      }
+      List<Object[]> newChunks = new ArrayList<>(chunks.length + values.size() / CHUNK_SIZE + 1);
+      Object[] added = values.toArray();
+      if (chunks.length > 0 && chunks[0].length + added.length <= CHUNK_SIZE) {
+         Object[] first = chunks[0];
+         Object[] merged = Arrays.copyOf(added, added.length + first.length);
+         System.arraycopy(first, 0, merged, added.length, first.length);
+         newChunks.add(merged);
+         newChunks.addAll(Arrays.asList(chunks).subList(1, chunks.length));
+      } else {
+         split(added, newChunks);
+         newChunks.addAll(Arrays.asList(chunks));
+      }
+      return fromChunks(newChunks);
+   }
+
+   /**
+    * @return a list with the elements from {@code from}, inclusive, to {@code to}, exclusive. Only the chunks at both
+    * ends of the range are copied.
+    */
+   ChunkedList<V> slice(int from, int to) {
+      if (from <= 0 && to >= size()) {
+         return this;
+      }
+      if (from >= to) {
+         return empty();
+      }
+      int first = chunkOf(from);
+      int last = chunkOf(to - 1);
+      List<Object[]> newChunks = new ArrayList<>(last - first + 1);
+      for (int i = first; i <= last; i++) {
+         Object[] chunk = chunks[i];
+         int start = i == first ? from - offsets[i] : 0;
+         int end = i == last ? to - offsets[i] : chunk.length;
+         newChunks.add(start == 0 && end == chunk.length ? chunk : Arrays.copyOfRange(chunk, start, end));
+      }
+      return fromChunks(newChunks);
+   }
+
+   /**
+    * Removes up to {@code limit} elements matching the predicate, starting from the head or from the tail. Chunks
+    * without any removed element are shared with this list and small neighbouring chunks are merged.
+    *
+    * @return the resulting list, or this list if no element was removed.
+    */
+   @SuppressWarnings("unchecked")
+   ChunkedList<V> removeMatching(Predicate<? super V> matches, long limit, boolean fromTail) {
+      Object[][] result = chunks.clone();
+      long remaining = limit;
+      boolean modified = false;
+      for (int n = 0; n < chunks.length && remaining > 0; n++) {
+         int i = fromTail ? chunks.length - 1 - n : n;
+         Object[] chunk = chunks[i];
+         boolean[] removed = null;
+         int removedCount = 0;
+         for (int j = 0; j < chunk.length && remaining > 0; j++) {
+            int pos = fromTail ? chunk.length - 1 - j : j;
+            if (matches.test((V) chunk[pos])) {
+               if (removed == null) {
+                  removed = new boolean[chunk.length];
+               }
+               removed[pos] = true;
+               removedCount++;
+               remaining--;
+            }
+         }
+         if (removed != null) {
+            Object[] kept = new Object[chunk.length - removedCount];
+            int k = 0;
+            for (int j = 0; j < chunk.length; j++) {
+               if (!removed[j]) {
+                  kept[k++] = chunk[j];
+               }
+            }
+            result[i] = kept;
+            modified = true;
+         }
+      }
+      if (!modified) {
+         return this;
+      }
+      List<Object[]> newChunks = new ArrayList<>(result.length);
+      for (Object[] chunk : result) {
+         if (chunk.length == 0) {
+            continue;
+         }
+         int last = newChunks.size() - 1;
+         if (last >= 0 && newChunks.get(last).length + chunk.length <= CHUNK_SIZE / 2) {
+            Object[] previous = newChunks.get(last);
+            Object[] merged = Arrays.copyOf(previous, previous.length + chunk.length);
+            System.arraycopy(chunk, 0, merged, previous.length, chunk.length);
+            newChunks.set(last, merged);
+         } else {
+            newChunks.add(chunk);
+         }
+      }
+      return fromChunks(newChunks);
+   }
+
+   @Override
+   public Iterator<V> iterator() {
+      return iterator(0);
+   }
+
+   /**
+    * @return an iterator starting at the given position, located in {@code O(log n)}.
+    */
+   Iterator<V> iterator(int from) {
+      return new Iterator<>() {
+         private int chunk = from < size() ? chunkOf(Math.max(from, 0)) : chunks.length;
+         private int pos = chunk < chunks.length ? Math.max(from, 0) - offsets[chunk] : 0;
+
+         @Override
+         public boolean hasNext() {
+            return chunk < chunks.length;
+         }
+
+         @SuppressWarnings("unchecked")
+         @Override
+         public V next() {
+            if (!hasNext()) {
+               throw new NoSuchElementException();
+            }
+            Object[] current = chunks[chunk];
+            V value = (V) current[pos++];
+            if (pos == current.length) {
+               chunk++;
+               pos = 0;
+            }
+            return value;
+         }
+      };
+   }
+
+   /**
+    * @return an iterator from the last element to the first.
+    */
+   Iterator<V> descendingIterator() {
+      return new Iterator<>() {
+         private int chunk = chunks.length - 1;
+         private int pos = chunk >= 0 ? chunks[chunk].length - 1 : -1;
+
+         @Override
+         public boolean hasNext() {
+            return chunk >= 0;
+         }
+
+         @SuppressWarnings("unchecked")
+         @Override
+         public V next() {
+            if (!hasNext()) {
+               throw new NoSuchElementException();
+            }
+            V value = (V) chunks[chunk][pos--];
+            if (pos < 0 && --chunk >= 0) {
+               pos = chunks[chunk].length - 1;
+            }
+            return value;
+         }
+      };
+   }
+}
@@ -0,0 +1,218 @@
+package org.infinispan.multimap.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+
+/**
+ * Map backing small {@link HashMapBucket} instances.
+ * <p>
+ * Keys and values are stored next to each other in a single array, and the keys are stored unwrapped. Lookups scan the
+ * array, which for a few entries is as fast as hashing the key, and there is no table, node or wrapper allocated per
+ * entry. The wrappers are only created when iterating the entries.
+ * <p>
+ * The map is not thread safe. Buckets are never modified once they are visible to other threads, and every update
+ * works on a copy created by {@link #copyOf(Map, int)}.
+ *
+ * @since 16.0
+ */
+final class CompactMap<K, V> extends AbstractMap<MultimapObjectWrapper<K>, V> {
+   /**
+    * Maps with more entries are stored in a {@link HashMap}.
+    */
+   static final int MAX_SIZE = 128;
+   private static final Object[] EMPTY = new Object[0];
+
+   // k0, v0, k1, v1, ...
+   private Object[] table;
+   private int size;
+   private int modCount;
+
+   private CompactMap(int capacity) {
+      this.table = capacity == 0 ? EMPTY : new Object[capacity * 2];
+   }
+
+   /**
+    * @return an empty mutable map, compact if {@code expectedSize} is within {@link #MAX_SIZE}.
+    */
+   static <K, V> Map<MultimapObjectWrapper<K>, V> newMap(int expectedSize) {
+      return expectedSize <= MAX_SIZE
+            ? new CompactMap<>(expectedSize)
+            : new HashMap<>(Math.max(16, (int) (expectedSize / .75f) + 1));
+   }
+
+   /**
+    * @return a mutable copy of the map, compact if {@code expectedSize} is within {@link #MAX_SIZE}.
+    */
+   static <K, V> Map<MultimapObjectWrapper<K>, V> copyOf(Map<MultimapObjectWrapper<K>, V> map, int expectedSize) {
+      if (expectedSize > MAX_SIZE) {
+         Map<MultimapObjectWrapper<K>, V> copy = newMap(expectedSize);
+         copy.putAll(map);
+         return copy;
+      }
+      int capacity = Math.max(expectedSize, map.size());
+      CompactMap<K, V> copy;
+      if (map instanceof CompactMap<K, V> compact) {
+         copy = new CompactMap<>(0);
+         copy.table = capacity == 0 ? EMPTY : Arrays.copyOf(compact.table, capacity * 2);
+         copy.size = compact.size;
+      } else {
+         // The keys of a map are distinct, append them without scanning the copy
+         copy = new CompactMap<>(capacity);
+         for (Entry<MultimapObjectWrapper<K>, V> entry : map.entrySet()) {
+            copy.table[copy.size * 2] = entry.getKey().get();
+            copy.table[copy.size * 2 + 1] = entry.getValue();
+            copy.size++;
+         }
+      }
+      return copy;
+   }
+
+   /**
+    * @return the map itself if it has the representation matching its size, or a copy otherwise.
+    */
+   static <K, V> Map<MultimapObjectWrapper<K>, V> compact(Map<MultimapObjectWrapper<K>, V> map) {
+      boolean small = map.size() <= MAX_SIZE;
+      if (small == (map instanceof CompactMap)) {
+         return map;
+      }
+      return copyOf(map, map.size());
+   }
+
+   private int indexOf(Object key) {
+      if (!(key instanceof MultimapObjectWrapper<?> wrapper)) {
+         return -1;
+      }
+      Object raw = wrapper.get();
+      for (int i = 0; i < size; i++) {
+         if (MultimapObjectWrapper.wrappedEquals(table[i * 2], raw)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   @Override
+   public int size() {
+      return size;
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public V get(Object key) {
+      int i = indexOf(key);
+      return i < 0 ? null : (V) table[i * 2 + 1];
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public V put(MultimapObjectWrapper<K> key, V value) {
+      int i = indexOf(key);
+      if (i >= 0) {
+         V previous = (V) table[i * 2 + 1];
+         table[i * 2 + 1] = value;
+         return previous;
+      }
+      if (size * 2 == table.length) {
+         table = Arrays.copyOf(table, Math.max(4, table.length * 2));
+      }
+      table[size * 2] = key.get();
+      table[size * 2 + 1] = value;
+      size++;
+      modCount++;
+      return null;
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public V remove(Object key) {
+      int i = indexOf(key);
+      if (i < 0) {
+         return null;
+      }
+      V previous = (V) table[i * 2 + 1];
+      removeAt(i);
+      return previous;
+   }
+
+   private void removeAt(int i) {
+      System.arraycopy(table, (i + 1) * 2, table, i * 2, (size - i - 1) * 2);
+      size--;
+      table[size * 2] = null;
+      table[size * 2 + 1] = null;
+      modCount++;
+   }
+
+   @Override
+   public void clear() {
+      Arrays.fill(table, 0, size * 2, null);
+      size = 0;
+      modCount++;
+   }
+
+   @Override
+   public Set<Entry<MultimapObjectWrapper<K>, V>> entrySet() {
+      return new AbstractSet<>() {
+         @Override
+         public Iterator<Entry<MultimapObjectWrapper<K>, V>> iterator() {
+            return new EntryIterator();
+         }
+
+         @Override
+         public int size() {
+            return size;
+         }
+      };
+   }
+
+   private final class EntryIterator implements Iterator<Entry<MultimapObjectWrapper<K>, V>> {
+      private int next;
+      private int expectedModCount = modCount;
+      private boolean canRemove;
+
+      @Override
+      public boolean hasNext() {
+         return next < size;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public Entry<MultimapObjectWrapper<K>, V> next() {
+         if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+         }
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         int i = next++;
+         canRemove = true;
+         return new SimpleImmutableEntry<>(new MultimapObjectWrapper<>((K) table[i * 2]), (V) table[i * 2 + 1]);
+      }
+
+      @Override
+      public void remove() {
+         if (!canRemove) {
+            throw new IllegalStateException();
+         }
+         if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+         }
+         removeAt(--next);
+         expectedModCount = modCount;
+         canRemove = false;
+      }
+   }
+}
@@ -0,0 +1,182 @@
+package org.infinispan.multimap.impl;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+
+/**
+ * Set backing small {@link SetBucket} instances.
+ * <p>
+ * Members are stored unwrapped in a single array and lookups scan it, so there is no table, node or wrapper allocated
+ * per member. The wrappers are only created when iterating the members.
+ * <p>
+ * The set is not thread safe. Buckets are never modified once they are visible to other threads, and every update
+ * works on a copy created by {@link #copyOf(Set, int)}.
+ *
+ * @since 16.0
+ */
+final class CompactSet<V> extends AbstractSet<MultimapObjectWrapper<V>> {
+   /**
+    * Sets with more members are stored in a {@link HashSet}.
+    */
+   static final int MAX_SIZE = 128;
+   private static final Object[] EMPTY = new Object[0];
+
+   private Object[] members;
+   private int size;
+   private int modCount;
+
+   private CompactSet(int capacity) {
+      this.members = capacity == 0 ? EMPTY : new Object[capacity];
+   }
+
+   /**
+    * @return an empty mutable set, compact if {@code expectedSize} is within {@link #MAX_SIZE}.
+    */
+   static <V> Set<MultimapObjectWrapper<V>> newSet(int expectedSize) {
+      return expectedSize <= MAX_SIZE
+            ? new CompactSet<>(expectedSize)
+            : new HashSet<>(Math.max(16, (int) (expectedSize / .75f) + 1));
+   }
+
+   /**
+    * @return a mutable copy of the set, compact if {@code expectedSize} is within {@link #MAX_SIZE}.
+    */
+   static <V> Set<MultimapObjectWrapper<V>> copyOf(Set<MultimapObjectWrapper<V>> set, int expectedSize) {
+      if (expectedSize > MAX_SIZE) {
+         Set<MultimapObjectWrapper<V>> copy = newSet(expectedSize);
+         copy.addAll(set);
+         return copy;
+      }
+      int capacity = Math.max(expectedSize, set.size());
+      CompactSet<V> copy;
+      if (set instanceof CompactSet<V> compact) {
+         copy = new CompactSet<>(0);
+         copy.members = capacity == 0 ? EMPTY : Arrays.copyOf(compact.members, capacity);
+         copy.size = compact.size;
+      } else {
+         // The members of a set are distinct, append them without scanning the copy
+         copy = new CompactSet<>(capacity);
+         for (MultimapObjectWrapper<V> member : set) {
+            copy.members[copy.size++] = member.get();
+         }
+      }
+      return copy;
+   }
+
+   /**
+    * @return the set itself if it has the representation matching its size, or a copy otherwise.
+    */
+   static <V> Set<MultimapObjectWrapper<V>> compact(Set<MultimapObjectWrapper<V>> set) {
+      boolean small = set.size() <= MAX_SIZE;
+      if (small == (set instanceof CompactSet)) {
+         return set;
+      }
+      return copyOf(set, set.size());
+   }
+
+   private int indexOf(Object member) {
+      if (!(member instanceof MultimapObjectWrapper<?> wrapper)) {
+         return -1;
+      }
+      Object raw = wrapper.get();
+      for (int i = 0; i < size; i++) {
+         if (MultimapObjectWrapper.wrappedEquals(members[i], raw)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   @Override
+   public int size() {
+      return size;
+   }
+
+   @Override
+   public boolean contains(Object member) {
+      return indexOf(member) >= 0;
+   }
+
+   @Override
+   public boolean add(MultimapObjectWrapper<V> member) {
+      if (indexOf(member) >= 0) {
+         return false;
+      }
+      if (size == members.length) {
+         members = Arrays.copyOf(members, Math.max(4, members.length * 2));
+      }
+      members[size++] = member.get();
+      modCount++;
+      return true;
+   }
+
+   @Override
+   public boolean remove(Object member) {
+      int i = indexOf(member);
+      if (i < 0) {
+         return false;
+      }
+      removeAt(i);
+      return true;
+   }
+
+   private void removeAt(int i) {
+      System.arraycopy(members, i + 1, members, i, size - i - 1);
+      members[--size] = null;
+      modCount++;
+   }
+
+   @Override
+   public void clear() {
+      Arrays.fill(members, 0, size, null);
+      size = 0;
+      modCount++;
+   }
+
+   @Override
+   public Iterator<MultimapObjectWrapper<V>> iterator() {
+      return new Iterator<>() {
+         private int next;
+         private int expectedModCount = modCount;
+         private boolean canRemove;
+
+         @Override
+         public boolean hasNext() {
+            return next < size;
+         }
+
+         @SuppressWarnings("unchecked")
+         @Override
+         public MultimapObjectWrapper<V> next() {
+            if (expectedModCount != modCount) {
+               throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+               throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return new MultimapObjectWrapper<>((V) members[next++]);
+         }
+
+         @Override
+         public void remove() {
+            if (!canRemove) {
+               throw new IllegalStateException();
+            }
+            if (expectedModCount != modCount) {
+               throw new ConcurrentModificationException();
+            }
+            removeAt(--next);
+            expectedModCount = modCount;
+            canRemove = false;
+         }
+      };
+   }
+}
@@ -18,19 +18,30 @@
 import org.infinispan.protostream.annotations.ProtoField;
 import org.infinispan.protostream.annotations.ProtoTypeId;
 
+/**
+ * Bucket used to store hash values.
+ * <p>
+ * Buckets with up to {@link CompactMap#MAX_SIZE} fields are stored in a {@link CompactMap}, larger ones in a
+ * {@link HashMap}. The representation is chosen again every time the bucket is updated.
+ *
+ * @since 15.0
+ */
 @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_HASH_MAP_BUCKET)
 public class HashMapBucket<K, V> {
 
    final Map<MultimapObjectWrapper<K>, V> values;
 
    private HashMapBucket(Map<MultimapObjectWrapper<K>, V> values) {
-      this.values = values;
+      this.values = CompactMap.compact(values);
    }
 
    @ProtoFactory
    HashMapBucket(Collection<BucketEntry<K, V>> wrappedValues) {
-      this.values = wrappedValues.stream()
-            .collect(Collectors.toMap(e -> new MultimapObjectWrapper<>(e.getKey()), BucketEntry::getValue));
+      Map<MultimapObjectWrapper<K>, V> values = CompactMap.newMap(wrappedValues.size());
+      for (BucketEntry<K, V> entry : wrappedValues) {
+         values.put(new MultimapObjectWrapper<>(entry.getKey()), entry.getValue());
+      }
+      this.values = values;
    }
 
    public static <K, V> HashMapBucket<K, V> create(Map<K, V> values) {
@@ -43,7 +54,7 @@ Collection<BucketEntry<K, V>> getWrappedValues() {
    }
 
    public HashMapBucketResponse<Integer, K, V> putAll(Map<K, V> map) {
-      Map<MultimapObjectWrapper<K>, V> copied = new HashMap<>(values);
+      Map<MultimapObjectWrapper<K>, V> copied = CompactMap.copyOf(values, values.size() + map.size());
       int res = 0;
       for (Map.Entry<K, V> entry : map.entrySet()) {
          V prev = copied.put(new MultimapObjectWrapper<>(entry.getKey()), entry.getValue());
@@ -54,7 +65,7 @@ public HashMapBucketResponse<Integer, K, V> putAll(Map<K, V> map) {
 
    public HashMapBucketResponse<Integer, K, V> putIfAbsent(Map<K, V> map) {
       ByRef.Integer created = new ByRef.Integer(0);
-      Map<MultimapObjectWrapper<K>, V> copied = new HashMap<>(values);
+      Map<MultimapObjectWrapper<K>, V> copied = CompactMap.copyOf(values, values.size() + map.size());
       for (Map.Entry<K, V> entry : map.entrySet()) {
          // The `values` map can have null values, we use compute instead of putIfAbsent.
          copied.computeIfAbsent(new MultimapObjectWrapper<>(entry.getKey()), ignore -> {
@@ -84,7 +95,7 @@ public boolean isEmpty() {
 
    public HashMapBucketResponse<Integer, K, V> removeAll(Collection<K> keys) {
       int res = 0;
-      Map<MultimapObjectWrapper<K>, V> copied = new HashMap<>(values.size());
+      Map<MultimapObjectWrapper<K>, V> copied = CompactMap.newMap(values.size());
       for (Map.Entry<MultimapObjectWrapper<K>, V> entry : values.entrySet()) {
          if (containsKey(keys, entry.getKey())) {
             res++;
@@ -131,12 +142,12 @@ public HashMapBucket<K, V> replace(K key, V expected, V replacement) {
       if (equalValues(current, replacement)) return this;
 
       if (values.isEmpty()) {
-         Map<MultimapObjectWrapper<K>, V> copied = new HashMap<>();
+         Map<MultimapObjectWrapper<K>, V> copied = CompactMap.newMap(1);
          copied.put(storeKey, replacement);
          return new HashMapBucket<>(copied);
       }
 
-      Map<MultimapObjectWrapper<K>, V> copied = new HashMap<>(values);
+      Map<MultimapObjectWrapper<K>, V> copied = CompactMap.copyOf(values, values.size() + 1);
       if (replacement == null) {
          copied.remove(storeKey, expected);
       } else {
@@ -156,7 +167,7 @@ private boolean equalValues(V one, Object other) {
    }
 
    private static <K, V> Map<MultimapObjectWrapper<K>, V> toStore(Map<K, V> raw) {
-      Map<MultimapObjectWrapper<K>, V> converted = new HashMap<>();
+      Map<MultimapObjectWrapper<K>, V> converted = CompactMap.newMap(raw.size());
       for (Map.Entry<K, V> entry : raw.entrySet()) {
          converted.put(new MultimapObjectWrapper<>(entry.getKey()), entry.getValue());
       }
@@ -0,0 +1,388 @@
+package org.infinispan.multimap.impl;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+
+/**
+ * Order statistic structure backing {@link SortedSetBucket}.
+ * <p>
+ * Members are kept in a skip list sorted by score and then by member, where every forward link records how many
+ * elements it jumps over. Lookups by score, by member or by rank, and the rank of a given member, are all
+ * {@code O(log n)}. Scores are stored as primitive doubles in the nodes and a hash map gives direct access to the node
+ * holding a member.
+ * <p>
+ * The structure is not thread safe. Buckets are never modified once they are visible to other threads, and every
+ * update works on a {@link #copy()}.
+ *
+ * @since 16.0
+ */
+final class IndexedSkipList<V> implements Iterable<IndexedSkipList.Node<V>> {
+   private static final int MAX_LEVEL = 32;
+   // 1 in 4 nodes is promoted to the next level
+   private static final int PROMOTION_RATIO = 4;
+
+   private final Node<V> head = new Node<>(0, null, MAX_LEVEL);
+   private final Map<MultimapObjectWrapper<V>, Node<V>> members;
+   private Node<V> tail;
+   private int level = 1;
+
+   IndexedSkipList() {
+      this.members = new HashMap<>();
+   }
+
+   private IndexedSkipList(int expectedSize) {
+      this.members = new HashMap<>(Math.max(16, (int) (expectedSize / .75f) + 1));
+   }
+
+   static final class Node<V> {
+      final double score;
+      final MultimapObjectWrapper<V> member;
+      final Node<V>[] next;
+      // number of level 0 links crossed when following next[i]
+      final int[] span;
+      Node<V> previous;
+
+      @SuppressWarnings("unchecked")
+      Node(double score, MultimapObjectWrapper<V> member, int level) {
+         this.score = score;
+         this.member = member;
+         this.next = new Node[level];
+         this.span = new int[level];
+      }
+
+      ScoredValue<V> toScoredValue() {
+         return new ScoredValue<>(score, member);
+      }
+   }
+
+   int size() {
+      return members.size();
+   }
+
+   boolean isEmpty() {
+      return members.isEmpty();
+   }
+
+   Node<V> first() {
+      return head.next[0];
+   }
+
+   Node<V> last() {
+      return tail;
+   }
+
+   Node<V> get(MultimapObjectWrapper<V> member) {
+      return members.get(member);
+   }
+
+   /**
+    * @return a copy of this list, built in linear time.
+    */
+   IndexedSkipList<V> copy() {
+      IndexedSkipList<V> copy = new IndexedSkipList<>(size());
+      Appender<V> appender = copy.appender();
+      for (Node<V> node = first(); node != null; node = node.next[0]) {
+         appender.append(node.score, node.member);
+      }
+      return copy;
+   }
+
+   /**
+    * Inserts the member, or moves it to its new score.
+    *
+    * @return the previous score of the member, or {@code null} if it was not present.
+    */
+   Double put(double score, MultimapObjectWrapper<V> member) {
+      Node<V> existing = members.get(member);
+      if (existing != null) {
+         if (Double.compare(existing.score, score) == 0) {
+            return existing.score;
+         }
+         unlink(existing.score, member);
+      }
+      insert(score, member);
+      return existing == null ? null : existing.score;
+   }
+
+   /**
+    * @return the score the member had, or {@code null} if it was not present.
+    */
+   Double remove(MultimapObjectWrapper<V> member) {
+      Node<V> existing = members.get(member);
+      if (existing == null) {
+         return null;
+      }
+      unlink(existing.score, member);
+      return existing.score;
+   }
+
+   /**
+    * @return the 0-based position of the member in ascending order, or -1 if it is not present.
+    */
+   long rank(MultimapObjectWrapper<V> member) {
+      Node<V> node = members.get(member);
+      if (node == null) {
+         return -1;
+      }
+      long rank = 0;
+      Node<V> x = head;
+      for (int i = level - 1; i >= 0; i--) {
+         while (x.next[i] != null && compare(x.next[i], node.score, member) <= 0) {
+            rank += x.span[i];
+            x = x.next[i];
+         }
+         if (x == node) {
+            return rank - 1;
+         }
+      }
+      throw new IllegalStateException("Member not linked " + member);
+   }
+
+   /**
+    * @return the node at the given 0-based position in ascending order, or {@code null} if out of bounds.
+    */
+   Node<V> byRank(long rank) {
+      if (rank < 0 || rank >= size()) {
+         return null;
+      }
+      long traversed = 0;
+      long target = rank + 1;
+      Node<V> x = head;
+      for (int i = level - 1; i >= 0; i--) {
+         while (x.next[i] != null && traversed + x.span[i] <= target) {
+            traversed += x.span[i];
+            x = x.next[i];
+         }
+         if (traversed == target) {
+            return x;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Finds the first node not smaller than the bound. A {@code null} member bounds by score only.
+    *
+    * @param inclusive whether a node equal to the bound qualifies.
+    * @return the node or {@code null} if every node is below the bound.
+    */
+   Node<V> ceiling(double score, MultimapObjectWrapper<V> member, boolean inclusive) {
+      Node<V> x = head;
+      for (int i = level - 1; i >= 0; i--) {
+         while (x.next[i] != null && isBefore(x.next[i], score, member, inclusive)) {
+            x = x.next[i];
+         }
+      }
+      return x.next[0];
+   }
+
+   /**
+    * Finds the last node not greater than the bound. A {@code null} member bounds by score only.
+    *
+    * @param inclusive whether a node equal to the bound qualifies.
+    * @return the node or {@code null} if every node is above the bound.
+    */
+   Node<V> floor(double score, MultimapObjectWrapper<V> member, boolean inclusive) {
+      Node<V> x = head;
+      for (int i = level - 1; i >= 0; i--) {
+         while (x.next[i] != null && !isAfter(x.next[i], score, member, inclusive)) {
+            x = x.next[i];
+         }
+      }
+      return x == head ? null : x;
+   }
+
+   @Override
+   public Iterator<Node<V>> iterator() {
+      return iterator(first(), false);
+   }
+
+   /**
+    * @return an iterator starting at the given node, moving backwards when {@code reverse} is set.
+    */
+   Iterator<Node<V>> iterator(Node<V> from, boolean reverse) {
+      return new Iterator<>() {
+         Node<V> current = from;
+
+         @Override
+         public boolean hasNext() {
+            return current != null;
+         }
+
+         @Override
+         public Node<V> next() {
+            if (current == null) {
+               throw new NoSuchElementException();
+            }
+            Node<V> node = current;
+            current = reverse ? node.previous : node.next[0];
+            return node;
+         }
+      };
+   }
+
+   /**
+    * @return an appender which adds members, sorted and not yet present, at the end of the list in constant time.
+    */
+   Appender<V> appender() {
+      return new Appender<>(this);
+   }
+
+   static final class Appender<V> {
+      private final IndexedSkipList<V> list;
+      @SuppressWarnings("unchecked")
+      private final Node<V>[] last = new Node[MAX_LEVEL];
+      // rank of last[i], 0 being the head
+      private final long[] lastRank = new long[MAX_LEVEL];
+
+      private Appender(IndexedSkipList<V> list) {
+         this.list = list;
+         for (int i = 0; i < MAX_LEVEL; i++) {
+            last[i] = list.head;
+         }
+         Node<V> x = list.head;
+         long rank = 0;
+         for (int i = list.level - 1; i >= 0; i--) {
+            while (x.next[i] != null) {
+               rank += x.span[i];
+               x = x.next[i];
+            }
+            last[i] = x;
+            lastRank[i] = rank;
+         }
+      }
+
+      /**
+       * @return {@code false} if the member cannot be appended, either because it is present or because it does not
+       * sort after the current last member.
+       */
+      boolean append(double score, MultimapObjectWrapper<V> member) {
+         Node<V> tail = list.tail;
+         if (list.members.containsKey(member) || (tail != null && compare(tail, score, member) >= 0)) {
+            return false;
+         }
+         int nodeLevel = randomLevel();
+         if (nodeLevel > list.level) {
+            list.level = nodeLevel;
+         }
+         Node<V> node = new Node<>(score, member, nodeLevel);
+         long rank = list.size() + 1L;
+         for (int i = 0; i < nodeLevel; i++) {
+            last[i].next[i] = node;
+            last[i].span[i] = (int) (rank - lastRank[i]);
+            last[i] = node;
+            lastRank[i] = rank;
+         }
+         for (int i = nodeLevel; i < list.level; i++) {
+            // links above the node level jump to the end
+            last[i].span[i] = (int) (rank - lastRank[i]);
+         }
+         node.previous = tail;
+         list.tail = node;
+         list.members.put(member, node);
+         return true;
+      }
+   }
+
+   private void insert(double score, MultimapObjectWrapper<V> member) {
+      @SuppressWarnings("unchecked")
+      Node<V>[] update = new Node[MAX_LEVEL];
+      int[] rank = new int[MAX_LEVEL];
+      Node<V> x = head;
+      for (int i = level - 1; i >= 0; i--) {
+         rank[i] = i == level - 1 ? 0 : rank[i + 1];
+         while (x.next[i] != null && compare(x.next[i], score, member) < 0) {
+            rank[i] += x.span[i];
+            x = x.next[i];
+         }
+         update[i] = x;
+      }
+      int nodeLevel = randomLevel();
+      if (nodeLevel > level) {
+         for (int i = level; i < nodeLevel; i++) {
+            rank[i] = 0;
+            update[i] = head;
+            update[i].span[i] = size();
+         }
+         level = nodeLevel;
+      }
+      Node<V> node = new Node<>(score, member, nodeLevel);
+      for (int i = 0; i < nodeLevel; i++) {
+         node.next[i] = update[i].next[i];
+         update[i].next[i] = node;
+         node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+         update[i].span[i] = rank[0] - rank[i] + 1;
+      }
+      for (int i = nodeLevel; i < level; i++) {
+         update[i].span[i]++;
+      }
+      node.previous = update[0] == head ? null : update[0];
+      if (node.next[0] != null) {
+         node.next[0].previous = node;
+      } else {
+         tail = node;
+      }
+      members.put(member, node);
+   }
+
+   private void unlink(double score, MultimapObjectWrapper<V> member) {
+      @SuppressWarnings("unchecked")
+      Node<V>[] update = new Node[MAX_LEVEL];
+      Node<V> x = head;
+      for (int i = level - 1; i >= 0; i--) {
+         while (x.next[i] != null && compare(x.next[i], score, member) < 0) {
+            x = x.next[i];
+         }
+         update[i] = x;
+      }
+      Node<V> node = x.next[0];
+      for (int i = 0; i < level; i++) {
+         if (update[i].next[i] == node) {
+            update[i].span[i] += node.span[i] - 1;
+            update[i].next[i] = node.next[i];
+         } else {
+            update[i].span[i]--;
+         }
+      }
+      if (node.next[0] != null) {
+         node.next[0].previous = node.previous;
+      } else {
+         tail = node.previous;
+      }
+      while (level > 1 && head.next[level - 1] == null) {
+         head.span[level - 1] = 0;
+         level--;
+      }
+      members.remove(member);
+   }
+
+   private static int randomLevel() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int nodeLevel = 1;
+      while (nodeLevel < MAX_LEVEL && random.nextInt(PROMOTION_RATIO) == 0) {
+         nodeLevel++;
+      }
+      return nodeLevel;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <V> int compare(Node<V> node, double score, MultimapObjectWrapper<V> member) {
+      int compare = Double.compare(node.score, score);
+      return compare != 0 ? compare : node.member.compareTo(member);
+   }
+
+   private static <V> boolean isBefore(Node<V> node, double score, MultimapObjectWrapper<V> member, boolean inclusive) {
+      int compare = member == null ? Double.compare(node.score, score) : compare(node, score, member);
+      return inclusive ? compare < 0 : compare <= 0;
+   }
+
+   private static <V> boolean isAfter(Node<V> node, double score, MultimapObjectWrapper<V> member, boolean inclusive) {
+      int compare = member == null ? Double.compare(node.score, score) : compare(node, score, member);
+      return inclusive ? compare > 0 : compare >= 0;
+   }
+}
@@ -18,6 +18,9 @@
 
 /**
  * Bucket used to store Set data type.
+ * <p>
+ * Buckets with up to {@link CompactSet#MAX_SIZE} members are stored in a {@link CompactSet}, larger ones in a
+ * {@link HashSet}. The representation is chosen again every time the bucket is updated.
  *
  * @author Vittorio Rigamonti
  * @since 15.0
@@ -27,21 +30,25 @@
    final Set<MultimapObjectWrapper<V>> values;
 
    public SetBucket() {
-      this.values = new HashSet<>();
+      this.values = CompactSet.newSet(0);
    }
 
    public SetBucket(V value) {
-      Set<MultimapObjectWrapper<V>> set = new HashSet<>(1);
+      Set<MultimapObjectWrapper<V>> set = CompactSet.newSet(1);
       set.add(new MultimapObjectWrapper<>(value));
       this.values = set;
    }
 
    private SetBucket(Set<MultimapObjectWrapper<V>> values) {
-      this.values = values;
+      this.values = CompactSet.compact(values);
    }
 
    public static <V> SetBucket<V> create(Collection<V> values) {
-      return new SetBucket<>(values.stream().map(MultimapObjectWrapper::new).collect(Collectors.toSet()));
+      Set<MultimapObjectWrapper<V>> set = CompactSet.newSet(values.size());
+      for (V value : values) {
+         set.add(new MultimapObjectWrapper<>(value));
+      }
+      return new SetBucket<>(set);
    }
 
    public static <V> SetBucket<V> create(V value) {
@@ -50,7 +57,9 @@ public static <V> SetBucket<V> create(V value) {
 
    @ProtoFactory
    SetBucket(Collection<MultimapObjectWrapper<V>> wrappedValues) {
-      this.values = new HashSet<>(wrappedValues);
+      Set<MultimapObjectWrapper<V>> set = CompactSet.newSet(wrappedValues.size());
+      set.addAll(wrappedValues);
+      this.values = set;
    }
 
    @ProtoField(number = 1, collectionImplementation = ArrayList.class)
@@ -112,7 +121,7 @@ public String toString() {
    }
 
    public SetBucketResult<Boolean, V> addAll(Collection<V> values) {
-      Set<MultimapObjectWrapper<V>> existing = new HashSet<>(this.values);
+      Set<MultimapObjectWrapper<V>> existing = CompactSet.copyOf(this.values, this.values.size() + values.size());
       boolean added = false;
       for (V value : values) {
          added |= existing.add(new MultimapObjectWrapper<>(value));
@@ -122,7 +131,7 @@ public SetBucketResult<Boolean, V> addAll(Collection<V> values) {
 
    public SetBucketResult<Boolean, V> removeAll(Collection<V> values) {
       Boolean changed = Boolean.FALSE;
-      Set<MultimapObjectWrapper<V>> existing = new HashSet<>(this.values.size());
+      Set<MultimapObjectWrapper<V>> existing = CompactSet.newSet(this.values.size());
       for (MultimapObjectWrapper<V> value : this.values) {
          if (contains(values, value)) {
             changed = Boolean.TRUE;
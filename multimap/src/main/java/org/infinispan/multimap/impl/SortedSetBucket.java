@@ -2,14 +2,12 @@
 
 import static org.infinispan.commons.marshall.ProtoStreamTypeIds.MULTIMAP_INDEX_VALUE;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
@@ -27,14 +25,16 @@
 
 /**
  * Bucket used to store Sorted Set data type.
+ * <p>
+ * Members are held in an {@link IndexedSkipList}, so rank based operations and range lookups, including the offset of
+ * a limited range, run in logarithmic time instead of walking the set.
  *
  * @author Katia Aresti
  * @since 15.0
  */
 @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_SORTED_SET_BUCKET)
 public class SortedSetBucket<V> implements SortableBucket<V>, BaseSetBucket<V> {
-   private final TreeSet<ScoredValue<V>> scoredEntries;
-   private final Map<MultimapObjectWrapper<V>, Double> entries;
+   private final IndexedSkipList<V> index;
 
    @Proto
    @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_SORTED_SET_BUCKET_AGGREGATE_FUNCTION)
@@ -64,7 +64,27 @@ public double apply(double first, double second) {
 
    @Override
    public Set<ScoredValue<V>> getAsSet() {
-      return scoredEntries;
+      return new AbstractSet<>() {
+         @Override
+         public Iterator<ScoredValue<V>> iterator() {
+            return scoredValues(index.first(), false);
+         }
+
+         @Override
+         public int size() {
+            return index.size();
+         }
+
+         @Override
+         public boolean contains(Object o) {
+            if (!(o instanceof ScoredValue<?> sv)) {
+               return false;
+            }
+            @SuppressWarnings("unchecked")
+            IndexedSkipList.Node<V> node = index.get((MultimapObjectWrapper<V>) sv.wrappedValue());
+            return node != null && Double.compare(node.score, sv.score()) == 0;
+         }
+      };
    }
 
    @Override
@@ -74,12 +94,13 @@ public List<ScoredValue<V>> getAsList() {
 
    @Override
    public Double getScore(MultimapObjectWrapper<V> key) {
-      return entries.get(key);
+      IndexedSkipList.Node<V> node = index.get(key);
+      return node == null ? null : node.score;
    }
 
    public List<ScoredValue<V>> randomMembers(int count) {
       if (count == 1 || count == -1) {
-         int rank = ThreadLocalRandom.current().nextInt(scoredEntries.size());
+         int rank = ThreadLocalRandom.current().nextInt(index.size());
          return this.subsetByIndex(rank, rank, false);
       }
 
@@ -87,23 +108,23 @@ public List<ScoredValue<V>> randomMembers(int count) {
          // we allow duplicates and returns count size random entries
          int totalCount = Math.abs(count);
          List<ScoredValue<V>> randomEntries = new ArrayList<>(totalCount);
-         ThreadLocalRandom.current().ints(totalCount, 0, entries.size())
-               .forEach(randomPos -> randomEntries.add(this.subsetByIndex(randomPos, randomPos, false).get(0)));
+         ThreadLocalRandom.current().ints(totalCount, 0, index.size())
+               .forEach(randomPos -> randomEntries.add(index.byRank(randomPos).toScoredValue()));
          return randomEntries;
       }
 
       // duplicates are not allowed.
-      List<Integer> positions = new ArrayList<>(entries.size());
-      while (positions.size() < entries.size()) {
+      List<Integer> positions = new ArrayList<>(index.size());
+      while (positions.size() < index.size()) {
          positions.add(positions.size());
       }
       Collections.shuffle(positions);
 
       List<ScoredValue<V>> randomEntries = new ArrayList<>();
       Iterator<Integer> ite = positions.iterator();
-      while (randomEntries.size() < count && randomEntries.size() < entries.size()) {
+      while (randomEntries.size() < count && randomEntries.size() < index.size()) {
          Integer pos = ite.next();
-         randomEntries.add(this.subsetByIndex(pos, pos, false).get(0));
+         randomEntries.add(index.byRank(pos).toScoredValue());
       }
 
       return randomEntries;
@@ -112,15 +133,26 @@ public List<ScoredValue<V>> randomMembers(int count) {
 
    @ProtoFactory
    SortedSetBucket(Collection<ScoredValue<V>> wrappedValues) {
-      scoredEntries = new TreeSet<>();
-      scoredEntries.addAll(wrappedValues);
-      entries = new HashMap<>();
-      wrappedValues.forEach(e -> entries.put(e.wrappedValue(), e.score()));
+      this.index = new IndexedSkipList<>();
+      IndexedSkipList.Appender<V> appender = index.appender();
+      Iterator<ScoredValue<V>> it = wrappedValues.iterator();
+      while (it.hasNext()) {
+         ScoredValue<V> sv = it.next();
+         if (!appender.append(sv.score(), sv.wrappedValue())) {
+            // not sorted or duplicated members, the last score wins
+            index.put(sv.score(), sv.wrappedValue());
+            it.forEachRemaining(next -> index.put(next.score(), next.wrappedValue()));
+         }
+      }
+   }
+
+   private SortedSetBucket(IndexedSkipList<V> index) {
+      this.index = index;
    }
 
    @ProtoField(number = 1, collectionImplementation = ArrayList.class)
    Collection<ScoredValue<V>> getWrappedValues() {
-      return new ArrayList<>(scoredEntries);
+      return getScoredEntriesAsList();
    }
 
    /**
@@ -128,7 +160,7 @@ Collection<ScoredValue<V>> getWrappedValues() {
     * @return entries copy
     */
    public SortedSet<ScoredValue<V>> getScoredEntries() {
-      return new TreeSet<>(scoredEntries);
+      return new TreeSet<>(getAsSet());
    }
 
    /**
@@ -136,46 +168,41 @@ public SortedSet<ScoredValue<V>> getScoredEntries() {
     * @return entries copy
     */
    public List<ScoredValue<V>> getScoredEntriesAsList() {
-      return new ArrayList<>(scoredEntries);
+      List<ScoredValue<V>> result = new ArrayList<>(index.size());
+      for (IndexedSkipList.Node<V> node : index) {
+         result.add(node.toScoredValue());
+      }
+      return result;
    }
 
    public SortedSetBucket() {
-      this.scoredEntries = new TreeSet<>();
-      this.entries = new HashMap<>();
+      this.index = new IndexedSkipList<>();
    }
 
    public SortedSetResult<Collection<ScoredValue<V>>, V> pop(boolean min, long count) {
-      Iterator<ScoredValue<V>> it = min
-            ? scoredEntries.iterator()
-            : scoredEntries.descendingIterator();
-
-      int i = 0;
-      List<ScoredValue<V>> popped = new ArrayList<>();
-      List<ScoredValue<V>> remaining = new ArrayList<>();
-      while (it.hasNext()) {
-         ScoredValue<V> sv = it.next();
-         if (++i > count) {
-            remaining.add(sv);
-         } else {
-            popped.add(sv);
-         }
+      IndexedSkipList<V> remaining = index.copy();
+      List<ScoredValue<V>> popped = new ArrayList<>((int) Math.min(count, index.size()));
+      while (popped.size() < count && !remaining.isEmpty()) {
+         IndexedSkipList.Node<V> node = min ? remaining.first() : remaining.last();
+         remaining.remove(node.member);
+         popped.add(node.toScoredValue());
       }
       return new SortedSetResult<>(popped, new SortedSetBucket<>(remaining));
    }
 
    public List<Double> scores(List<V> members) {
-     return members.stream().map(m -> entries.get(new MultimapObjectWrapper<>(m))).collect(Collectors.toList());
+     return members.stream().map(m -> getScore(new MultimapObjectWrapper<>(m))).collect(Collectors.toList());
    }
 
    public IndexValue indexOf(V member, boolean isRev) {
       MultimapObjectWrapper<V> wrapMember = new MultimapObjectWrapper<>(member);
-      Double score = entries.get(wrapMember);
+      Double score = getScore(wrapMember);
       if (score == null) {
          return null;
       }
-      SortedSet<ScoredValue<V>> tailedHead = scoredEntries.headSet(new ScoredValue<>(score, wrapMember));
-      return isRev? IndexValue.of(score, scoredEntries.size() - tailedHead.size() - 1)
-            : IndexValue.of(score, tailedHead.size());
+      long rank = index.rank(wrapMember);
+      return isRev? IndexValue.of(score, index.size() - rank - 1)
+            : IndexValue.of(score, rank);
    }
 
    public SortedSetBucket<V> replace(Collection<ScoredValue<V>> scoredValues) {
@@ -195,7 +222,7 @@ public SortedSetResult<AddOrUpdatesCounters, V> addMany(Collection<ScoredValue<V
                                        boolean updateGreaterScoresOnly) {
 
       AddOrUpdatesCounters addResult = new AddOrUpdatesCounters();
-      SortedSetBucket<V> next = new SortedSetBucket<>(scoredEntries);
+      SortedSetBucket<V> next = new SortedSetBucket<>(index.copy());
       long startSize = next.size();
 
       for (ScoredValue<V> scoredValue : scoredValues) {
@@ -217,7 +244,7 @@ public SortedSetResult<AddOrUpdatesCounters, V> addMany(Collection<ScoredValue<V
 
    public SortedSetResult<Double, V> incrScore(double incr, V member, boolean addOnly, boolean updateOnly, boolean updateLessScoresOnly, boolean updateGreaterScoresOnly) {
       MultimapObjectWrapper<V> wrappedValue = new MultimapObjectWrapper<>(member);
-      Double existingScore = entries.get(wrappedValue);
+      Double existingScore = getScore(wrappedValue);
       if ((existingScore != null && addOnly) || (existingScore == null && updateOnly)) {
          // do nothing
          return null;
@@ -234,74 +261,67 @@ public SortedSetResult<Double, V> incrScore(double incr, V member, boolean addOn
             throw new IllegalStateException("resulting score is not a number (NaN)");
       }
 
-      SortedSetBucket<V> next = new SortedSetBucket<>(scoredEntries);
+      SortedSetBucket<V> next = new SortedSetBucket<>(index.copy());
       next.addOrUpdate(new AddOrUpdatesCounters(), new ScoredValue<>(newScore, wrappedValue));
       return new SortedSetResult<>(newScore, next);
    }
 
    private void addOnly(ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = getScore(scoredValue.wrappedValue());
       if (existingScore == null){
          addScoredValue(scoredValue);
       }
    }
 
    private void updateOnly(AddOrUpdatesCounters addResult, ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = getScore(scoredValue.wrappedValue());
       if (existingScore != null && !existingScore.equals(scoredValue.score())) {
-         updateScoredValue(scoredValue, existingScore);
+         addScoredValue(scoredValue);
          addResult.updated++;
       }
    }
 
    private void addOrUpdateGreaterScores(boolean updateOnly, AddOrUpdatesCounters addResult, ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = getScore(scoredValue.wrappedValue());
       if (existingScore == null && !updateOnly) {
          addScoredValue(scoredValue);
       } else if (existingScore != null && scoredValue.score() > existingScore) {
-         updateScoredValue(scoredValue, existingScore);
+         addScoredValue(scoredValue);
          addResult.updated++;
       }
    }
 
    private void addOrUpdateLessScores(boolean updateOnly, AddOrUpdatesCounters addResult, ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = getScore(scoredValue.wrappedValue());
       if (existingScore == null && !updateOnly) {
          addScoredValue(scoredValue);
       } else if (existingScore != null && scoredValue.score() < existingScore) {
-         updateScoredValue(scoredValue, existingScore);
+         addScoredValue(scoredValue);
          addResult.updated++;
       }
    }
 
    private void addOrUpdate(AddOrUpdatesCounters addResult, ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = getScore(scoredValue.wrappedValue());
       if (existingScore == null) {
          addScoredValue(scoredValue);
       } else if (!scoredValue.score().equals(existingScore)) {
          // entry exists, check score
-         updateScoredValue(scoredValue, existingScore);
+         addScoredValue(scoredValue);
          addResult.updated++;
       }
    }
 
-   private void updateScoredValue(ScoredValue<V> newScoredValue, Double existingScore) {
-      ScoredValue<V> oldScoredValue = new ScoredValue<>(existingScore, newScoredValue.wrappedValue());
-      scoredEntries.remove(oldScoredValue);
-      scoredEntries.add(newScoredValue);
-      entries.put(newScoredValue.wrappedValue(), newScoredValue.score());
-   }
-
    private void addScoredValue(ScoredValue<V> scoredValue) {
-      scoredEntries.add(scoredValue);
-      entries.put(scoredValue.wrappedValue(), scoredValue.score());
+      // moves the member when it is already present
+      index.put(scoredValue.score(), scoredValue.wrappedValue());
    }
 
    public SortedSetResult<Long, V> removeAll(Collection<V> values) {
       Collection<ScoredValue<V>> subset = new ArrayList<>();
       for (V value: values) {
          MultimapObjectWrapper<V> wrappedValue = new MultimapObjectWrapper<>(value);
-         Double score = entries.get(wrappedValue);
+         Double score = getScore(wrappedValue);
          if (score != null)
             subset.add(new ScoredValue<>(score, wrappedValue));
       }
@@ -327,11 +347,11 @@ private SortedSetResult<Long, V> removeAllInternal(Collection<ScoredValue<V>> su
       if (subset.isEmpty())
          return new SortedSetResult<>(0L, this);
 
-      List<ScoredValue<V>> remaining = new ArrayList<>(scoredEntries.size());
-      for (ScoredValue<V> sv : scoredEntries) {
-         if (!subset.contains(sv)) remaining.add(sv);
+      IndexedSkipList<V> remaining = index.copy();
+      long size = 0;
+      for (ScoredValue<V> sv : subset) {
+         if (remaining.remove(sv.wrappedValue()) != null) size++;
       }
-      long size = subset.size();
       return new SortedSetResult<>(size, new SortedSetBucket<>(remaining));
    }
 
@@ -344,38 +364,21 @@ public List<ScoredValue<V>> subsetByIndex(long from, long to, boolean rev) {
          return Collections.emptyList();
       }
 
-      long fromIte = from < 0 ? scoredEntries.size() + from : from;
-      long toIte = to < 0 ? scoredEntries.size() + to : to;
+      long fromIte = Math.max(from < 0 ? index.size() + from : from, 0);
+      long toIte = Math.min(to < 0 ? index.size() + to : to, index.size() - 1L);
 
       if (fromIte > toIte) {
          return Collections.emptyList();
       }
 
-      List<ScoredValue<V>> results = new ArrayList<>();
-      Iterator<ScoredValue<V>> ite;
-      if (rev) {
-         ite = scoredEntries.descendingIterator();
-      } else {
-         ite = scoredEntries.iterator();
-      }
-
-      long pos = 0;
-      while ((pos < fromIte) && ite.hasNext()) {
-         ite.next();
-         pos++;
-      }
-
-      while ((pos <= toIte) && ite.hasNext()) {
-         results.add(ite.next());
-         pos++;
-      }
-
-      return results;
+      // positions are counted from the end of the set when reversed
+      return rev
+            ? collect(index.size() - 1L - fromIte, index.size() - 1L - toIte, true)
+            : collect(fromIte, toIte, false);
    }
 
-   @SuppressWarnings({ "unchecked", "rawtypes" })
    public List<ScoredValue<V>> subset(Double startScore, boolean includeStart, Double stopScore, boolean includeStop, boolean isRev, Long offset, Long count) {
-      if ((stopScore != null && stopScore.equals(startScore) && (!includeStart || !includeStop)) || (count != null && count == 0) || (offset != null && offset.equals(entries.size()))) {
+      if ((stopScore != null && stopScore.equals(startScore) && (!includeStart || !includeStop)) || (count != null && count == 0) || index.isEmpty()) {
          return Collections.emptyList();
       }
 
@@ -386,53 +389,9 @@ public List<ScoredValue<V>> subset(Double startScore, boolean includeStart, Doub
       boolean unboundedMin = min == null || min == Double.MIN_VALUE;
       boolean unboundedMax = max == null || max == Double.MAX_VALUE;
 
-      if (unboundedMin && unboundedMax) {
-         return applyLimit(scoredEntries, offset, count, isRev);
-      }
-
-      ScoredValue<V> startSv;
-      ScoredValue<V> stopSv;
-      if (unboundedMin) {
-         startSv = scoredEntries.first();
-      } else {
-         if (includeMin) {
-            startSv = scoredEntries.lower(ScoredValue.of(min));
-            if (startSv == null) {
-               startSv = scoredEntries.first();
-            }
-         } else {
-            startSv = scoredEntries.higher(ScoredValue.of(min));
-            if (startSv == null) {
-               startSv = scoredEntries.last();
-            }
-         }
-      }
-
-      if (unboundedMax) {
-         stopSv = scoredEntries.last();
-      } else {
-         if (includeMax) {
-            stopSv = scoredEntries.higher(ScoredValue.of(max));
-         } else {
-            stopSv = scoredEntries.lower(ScoredValue.of(max));
-         }
-
-         if (stopSv == null) {
-            stopSv = scoredEntries.last();
-         }
-      }
-
-      if (startSv.score() > stopSv.score()) {
-         return Collections.emptyList();
-      }
-
-      NavigableSet<ScoredValue<V>> subset = scoredEntries.subSet(
-            startSv,
-            unboundedMin || (startSv.score() > min || (includeMin && startSv.score().equals(min))),
-            stopSv,
-            unboundedMax || (stopSv.score() < max || (includeMax && stopSv.score().equals(max))));
-
-      return applyLimit(subset, offset, count, isRev);
+      IndexedSkipList.Node<V> start = unboundedMin ? index.first() : index.ceiling(min, null, includeMin);
+      IndexedSkipList.Node<V> stop = unboundedMax ? index.last() : index.floor(max, null, includeMax);
+      return applyLimit(start, stop, offset, count, isRev);
    }
 
    public List<ScoredValue<V>> subset(V startValue, boolean includeStart, V stopValue, boolean includeStop, boolean isRev, Long offset, Long count) {
@@ -441,72 +400,74 @@ public List<ScoredValue<V>> subset(V startValue, boolean includeStart, V stopVal
       boolean includeMin = isRev ? includeStop : includeStart;
       boolean includeMax = isRev ? includeStart : includeStop;
 
-      if (maxValue != null && maxValue.equals(minValue) && (!includeMin || !includeMax) || (offset != null && offset.equals(entries.size()) || (count!= null && count == 0))) {
+      if (maxValue != null && maxValue.equals(minValue) && (!includeMin || !includeMax) || (count!= null && count == 0) || index.isEmpty()) {
          return Collections.emptyList();
       }
-      boolean unboundedMin = minValue == null;
-      boolean unboundedMax = maxValue == null;
-
-      if (unboundedMin && unboundedMax) {
-         return applyLimit(scoredEntries, offset, count, isRev);
-      }
       // if all the scoredEntries have the same score, then we can pick up first score for lex
       // when all the entries don't have the same score, this method can't work. This is the expected behaviour.
-      double score = scoredEntries.first().score();
-
-      ScoredValue<V> minScoredValue = ScoredValue.of(score, minValue);
-      ScoredValue<V> maxScoredValue = ScoredValue.of(score, maxValue);
+      double score = index.first().score;
 
-      if (unboundedMin) {
-         NavigableSet<ScoredValue<V>> entries = scoredEntries.headSet(maxScoredValue, includeMax);
-         return applyLimit(entries, offset, count, isRev);
-      }
+      IndexedSkipList.Node<V> start = minValue == null
+            ? index.first()
+            : index.ceiling(score, new MultimapObjectWrapper<>(minValue), includeMin);
+      IndexedSkipList.Node<V> stop = maxValue == null
+            ? index.last()
+            : index.floor(score, new MultimapObjectWrapper<>(maxValue), includeMax);
+      return applyLimit(start, stop, offset, count, isRev);
+   }
 
-      if (unboundedMax) {
-         NavigableSet<ScoredValue<V>> entries = scoredEntries.tailSet(minScoredValue, includeMin);
-         return applyLimit(entries, offset, count, isRev);
+   /**
+    * Collects the range between both nodes, skipping the offset by rank instead of iterating over it.
+    */
+   private List<ScoredValue<V>> applyLimit(IndexedSkipList.Node<V> start, IndexedSkipList.Node<V> stop, final Long offset, final Long count, boolean isRev) {
+      if (start == null || stop == null) {
+         return Collections.emptyList();
       }
-
-      try {
-         NavigableSet<ScoredValue<V>> entries = scoredEntries.subSet(minScoredValue, includeMin, maxScoredValue, includeMax);
-         return applyLimit(entries, offset, count, isRev);
-      } catch (IllegalArgumentException e) {
+      long startRank = index.rank(start.member);
+      long stopRank = index.rank(stop.member);
+      if (startRank > stopRank) {
          return Collections.emptyList();
       }
-   }
 
-   private List<ScoredValue<V>> applyLimit(NavigableSet<ScoredValue<V>> subset, final Long offset, final Long count, boolean isRev) {
-      if (!isLimited(offset, count)) {
-         List<ScoredValue<V>> result = new ArrayList<>(entries.size());
-         Iterator<ScoredValue<V>> ite = isRev ? subset.descendingIterator() : subset.iterator();
-         while (ite.hasNext()) {
-            result.add(ite.next());
+      long skip = 0;
+      long last = stopRank - startRank;
+      if (isLimited(offset, count)) {
+         skip = Math.max(offset, 0);
+         if (count >= 0 && count - 1 < last - skip) {
+            last = skip + count - 1;
          }
-         return result;
       }
+      if (skip > last) {
+         return Collections.emptyList();
+      }
+      return isRev
+            ? collect(stopRank - skip, stopRank - last, true)
+            : collect(startRank + skip, startRank + last, false);
+   }
 
-      List<ScoredValue<V>> result = new ArrayList<>();
-      Iterator<ScoredValue<V>> ite = isRev ? subset.descendingIterator() : subset.iterator();
-      if (count < 0) {
-         skipOffset(offset, ite);
-         while (ite.hasNext()) {
-            result.add(ite.next());
-         }
-      } else {
-         skipOffset(offset, ite);
-         long localCount = 0;
-         while (ite.hasNext() && localCount++ < count) {
-            result.add(ite.next());
-         }
+   private List<ScoredValue<V>> collect(long fromRank, long toRank, boolean isRev) {
+      int size = (int) (Math.abs(toRank - fromRank) + 1);
+      List<ScoredValue<V>> result = new ArrayList<>(size);
+      Iterator<ScoredValue<V>> ite = scoredValues(index.byRank(fromRank), isRev);
+      while (result.size() < size) {
+         result.add(ite.next());
       }
       return result;
    }
 
-   private void skipOffset(Long offset, Iterator<ScoredValue<V>> ite) {
-      long localOffset = 0;
-      while (localOffset++ < offset && ite.hasNext()) {
-         ite.next();
-      }
+   private Iterator<ScoredValue<V>> scoredValues(IndexedSkipList.Node<V> from, boolean isRev) {
+      Iterator<IndexedSkipList.Node<V>> ite = index.iterator(from, isRev);
+      return new Iterator<>() {
+         @Override
+         public boolean hasNext() {
+            return ite.hasNext();
+         }
+
+         @Override
+         public ScoredValue<V> next() {
+            return ite.next().toScoredValue();
+         }
+      };
    }
 
    private static boolean isLimited(Long offset, Long count) {
@@ -514,11 +475,11 @@ private static boolean isLimited(Long offset, Long count) {
    }
 
    public Collection<ScoredValue<V>> toTreeSet() {
-      return new TreeSet<>(scoredEntries);
+      return getScoredEntries();
    }
 
    public long size() {
-      return scoredEntries.size();
+      return index.size();
    }
 
    @ProtoTypeId(MULTIMAP_INDEX_VALUE)
@@ -550,7 +511,7 @@ public double getScore() {
 
    @Override
    public Stream<MultimapObjectWrapper<V>> stream() {
-      return scoredEntries.stream().map(ScoredValue::wrappedValue);
+      return getScoredEntriesAsList().stream().map(ScoredValue::wrappedValue);
    }
 
    @Override
@@ -561,10 +522,10 @@ public List<ScoredValue<V>> sort(SortOptions sortOptions) {
 
       Stream<ScoredValue<V>> scoredValueStream;
       if (sortOptions.alpha) {
-         scoredValueStream = scoredEntries.stream()
+         scoredValueStream = getScoredEntriesAsList().stream()
                .map(v -> new ScoredValue<>(1d, v.wrappedValue()));
       } else {
-         scoredValueStream = scoredEntries.stream()
+         scoredValueStream = getScoredEntriesAsList().stream()
                .map(v -> new ScoredValue<>(v.wrappedValue().asDouble(), v.wrappedValue()));
       }
       return sort(scoredValueStream, sortOptions);
@@ -577,13 +538,22 @@ public boolean equals(Object o) {
       if (o == null || getClass() != o.getClass()) return false;
 
       SortedSetBucket<?> that = (SortedSetBucket<?>) o;
-      return Objects.equals(scoredEntries, that.scoredEntries)
-            && Objects.equals(entries, that.entries);
+      if (index.size() != that.index.size()) return false;
+      Iterator<? extends IndexedSkipList.Node<?>> other = that.index.iterator();
+      for (IndexedSkipList.Node<V> node : index) {
+         IndexedSkipList.Node<?> otherNode = other.next();
+         if (Double.compare(node.score, otherNode.score) != 0 || !node.member.equals(otherNode.member)) return false;
+      }
+      return true;
    }
 
    @Override
    public int hashCode() {
-      return Objects.hash(scoredEntries, entries);
+      int hash = 1;
+      for (IndexedSkipList.Node<V> node : index) {
+         hash = 31 * hash + Objects.hash(node.member, node.score);
+      }
+      return hash;
    }
 
    public record SortedSetResult<R, E>(R result, SortedSetBucket<E> bucket) { }
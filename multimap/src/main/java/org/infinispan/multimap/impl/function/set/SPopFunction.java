@@ -5,8 +5,11 @@
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.infinispan.commands.functional.functions.DeltaFunction;
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
 import org.infinispan.functional.EntryView;
 import org.infinispan.multimap.impl.SetBucket;
@@ -25,7 +28,8 @@
  * @since 15.0
  */
 @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_S_POP_FUNCTION)
-public final class SPopFunction<K, V> implements SetBucketBaseFunction<K, V, Collection<V>> {
+public final class SPopFunction<K, V> implements SetBucketBaseFunction<K, V, Collection<V>>,
+      DeltaFunction<K, SetBucket<V>, Collection<V>> {
 
    @ProtoField(1)
    final long count;
@@ -40,7 +44,8 @@ public SPopFunction(long count, boolean remove) {
    }
 
    @Override
-   public Collection<V> apply(EntryView.ReadWriteEntryView<K, SetBucket<V>> entryView) {
+   public Collection<V> apply(EntryView.ReadWriteEntryView<K, SetBucket<V>> entryView,
+                              Consumer<Function<EntryView.ReadWriteEntryView<K, SetBucket<V>>, ?>> delta) {
       Optional<SetBucket<V>> existing = entryView.peek();
       if (count == 0 || existing.isEmpty()) {
          return Collections.emptyList();
@@ -57,6 +62,8 @@ public Collection<V> apply(EntryView.ReadWriteEntryView<K, SetBucket<V>> entryVi
             } else {
                entryView.set(s);
             }
+            // the members are picked randomly, backups must remove the same ones
+            delta.accept(new SRemoveFunction<>(popped));
          }
 
          return popped;
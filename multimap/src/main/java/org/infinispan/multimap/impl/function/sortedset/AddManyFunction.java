@@ -1,8 +1,14 @@
 package org.infinispan.multimap.impl.function.sortedset;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import org.infinispan.commands.functional.functions.DeltaFunction;
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
 import org.infinispan.functional.EntryView;
 import org.infinispan.multimap.impl.ScoredValue;
@@ -21,7 +27,8 @@
  * @since 15.0
  */
 @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_ADD_MANY_FUNCTION)
-public final class AddManyFunction<K, V> implements SortedSetBucketBaseFunction<K, V, Long> {
+public final class AddManyFunction<K, V> implements SortedSetBucketBaseFunction<K, V, Long>,
+      DeltaFunction<K, SortedSetBucket<V>, Long> {
 
    @ProtoField(1)
    final boolean addOnly;
@@ -81,7 +88,8 @@ Collection<ScoredValue<V>> getScoredValues() {
    }
 
    @Override
-   public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView) {
+   public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView,
+                     Consumer<Function<EntryView.ReadWriteEntryView<K, SortedSetBucket<V>>, ?>> delta) {
       Optional<SortedSetBucket<V>> existing = entryView.peek();
       SortedSetBucket<V> bucket = null;
       if (existing.isPresent()) {
@@ -106,6 +114,9 @@ public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView)
          //don't change if nothing was added or updated. it avoids replicating a no-op
          if (addResult.updated > 0 || addResult.created > 0) {
             entryView.set(res.bucket());
+            if (isConditional()) {
+               delta.accept(new AddManyFunction<>(changedValues(bucket, res.bucket()), false, false, false, false, false, false));
+            }
          }
          // Return created only or created and updated count
          return returnChangedCount? addResult.created + addResult.updated : addResult.created;
@@ -115,4 +126,22 @@ public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView)
       return 0L;
 
    }
+
+   private boolean isConditional() {
+      return addOnly || updateOnly || updateLessScoresOnly || updateGreaterScoresOnly;
+   }
+
+   /**
+    * Backups only need the members that were created or updated, with their final score, to reach the same state.
+    */
+   private List<ScoredValue<V>> changedValues(SortedSetBucket<V> previous, SortedSetBucket<V> next) {
+      List<ScoredValue<V>> changed = new ArrayList<>();
+      for (ScoredValue<V> scoredValue : scoredValues) {
+         Double score = next.getScore(scoredValue.wrappedValue());
+         if (score != null && score.equals(scoredValue.score()) && !Objects.equals(score, previous.getScore(scoredValue.wrappedValue()))) {
+            changed.add(scoredValue);
+         }
+      }
+      return changed;
+   }
 }
@@ -0,0 +1,136 @@
+package org.infinispan.multimap.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the {@link ChunkedList} against an {@link ArrayList} under random updates.
+ *
+ * @since 16.0
+ */
+@Test(groups = "unit", testName = "multimap.ChunkedListTest")
+public class ChunkedListTest extends AbstractInfinispanTest {
+
+   public void testRandomOperations() {
+      Random random = new Random(42);
+      ChunkedList<Integer> list = ChunkedList.empty();
+      List<Integer> expected = new ArrayList<>();
+
+      for (int i = 0; i < 5000; i++) {
+         ChunkedList<Integer> previous = list;
+         List<Integer> previousExpected = new ArrayList<>(expected);
+         int size = expected.size();
+         switch (random.nextInt(7)) {
+            case 0 -> {
+               List<Integer> values = values(random, random.nextInt(300));
+               list = list.append(values);
+               expected.addAll(values);
+            }
+            case 1 -> {
+               List<Integer> values = values(random, random.nextInt(300));
+               list = list.prepend(values);
+               expected.addAll(0, values);
+            }
+            case 2 -> {
+               int index = random.nextInt(size + 1);
+               list = list.insert(index, i);
+               expected.add(index, i);
+            }
+            case 3 -> {
+               if (size > 0) {
+                  int index = random.nextInt(size);
+                  list = list.replace(index, i);
+                  expected.set(index, i);
+               }
+            }
+            case 4 -> {
+               int from = random.nextInt(size + 1);
+               int to = from + random.nextInt(size - from + 1);
+               list = list.slice(from, to);
+               expected = new ArrayList<>(expected.subList(from, to));
+            }
+            case 5 -> {
+               int value = random.nextInt(50);
+               int limit = random.nextInt(10) + 1;
+               boolean fromTail = random.nextBoolean();
+               list = list.removeMatching(v -> v == value, limit, fromTail);
+               removeMatching(expected, value, limit, fromTail);
+            }
+            default -> {
+               // Only grow the list while it is small, so slices do not shrink it for good
+               if (size < 2000) {
+                  List<Integer> values = values(random, random.nextInt(1000));
+                  list = list.append(values);
+                  expected.addAll(values);
+               }
+            }
+         }
+         // Updates never modify the original list
+         assertSame(previousExpected, previous);
+         if (i % 100 == 0) {
+            assertSame(expected, list);
+         }
+      }
+      assertSame(expected, list);
+   }
+
+   public void testIterateFrom() {
+      List<Integer> values = values(new Random(7), 1000);
+      ChunkedList<Integer> list = ChunkedList.of(values);
+      for (int from : new int[]{0, 1, 127, 128, 129, 999, 1000}) {
+         List<Integer> actual = new ArrayList<>();
+         list.iterator(from).forEachRemaining(actual::add);
+         assertThat(actual).containsExactlyElementsOf(values.subList(from, values.size()));
+      }
+      assertThat(ChunkedList.<Integer>empty().iterator(0).hasNext()).isFalse();
+   }
+
+   private static List<Integer> values(Random random, int count) {
+      List<Integer> values = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+         values.add(random.nextInt(50));
+      }
+      return values;
+   }
+
+   private static void removeMatching(List<Integer> list, int value, int limit, boolean fromTail) {
+      if (fromTail) {
+         Collections.reverse(list);
+      }
+      Iterator<Integer> it = list.iterator();
+      while (it.hasNext() && limit > 0) {
+         if (it.next() == value) {
+            it.remove();
+            limit--;
+         }
+      }
+      if (fromTail) {
+         Collections.reverse(list);
+      }
+   }
+
+   private static void assertSame(List<Integer> expected, ChunkedList<Integer> list) {
+      assertThat(list.size()).isEqualTo(expected.size());
+      assertThat(list.isEmpty()).isEqualTo(expected.isEmpty());
+      List<Integer> actual = new ArrayList<>();
+      list.forEach(actual::add);
+      assertThat(actual).containsExactlyElementsOf(expected);
+
+      List<Integer> reversed = new ArrayList<>();
+      list.descendingIterator().forEachRemaining(reversed::add);
+      Collections.reverse(reversed);
+      assertThat(reversed).containsExactlyElementsOf(expected);
+
+      for (int i = 0; i < expected.size(); i++) {
+         assertThat(list.get(i)).isEqualTo(expected.get(i));
+      }
+   }
+}
@@ -0,0 +1,132 @@
+package org.infinispan.multimap.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the compact representation of small hash and set buckets, and the switch to and from the hash based one.
+ *
+ * @since 16.0
+ */
+@Test(groups = "unit", testName = "multimap.CompactBucketTest")
+public class CompactBucketTest extends AbstractInfinispanTest {
+
+   public void testCompactMapRandomOperations() {
+      Random random = new Random(42);
+      Map<MultimapObjectWrapper<byte[]>, String> map = CompactMap.newMap(0);
+      Map<MultimapObjectWrapper<byte[]>, String> expected = new HashMap<>();
+      for (int i = 0; i < 2000; i++) {
+         // Equal keys are distinct arrays
+         MultimapObjectWrapper<byte[]> key = new MultimapObjectWrapper<>(new byte[]{(byte) random.nextInt(64)});
+         if (random.nextInt(3) == 0) {
+            assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+         } else {
+            String value = random.nextBoolean() ? null : "v" + i;
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+            assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+         }
+         assertThat(map).isEqualTo(expected);
+         assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+      }
+      map.entrySet().removeIf(e -> e.getValue() == null);
+      expected.entrySet().removeIf(e -> e.getValue() == null);
+      assertThat(map).isEqualTo(expected);
+   }
+
+   public void testCompactSetRandomOperations() {
+      Random random = new Random(42);
+      Set<MultimapObjectWrapper<byte[]>> set = CompactSet.newSet(0);
+      Set<MultimapObjectWrapper<byte[]>> expected = new HashSet<>();
+      for (int i = 0; i < 2000; i++) {
+         MultimapObjectWrapper<byte[]> member = new MultimapObjectWrapper<>(new byte[]{(byte) random.nextInt(64)});
+         if (random.nextInt(3) == 0) {
+            assertThat(set.remove(member)).isEqualTo(expected.remove(member));
+         } else {
+            assertThat(set.add(member)).isEqualTo(expected.add(member));
+         }
+         assertThat(set).isEqualTo(expected);
+         assertThat(set.hashCode()).isEqualTo(expected.hashCode());
+      }
+   }
+
+   public void testCopyOfThresholdSizedCompactBuckets() {
+      Map<MultimapObjectWrapper<String>, String> map = CompactMap.newMap(CompactMap.MAX_SIZE);
+      Set<MultimapObjectWrapper<String>> set = CompactSet.newSet(CompactSet.MAX_SIZE);
+      for (int i = 0; i < CompactMap.MAX_SIZE; i++) {
+         map.put(new MultimapObjectWrapper<>("f" + i), "v" + i);
+         set.add(new MultimapObjectWrapper<>("m" + i));
+      }
+
+      Map<MultimapObjectWrapper<String>, String> mapCopy = CompactMap.copyOf(map, CompactMap.MAX_SIZE);
+      assertThat(mapCopy).isInstanceOf(CompactMap.class).isEqualTo(map);
+      mapCopy.put(new MultimapObjectWrapper<>("f0"), "updated");
+      mapCopy.remove(new MultimapObjectWrapper<>("f1"));
+      assertThat(map).hasSize(CompactMap.MAX_SIZE).containsEntry(new MultimapObjectWrapper<>("f0"), "v0");
+      // A copy from a hash map is compact as well
+      assertThat(CompactMap.copyOf(new HashMap<>(map), CompactMap.MAX_SIZE))
+            .isInstanceOf(CompactMap.class).isEqualTo(map);
+      Map<MultimapObjectWrapper<String>, String> largeMap = CompactMap.copyOf(map, CompactMap.MAX_SIZE + 1);
+      largeMap.put(new MultimapObjectWrapper<>("extra"), "v");
+      assertThat(largeMap).isInstanceOf(HashMap.class).hasSize(CompactMap.MAX_SIZE + 1).containsAllEntriesOf(map);
+
+      Set<MultimapObjectWrapper<String>> setCopy = CompactSet.copyOf(set, CompactSet.MAX_SIZE);
+      assertThat(setCopy).isInstanceOf(CompactSet.class).isEqualTo(set);
+      setCopy.remove(new MultimapObjectWrapper<>("m0"));
+      assertThat(set).hasSize(CompactSet.MAX_SIZE).contains(new MultimapObjectWrapper<>("m0"));
+      assertThat(CompactSet.copyOf(new HashSet<>(set), CompactSet.MAX_SIZE))
+            .isInstanceOf(CompactSet.class).isEqualTo(set);
+      Set<MultimapObjectWrapper<String>> largeSet = CompactSet.copyOf(set, CompactSet.MAX_SIZE + 1);
+      largeSet.add(new MultimapObjectWrapper<>("extra"));
+      assertThat(largeSet).isInstanceOf(HashSet.class).hasSize(CompactSet.MAX_SIZE + 1).containsAll(set);
+   }
+
+   public void testHashBucketRepresentation() {
+      Map<String, String> fields = new HashMap<>();
+      for (int i = 0; i < CompactMap.MAX_SIZE; i++) {
+         fields.put("f" + i, "v" + i);
+      }
+      HashMapBucket<String, String> bucket = HashMapBucket.create(fields);
+      assertThat(bucket.values).isInstanceOf(CompactMap.class);
+
+      HashMapBucket<String, String> large = bucket.putAll(Map.of("extra", "v")).bucket();
+      assertThat(large.values).isInstanceOf(HashMap.class);
+      assertThat(large.size()).isEqualTo(CompactMap.MAX_SIZE + 1);
+      assertThat(large.get("f0")).isEqualTo("v0");
+
+      HashMapBucket<String, String> small = large.removeAll(List.of("f0")).bucket();
+      assertThat(small.values).isInstanceOf(CompactMap.class);
+      assertThat(small.converted()).containsEntry("extra", "v").doesNotContainKey("f0");
+      // The original buckets are unchanged
+      assertThat(bucket.size()).isEqualTo(CompactMap.MAX_SIZE);
+      assertThat(large.size()).isEqualTo(CompactMap.MAX_SIZE + 1);
+   }
+
+   public void testSetBucketRepresentation() {
+      List<String> members = new ArrayList<>();
+      for (int i = 0; i < CompactSet.MAX_SIZE; i++) {
+         members.add("m" + i);
+      }
+      SetBucket<String> bucket = SetBucket.create(members);
+      assertThat(bucket.values).isInstanceOf(CompactSet.class);
+
+      SetBucket<String> large = bucket.addAll(List.of("extra")).bucket();
+      assertThat(large.values).isInstanceOf(HashSet.class);
+      assertThat(large.contains("extra")).isTrue();
+
+      SetBucket<String> small = large.removeAll(List.of("m0")).bucket();
+      assertThat(small.values).isInstanceOf(CompactSet.class);
+      assertThat(small.toSet()).contains("extra").doesNotContain("m0").hasSize(CompactSet.MAX_SIZE);
+      assertThat(bucket.size()).isEqualTo(CompactSet.MAX_SIZE);
+   }
+}
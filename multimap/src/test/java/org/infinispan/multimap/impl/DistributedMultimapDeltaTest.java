@@ -0,0 +1,85 @@
+package org.infinispan.multimap.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.util.Lists.list;
+import static org.infinispan.functional.FunctionalTestUtils.await;
+import static org.infinispan.multimap.impl.MultimapTestUtils.ELAIA;
+import static org.infinispan.multimap.impl.MultimapTestUtils.FELIX;
+import static org.infinispan.multimap.impl.MultimapTestUtils.OIHANA;
+import static org.infinispan.multimap.impl.ScoredValue.of;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.context.Flag;
+import org.infinispan.test.data.Person;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the effect recorded by the multimap functions on the primary owner leaves the backup owners with the
+ * same bucket.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "distribution.DistributedMultimapDeltaTest")
+public class DistributedMultimapDeltaTest extends BaseDistributedMultimapTest<EmbeddedMultimapCacheManager<String, Person>, Person> {
+
+   @Override
+   protected EmbeddedMultimapCacheManager<String, Person> create(EmbeddedMultimapCacheManager<String, Person> manager) {
+      return manager;
+   }
+
+   @Override
+   public Object[] factory() {
+      return Stream.of(Boolean.TRUE, Boolean.FALSE)
+            .map(fromOwner -> new DistributedMultimapDeltaTest().fromOwner(fromOwner).numOwners(2).l1(false)
+                  .cacheMode(CacheMode.DIST_SYNC).transactional(false))
+            .toArray();
+   }
+
+   public void testPopRemovesSameMembersOnBackups() {
+      String key = getEntryKey();
+      EmbeddedSetCache<String, Person> set = getMultimapMember().getMultimapSet(cacheName);
+      List<Person> members = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+         members.add(new Person("member-" + i));
+      }
+      await(set.add(key, members));
+
+      for (int i = 0; i < 3; i++) {
+         Collection<Person> popped = await(set.pop(key, 5L, true));
+         assertThat(popped).hasSize(5);
+         assertSameBucketOnOwners(key);
+      }
+      assertThat(await(set.size(key))).isEqualTo(5);
+   }
+
+   public void testConditionalAddOnBackups() {
+      String key = getEntryKey();
+      EmbeddedMultimapSortedSetCache<String, Person> sortedSet = getMultimapMember().getMultimapSortedSet(cacheName);
+      await(sortedSet.addMany(key, list(of(1, OIHANA), of(5, ELAIA)), SortedSetAddArgs.create().build()));
+
+      SortedSetAddArgs greater = SortedSetAddArgs.create().updateGreaterScoresOnly().returnChangedCount().build();
+      long changed = await(sortedSet.addMany(key, list(of(2, OIHANA), of(3, ELAIA), of(7, FELIX)), greater));
+      assertThat(changed).isEqualTo(2);
+      assertSameBucketOnOwners(key);
+
+      SortedSetAddArgs updateOnly = SortedSetAddArgs.create().updateOnly().build();
+      await(sortedSet.addMany(key, list(of(4, FELIX), of(9, new Person("absent"))), updateOnly));
+      assertSameBucketOnOwners(key);
+      assertThat(await(sortedSet.get(key)))
+            .containsExactly(of(2, OIHANA), of(4, FELIX), of(5, ELAIA));
+   }
+
+   private void assertSameBucketOnOwners(String key) {
+      Cache<String, Person>[] owners = getOwners(key);
+      Object primary = owners[0].getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).get(key);
+      for (int i = 1; i < owners.length; i++) {
+         assertThat((Object) owners[i].getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).get(key)).isEqualTo(primary);
+      }
+   }
+}
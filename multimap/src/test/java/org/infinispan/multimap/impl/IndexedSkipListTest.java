@@ -0,0 +1,95 @@
+package org.infinispan.multimap.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the {@link IndexedSkipList} against a {@link TreeSet} under random updates.
+ *
+ * @since 16.0
+ */
+@Test(groups = "unit", testName = "multimap.IndexedSkipListTest")
+public class IndexedSkipListTest extends AbstractInfinispanTest {
+
+   public void testRandomOperations() {
+      Random random = new Random(42);
+      IndexedSkipList<String> list = new IndexedSkipList<>();
+      TreeSet<ScoredValue<String>> expected = new TreeSet<>();
+      Map<String, Double> scores = new HashMap<>();
+
+      for (int i = 0; i < 5000; i++) {
+         String member = "m" + random.nextInt(500);
+         MultimapObjectWrapper<String> wrapped = new MultimapObjectWrapper<>(member);
+         Double previous = scores.get(member);
+         if (random.nextInt(4) == 0) {
+            assertThat(list.remove(wrapped)).isEqualTo(previous);
+            if (previous != null) {
+               expected.remove(ScoredValue.of(previous, member));
+               scores.remove(member);
+            }
+         } else {
+            double score = random.nextInt(50);
+            assertThat(list.put(score, wrapped)).isEqualTo(previous);
+            if (previous != null) {
+               expected.remove(ScoredValue.of(previous, member));
+            }
+            expected.add(ScoredValue.of(score, member));
+            scores.put(member, score);
+         }
+         if (i % 250 == 0) {
+            assertSame(expected, list);
+         }
+      }
+      assertSame(expected, list);
+      assertSame(expected, list.copy());
+   }
+
+   public void testRangeBounds() {
+      IndexedSkipList<String> list = new IndexedSkipList<>();
+      IndexedSkipList.Appender<String> appender = list.appender();
+      for (int i = 0; i < 10; i++) {
+         assertThat(appender.append(i / 2, new MultimapObjectWrapper<>("m" + i))).isTrue();
+      }
+      assertThat(appender.append(1, new MultimapObjectWrapper<>("late"))).isFalse();
+      assertThat(appender.append(9, new MultimapObjectWrapper<>("m0"))).isFalse();
+
+      assertThat(list.ceiling(2, null, true).member.get()).isEqualTo("m4");
+      assertThat(list.ceiling(2, null, false).member.get()).isEqualTo("m6");
+      assertThat(list.floor(2, null, true).member.get()).isEqualTo("m5");
+      assertThat(list.floor(2, null, false).member.get()).isEqualTo("m3");
+      assertThat(list.ceiling(5, null, true)).isNull();
+      assertThat(list.floor(0, null, false)).isNull();
+      assertThat(list.ceiling(2, new MultimapObjectWrapper<>("m5"), false).member.get()).isEqualTo("m6");
+      assertThat(list.floor(2, new MultimapObjectWrapper<>("m5"), false).member.get()).isEqualTo("m4");
+      assertThat(list.rank(new MultimapObjectWrapper<>("absent"))).isEqualTo(-1);
+      assertThat(list.byRank(10)).isNull();
+   }
+
+   private static void assertSame(TreeSet<ScoredValue<String>> expected, IndexedSkipList<String> list) {
+      assertThat(list.size()).isEqualTo(expected.size());
+      List<ScoredValue<String>> actual = new ArrayList<>();
+      list.forEach(node -> actual.add(node.toScoredValue()));
+      assertThat(actual).containsExactlyElementsOf(expected);
+
+      List<ScoredValue<String>> reversed = new ArrayList<>();
+      list.iterator(list.last(), true).forEachRemaining(node -> reversed.add(node.toScoredValue()));
+      assertThat(reversed).containsExactlyElementsOf(expected.descendingSet());
+
+      int rank = 0;
+      for (ScoredValue<String> sv : expected) {
+         assertThat(list.rank(sv.wrappedValue())).isEqualTo(rank);
+         assertThat(list.byRank(rank).toScoredValue()).isEqualTo(sv);
+         rank++;
+      }
+   }
+}
@@ -9,6 +9,9 @@
       dependsOn = org.infinispan.marshall.protostream.impl.GlobalContextInitializer.class,
       includeClasses = {
             FilterResultImpl.class,
+            org.infinispan.objectfilter.impl.aggregation.Counter.class,
+            org.infinispan.objectfilter.impl.aggregation.DoubleStat.class,
+            org.infinispan.objectfilter.impl.ql.AggregationFunction.class,
             org.infinispan.objectfilter.impl.syntax.parser.IckleParsingResult.StatementType.class
       },
       schemaFileName = "global.objectfilter.proto",
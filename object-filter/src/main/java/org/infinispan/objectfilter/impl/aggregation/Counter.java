@@ -1,9 +1,15 @@
 package org.infinispan.objectfilter.impl.aggregation;
 
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
 /**
  * @author anistor@redhat.com
  * @since 8.2
  */
+@ProtoTypeId(ProtoStreamTypeIds.ICKLE_AGGREGATION_COUNTER)
 public final class Counter {
 
    private long counter;
@@ -11,6 +17,11 @@ public final class Counter {
    public Counter() {
    }
 
+   @ProtoFactory
+   Counter(long value) {
+      counter = value;
+   }
+
    public void inc() {
       counter++;
    }
@@ -19,6 +30,7 @@ public void add(long val) {
       counter += val;
    }
 
+   @ProtoField(1)
    public long getValue() {
       return counter;
    }
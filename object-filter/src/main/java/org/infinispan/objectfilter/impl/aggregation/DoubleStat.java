@@ -1,5 +1,9 @@
 package org.infinispan.objectfilter.impl.aggregation;
 
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
 
 /**
  * Computes the sum and average of doubles. The implementation uses compensated summation in order to reduce the error bound in the
@@ -9,13 +13,25 @@
  * @author anistor@redhat.com
  * @since 8.1
  */
-final class DoubleStat {
+@ProtoTypeId(ProtoStreamTypeIds.ICKLE_AGGREGATION_DOUBLE_STAT)
+public final class DoubleStat {
 
    private long count;
    private double sum;
    private double sumCompensation; // Low order bits of sum
    private double simpleSum;       // Used to compute right sum for non-finite inputs
 
+   DoubleStat() {
+   }
+
+   @ProtoFactory
+   DoubleStat(long count, double sum, double sumCompensation, double simpleSum) {
+      this.count = count;
+      this.sum = sum;
+      this.sumCompensation = sumCompensation;
+      this.simpleSum = simpleSum;
+   }
+
    void update(double value) {
       update(value, 1);
    }
@@ -64,7 +80,23 @@ Double getAvg() {
       return count == 0 ? null : getSum() / count;
    }
 
+   @ProtoField(1)
    long getCount() {
       return count;
    }
+
+   @ProtoField(value = 2, name = "sum")
+   double getRawSum() {
+      return sum;
+   }
+
+   @ProtoField(3)
+   double getSumCompensation() {
+      return sumCompensation;
+   }
+
+   @ProtoField(4)
+   double getSimpleSum() {
+      return simpleSum;
+   }
 }
@@ -1,9 +1,11 @@
 package org.infinispan.objectfilter.impl.aggregation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 
 /**
  * Groups rows by their grouping fields and computes aggregates.
@@ -145,6 +147,14 @@ public void addRow(Object[] row) {
       }
    }
 
+   /**
+    * Returns the rows of the groups with the partial state of the aggregations, to be merged by another grouper using
+    * two phase accumulation. Must not be called after {@link #finish()}.
+    */
+   public List<Object[]> partialRows() {
+      return groups != null ? new ArrayList<>(groups.values()) : Collections.singletonList(globalGroup);
+   }
+
    public Iterator<Object[]> finish() {
       if (groups != null) {
          return new Iterator<Object[]>() {
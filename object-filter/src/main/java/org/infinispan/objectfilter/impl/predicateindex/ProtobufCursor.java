@@ -0,0 +1,231 @@
+package org.infinispan.objectfilter.impl.predicateindex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.infinispan.protostream.descriptors.Type;
+
+/**
+ * Reads the tags and values of a protobuf message directly from its serialized bytes, without copying the nested
+ * messages and without decoding the fields that are skipped.
+ *
+ * @since 16.0
+ */
+final class ProtobufCursor {
+
+   static final int WIRETYPE_VARINT = 0;
+   static final int WIRETYPE_FIXED64 = 1;
+   static final int WIRETYPE_LENGTH_DELIMITED = 2;
+   static final int WIRETYPE_START_GROUP = 3;
+   static final int WIRETYPE_END_GROUP = 4;
+   static final int WIRETYPE_FIXED32 = 5;
+
+   private static final int TAG_TYPE_NUM_BITS = 3;
+   private static final int TAG_TYPE_BIT_MASK = (1 << TAG_TYPE_NUM_BITS) - 1;
+
+   private final byte[] buf;
+
+   private int pos;
+
+   private int limit;
+
+   ProtobufCursor(byte[] buf, int offset, int length) {
+      this.buf = buf;
+      this.pos = offset;
+      this.limit = offset + length;
+   }
+
+   static int getTagFieldNumber(int tag) {
+      return tag >>> TAG_TYPE_NUM_BITS;
+   }
+
+   static int getTagWireType(int tag) {
+      return tag & TAG_TYPE_BIT_MASK;
+   }
+
+   /**
+    * @return the wire type the values of the given type are encoded with
+    */
+   static int getWireType(Type type) {
+      return switch (type) {
+         case DOUBLE, FIXED64, SFIXED64 -> WIRETYPE_FIXED64;
+         case FLOAT, FIXED32, SFIXED32 -> WIRETYPE_FIXED32;
+         case STRING, BYTES, MESSAGE -> WIRETYPE_LENGTH_DELIMITED;
+         case GROUP -> WIRETYPE_START_GROUP;
+         default -> WIRETYPE_VARINT;
+      };
+   }
+
+   int getPosition() {
+      return pos;
+   }
+
+   boolean isAtLimit() {
+      return pos >= limit;
+   }
+
+   /**
+    * @return the next tag or 0 if the current limit was reached
+    */
+   int readTag() throws IOException {
+      if (pos >= limit) {
+         return 0;
+      }
+      int tag = readVarint32();
+      if (getTagFieldNumber(tag) == 0) {
+         throw new IOException("Invalid tag " + tag + " at position " + pos);
+      }
+      return tag;
+   }
+
+   /**
+    * Restricts reading to the next {@code length} bytes.
+    *
+    * @return the previous limit, to be passed to {@link #popLimit}
+    */
+   int pushLimit(int length) throws IOException {
+      int newLimit = pos + length;
+      if (length < 0 || newLimit > limit) {
+         throw truncated();
+      }
+      int oldLimit = limit;
+      limit = newLimit;
+      return oldLimit;
+   }
+
+   /**
+    * Skips the unread bytes up to the current limit and restores the previous one.
+    */
+   void popLimit(int oldLimit) {
+      pos = limit;
+      limit = oldLimit;
+   }
+
+   int readLength() throws IOException {
+      int length = readVarint32();
+      if (length < 0 || pos + length > limit) {
+         throw truncated();
+      }
+      return length;
+   }
+
+   int readVarint32() throws IOException {
+      return (int) readVarint64();
+   }
+
+   long readVarint64() throws IOException {
+      long result = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+         if (pos >= limit) {
+            throw truncated();
+         }
+         byte b = buf[pos++];
+         result |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return result;
+         }
+      }
+      throw new IOException("Malformed varint at position " + pos);
+   }
+
+   int readFixed32() throws IOException {
+      if (pos + 4 > limit) {
+         throw truncated();
+      }
+      int p = pos;
+      pos += 4;
+      return (buf[p] & 0xFF)
+            | (buf[p + 1] & 0xFF) << 8
+            | (buf[p + 2] & 0xFF) << 16
+            | (buf[p + 3] & 0xFF) << 24;
+   }
+
+   long readFixed64() throws IOException {
+      return readFixed32() & 0xFFFFFFFFL | (long) readFixed32() << 32;
+   }
+
+   String readString() throws IOException {
+      int length = readLength();
+      String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+      pos += length;
+      return s;
+   }
+
+   byte[] readByteArray() throws IOException {
+      int length = readLength();
+      byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+      pos += length;
+      return bytes;
+   }
+
+   /**
+    * Reads a scalar value, boxed the same way protostream's {@code ProtobufParser} does.
+    */
+   Object readValue(Type type) throws IOException {
+      return switch (type) {
+         case DOUBLE -> Double.longBitsToDouble(readFixed64());
+         case FLOAT -> Float.intBitsToFloat(readFixed32());
+         case INT64, UINT64 -> readVarint64();
+         case FIXED64, SFIXED64 -> readFixed64();
+         case SINT64 -> {
+            long n = readVarint64();
+            yield (n >>> 1) ^ -(n & 1);
+         }
+         case INT32, UINT32, ENUM -> readVarint32();
+         case FIXED32, SFIXED32 -> readFixed32();
+         case SINT32 -> {
+            int n = readVarint32();
+            yield (n >>> 1) ^ -(n & 1);
+         }
+         case BOOL -> readVarint64() != 0;
+         case STRING -> readString();
+         case BYTES -> readByteArray();
+         default -> throw new IOException("Type " + type + " is not a scalar type");
+      };
+   }
+
+   /**
+    * Skips the value of the field whose tag was just read, without decoding it.
+    */
+   void skipField(int tag) throws IOException {
+      switch (getTagWireType(tag)) {
+         case WIRETYPE_VARINT -> readVarint64();
+         case WIRETYPE_FIXED64 -> skip(8);
+         case WIRETYPE_LENGTH_DELIMITED -> skip(readLength());
+         case WIRETYPE_START_GROUP -> skipGroup(getTagFieldNumber(tag));
+         case WIRETYPE_FIXED32 -> skip(4);
+         default -> throw new IOException("Unexpected wire type in tag " + tag + " at position " + pos);
+      }
+   }
+
+   /**
+    * Skips the remaining fields of a group, up to and including its end tag.
+    */
+   void skipGroup(int fieldNumber) throws IOException {
+      while (true) {
+         int tag = readTag();
+         if (tag == 0) {
+            throw truncated();
+         }
+         if (getTagWireType(tag) == WIRETYPE_END_GROUP) {
+            if (getTagFieldNumber(tag) != fieldNumber) {
+               throw new IOException("Mismatched end of group " + getTagFieldNumber(tag) + " at position " + pos);
+            }
+            return;
+         }
+         skipField(tag);
+      }
+   }
+
+   void skip(int length) throws IOException {
+      if (length < 0 || pos + length > limit) {
+         throw truncated();
+      }
+      pos += length;
+   }
+
+   private IOException truncated() {
+      return new IOException("Truncated protobuf message at position " + pos);
+   }
+}
@@ -6,29 +6,29 @@
 import org.infinispan.objectfilter.impl.logging.Log;
 import org.infinispan.objectfilter.impl.syntax.parser.ProtobufPropertyHelper;
 import org.infinispan.protostream.MessageContext;
-import org.infinispan.protostream.ProtobufParser;
 import org.infinispan.protostream.SerializationContext;
-import org.infinispan.protostream.TagHandler;
 import org.infinispan.protostream.WrappedMessage;
 import org.infinispan.protostream.descriptors.Descriptor;
 import org.infinispan.protostream.descriptors.FieldDescriptor;
-import org.infinispan.protostream.descriptors.GenericDescriptor;
 import org.infinispan.protostream.descriptors.JavaType;
+import org.infinispan.protostream.descriptors.Type;
 import org.jboss.logging.Logger;
 
 /**
+ * Evaluates the filters directly against the serialized protobuf bytes: only the fields referenced by the attribute
+ * tree are decoded, the other ones, nested messages included, are skipped without decoding, and the scan of a message
+ * stops as soon as all the non-repeated fields it references were seen.
+ *
  * @author anistor@redhat.com
  * @since 7.0
  */
-public final class ProtobufMatcherEvalContext extends MatcherEvalContext<Descriptor, FieldDescriptor, Integer> implements TagHandler {
+public final class ProtobufMatcherEvalContext extends MatcherEvalContext<Descriptor, FieldDescriptor, Integer> {
 
    private static final Log log = Logger.getMessageLogger(MethodHandles.lookup(), Log.class, ProtobufMatcherEvalContext.class.getName());
 
-   private boolean payloadStarted = false;
-   private int skipping = 0;
-
-   private byte[] payload;
-   private String entityTypeName;
+   // the offset of the payload in the instance, or -1 if the instance does not wrap a message
+   private int payloadOffset = -1;
+   private int payloadLength;
    private Descriptor payloadMessageDescriptor;
    private MessageContext messageContext;
 
@@ -39,7 +39,7 @@ public ProtobufMatcherEvalContext(Object userContext, Object eventType, Object k
       super(userContext, eventType, key, instance, metadata);
       this.serializationContext = serializationContext;
       try {
-         ProtobufParser.INSTANCE.parse(this, wrappedMessageDescriptor, (byte[]) getInstance());
+         parseWrapper((byte[]) getInstance());
       } catch (IOException e) {
          throw log.errorParsingProtobuf(e);
       }
@@ -50,33 +50,27 @@ public Descriptor getEntityType() {
       return payloadMessageDescriptor;
    }
 
-   @Override
-   public void onStart(GenericDescriptor descriptor) {
-   }
-
-   //todo [anistor] missing tags need to be fired with default value defined in proto schema or null if they admit null; missing messages need to be fired with null at end of the nesting level. BTW, seems like this is better to be included in Protostream as a feature
-   @Override
-   public void onTag(int fieldNumber, FieldDescriptor fieldDescriptor, Object tagValue) {
-      if (payloadStarted) {
-         if (skipping == 0) {
-            AttributeNode<FieldDescriptor, Integer> attrNode = currentNode.getChild(fieldNumber);
-            if (attrNode != null) { // process only 'interesting' tags
-               messageContext.markField(fieldNumber);
-               attrNode.processValue(tagValue, this);
-            }
-         }
-      } else {
-         switch (fieldNumber) {
+   /**
+    * Reads the type of the wrapped message and the position of its payload, without copying it.
+    */
+   private void parseWrapper(byte[] bytes) throws IOException {
+      ProtobufCursor in = new ProtobufCursor(bytes, 0, bytes.length);
+      String entityTypeName = null;
+      int tag;
+      while ((tag = in.readTag()) != 0) {
+         switch (ProtobufCursor.getTagFieldNumber(tag)) {
             case WrappedMessage.WRAPPED_DESCRIPTOR_FULL_NAME:
-               entityTypeName = (String) tagValue;
+               entityTypeName = in.readString();
                break;
 
             case WrappedMessage.WRAPPED_DESCRIPTOR_TYPE_ID:
-               entityTypeName = serializationContext.getDescriptorByTypeId((Integer) tagValue).getFullName();
+               entityTypeName = serializationContext.getDescriptorByTypeId(in.readVarint32()).getFullName();
                break;
 
             case WrappedMessage.WRAPPED_MESSAGE:
-               payload = (byte[]) tagValue;
+               payloadLength = in.readLength();
+               payloadOffset = in.getPosition();
+               in.skip(payloadLength);
                break;
 
             case WrappedMessage.WRAPPED_DOUBLE:
@@ -95,80 +89,122 @@ public void onTag(int fieldNumber, FieldDescriptor fieldDescriptor, Object tagVa
             case WrappedMessage.WRAPPED_SINT32:
             case WrappedMessage.WRAPPED_SINT64:
             case WrappedMessage.WRAPPED_ENUM:
+               // this is a primitive value, which we ignore for now due to lack of support for querying primitives
+               in.skipField(tag);
                break;
-            // this is a primitive value, which we ignore for now due to lack of support for querying primitives
 
             default:
-               throw new IllegalStateException("Unexpected field : " + fieldNumber);
+               throw new IllegalStateException("Unexpected field : " + ProtobufCursor.getTagFieldNumber(tag));
+         }
+      }
+
+      if (payloadOffset >= 0) {
+         if (entityTypeName == null) {
+            throw new IllegalStateException("Descriptor name is missing");
          }
+         payloadMessageDescriptor = serializationContext.getMessageDescriptor(entityTypeName);
       }
    }
 
    @Override
-   public void onStartNested(int fieldNumber, FieldDescriptor fieldDescriptor) {
-      if (payloadStarted) {
-         if (skipping == 0) {
-            AttributeNode<FieldDescriptor, Integer> attrNode = currentNode.getChild(fieldNumber);
-            if (attrNode != null) { // ignore 'uninteresting' tags
-               messageContext.markField(fieldNumber);
-               pushContext(fieldDescriptor, fieldDescriptor.getMessageType());
-               currentNode = attrNode;
-               return;
+   protected void processAttributes(AttributeNode<FieldDescriptor, Integer> node, Object instance) {
+      try {
+         messageContext = new MessageContext<>(null, null, payloadMessageDescriptor);
+         parseMessage(new ProtobufCursor((byte[]) instance, payloadOffset, payloadLength), 0);
+         processMissingFields();
+         for (AttributeNode<FieldDescriptor, Integer> childAttribute : node.getChildren()) {
+            if (childAttribute.getAttribute() >= ProtobufPropertyHelper.MIN_METADATA_FIELD_ATTRIBUTE_ID) {
+               Object attributeValue = node.cacheMetadataProjection(key, instance, metadata, childAttribute.getAttribute());
+               childAttribute.processValue(attributeValue, this);
             }
          }
-
-         // found an uninteresting nesting level, start skipping from here on until this level ends
-         skipping++;
-      } else {
-         throw new IllegalStateException("No nested message is supported");
+      } catch (IOException e) {
+         throw new RuntimeException(e);  // TODO [anistor] proper exception handling needed
       }
    }
 
-   @Override
-   public void onEndNested(int fieldNumber, FieldDescriptor fieldDescriptor) {
-      if (payloadStarted) {
-         if (skipping == 0) {
+   /**
+    * Processes the fields of the current message that are referenced by the current attribute node, up to the limit of
+    * the cursor or, for a group, up to its end tag.
+    *
+    * @param groupNumber the field number of the group being read, or 0 if this is not a group
+    */
+   private void parseMessage(ProtobufCursor in, int groupNumber) throws IOException {
+      // the groups must be read up to their end tag, so they are never cut short
+      int pendingFields = groupNumber == 0 ? countReferencedFields() : -1;
+      int tag;
+      while (pendingFields != 0 && (tag = in.readTag()) != 0) {
+         int fieldNumber = ProtobufCursor.getTagFieldNumber(tag);
+         int wireType = ProtobufCursor.getTagWireType(tag);
+         if (wireType == ProtobufCursor.WIRETYPE_END_GROUP) {
+            if (fieldNumber != groupNumber) {
+               throw new IOException("Unexpected end of group " + fieldNumber);
+            }
+            return;
+         }
+         AttributeNode<FieldDescriptor, Integer> attrNode = currentNode.getChild(fieldNumber);
+         FieldDescriptor fieldDescriptor = attrNode != null ? attrNode.getMetadata() : null;
+         if (fieldDescriptor == null) {
+            // an 'uninteresting' or unknown field
+            in.skipField(tag);
+            continue;
+         }
+         if (!fieldDescriptor.isRepeated() && pendingFields > 0 && !messageContext.isFieldMarked(fieldNumber)) {
+            pendingFields--;
+         }
+         messageContext.markField(fieldNumber);
+
+         Type type = fieldDescriptor.getType();
+         int expectedWireType = ProtobufCursor.getWireType(type);
+         if (type == Type.MESSAGE && wireType == expectedWireType) {
+            int oldLimit = in.pushLimit(in.readLength());
+            pushContext(fieldDescriptor, fieldDescriptor.getMessageType());
+            currentNode = attrNode;
+            parseMessage(in, 0);
+            popContext();
+            currentNode = currentNode.getParent();
+            in.popLimit(oldLimit);
+         } else if (type == Type.GROUP && wireType == expectedWireType) {
+            pushContext(fieldDescriptor, fieldDescriptor.getMessageType());
+            currentNode = attrNode;
+            parseMessage(in, fieldNumber);
             popContext();
             currentNode = currentNode.getParent();
+         } else if (wireType == expectedWireType) {
+            attrNode.processValue(in.readValue(type), this);
+         } else if (wireType == ProtobufCursor.WIRETYPE_LENGTH_DELIMITED && fieldDescriptor.isRepeated()
+               && expectedWireType != ProtobufCursor.WIRETYPE_LENGTH_DELIMITED && type != Type.GROUP) {
+            // a packed repeated scalar
+            int oldLimit = in.pushLimit(in.readLength());
+            while (!in.isAtLimit()) {
+               attrNode.processValue(in.readValue(type), this);
+            }
+            in.popLimit(oldLimit);
          } else {
-            skipping--;
+            throw new IOException("Unexpected wire type " + wireType + " for field " + fieldDescriptor.getFullName());
          }
-      } else {
-         throw new IllegalStateException("No nested message is supported");
       }
-   }
-
-   @Override
-   public void onEnd() {
-      if (payloadStarted) {
-         processMissingFields();
-      } else {
-         payloadStarted = true;
-
-         if (payload != null) {
-            if (entityTypeName == null) {
-               throw new IllegalStateException("Descriptor name is missing");
-            }
-
-            payloadMessageDescriptor = serializationContext.getMessageDescriptor(entityTypeName);
-            messageContext = new MessageContext<>(null, null, payloadMessageDescriptor);
-         }
+      if (groupNumber != 0) {
+         throw new IOException("Missing end of group " + groupNumber);
       }
    }
 
-   @Override
-   protected void processAttributes(AttributeNode<FieldDescriptor, Integer> node, Object instance) {
-      try {
-         ProtobufParser.INSTANCE.parse(this, payloadMessageDescriptor, payload);
-         for (AttributeNode<FieldDescriptor, Integer> childAttribute : node.getChildren()) {
-            if (childAttribute.getAttribute() >= ProtobufPropertyHelper.MIN_METADATA_FIELD_ATTRIBUTE_ID) {
-               Object attributeValue = node.cacheMetadataProjection(key, instance, metadata, childAttribute.getAttribute());
-               childAttribute.processValue(attributeValue, this);
+   /**
+    * @return the number of non-repeated fields of the current message referenced by the current attribute node, or -1
+    * if it references a repeated field, which may occur anywhere in the message
+    */
+   private int countReferencedFields() {
+      int count = 0;
+      for (AttributeNode<FieldDescriptor, Integer> child : currentNode.getChildren()) {
+         FieldDescriptor fieldDescriptor = child.getMetadata();
+         if (fieldDescriptor != null) {
+            if (fieldDescriptor.isRepeated()) {
+               return -1;
             }
+            count++;
          }
-      } catch (IOException e) {
-         throw new RuntimeException(e);  // TODO [anistor] proper exception handling needed
       }
+      return count;
    }
 
    private void pushContext(FieldDescriptor fieldDescriptor, Descriptor messageDescriptor) {
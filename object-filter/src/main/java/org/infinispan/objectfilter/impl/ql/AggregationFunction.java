@@ -15,10 +15,16 @@
  */
 package org.infinispan.objectfilter.impl.ql;
 
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.protostream.annotations.Proto;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
 /**
  * @author anistor@redhat.com
  * @since 9.0
  */
+@Proto
+@ProtoTypeId(ProtoStreamTypeIds.ICKLE_AGGREGATION_FUNCTION)
 public enum AggregationFunction {
    SUM,
    AVG,
@@ -0,0 +1,74 @@
+package org.infinispan.objectfilter.impl.predicateindex;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.infinispan.protostream.descriptors.Type;
+import org.junit.Test;
+
+/**
+ * @since 16.0
+ */
+public class ProtobufCursorTest {
+
+   @Test
+   public void testReadScalars() throws IOException {
+      byte[] bytes = {
+            (byte) 0xAC, 0x02,                  // varint 300
+            0x03,                               // sint32 -2
+            0x01, 0x00, 0x00, (byte) 0x80,      // fixed32 0x80000001
+            0x03, 'a', 'b', 'c',                // string "abc"
+            0x01                                // bool true
+      };
+      ProtobufCursor in = new ProtobufCursor(bytes, 0, bytes.length);
+      assertEquals(300, in.readValue(Type.INT32));
+      assertEquals(-2, in.readValue(Type.SINT32));
+      assertEquals(0x80000001, in.readValue(Type.FIXED32));
+      assertEquals("abc", in.readValue(Type.STRING));
+      assertEquals(true, in.readValue(Type.BOOL));
+      assertTrue(in.isAtLimit());
+   }
+
+   @Test
+   public void testSkipFields() throws IOException {
+      byte[] bytes = {
+            0x08, (byte) 0x96, 0x01,            // field 1, varint
+            0x12, 0x02, 0x00, 0x00,             // field 2, length delimited
+            0x1B, 0x08, 0x01, 0x1C,             // field 3, group containing field 1
+            0x25, 0x00, 0x00, 0x00, 0x00,       // field 4, fixed32
+            0x29, 0, 0, 0, 0, 0, 0, 0, 0,       // field 5, fixed64
+            0x32, 0x01, 0x07                    // field 6, length delimited
+      };
+      ProtobufCursor in = new ProtobufCursor(bytes, 0, bytes.length);
+      for (int fieldNumber = 1; fieldNumber < 6; fieldNumber++) {
+         int tag = in.readTag();
+         assertEquals(fieldNumber, ProtobufCursor.getTagFieldNumber(tag));
+         in.skipField(tag);
+      }
+      int tag = in.readTag();
+      assertEquals(6, ProtobufCursor.getTagFieldNumber(tag));
+      assertArrayEquals(new byte[]{0x07}, (byte[]) in.readValue(Type.BYTES));
+      assertEquals(0, in.readTag());
+   }
+
+   @Test
+   public void testLimits() throws IOException {
+      byte[] bytes = {0x02, 0x08, 0x01, 0x05};
+      ProtobufCursor in = new ProtobufCursor(bytes, 0, bytes.length);
+      int oldLimit = in.pushLimit(in.readLength());
+      assertEquals(1, ProtobufCursor.getTagFieldNumber(in.readTag()));
+      in.popLimit(oldLimit);
+      assertEquals(5, in.readValue(Type.UINT32));
+      assertTrue(in.isAtLimit());
+   }
+
+   @Test(expected = IOException.class)
+   public void testTruncated() throws IOException {
+      byte[] bytes = {0x0A, 0x05, 'a'};
+      ProtobufCursor in = new ProtobufCursor(bytes, 0, bytes.length);
+      in.skipField(in.readTag());
+   }
+}
@@ -13,6 +13,8 @@
 import org.infinispan.objectfilter.impl.aggregation.FieldAccumulator;
 import org.infinispan.objectfilter.impl.aggregation.RowGrouper;
 import org.infinispan.objectfilter.impl.syntax.parser.IckleParsingResult;
+import org.infinispan.query.core.impl.aggregation.PartialAggregation;
+import org.infinispan.query.core.impl.aggregation.PartialAggregator;
 import org.infinispan.query.core.stats.impl.LocalQueryStatistics;
 import org.infinispan.query.dsl.QueryFactory;
 import org.infinispan.query.dsl.impl.BaseQuery;
@@ -34,12 +36,42 @@
 
    private final boolean twoPhaseAcc;
 
+   /**
+    * Computes the partial aggregations on the nodes owning the data, if the base query reads the cache without an
+    * index, or {@code null}.
+    */
+   private final PartialAggregator partialAggregator;
+
    public AggregatingQuery(QueryFactory queryFactory, AdvancedCache<?, ?> cache,
                            String queryString, Map<String, Object> namedParameters,
                            int noOfGroupingColumns, List<FieldAccumulator> accumulators, boolean twoPhaseAcc,
                            ObjectFilter objectFilter,
                            long startOffset, int maxResults,
                            BaseQuery<?> baseQuery, LocalQueryStatistics queryStatistics, boolean local) {
+      this(queryFactory, cache, queryString, namedParameters, noOfGroupingColumns, accumulators, twoPhaseAcc, null,
+            objectFilter, startOffset, maxResults, baseQuery, queryStatistics, local);
+   }
+
+   /**
+    * Creates an aggregating query merging the partial aggregations computed by the nodes owning the data read by a
+    * non-indexed base query.
+    */
+   public AggregatingQuery(QueryFactory queryFactory, AdvancedCache<?, ?> cache,
+                           String queryString, Map<String, Object> namedParameters,
+                           PartialAggregator partialAggregator, ObjectFilter objectFilter,
+                           long startOffset, int maxResults,
+                           EmbeddedQuery<?> baseQuery, LocalQueryStatistics queryStatistics, boolean local) {
+      this(queryFactory, cache, queryString, namedParameters, partialAggregator.getNoOfGroupingColumns(),
+            partialAggregator.mergingAccumulators(), true, partialAggregator,
+            objectFilter, startOffset, maxResults, baseQuery, queryStatistics, local);
+   }
+
+   private AggregatingQuery(QueryFactory queryFactory, AdvancedCache<?, ?> cache,
+                            String queryString, Map<String, Object> namedParameters,
+                            int noOfGroupingColumns, List<FieldAccumulator> accumulators, boolean twoPhaseAcc,
+                            PartialAggregator partialAggregator, ObjectFilter objectFilter,
+                            long startOffset, int maxResults,
+                            BaseQuery<?> baseQuery, LocalQueryStatistics queryStatistics, boolean local) {
       super(queryFactory, cache, queryString, IckleParsingResult.StatementType.SELECT, namedParameters, objectFilter,
             startOffset, maxResults, baseQuery, queryStatistics, local, false);
       if (!baseQuery.hasProjections()) {
@@ -51,14 +83,21 @@ public AggregatingQuery(QueryFactory queryFactory, AdvancedCache<?, ?> cache,
       this.noOfGroupingColumns = noOfGroupingColumns;
       this.accumulators = accumulators != null ? accumulators.toArray(new FieldAccumulator[0]) : null;
       this.twoPhaseAcc = twoPhaseAcc;
+      this.partialAggregator = partialAggregator;
    }
 
    @Override
    protected CloseableIterator<?> getBaseIterator() {
       // get the base iterator and add grouping on top of it
       RowGrouper grouper = new RowGrouper(noOfGroupingColumns, accumulators, twoPhaseAcc);
-      try (CloseableIterator<Object[]> iterator = baseQuery.iterator()) {
-         iterator.forEachRemaining(grouper::addRow);
+      if (partialAggregator != null) {
+         // merge the groups computed by each node
+         PartialAggregation partialAggregation = ((EmbeddedQuery<?>) baseQuery).aggregate(partialAggregator);
+         partialAggregation.rows().forEach(grouper::addRow);
+      } else {
+         try (CloseableIterator<Object[]> iterator = baseQuery.iterator()) {
+            iterator.forEachRemaining(grouper::addRow);
+         }
       }
       return Closeables.iterator(grouper.finish());
    }
@@ -80,6 +119,7 @@ public String toString() {
             ", namedParameters=" + namedParameters +
             ", noOfGroupingColumns=" + noOfGroupingColumns +
             ", accumulators=" + Arrays.toString(accumulators) +
+            ", partialAggregator=" + partialAggregator +
             ", projection=" + Arrays.toString(projection) +
             ", startOffset=" + startOffset +
             ", maxResults=" + maxResults +
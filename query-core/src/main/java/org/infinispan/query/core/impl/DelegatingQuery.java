@@ -13,6 +13,7 @@
 import org.infinispan.commons.api.query.EntityEntry;
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.objectfilter.impl.syntax.parser.IckleParsingResult;
+import org.infinispan.query.core.impl.resultcache.QueryResultCache;
 import org.infinispan.query.dsl.Query;
 import org.infinispan.query.dsl.QueryFactory;
 import org.infinispan.query.dsl.QueryResult;
@@ -105,16 +106,46 @@ private Query<T> createQuery() {
 
    @Override
    public List<T> list() {
+      if (resultCache() != null) {
+         return execute().list();
+      }
       return createQuery().list();
    }
 
    @Override
    public QueryResult<T> execute() {
+      QueryResultCache resultCache = resultCache();
+      if (resultCache != null) {
+         return resultCache.computeIfAbsent(resultCacheKey(), () -> createQuery().execute());
+      }
       return createQuery().execute();
    }
 
+   private QueryResultCache.Key resultCacheKey() {
+      return new QueryResultCache.Key(queryEngine, queryString, namedParameters, startOffset, maxResults,
+            hitCountAccuracy, scoreRequired, local);
+   }
+
+   /**
+    * @return the cache of the query results if enabled and applicable to this query, or {@code null}. Only the
+    * results of the select statements are cached.
+    */
+   private QueryResultCache resultCache() {
+      QueryResultCache resultCache = queryEngine.getQueryResultCache();
+      if (resultCache == null || parsingResult.getStatementType() != IckleParsingResult.StatementType.SELECT) {
+         return null;
+      }
+      return resultCache;
+   }
+
    @Override
    public CompletionStage<org.infinispan.commons.api.query.QueryResult<T>> executeAsync() {
+      QueryResultCache resultCache = resultCache();
+      if (resultCache != null) {
+         CompletionStage<? extends org.infinispan.commons.api.query.QueryResult<T>> result =
+               resultCache.computeIfAbsentAsync(resultCacheKey(), () -> createQuery().execute());
+         return (CompletionStage<org.infinispan.commons.api.query.QueryResult<T>>) result;
+      }
       return createQuery().executeAsync();
    }
 
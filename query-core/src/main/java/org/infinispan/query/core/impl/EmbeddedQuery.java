@@ -7,8 +7,10 @@
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.CacheStream;
@@ -25,7 +27,10 @@
 import org.infinispan.objectfilter.impl.syntax.parser.IckleParsingResult;
 import org.infinispan.protostream.annotations.ProtoFactory;
 import org.infinispan.protostream.annotations.ProtoTypeId;
+import org.infinispan.query.core.impl.aggregation.PartialAggregation;
+import org.infinispan.query.core.impl.aggregation.PartialAggregator;
 import org.infinispan.query.core.impl.eventfilter.IckleFilterAndConverter;
+import org.infinispan.query.core.impl.fieldindex.FieldIndexLookup;
 import org.infinispan.query.core.stats.impl.LocalQueryStatistics;
 import org.infinispan.query.dsl.QueryFactory;
 import org.infinispan.query.dsl.QueryResult;
@@ -45,13 +50,21 @@
 
    private final int defaultMaxResults;
 
+   private final FieldIndexLookup fieldIndexLookup;
+
+   /**
+    * @param fieldIndexLookup the lookup of the in-memory field index giving the keys that may match, or {@code null}
+    *                         to read all the entries.
+    */
    public EmbeddedQuery(QueryEngine<?> queryEngine, QueryFactory queryFactory, AdvancedCache<?, ?> cache,
                         String queryString, IckleParsingResult.StatementType statementType,
                         Map<String, Object> namedParameters, String[] projection,
-                        long startOffset, int maxResults, int defaultMaxResults, LocalQueryStatistics queryStatistics, boolean local) {
+                        long startOffset, int maxResults, int defaultMaxResults, LocalQueryStatistics queryStatistics, boolean local,
+                        FieldIndexLookup fieldIndexLookup) {
       super(queryFactory, cache, queryString, statementType, namedParameters, projection, startOffset, maxResults, queryStatistics, local);
       this.queryEngine = queryEngine;
       this.defaultMaxResults = defaultMaxResults;
+      this.fieldIndexLookup = fieldIndexLookup;
 
       if (maxResults == -1) {
          // apply the default
@@ -88,10 +101,40 @@ protected Comparator<Comparable<?>[]> getComparator() {
 
    @Override
    protected ClosableIteratorWithCount<ObjectFilter.FilterResult> getInternalIterator() {
+      Set<Object> candidateKeys = candidateKeys();
+      if (candidateKeys != null && candidateKeys.isEmpty()) {
+         return Closeables.iteratorWithCount(Stream.empty());
+      }
+      return Closeables.iteratorWithCount(resultStream(candidateKeys));
+   }
+
+   /**
+    * Groups the rows matching the query and computes their aggregations on the nodes owning them, so only the partial
+    * aggregation of each node is transferred instead of all the rows.
+    *
+    * @return the partial aggregation of all the rows matching the query, whose groups are not finished yet
+    */
+   PartialAggregation aggregate(PartialAggregator aggregator) {
+      partitionHandlingSupport.checkCacheAvailable();
+      Set<Object> candidateKeys = candidateKeys();
+      if (candidateKeys != null && candidateKeys.isEmpty()) {
+         return aggregator.get();
+      }
+      try (CacheStream<ObjectFilter.FilterResult> resultStream = resultStream(candidateKeys)) {
+         PartialAggregation partialAggregation = resultStream.collect(aggregator, PartialAggregation.AddRow.INSTANCE,
+               PartialAggregation.Combine.INSTANCE);
+         return partialAggregation != null ? partialAggregation : aggregator.get();
+      }
+   }
+
+   private CacheStream<ObjectFilter.FilterResult> resultStream(Set<Object> candidateKeys) {
       IckleFilterAndConverter<Object, Object> ickleFilter = (IckleFilterAndConverter<Object, Object>) createFilter();
       AdvancedCache<Object, Object> cache = (AdvancedCache<Object, Object>) (isLocal() ? this.cache.withFlags(Flag.CACHE_MODE_LOCAL) : this.cache);
 
       CacheStream<CacheEntry<Object, Object>> entryStream = cache.cacheEntrySet().stream();
+      if (candidateKeys != null) {
+         entryStream = entryStream.filterKeys(candidateKeys);
+      }
       if (timeout > 0) {
          entryStream = entryStream.timeout(timeout, TimeUnit.NANOSECONDS);
       }
@@ -99,7 +142,15 @@ protected ClosableIteratorWithCount<ObjectFilter.FilterResult> getInternalIterat
       if (timeout > 0) {
          resultStream = resultStream.timeout(timeout, TimeUnit.NANOSECONDS);
       }
-      return Closeables.iteratorWithCount(resultStream);
+      return resultStream;
+   }
+
+   /**
+    * @return the keys that may match the query according to the in-memory field index, or {@code null} if all the
+    * entries must be read.
+    */
+   private Set<Object> candidateKeys() {
+      return fieldIndexLookup != null ? fieldIndexLookup.candidateKeys(namedParameters, isLocal(), timeout) : null;
    }
 
    @Override
@@ -126,7 +177,15 @@ public int executeStatement() {
       IckleFilterAndConverter<Object, Object> ickleFilter = (IckleFilterAndConverter<Object, Object>) createFilter();
       AdvancedCache<Object, Object> cache = (AdvancedCache<Object, Object>) (isLocal() ? this.cache.withFlags(Flag.CACHE_MODE_LOCAL) : this.cache);
 
+      Set<Object> candidateKeys = candidateKeys();
+      if (candidateKeys != null && candidateKeys.isEmpty()) {
+         if (queryStatistics.isEnabled()) recordQuery(System.nanoTime() - start);
+         return 0;
+      }
       CacheStream<CacheEntry<Object, Object>> entryStream = cache.cacheEntrySet().stream();
+      if (candidateKeys != null) {
+         entryStream = entryStream.filterKeys(candidateKeys);
+      }
       if (timeout > 0) {
          entryStream = entryStream.timeout(timeout, TimeUnit.NANOSECONDS);
       }
@@ -171,6 +230,7 @@ public String toString() {
             ", maxResults=" + maxResults +
             ", defaultMaxResults=" + defaultMaxResults +
             ", timeout=" + timeout +
+            ", fieldIndexLookup=" + fieldIndexLookup +
             '}';
    }
 }
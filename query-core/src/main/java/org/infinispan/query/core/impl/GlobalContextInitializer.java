@@ -6,14 +6,26 @@
 
 @ProtoSchema(
       allowNullFields = true,
-      dependsOn = org.infinispan.marshall.protostream.impl.GlobalContextInitializer.class,
+      dependsOn = {
+            org.infinispan.marshall.protostream.impl.GlobalContextInitializer.class,
+            org.infinispan.objectfilter.impl.GlobalContextInitializer.class
+      },
       includeClasses = {
             org.infinispan.query.core.impl.EmbeddedQuery.DeleteFunction.class,
+            org.infinispan.query.core.impl.aggregation.AccumulatorDefinition.class,
+            org.infinispan.query.core.impl.aggregation.PartialAggregation.class,
+            org.infinispan.query.core.impl.aggregation.PartialAggregation.AddRow.class,
+            org.infinispan.query.core.impl.aggregation.PartialAggregation.Combine.class,
+            org.infinispan.query.core.impl.aggregation.PartialAggregator.class,
             org.infinispan.query.core.impl.continuous.ContinuousQueryResult.class,
             org.infinispan.query.core.impl.continuous.ContinuousQueryResult.ResultType.class,
             org.infinispan.query.core.impl.continuous.IckleContinuousQueryCacheEventFilterConverter.class,
             org.infinispan.query.core.impl.eventfilter.IckleCacheEventFilterConverter.class,
             org.infinispan.query.core.impl.eventfilter.IckleFilterAndConverter.class,
+            org.infinispan.query.core.impl.fieldindex.FieldIndexLookupResult.class,
+            org.infinispan.query.core.impl.fieldindex.FieldIndexLookupTask.class,
+            org.infinispan.query.core.impl.resultcache.SegmentVersions.class,
+            org.infinispan.query.core.impl.resultcache.SegmentVersionsTask.class,
       },
       schemaFileName = "global.query.core.proto",
       schemaFilePath = "proto/generated",
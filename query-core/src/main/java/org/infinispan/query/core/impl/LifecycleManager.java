@@ -16,10 +16,17 @@
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.factories.annotations.InfinispanModule;
+import org.infinispan.factories.impl.BasicComponentRegistry;
+import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.interceptors.impl.EntryWrappingInterceptor;
 import org.infinispan.lifecycle.ModuleLifecycle;
 import org.infinispan.marshall.protostream.impl.SerializationContextRegistry;
 import org.infinispan.objectfilter.impl.ReflectionMatcher;
 import org.infinispan.query.core.QueryProducerImpl;
+import org.infinispan.query.core.impl.fieldindex.FieldIndexInterceptor;
+import org.infinispan.query.core.impl.fieldindex.FieldIndexManager;
+import org.infinispan.query.core.impl.resultcache.QueryResultCache;
+import org.infinispan.query.core.impl.resultcache.QueryResultCacheInterceptor;
 import org.infinispan.query.core.stats.IndexStatistics;
 import org.infinispan.query.core.stats.impl.IndexStatisticsSnapshotImpl;
 import org.infinispan.query.core.stats.impl.LocalQueryStatistics;
@@ -45,14 +52,46 @@ public void cacheStarting(ComponentRegistry cr, Configuration cfg, String cacheN
          AdvancedCache<?, ?> cache = cr.getComponent(Cache.class).getAdvancedCache();
          ClassLoader aggregatedClassLoader = makeAggregatedClassLoader(cr.getGlobalComponentRegistry().getGlobalConfiguration().classLoader());
          cr.registerComponent(new ReflectionMatcher(aggregatedClassLoader), ReflectionMatcher.class);
+         if (FieldIndexManager.isEnabled(cfg)) {
+            registerFieldIndexes(cr, cfg);
+         }
+         if (QueryResultCache.isEnabled(cfg)) {
+            registerQueryResultCache(cr, cfg);
+         }
          QueryEngine<Object> engine = new QueryEngine<>(cache);
          cr.registerComponent(engine, QueryEngine.class);
          cr.registerComponent(new QueryProducerImpl(engine), QueryProducer.class);
       }
    }
 
+   private void registerFieldIndexes(ComponentRegistry cr, Configuration cfg) {
+      BasicComponentRegistry bcr = cr.getComponent(BasicComponentRegistry.class);
+      FieldIndexManager fieldIndexManager = new FieldIndexManager(cfg);
+      bcr.registerComponent(FieldIndexManager.class, fieldIndexManager, true);
+
+      AsyncInterceptorChain ic = bcr.getComponent(AsyncInterceptorChain.class).wired();
+      EntryWrappingInterceptor wrappingInterceptor = ic.findInterceptorExtending(EntryWrappingInterceptor.class);
+      ic.addInterceptorBefore(new FieldIndexInterceptor(fieldIndexManager), wrappingInterceptor.getClass());
+      bcr.addDynamicDependency(AsyncInterceptorChain.class.getName(), FieldIndexManager.class.getName());
+   }
+
+   private void registerQueryResultCache(ComponentRegistry cr, Configuration cfg) {
+      BasicComponentRegistry bcr = cr.getComponent(BasicComponentRegistry.class);
+      QueryResultCache queryResultCache = new QueryResultCache(cfg);
+      bcr.registerComponent(QueryResultCache.class, queryResultCache, true);
+
+      AsyncInterceptorChain ic = bcr.getComponent(AsyncInterceptorChain.class).wired();
+      EntryWrappingInterceptor wrappingInterceptor = ic.findInterceptorExtending(EntryWrappingInterceptor.class);
+      ic.addInterceptorBefore(new QueryResultCacheInterceptor(queryResultCache), wrappingInterceptor.getClass());
+      bcr.addDynamicDependency(AsyncInterceptorChain.class.getName(), QueryResultCache.class.getName());
+   }
+
    @Override
    public void cacheStarted(ComponentRegistry cr, String cacheName) {
+      FieldIndexManager fieldIndexManager = cr.getComponent(FieldIndexManager.class);
+      if (fieldIndexManager != null) {
+         fieldIndexManager.start();
+      }
    }
 
    /**
@@ -249,5 +249,25 @@ public interface Log extends BasicLogger {
    @Message(value = "Hibernate Search updates are not keeping up. Look into increasing index writer queue and/or thread pool sizes.", id = 14067)
    CacheBackpressureFullException hibernateSearchBackpressure();
 
+   @LogMessage(level = WARN)
+   @Message(value = "The field '%s' cannot have an in-memory index in cache '%s': %s", id = 14068)
+   void fieldIndexNotSupported(String field, String cacheName, String reason);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to build the in-memory index of field '%s' in cache '%s' for segments %s, queries will not use it", id = 14069)
+   void failedToBuildFieldIndex(@Cause Throwable cause, String field, String cacheName, IntSet segments);
+
+   @LogMessage(level = DEBUG)
+   @Message(value = "%1$d of %2$d entries reindexed in %3$d ms, estimated remaining time %4$d ms", id = 14070)
+   void indexingProgress(long processedCount, long totalCount, long elapsedMs, long remainingMs);
+
+   @LogMessage(level = INFO)
+   @Message(value = "Resuming the reindexing of cache '%s', skipping the %d segments already reindexed", id = 14071)
+   void resumingIndexing(String cacheName, int completedSegments);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to update the mass indexer checkpoint '%s', an interrupted reindexing will restart from the beginning", id = 14072)
+   void failedToWriteMassIndexerCheckpoint(String path, @Cause Throwable cause);
+
    // !!!!!! When adding anything new here please check the last used id in org.infinispan.query.core.impl.Log !!!!!!
 }
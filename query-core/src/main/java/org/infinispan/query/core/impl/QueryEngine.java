@@ -37,7 +37,12 @@
 import org.infinispan.objectfilter.impl.syntax.parser.IckleParsingResult;
 import org.infinispan.objectfilter.impl.syntax.parser.ObjectPropertyHelper;
 import org.infinispan.objectfilter.impl.syntax.parser.RowPropertyHelper;
+import org.infinispan.query.core.impl.aggregation.AccumulatorDefinition;
+import org.infinispan.query.core.impl.aggregation.PartialAggregator;
 import org.infinispan.query.core.impl.eventfilter.IckleFilterAndConverter;
+import org.infinispan.query.core.impl.fieldindex.FieldIndexLookup;
+import org.infinispan.query.core.impl.fieldindex.FieldIndexManager;
+import org.infinispan.query.core.impl.resultcache.QueryResultCache;
 import org.infinispan.query.core.stats.impl.LocalQueryStatistics;
 import org.infinispan.query.dsl.Query;
 import org.infinispan.query.dsl.QueryFactory;
@@ -73,6 +78,10 @@
 
    protected LocalQueryStatistics queryStatistics;
 
+   protected final FieldIndexManager fieldIndexManager;
+
+   protected final QueryResultCache queryResultCache;
+
    protected static final BooleanFilterNormalizer booleanFilterNormalizer = new BooleanFilterNormalizer();
 
    protected QueryEngine(AdvancedCache<?, ?> cache, Class<? extends Matcher> matcherImplClass) {
@@ -83,6 +92,18 @@ protected QueryEngine(AdvancedCache<?, ?> cache, Class<? extends Matcher> matche
       this.matcher = SecurityActions.getCacheComponentRegistry(cache).getComponent(matcherImplClass);
       this.defaultMaxResults = cache.getCacheConfiguration().query().defaultMaxResults();
       propertyHelper = ((BaseMatcher<TypeMetadata, ?, ?>) matcher).getPropertyHelper();
+      this.fieldIndexManager = SecurityActions.getCacheComponentRegistry(cache).getComponent(FieldIndexManager.class);
+      if (fieldIndexManager != null) {
+         fieldIndexManager.registerEngine(cache, matcher, propertyHelper);
+      }
+      this.queryResultCache = SecurityActions.getCacheComponentRegistry(cache).getComponent(QueryResultCache.class);
+   }
+
+   /**
+    * @return the cache of the query results, or {@code null} if it is not enabled.
+    */
+   QueryResultCache getQueryResultCache() {
+      return queryResultCache;
    }
 
    QueryEngine(AdvancedCache<?, ?> cache) {
@@ -180,7 +201,7 @@ protected BaseQuery<?> buildQueryWithAggregations(QueryFactory queryFactory, Str
       }
 
       LinkedHashMap<String, Integer> inColumns = new LinkedHashMap<>();
-      List<FieldAccumulator> accumulators = new LinkedList<>();
+      List<AccumulatorDefinition> accumulators = new LinkedList<>();
       RowPropertyHelper.ColumnMetadata[] _columns = new RowPropertyHelper.ColumnMetadata[columns.size()];
       for (PropertyPath<?> p : columns.keySet()) {
          RowPropertyHelper.ColumnMetadata c = columns.get(p);
@@ -192,8 +213,7 @@ protected BaseQuery<?> buildQueryWithAggregations(QueryFactory queryFactory, Str
             inColumns.put(asStringPath, inIdx);
          }
          if (p instanceof AggregationPropertyPath) {
-            FieldAccumulator acc = FieldAccumulator.makeAccumulator(((AggregationPropertyPath) p).getAggregationFunction(), inIdx, c.getColumnIndex(), c.getPropertyType());
-            accumulators.add(acc);
+            accumulators.add(new AccumulatorDefinition(((AggregationPropertyPath) p).getAggregationFunction(), inIdx, c.getColumnIndex(), c.getPropertyType()));
          }
       }
 
@@ -259,9 +279,26 @@ protected BaseQuery<?> buildQueryWithAggregations(QueryFactory queryFactory, Str
 
       // second phase: grouping, aggregation, 'having' clause filtering, sorting and pagination
       String secondPhaseQueryStr = secondPhaseQuery.toString();
-      return new AggregatingQuery<>(queryFactory, cache, secondPhaseQueryStr, namedParameters,
-            noOfGroupingColumns, accumulators, false,
+      return makeAggregatingQuery(queryFactory, secondPhaseQueryStr, namedParameters,
+            new PartialAggregator(noOfGroupingColumns, accumulators),
             getObjectFilter(new RowMatcher(_columns), secondPhaseQueryStr, namedParameters, null),
+            startOffset, maxResults, baseQuery, local);
+   }
+
+   /**
+    * Creates the query grouping and aggregating the rows matching the base query. If the base query reads the cache
+    * without an index, the nodes owning the data group their own rows and only their partial aggregations are merged
+    * by this node.
+    */
+   protected final AggregatingQuery<?> makeAggregatingQuery(QueryFactory queryFactory, String queryString, Map<String, Object> namedParameters,
+                                                           PartialAggregator partialAggregator, ObjectFilter objectFilter,
+                                                           long startOffset, int maxResults, BaseQuery<?> baseQuery, boolean local) {
+      if (baseQuery instanceof EmbeddedQuery<?> embeddedQuery) {
+         return new AggregatingQuery<>(queryFactory, cache, queryString, namedParameters, partialAggregator, objectFilter,
+               startOffset, maxResults, embeddedQuery, queryStatistics, local);
+      }
+      return new AggregatingQuery<>(queryFactory, cache, queryString, namedParameters,
+            partialAggregator.getNoOfGroupingColumns(), partialAggregator.updatingAccumulators(), false, objectFilter,
             startOffset, maxResults, baseQuery, queryStatistics, local);
    }
 
@@ -476,7 +513,18 @@ protected BaseQuery<?> buildQueryNoAggregations(QueryFactory queryFactory, Strin
       }
 
       return new EmbeddedQuery<>(this, queryFactory, cache, queryString, parsingResult.getStatementType(), namedParameters,
-            parsingResult.getProjections(), startOffset, maxResults, defaultMaxResults, queryStatistics, local);
+            parsingResult.getProjections(), startOffset, maxResults, defaultMaxResults, queryStatistics, local,
+            findFieldIndexLookup(parsingResult, normalizedWhereClause));
+   }
+
+   /**
+    * @return the lookup of the in-memory field index the non-indexed query can use to read only the entries that may
+    * match, or {@code null} if there is none.
+    */
+   protected final FieldIndexLookup findFieldIndexLookup(IckleParsingResult<TypeMetadata> parsingResult, BooleanExpr normalizedWhereClause) {
+      return fieldIndexManager != null
+            ? fieldIndexManager.findLookup(matcher, parsingResult.getTargetEntityName(), normalizedWhereClause)
+            : null;
    }
 
    protected IckleParsingResult<TypeMetadata> parse(String queryString) {
@@ -0,0 +1,91 @@
+package org.infinispan.query.core.impl.aggregation;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.objectfilter.impl.aggregation.FieldAccumulator;
+import org.infinispan.objectfilter.impl.ql.AggregationFunction;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
+/**
+ * Defines a {@link FieldAccumulator}, so it can be created by the nodes computing the aggregation on their own data.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.QUERY_ACCUMULATOR_DEFINITION)
+public final class AccumulatorDefinition {
+
+   @ProtoField(1)
+   final AggregationFunction function;
+
+   /**
+    * The column of the aggregated value in the rows matching the query.
+    */
+   @ProtoField(2)
+   final int inPos;
+
+   /**
+    * The column of the aggregate in the rows of the groups.
+    */
+   @ProtoField(3)
+   final int outPos;
+
+   private final Class<?> propertyType;
+
+   public AccumulatorDefinition(AggregationFunction function, int inPos, int outPos, Class<?> propertyType) {
+      this.function = function;
+      this.inPos = inPos;
+      this.outPos = outPos;
+      this.propertyType = propertyType;
+   }
+
+   @ProtoFactory
+   AccumulatorDefinition(AggregationFunction function, int inPos, int outPos, String propertyTypeName) {
+      this(function, inPos, outPos, loadPropertyType(function, propertyTypeName));
+   }
+
+   @ProtoField(4)
+   String getPropertyTypeName() {
+      return propertyType.getName();
+   }
+
+   /**
+    * Only SUM and AVG depend on the type of the property, which is then the numeric type of their output. The other
+    * aggregations only require a {@link Comparable} type, so the classes of the domain need not be loaded.
+    */
+   private static Class<?> loadPropertyType(AggregationFunction function, String propertyTypeName) {
+      if (function != AggregationFunction.SUM && function != AggregationFunction.AVG) {
+         return Comparable.class;
+      }
+      try {
+         return Class.forName(propertyTypeName);
+      } catch (ClassNotFoundException e) {
+         throw new CacheException(e);
+      }
+   }
+
+   /**
+    * @return the accumulator aggregating the values of the rows matching the query.
+    */
+   public FieldAccumulator updating() {
+      return FieldAccumulator.makeAccumulator(function, inPos, outPos, propertyType);
+   }
+
+   /**
+    * @return the accumulator merging the partial aggregates found in the rows of the groups.
+    */
+   public FieldAccumulator merging() {
+      return FieldAccumulator.makeAccumulator(function, outPos, outPos, propertyType);
+   }
+
+   @Override
+   public String toString() {
+      return "AccumulatorDefinition{" +
+            "function=" + function +
+            ", inPos=" + inPos +
+            ", outPos=" + outPos +
+            ", propertyType=" + propertyType.getName() +
+            '}';
+   }
+}
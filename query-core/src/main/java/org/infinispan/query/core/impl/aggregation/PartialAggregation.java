@@ -0,0 +1,176 @@
+package org.infinispan.query.core.impl.aggregation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.marshall.protostream.impl.MarshallableArray;
+import org.infinispan.objectfilter.ObjectFilter;
+import org.infinispan.objectfilter.impl.aggregation.FieldAccumulator;
+import org.infinispan.objectfilter.impl.aggregation.RowGrouper;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
+/**
+ * The groups of a subset of the rows matching a query, with the partial state of their aggregations: counters, sums,
+ * minimum and maximum values. Each node computes the partial aggregation of its own rows, so only the groups are
+ * transferred to the node executing the query, where they are merged.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.QUERY_PARTIAL_AGGREGATION)
+public final class PartialAggregation {
+
+   private final int noOfGroupingColumns;
+
+   private final List<AccumulatorDefinition> accumulators;
+
+   /**
+    * Groups the rows matching the query.
+    */
+   private RowGrouper updater;
+
+   /**
+    * Merges the groups of other partial aggregations.
+    */
+   private RowGrouper merger;
+
+   PartialAggregation(int noOfGroupingColumns, List<AccumulatorDefinition> accumulators) {
+      this.noOfGroupingColumns = noOfGroupingColumns;
+      this.accumulators = accumulators;
+   }
+
+   @ProtoFactory
+   PartialAggregation(int noOfGroupingColumns, List<AccumulatorDefinition> accumulators, int rowLength,
+                      MarshallableArray<Object> values) {
+      this(noOfGroupingColumns, accumulators);
+      Object[] rowValues = MarshallableArray.unwrap(values);
+      if (rowValues != null) {
+         for (int i = 0; i < rowValues.length; i += rowLength) {
+            merger().addRow(Arrays.copyOfRange(rowValues, i, i + rowLength));
+         }
+      }
+   }
+
+   @ProtoField(1)
+   int getNoOfGroupingColumns() {
+      return noOfGroupingColumns;
+   }
+
+   @ProtoField(2)
+   List<AccumulatorDefinition> getAccumulators() {
+      return accumulators;
+   }
+
+   @ProtoField(3)
+   int getRowLength() {
+      return noOfGroupingColumns + accumulators.size();
+   }
+
+   @ProtoField(4)
+   MarshallableArray<Object> getValues() {
+      List<Object[]> rows = rows();
+      int rowLength = getRowLength();
+      Object[] rowValues = new Object[rows.size() * rowLength];
+      for (int i = 0; i < rows.size(); i++) {
+         System.arraycopy(rows.get(i), 0, rowValues, i * rowLength, rowLength);
+      }
+      return MarshallableArray.create(rowValues);
+   }
+
+   void add(Object[] row) {
+      if (updater == null) {
+         updater = new RowGrouper(noOfGroupingColumns, accumulators(false), false);
+      }
+      updater.addRow(row);
+   }
+
+   void combine(PartialAggregation other) {
+      for (Object[] row : other.rows()) {
+         merger().addRow(row);
+      }
+   }
+
+   /**
+    * @return the rows of the groups, with the partial state of the aggregations found at the output position of the
+    * accumulators
+    */
+   public List<Object[]> rows() {
+      if (updater == null) {
+         return merger != null ? merger.partialRows() : Collections.emptyList();
+      }
+      if (merger == null) {
+         return updater.partialRows();
+      }
+      for (Object[] row : updater.partialRows()) {
+         merger.addRow(row);
+      }
+      updater = null;
+      return merger.partialRows();
+   }
+
+   private RowGrouper merger() {
+      if (merger == null) {
+         merger = new RowGrouper(noOfGroupingColumns, accumulators(true), true);
+      }
+      return merger;
+   }
+
+   private FieldAccumulator[] accumulators(boolean merging) {
+      FieldAccumulator[] fieldAccumulators = new FieldAccumulator[accumulators.size()];
+      for (int i = 0; i < fieldAccumulators.length; i++) {
+         AccumulatorDefinition definition = accumulators.get(i);
+         fieldAccumulators[i] = merging ? definition.merging() : definition.updating();
+      }
+      return fieldAccumulators;
+   }
+
+   @Override
+   public String toString() {
+      return "PartialAggregation{" +
+            "noOfGroupingColumns=" + noOfGroupingColumns +
+            ", accumulators=" + accumulators +
+            '}';
+   }
+
+   /**
+    * Adds the projection of a row matching the query to a partial aggregation.
+    */
+   @ProtoTypeId(ProtoStreamTypeIds.QUERY_PARTIAL_AGGREGATION_ADD_ROW)
+   public static final class AddRow implements BiConsumer<PartialAggregation, ObjectFilter.FilterResult> {
+
+      public static final AddRow INSTANCE = new AddRow();
+
+      @ProtoFactory
+      static AddRow protoFactory() {
+         return INSTANCE;
+      }
+
+      @Override
+      public void accept(PartialAggregation partialAggregation, ObjectFilter.FilterResult filterResult) {
+         partialAggregation.add(filterResult.getProjection());
+      }
+   }
+
+   /**
+    * Merges the groups of a partial aggregation into another one.
+    */
+   @ProtoTypeId(ProtoStreamTypeIds.QUERY_PARTIAL_AGGREGATION_COMBINE)
+   public static final class Combine implements BiConsumer<PartialAggregation, PartialAggregation> {
+
+      public static final Combine INSTANCE = new Combine();
+
+      @ProtoFactory
+      static Combine protoFactory() {
+         return INSTANCE;
+      }
+
+      @Override
+      public void accept(PartialAggregation partialAggregation, PartialAggregation other) {
+         partialAggregation.combine(other);
+      }
+   }
+}
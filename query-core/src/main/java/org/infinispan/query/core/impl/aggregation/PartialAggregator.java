@@ -0,0 +1,65 @@
+package org.infinispan.query.core.impl.aggregation;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.objectfilter.impl.aggregation.FieldAccumulator;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
+/**
+ * Creates the {@link PartialAggregation}s of the rows matching a grouping or aggregation query on each node.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.QUERY_PARTIAL_AGGREGATOR)
+public final class PartialAggregator implements Supplier<PartialAggregation> {
+
+   /**
+    * The number of columns at the beginning of the row that are used as group key.
+    */
+   @ProtoField(1)
+   final int noOfGroupingColumns;
+
+   @ProtoField(2)
+   final List<AccumulatorDefinition> accumulators;
+
+   @ProtoFactory
+   public PartialAggregator(int noOfGroupingColumns, List<AccumulatorDefinition> accumulators) {
+      this.noOfGroupingColumns = noOfGroupingColumns;
+      this.accumulators = accumulators;
+   }
+
+   @Override
+   public PartialAggregation get() {
+      return new PartialAggregation(noOfGroupingColumns, accumulators);
+   }
+
+   public int getNoOfGroupingColumns() {
+      return noOfGroupingColumns;
+   }
+
+   /**
+    * @return the accumulators merging the partial aggregations into the final aggregates
+    */
+   public List<FieldAccumulator> mergingAccumulators() {
+      return accumulators.stream().map(AccumulatorDefinition::merging).toList();
+   }
+
+   /**
+    * @return the accumulators computing the aggregates from the rows matching the query
+    */
+   public List<FieldAccumulator> updatingAccumulators() {
+      return accumulators.stream().map(AccumulatorDefinition::updating).toList();
+   }
+
+   @Override
+   public String toString() {
+      return "PartialAggregator{" +
+            "noOfGroupingColumns=" + noOfGroupingColumns +
+            ", accumulators=" + accumulators +
+            '}';
+   }
+}
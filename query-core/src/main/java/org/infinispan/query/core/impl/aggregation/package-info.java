@@ -0,0 +1,4 @@
+/**
+ * Partial aggregation of the rows matching a grouping or aggregation query on the nodes owning them.
+ */
+package org.infinispan.query.core.impl.aggregation;
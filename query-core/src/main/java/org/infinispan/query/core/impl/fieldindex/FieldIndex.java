@@ -0,0 +1,103 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import java.util.Collection;
+
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.objectfilter.ObjectFilter;
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+
+/**
+ * The in-memory index of a field declared in the query configuration, with an index for every segment.
+ * <p>
+ * The declared field is the entity name followed by the property path, and the entity names may contain dots, so the
+ * field is resolved later by the {@link FieldIndexManager}, once the entity is known.
+ *
+ * @since 16.0
+ */
+final class FieldIndex {
+   final String field;
+   final boolean sorted;
+   private final SegmentFieldIndex[] segments;
+   private volatile Resolution resolution;
+
+   /**
+    * The entity and the property path of the field, and the filter projecting the property.
+    */
+   record Resolution(String entityName, String path, ObjectFilter projection) {
+   }
+
+   FieldIndex(String field, boolean sorted, int numSegments) {
+      this.field = field;
+      this.sorted = sorted;
+      this.segments = new SegmentFieldIndex[numSegments];
+      for (int i = 0; i < numSegments; i++) {
+         segments[i] = new SegmentFieldIndex(sorted);
+      }
+   }
+
+   Resolution resolution() {
+      return resolution;
+   }
+
+   void resolved(Resolution resolution) {
+      this.resolution = resolution;
+   }
+
+   boolean isIndexing(String entityName, String path) {
+      Resolution r = resolution;
+      return r != null && r.entityName.equals(entityName) && r.path.equals(path);
+   }
+
+   boolean supports(ComparisonExpr.Type type) {
+      return switch (type) {
+         case EQUAL -> true;
+         case LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL -> sorted;
+         default -> false;
+      };
+   }
+
+   /**
+    * Extracts the value of the field from an entry, converted from the storage format.
+    */
+   Object extract(Object value) {
+      ObjectFilter.FilterResult result = resolution.projection.filter(value);
+      return result != null ? result.getProjection()[0] : null;
+   }
+
+   SegmentFieldIndex segment(int segment) {
+      return segments[segment];
+   }
+
+   void drop(IntSet lostSegments) {
+      lostSegments.forEach((int segment) -> segments[segment].drop());
+   }
+
+   void clear() {
+      for (SegmentFieldIndex segment : segments) {
+         segment.clear();
+      }
+   }
+
+   /**
+    * Adds the keys that may match the comparison in the given segments.
+    *
+    * @return {@code false} if any of the segments is not ready or cannot be used for the comparison.
+    */
+   boolean collect(IntSet segmentIds, ComparisonExpr.Type type, Object value, Collection<Object> keys) {
+      for (int segment : segmentIds) {
+         SegmentFieldIndex index = segments[segment];
+         if (!index.isReady() || !index.collect(type, value, keys)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "FieldIndex{" +
+            "field='" + field + '\'' +
+            ", sorted=" + sorted +
+            '}';
+   }
+}
@@ -0,0 +1,65 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.tx.CommitCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.interceptors.DDAsyncInterceptor;
+import org.infinispan.interceptors.InvocationSuccessAction;
+
+/**
+ * Updates the in-memory field indexes with the entries committed to the data container.
+ * <p>
+ * It must be placed before the {@link org.infinispan.interceptors.impl.EntryWrappingInterceptor}, which commits the
+ * entries, so they are already committed when the invocation returns here.
+ *
+ * @since 16.0
+ */
+public final class FieldIndexInterceptor extends DDAsyncInterceptor {
+
+   private final FieldIndexManager fieldIndexManager;
+
+   private final InvocationSuccessAction<VisitableCommand> updateIndexes = this::updateIndexes;
+
+   public FieldIndexInterceptor(FieldIndexManager fieldIndexManager) {
+      this.fieldIndexManager = fieldIndexManager;
+   }
+
+   @Override
+   protected Object handleDefault(InvocationContext ctx, VisitableCommand command) {
+      if (command instanceof WriteCommand && !ctx.isInTxScope()) {
+         return invokeNextThenAccept(ctx, command, updateIndexes);
+      }
+      return invokeNext(ctx, command);
+   }
+
+   @Override
+   public Object visitPrepareCommand(TxInvocationContext ctx, PrepareCommand command) {
+      if (command.isOnePhaseCommit()) {
+         return invokeNextThenAccept(ctx, command, updateIndexes);
+      }
+      return invokeNext(ctx, command);
+   }
+
+   @Override
+   public Object visitCommitCommand(TxInvocationContext ctx, CommitCommand command) {
+      return invokeNextThenAccept(ctx, command, updateIndexes);
+   }
+
+   @Override
+   public Object visitClearCommand(InvocationContext ctx, ClearCommand command) {
+      return invokeNextThenAccept(ctx, command, (rCtx, rCommand, rv) -> fieldIndexManager.cleared());
+   }
+
+   private void updateIndexes(InvocationContext ctx, VisitableCommand command, Object rv) {
+      ctx.forEachEntry((key, entry) -> {
+         if (entry instanceof MVCCEntry<?, ?> mvccEntry && mvccEntry.isCommitted() && !entry.isEvicted()) {
+            fieldIndexManager.entryCommitted(key, entry.isRemoved() ? null : entry.getValue());
+         }
+      });
+   }
+}
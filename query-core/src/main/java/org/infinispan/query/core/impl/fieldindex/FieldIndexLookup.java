@@ -0,0 +1,56 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+import org.infinispan.objectfilter.impl.syntax.ConstantValueExpr;
+
+/**
+ * The lookup of the keys whose field may match a comparison of a query, found by
+ * {@link FieldIndexManager#findLookup(org.infinispan.objectfilter.Matcher, String, org.infinispan.objectfilter.impl.syntax.BooleanExpr)}.
+ * <p>
+ * The keys returned may not match the whole query, so the query must still filter their entries.
+ *
+ * @since 16.0
+ */
+public final class FieldIndexLookup {
+   private final FieldIndexManager manager;
+   private final FieldIndex index;
+   private final String entityName;
+   private final ComparisonExpr.Type type;
+   private final ConstantValueExpr constant;
+   private final Class<?> propertyType;
+
+   FieldIndexLookup(FieldIndexManager manager, FieldIndex index, String entityName, ComparisonExpr.Type type,
+                    ConstantValueExpr constant, Class<?> propertyType) {
+      this.manager = manager;
+      this.index = index;
+      this.entityName = entityName;
+      this.type = type;
+      this.constant = constant;
+      this.propertyType = propertyType;
+   }
+
+   /**
+    * @param timeoutNanos the timeout of the query, or a negative value if it has none
+    * @return the keys whose entries may match the query, or {@code null} if the index cannot be used and the query
+    * must read the whole cache.
+    */
+   public Set<Object> candidateKeys(Map<String, Object> namedParameters, boolean local, long timeoutNanos) {
+      Object value = SegmentFieldIndex.normalize(constant.getConstantValueAs(propertyType, namedParameters));
+      if (value == null) {
+         return null;
+      }
+      return manager.candidateKeys(index, entityName, type, value, local, timeoutNanos);
+   }
+
+   @Override
+   public String toString() {
+      return "FieldIndexLookup{" +
+            "field='" + index.field + '\'' +
+            ", type=" + type +
+            ", constant=" + constant +
+            '}';
+   }
+}
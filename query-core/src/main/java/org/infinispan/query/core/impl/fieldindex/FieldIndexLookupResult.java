@@ -0,0 +1,74 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import java.util.List;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.marshall.protostream.impl.MarshallableList;
+import org.infinispan.marshall.protostream.impl.WrappedMessages;
+import org.infinispan.protostream.WrappedMessage;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
+/**
+ * The keys that may match a comparison in the primary segments of a node, in the storage format, with the segments
+ * whose indexes were ready and the topology of the node.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.FIELD_INDEX_LOOKUP_RESULT)
+public class FieldIndexLookupResult {
+
+   private final int topologyId;
+   private final IntSet segments;
+   private final List<Object> keys;
+
+   FieldIndexLookupResult(int topologyId, IntSet segments, List<Object> keys) {
+      this.topologyId = topologyId;
+      this.segments = segments;
+      this.keys = keys;
+   }
+
+   @ProtoFactory
+   FieldIndexLookupResult(int topologyId, WrappedMessage wrappedSegments, MarshallableList<Object> wrappedKeys) {
+      this.topologyId = topologyId;
+      IntSet unwrappedSegments = WrappedMessages.unwrap(wrappedSegments);
+      List<Object> unwrappedKeys = MarshallableList.unwrap(wrappedKeys);
+      this.segments = unwrappedSegments != null ? unwrappedSegments : IntSets.immutableEmptySet();
+      this.keys = unwrappedKeys != null ? unwrappedKeys : List.of();
+   }
+
+   @ProtoField(value = 1, defaultValue = "-1")
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @ProtoField(2)
+   WrappedMessage getWrappedSegments() {
+      return WrappedMessages.orElseNull(segments);
+   }
+
+   @ProtoField(3)
+   MarshallableList<Object> getWrappedKeys() {
+      return MarshallableList.create(keys);
+   }
+
+   public IntSet segments() {
+      return segments;
+   }
+
+   public List<Object> keys() {
+      return keys;
+   }
+
+   @Override
+   public String toString() {
+      return "FieldIndexLookupResult{" +
+            "topologyId=" + topologyId +
+            ", segments=" + segments +
+            ", keys=" + keys.size() +
+            '}';
+   }
+}
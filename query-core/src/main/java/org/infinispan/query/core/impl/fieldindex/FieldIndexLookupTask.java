@@ -0,0 +1,55 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import java.util.function.Function;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+import org.infinispan.protostream.WrappedMessage;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+import org.infinispan.security.actions.SecurityActions;
+
+/**
+ * Looks up the in-memory index of a field in the primary segments of a node.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.FIELD_INDEX_LOOKUP_TASK)
+public class FieldIndexLookupTask implements Function<EmbeddedCacheManager, FieldIndexLookupResult> {
+
+   @ProtoField(1)
+   final String cacheName;
+
+   @ProtoField(2)
+   final String entityName;
+
+   @ProtoField(3)
+   final String field;
+
+   @ProtoField(value = 4, defaultValue = "0")
+   final int comparisonType;
+
+   @ProtoField(5)
+   final WrappedMessage value;
+
+   @ProtoFactory
+   FieldIndexLookupTask(String cacheName, String entityName, String field, int comparisonType, WrappedMessage value) {
+      this.cacheName = cacheName;
+      this.entityName = entityName;
+      this.field = field;
+      this.comparisonType = comparisonType;
+      this.value = value;
+   }
+
+   @Override
+   public FieldIndexLookupResult apply(EmbeddedCacheManager cacheManager) {
+      Cache<?, ?> cache = SecurityActions.getCache(cacheManager, cacheName);
+      FieldIndexManager fieldIndexManager = SecurityActions.getCacheComponentRegistry(cache.getAdvancedCache())
+            .getComponent(FieldIndexManager.class);
+      return fieldIndexManager.lookupPrimarySegments(entityName, field, ComparisonExpr.Type.values()[comparisonType],
+            value.getValue());
+   }
+}
@@ -0,0 +1,466 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.EnumUtil;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.infinispan.commons.util.concurrent.CompletionStages;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.LocalizedCacheTopology;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.impl.ComponentRef;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.TopologyChanged;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
+import org.infinispan.objectfilter.Matcher;
+import org.infinispan.objectfilter.impl.syntax.AndExpr;
+import org.infinispan.objectfilter.impl.syntax.BooleanExpr;
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+import org.infinispan.objectfilter.impl.syntax.ConstantValueExpr;
+import org.infinispan.objectfilter.impl.syntax.PropertyValueExpr;
+import org.infinispan.objectfilter.impl.syntax.parser.ObjectPropertyHelper;
+import org.infinispan.protostream.WrappedMessage;
+import org.infinispan.query.core.impl.Log;
+import org.infinispan.reactive.publisher.impl.DeliveryGuarantee;
+import org.infinispan.reactive.publisher.impl.LocalPublisherManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.security.actions.SecurityActions;
+import org.infinispan.util.logging.LogFactory;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Maintains the in-memory indexes of the fields declared with {@link org.infinispan.configuration.cache.QueryConfiguration#hashIndexedFields()}
+ * and {@link org.infinispan.configuration.cache.QueryConfiguration#sortedIndexedFields()}, so the non-indexed queries
+ * comparing them read only the entries that may match instead of the whole cache.
+ * <p>
+ * The values of the fields are extracted with the matcher of the last query engine registered, which is the one of the
+ * most specific query module. The {@link FieldIndexInterceptor} updates the indexes with the entries committed in the
+ * segments owned by this node, and the indexes of a segment are built from the stored entries when the segment becomes
+ * readable, and dropped when it is lost. A query only uses the indexes when all the segments are ready in their primary
+ * owners, in the same topology, and reads the whole cache otherwise.
+ *
+ * @since 16.0
+ */
+@Scope(Scopes.NAMED_CACHE)
+public final class FieldIndexManager {
+
+   private static final Log log = LogFactory.getLog(FieldIndexManager.class, Log.class);
+
+   @Inject ComponentRef<AdvancedCache<?, ?>> cache;
+   @Inject KeyPartitioner keyPartitioner;
+   @Inject DistributionManager distributionManager;
+   @Inject LocalPublisherManager<Object, Object> localPublisherManager;
+   @Inject @ComponentName(KnownComponentNames.NON_BLOCKING_EXECUTOR)
+   Executor nonBlockingExecutor;
+
+   private final List<FieldIndex> indexes = new ArrayList<>();
+   private final int numSegments;
+   private final long remoteTimeoutNanos;
+   private final SegmentListener segmentListener = new SegmentListener();
+   private volatile Engine engine;
+   private volatile boolean started;
+
+   /**
+    * The query engine which extracts the values of the fields.
+    */
+   private record Engine(AdvancedCache<?, ?> cache, Matcher matcher, ObjectPropertyHelper<Object> propertyHelper) {
+   }
+
+   public FieldIndexManager(Configuration configuration) {
+      numSegments = configuration.clustering().hash().numSegments();
+      remoteTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(configuration.clustering().remoteTimeout());
+      for (String field : configuration.query().hashIndexedFields()) {
+         indexes.add(new FieldIndex(field, false, numSegments));
+      }
+      for (String field : configuration.query().sortedIndexedFields()) {
+         indexes.add(new FieldIndex(field, true, numSegments));
+      }
+   }
+
+   /**
+    * @return whether the configuration declares any indexed field, and the cache is neither indexed nor an
+    * invalidation cache.
+    */
+   public static boolean isEnabled(Configuration configuration) {
+      return !configuration.indexing().enabled() && !configuration.clustering().cacheMode().isInvalidation()
+            && (!configuration.query().hashIndexedFields().isEmpty() || !configuration.query().sortedIndexedFields().isEmpty());
+   }
+
+   /**
+    * Uses the matcher of a query engine to extract the values of the fields. The engines registered later replace the
+    * previous ones, and only the queries of the current one use the indexes.
+    */
+   public void registerEngine(AdvancedCache<?, ?> engineCache, Matcher matcher, ObjectPropertyHelper<?> propertyHelper) {
+      engine = new Engine(engineCache, matcher, (ObjectPropertyHelper<Object>) propertyHelper);
+      if (started) {
+         for (FieldIndex index : indexes) {
+            index.resolved(null);
+            index.drop(IntSets.immutableRangeSet(numSegments));
+         }
+         resolveAll();
+      }
+   }
+
+   /**
+    * Builds the indexes of the owned segments, invoked once the cache is started.
+    */
+   public void start() {
+      if (distributionManager != null) {
+         cache.wired().addListener(segmentListener);
+      }
+      started = true;
+      resolveAll();
+   }
+
+   @Stop
+   public void stop() {
+      started = false;
+      if (distributionManager != null) {
+         cache.wired().removeListener(segmentListener);
+      }
+   }
+
+   private void resolveAll() {
+      for (FieldIndex index : indexes) {
+         resolve(index, null);
+      }
+   }
+
+   /**
+    * Resolves the entity and the property path of the field, and builds its index if found.
+    *
+    * @param entityName the entity of the field if known, otherwise every prefix of the field is tried.
+    */
+   private void resolve(FieldIndex index, String entityName) {
+      Engine e = engine;
+      if (e == null || !started) {
+         return;
+      }
+      synchronized (index) {
+         if (index.resolution() != null) {
+            return;
+         }
+         String field = index.field;
+         for (int dot = field.lastIndexOf('.'); dot > 0; dot = field.lastIndexOf('.', dot - 1)) {
+            String entity = field.substring(0, dot);
+            if (entityName != null && !entityName.equals(entity)) {
+               continue;
+            }
+            Object metadata;
+            try {
+               metadata = e.propertyHelper.getEntityMetadata(entity);
+            } catch (RuntimeException ex) {
+               metadata = null;
+            }
+            String path = field.substring(dot + 1);
+            String[] propertyPath = path.split("\\.");
+            if (metadata == null || !e.propertyHelper.hasProperty(metadata, propertyPath)) {
+               continue;
+            }
+            if (e.propertyHelper.isRepeatedProperty(metadata, propertyPath)) {
+               log.fieldIndexNotSupported(field, cacheName(), "the property is repeated");
+            } else if (e.propertyHelper.getPrimitivePropertyType(metadata, propertyPath) == null) {
+               log.fieldIndexNotSupported(field, cacheName(), "the property is not a primitive value");
+            } else {
+               String queryString = "SELECT e." + path + " FROM " + entity + " e";
+               index.resolved(new FieldIndex.Resolution(entity, path, e.matcher.getObjectFilter(queryString)));
+               build(index, ownedSegments());
+            }
+            return;
+         }
+      }
+   }
+
+   private IntSet ownedSegments() {
+      return distributionManager != null ?
+            distributionManager.getCacheTopology().getLocalReadSegments() : IntSets.immutableRangeSet(numSegments);
+   }
+
+   /**
+    * Builds the index of the segments not ready yet, from the entries in memory and in the stores.
+    */
+   private void build(FieldIndex index, IntSet segments) {
+      Engine e = engine;
+      IntSet building = IntSets.mutableEmptySet(numSegments);
+      int[] generations = new int[numSegments];
+      segments.forEach((int segment) -> {
+         SegmentFieldIndex segmentIndex = index.segment(segment);
+         if (!segmentIndex.isReady()) {
+            int generation = segmentIndex.buildStarted();
+            if (generation >= 0) {
+               generations[segment] = generation;
+               building.set(segment);
+            }
+         }
+      });
+      if (building.isEmpty()) {
+         return;
+      }
+      log.tracef("Building the index of field %s for segments %s", index.field, building);
+      Flowable.fromPublisher(localPublisherManager.entryPublisher(building, null, null, EnumUtil.EMPTY_BIT_SET,
+                  DeliveryGuarantee.AT_MOST_ONCE, Function.identity()).publisherWithoutSegments())
+            .subscribeOn(Schedulers.from(nonBlockingExecutor))
+            .subscribe(entry -> {
+                     Object key = entry.getKey();
+                     index.segment(keyPartitioner.getSegment(key)).putIfAbsent(key, extract(e, index, entry.getValue()));
+                  },
+                  t -> {
+                     log.failedToBuildFieldIndex(t, index.field, cacheName(), building);
+                     building.forEach((int segment) -> index.segment(segment).buildFailed(generations[segment]));
+                  },
+                  () -> building.forEach((int segment) -> index.segment(segment).buildCompleted(generations[segment])));
+   }
+
+   private static Object extract(Engine e, FieldIndex index, Object storageValue) {
+      try {
+         return index.extract(e.cache.getValueDataConversion().fromStorage(storageValue));
+      } catch (RuntimeException ex) {
+         // The key is returned by every lookup
+         return SegmentFieldIndex.UNINDEXED;
+      }
+   }
+
+   /**
+    * Updates the indexes with an entry committed by a write. The removed entries have a {@code null} value.
+    */
+   void entryCommitted(Object key, Object storageValue) {
+      Engine e = engine;
+      if (e == null) {
+         return;
+      }
+      int segment = keyPartitioner.getSegment(key);
+      if (distributionManager != null && !distributionManager.getCacheTopology().isSegmentWriteOwner(segment)) {
+         // The entry is stored in L1
+         return;
+      }
+      for (FieldIndex index : indexes) {
+         if (index.resolution() == null) {
+            continue;
+         }
+         SegmentFieldIndex segmentIndex = index.segment(segment);
+         if (storageValue == null) {
+            segmentIndex.remove(key);
+         } else {
+            segmentIndex.put(key, extract(e, index, storageValue));
+         }
+      }
+   }
+
+   void cleared() {
+      for (FieldIndex index : indexes) {
+         index.clear();
+      }
+   }
+
+   /**
+    * Finds an index for a comparison of the where clause, either the whole clause or one of the terms of a
+    * conjunction, giving precedence to the equality comparisons.
+    *
+    * @return the lookup of the keys that may match the where clause, or {@code null} if no index can be used.
+    */
+   public FieldIndexLookup findLookup(Matcher matcher, String entityName, BooleanExpr whereClause) {
+      Engine e = engine;
+      if (e == null || e.matcher != matcher || whereClause == null) {
+         return null;
+      }
+      List<BooleanExpr> terms = whereClause instanceof AndExpr ? ((AndExpr) whereClause).getChildren() : List.of(whereClause);
+      FieldIndexLookup lookup = null;
+      for (BooleanExpr term : terms) {
+         if (!(term instanceof ComparisonExpr comparison)) {
+            continue;
+         }
+         PropertyValueExpr property;
+         ConstantValueExpr constant;
+         ComparisonExpr.Type type = comparison.getComparisonType();
+         if (comparison.getLeftChild() instanceof PropertyValueExpr p && comparison.getRightChild() instanceof ConstantValueExpr c) {
+            property = p;
+            constant = c;
+         } else if (comparison.getLeftChild() instanceof ConstantValueExpr c && comparison.getRightChild() instanceof PropertyValueExpr p) {
+            property = p;
+            constant = c;
+            type = type.reverse();
+         } else {
+            continue;
+         }
+         if (property.isRepeated()) {
+            continue;
+         }
+         FieldIndex index = findIndex(entityName, property.getPropertyPath().asStringPath());
+         if (index != null && index.supports(type) && (lookup == null || type == ComparisonExpr.Type.EQUAL)) {
+            lookup = new FieldIndexLookup(this, index, entityName, type, constant, property.getPrimitiveType());
+            if (type == ComparisonExpr.Type.EQUAL) {
+               break;
+            }
+         }
+      }
+      return lookup;
+   }
+
+   private FieldIndex findIndex(String entityName, String path) {
+      for (FieldIndex index : indexes) {
+         if (index.isIndexing(entityName, path)) {
+            return index;
+         }
+         if (index.resolution() == null && index.field.equals(entityName + '.' + path)) {
+            // The entity was not known when the cache started, the index is ready for the next queries
+            resolve(index, entityName);
+            return index;
+         }
+      }
+      return null;
+   }
+
+   FieldIndex findIndex(String field) {
+      for (FieldIndex index : indexes) {
+         if (index.field.equals(field)) {
+            return index;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * @return the keys that may match the comparison in every segment, in the format of the registered engine, or
+    * {@code null} if the index of any segment is not ready or the other nodes did not reply in time.
+    */
+   Set<Object> candidateKeys(FieldIndex index, String entityName, ComparisonExpr.Type type, Object value, boolean local,
+                             long timeoutNanos) {
+      Engine e = engine;
+      if (e == null) {
+         return null;
+      }
+      Collection<Object> storageKeys;
+      if (distributionManager == null) {
+         storageKeys = new ArrayList<>();
+         if (!index.collect(IntSets.immutableRangeSet(numSegments), type, value, storageKeys)) {
+            return null;
+         }
+      } else if (local) {
+         // A local query reads all the entries in the data container, which the indexes may not cover
+         return null;
+      } else {
+         storageKeys = clusterCandidateKeys(index, entityName, type, value, timeoutNanos);
+         if (storageKeys == null) {
+            return null;
+         }
+      }
+      Set<Object> keys = new HashSet<>(storageKeys.size());
+      for (Object storageKey : storageKeys) {
+         keys.add(e.cache.getKeyDataConversion().fromStorage(storageKey));
+      }
+      return keys;
+   }
+
+   private Collection<Object> clusterCandidateKeys(FieldIndex index, String entityName, ComparisonExpr.Type type, Object value,
+                                                   long timeoutNanos) {
+      LocalizedCacheTopology topology = distributionManager.getCacheTopology();
+      FieldIndexLookupTask task = new FieldIndexLookupTask(cacheName(), entityName, index.field, type.ordinal(), new WrappedMessage(value));
+      List<FieldIndexLookupResult> results = Collections.synchronizedList(new ArrayList<>());
+      // The query waits for the lookup at most for its own timeout, and reads the whole cache if the lookup times out
+      long lookupTimeout = timeoutNanos > 0 ? Math.min(timeoutNanos, remoteTimeoutNanos) : remoteTimeoutNanos;
+      CompletionStage<Void> stage = SecurityActions.getClusterExecutor(cache.wired())
+            .filterTargets(topology.getMembersSet())
+            .timeout(lookupTimeout, TimeUnit.NANOSECONDS)
+            .submitConsumer(task, (Address address, FieldIndexLookupResult result, Throwable t) -> {
+               if (t != null) {
+                  throw CompletableFutures.asCompletionException(t);
+               }
+               results.add(result);
+            });
+      try {
+         CompletionStages.join(stage);
+      } catch (Exception ex) {
+         log.debugf(ex, "Failed to look up the index of field %s, reading the whole cache", index.field);
+         return null;
+      }
+      IntSet covered = IntSets.mutableEmptySet(numSegments);
+      List<Object> keys = new ArrayList<>();
+      for (FieldIndexLookupResult result : results) {
+         if (result.getTopologyId() != topology.getTopologyId()) {
+            return null;
+         }
+         covered.addAll(result.segments());
+         keys.addAll(result.keys());
+      }
+      return covered.size() == numSegments ? keys : null;
+   }
+
+   /**
+    * Looks up the index of the primary segments of this node, on behalf of the node running the query.
+    */
+   FieldIndexLookupResult lookupPrimarySegments(String entityName, String field, ComparisonExpr.Type type, Object value) {
+      LocalizedCacheTopology topology = distributionManager.getCacheTopology();
+      FieldIndex index = findIndex(field);
+      if (index != null && index.resolution() == null) {
+         resolve(index, entityName);
+      }
+      List<Object> keys = new ArrayList<>();
+      IntSet segments = topology.getLocalPrimarySegments();
+      FieldIndex.Resolution resolution = index != null ? index.resolution() : null;
+      if (resolution == null || !resolution.entityName().equals(entityName) || !index.collect(segments, type, value, keys)) {
+         return new FieldIndexLookupResult(topology.getTopologyId(), IntSets.immutableEmptySet(), List.of());
+      }
+      return new FieldIndexLookupResult(topology.getTopologyId(), segments, keys);
+   }
+
+   private String cacheName() {
+      return cache.wired().getName();
+   }
+
+   /**
+    * Drops the indexes of the segments no longer owned and builds the indexes of the segments which became readable.
+    */
+   @Listener(observation = Listener.Observation.POST)
+   public final class SegmentListener {
+
+      @TopologyChanged
+      public CompletionStage<Void> topologyChanged(TopologyChangedEvent<?, ?> event) {
+         Address address = distributionManager.getCacheTopology().getLocalAddress();
+         if (!event.getWriteConsistentHashAtEnd().getMembers().contains(address)) {
+            return CompletableFutures.completedNull();
+         }
+         IntSet lostSegments = IntSets.mutableEmptySet(numSegments);
+         if (event.getWriteConsistentHashAtStart() != null && event.getWriteConsistentHashAtStart().getMembers().contains(address)) {
+            lostSegments.addAll(event.getWriteConsistentHashAtStart().getSegmentsForOwner(address));
+            lostSegments.removeAll(event.getWriteConsistentHashAtEnd().getSegmentsForOwner(address));
+         }
+         IntSet readSegments = event.getReadConsistentHashAtEnd().getMembers().contains(address) ?
+               IntSets.from(event.getReadConsistentHashAtEnd().getSegmentsForOwner(address)) : IntSets.immutableEmptySet();
+         for (FieldIndex index : indexes) {
+            if (index.resolution() != null) {
+               index.drop(lostSegments);
+               build(index, readSegments);
+            }
+         }
+         return CompletableFutures.completedNull();
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "FieldIndexManager{" +
+            "indexes=" + indexes +
+            '}';
+   }
+}
@@ -0,0 +1,241 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * The in-memory index of a field for the entries of a segment.
+ * <p>
+ * The index maps every key having the field to its value, so updates do not need the previous value of the entry, and
+ * every value to the keys having it. The keys without the field, including the entries of other types, are not stored. Numbers are indexed as {@link Long} or {@link Double}, and the values that are
+ * neither numbers, strings nor booleans are not indexed: their keys are returned by every lookup.
+ * <p>
+ * While the index is built from the entries already stored, the writes keep updating it, and the entries read by the
+ * build never replace the ones written or removed in the meantime.
+ *
+ * @since 16.0
+ */
+final class SegmentFieldIndex {
+   // The value of the key cannot be indexed
+   static final Object UNINDEXED = new Object();
+
+   private static final int LONG = 1;
+   private static final int DOUBLE = 1 << 1;
+   private static final int STRING = 1 << 2;
+   private static final int BOOLEAN = 1 << 3;
+
+   /**
+    * Orders the values by kind first, so values of different kinds can share the same sorted index.
+    */
+   @SuppressWarnings("unchecked")
+   static final Comparator<Object> COMPARATOR = (v1, v2) -> {
+      int k1 = kind(v1);
+      int k2 = kind(v2);
+      return k1 != k2 ? Integer.compare(k1, k2) : ((Comparable<Object>) v1).compareTo(v2);
+   };
+
+   @GuardedBy("this")
+   private final Map<Object, Object> valuesByKey = new HashMap<>();
+   @GuardedBy("this")
+   private final Map<Object, Set<Object>> keysByValue;
+   @GuardedBy("this")
+   private final Set<Object> unindexedKeys = new HashSet<>();
+   // The kinds of the values in the index
+   @GuardedBy("this")
+   private int kinds;
+   // The keys removed or written without the field since the build started, non-null while building
+   @GuardedBy("this")
+   private Set<Object> removedKeys;
+   @GuardedBy("this")
+   private boolean clearedWhileBuilding;
+   // Incremented when the index is dropped, so a build started before does not mark it as ready
+   @GuardedBy("this")
+   private int generation;
+   private volatile boolean ready;
+
+   SegmentFieldIndex(boolean sorted) {
+      keysByValue = sorted ? new TreeMap<>(COMPARATOR) : new HashMap<>();
+   }
+
+   /**
+    * @return the value to index, either a {@link Long}, a {@link Double}, a {@link String} or a {@link Boolean}, or
+    * {@code null} if the value cannot be indexed.
+    */
+   static Object normalize(Object value) {
+      if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+         return ((Number) value).longValue();
+      } else if (value instanceof Double || value instanceof Float) {
+         return ((Number) value).doubleValue();
+      } else if (value instanceof String || value instanceof Boolean) {
+         return value;
+      }
+      return null;
+   }
+
+   private static int kind(Object value) {
+      if (value instanceof Long) {
+         return LONG;
+      } else if (value instanceof Double) {
+         return DOUBLE;
+      } else if (value instanceof String) {
+         return STRING;
+      } else {
+         return BOOLEAN;
+      }
+   }
+
+   boolean isReady() {
+      return ready;
+   }
+
+   /**
+    * Updates the value of the field for a key written. A {@code null} value means the entry does not have the field.
+    */
+   synchronized void put(Object key, Object value) {
+      removeValue(key);
+      if (value != null) {
+         addValue(key, value);
+      } else if (removedKeys != null) {
+         removedKeys.add(key);
+      }
+   }
+
+   synchronized void remove(Object key) {
+      removeValue(key);
+      if (removedKeys != null) {
+         removedKeys.add(key);
+      }
+   }
+
+   /**
+    * Adds the value of the field for a key read by the build, unless it was written or removed after the build started.
+    */
+   synchronized void putIfAbsent(Object key, Object value) {
+      if (value != null && !clearedWhileBuilding && !valuesByKey.containsKey(key) &&
+            (removedKeys == null || !removedKeys.contains(key))) {
+         addValue(key, value);
+      }
+   }
+
+   /**
+    * @return the generation to pass to {@link #buildCompleted(int)}, or {@code -1} if the index is already being built.
+    */
+   synchronized int buildStarted() {
+      if (removedKeys != null) {
+         return -1;
+      }
+      removedKeys = new HashSet<>();
+      clearedWhileBuilding = false;
+      return generation;
+   }
+
+   synchronized void buildCompleted(int buildGeneration) {
+      if (buildGeneration == generation) {
+         removedKeys = null;
+         clearedWhileBuilding = false;
+         ready = true;
+      }
+   }
+
+   synchronized void buildFailed(int buildGeneration) {
+      if (buildGeneration == generation) {
+         removedKeys = null;
+         clearedWhileBuilding = false;
+      }
+   }
+
+   /**
+    * Removes all the keys, the index must be built again before it is used.
+    */
+   synchronized void drop() {
+      clear();
+      removedKeys = null;
+      clearedWhileBuilding = false;
+      generation++;
+      ready = false;
+   }
+
+   synchronized void clear() {
+      valuesByKey.clear();
+      keysByValue.clear();
+      unindexedKeys.clear();
+      kinds = 0;
+      // Do not add back the entries read by the build before the clear
+      clearedWhileBuilding = removedKeys != null;
+   }
+
+   /**
+    * Adds the keys whose values may match the comparison to the collection, including the keys whose values are not
+    * indexed.
+    *
+    * @return {@code false} if the index contains values of a different kind than the value compared, as the
+    * comparison of values of different kinds may not be consistent with their order in the index.
+    */
+   synchronized boolean collect(ComparisonExpr.Type type, Object value, Collection<Object> keys) {
+      if ((kinds & ~kind(value)) != 0) {
+         return false;
+      }
+      keys.addAll(unindexedKeys);
+      if (type == ComparisonExpr.Type.EQUAL) {
+         Set<Object> matching = keysByValue.get(value);
+         if (matching != null) {
+            keys.addAll(matching);
+         }
+         return true;
+      }
+      NavigableMap<Object, Set<Object>> sorted = (NavigableMap<Object, Set<Object>>) keysByValue;
+      NavigableMap<Object, Set<Object>> range = switch (type) {
+         case LESS -> sorted.headMap(value, false);
+         case LESS_OR_EQUAL -> sorted.headMap(value, true);
+         case GREATER -> sorted.tailMap(value, false);
+         case GREATER_OR_EQUAL -> sorted.tailMap(value, true);
+         default -> throw new IllegalArgumentException("Unsupported comparison " + type);
+      };
+      // The values of other kinds are sorted before or after the range, but there are none
+      for (Set<Object> matching : range.values()) {
+         keys.addAll(matching);
+      }
+      return true;
+   }
+
+   synchronized int size() {
+      return valuesByKey.size();
+   }
+
+   @GuardedBy("this")
+   private void addValue(Object key, Object value) {
+      Object normalized = normalize(value);
+      if (normalized == null) {
+         valuesByKey.put(key, UNINDEXED);
+         unindexedKeys.add(key);
+         return;
+      }
+      valuesByKey.put(key, normalized);
+      keysByValue.computeIfAbsent(normalized, v -> new HashSet<>()).add(key);
+      kinds |= kind(normalized);
+   }
+
+   @GuardedBy("this")
+   private void removeValue(Object key) {
+      Object previous = valuesByKey.remove(key);
+      if (previous == UNINDEXED) {
+         unindexedKeys.remove(key);
+      } else if (previous != null) {
+         Set<Object> matching = keysByValue.get(previous);
+         matching.remove(key);
+         if (matching.isEmpty()) {
+            keysByValue.remove(previous);
+         }
+      }
+   }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory indexes of the fields of non-indexed entities.
+ */
+package org.infinispan.query.core.impl.fieldindex;
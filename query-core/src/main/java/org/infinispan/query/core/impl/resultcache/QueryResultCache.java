@@ -0,0 +1,284 @@
+package org.infinispan.query.core.impl.resultcache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.infinispan.commons.util.concurrent.CompletionStages;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.IndexingConfiguration;
+import org.infinispan.configuration.cache.IndexingMode;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.LocalizedCacheTopology;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.impl.ComponentRef;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.query.core.impl.Log;
+import org.infinispan.query.core.impl.QueryResultImpl;
+import org.infinispan.query.dsl.QueryResult;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.security.AuthorizationPermission;
+import org.infinispan.security.actions.SecurityActions;
+import org.infinispan.security.impl.Authorizer;
+import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.logging.LogFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Caches the results of the queries configured with {@link org.infinispan.configuration.cache.QueryConfiguration#resultCacheSize()},
+ * so a query repeated with the same parameters does not read the cache again while the data it read did not change.
+ * <p>
+ * Every node counts the writes committed in each segment with the {@link QueryResultCacheInterceptor}. A result is
+ * cached with the versions of the segments the query read, taken before it was executed, and it is returned as long
+ * as the segments have the same versions in the same topology. The queries reading only the data of this node use the
+ * local versions, the other ones use the versions of all the segments read from their primary owners.
+ * <p>
+ * Only the changes applied through the cache invalidate the results: the entries that expire are only taken into
+ * account once the expiration removes them.
+ *
+ * @since 16.0
+ */
+@MBean(objectName = "QueryResultCache", description = "Cache of the results of repeated queries")
+@Scope(Scopes.NAMED_CACHE)
+public final class QueryResultCache {
+
+   private static final Log log = LogFactory.getLog(QueryResultCache.class, Log.class);
+
+   @Inject ComponentRef<AdvancedCache<?, ?>> cache;
+   @Inject KeyPartitioner keyPartitioner;
+   @Inject DistributionManager distributionManager;
+   @Inject Authorizer authorizer;
+   @Inject BlockingManager blockingManager;
+
+   private final int numSegments;
+   private final long remoteTimeout;
+   // whether every node has all the data, so the queries only read the local data
+   private final boolean fullyReplicated;
+   private final AtomicLongArray segmentVersions;
+   private final Cache<Key, CachedResult> results;
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+
+   /**
+    * The query and all its settings affecting the result.
+    */
+   public record Key(Object queryEngine, String queryString, Map<String, Object> namedParameters, long startOffset,
+                     int maxResults, Integer hitCountAccuracy, boolean scoreRequired, boolean local) {
+      public Key {
+         namedParameters = namedParameters == null ? Collections.emptyMap() : new HashMap<>(namedParameters);
+      }
+   }
+
+   private record CachedResult(SegmentVersions versions, QueryResult<?> result) {
+   }
+
+   public QueryResultCache(Configuration configuration) {
+      numSegments = configuration.clustering().hash().numSegments();
+      remoteTimeout = configuration.clustering().remoteTimeout();
+      fullyReplicated = !configuration.clustering().cacheMode().isDistributed();
+      segmentVersions = new AtomicLongArray(numSegments);
+      results = Caffeine.newBuilder().maximumSize(configuration.query().resultCacheSize()).build();
+   }
+
+   /**
+    * @return whether the configuration sets a size for the result cache. The result cache is disabled for the
+    * invalidation caches, and for the indexed caches whose index changes without any write: the caches indexed
+    * manually, and the caches whose index readers are refreshed periodically, which see the writes only after the
+    * refresh interval.
+    */
+   public static boolean isEnabled(Configuration configuration) {
+      if (configuration.query().resultCacheSize() <= 0 || configuration.clustering().cacheMode().isInvalidation()) {
+         return false;
+      }
+      IndexingConfiguration indexing = configuration.indexing();
+      return !indexing.enabled() ||
+            (indexing.indexingMode() != IndexingMode.MANUAL && indexing.reader().getRefreshInterval() == 0);
+   }
+
+   /**
+    * Returns the cached result of a query if the data it read did not change, or executes it and caches the result.
+    * <p>
+    * The versions of the local data are available immediately. The versions of the other nodes are waited for, as a
+    * synchronous query on a distributed cache waits for the other nodes to execute it.
+    */
+   public <T> QueryResult<T> computeIfAbsent(Key key, Supplier<QueryResult<T>> execution) {
+      SegmentVersions versions = CompletionStages.join(currentVersions(key.local()));
+      QueryResult<T> cached = lookup(key, versions);
+      return cached != null ? cached : execute(key, versions, execution);
+   }
+
+   /**
+    * Same as {@link #computeIfAbsent(Key, Supplier)}, without blocking the caller: the query is executed by a blocking
+    * thread when its result is not in the cache.
+    */
+   public <T> CompletionStage<QueryResult<T>> computeIfAbsentAsync(Key key, Supplier<QueryResult<T>> execution) {
+      return currentVersions(key.local()).thenCompose(versions -> {
+         QueryResult<T> cached = lookup(key, versions);
+         if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+         }
+         return blockingManager.supplyBlocking(() -> execute(key, versions, execution), "query-result-cache");
+      });
+   }
+
+   /**
+    * @return the cached result if it read the same versions, or {@code null}.
+    */
+   private <T> QueryResult<T> lookup(Key key, SegmentVersions versions) {
+      CachedResult cached = versions == null ? null : results.getIfPresent(key);
+      if (cached != null && cached.versions().equals(versions)) {
+         hits.increment();
+         return (QueryResult<T>) cached.result();
+      }
+      misses.increment();
+      return null;
+   }
+
+   private <T> QueryResult<T> execute(Key key, SegmentVersions versions, Supplier<QueryResult<T>> execution) {
+      QueryResult<T> result = execution.get();
+      if (versions == null) {
+         return result;
+      }
+      QueryResult<T> immutableResult = new QueryResultImpl<>(result.count(), Collections.unmodifiableList(result.list()));
+      results.put(key, new CachedResult(versions, immutableResult));
+      return immutableResult;
+   }
+
+   /**
+    * Invalidates the results that read the segment of a key written.
+    */
+   public void entryWritten(Object key) {
+      segmentVersions.incrementAndGet(keyPartitioner.getSegment(key));
+   }
+
+   /**
+    * Invalidates all the results, including the ones cached by other nodes reading the primary segments of this node.
+    */
+   public void invalidateAll() {
+      for (int i = 0; i < numSegments; i++) {
+         segmentVersions.incrementAndGet(i);
+      }
+      results.invalidateAll();
+   }
+
+   @ManagedOperation(description = "Removes all the cached query results", displayName = "Clear the query result cache")
+   public void clear() {
+      authorizer.checkPermission(AuthorizationPermission.ADMIN);
+      invalidateAll();
+   }
+
+   @ManagedAttribute(description = "Number of queries whose result was found in the cache",
+         displayName = "Query result cache hits", measurementType = MeasurementType.TRENDSUP)
+   public long getHits() {
+      return hits.sum();
+   }
+
+   @ManagedAttribute(description = "Number of queries executed because their result was not in the cache or was outdated",
+         displayName = "Query result cache misses", measurementType = MeasurementType.TRENDSUP)
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   @ManagedAttribute(description = "Percentage hit/(hit+miss) ratio of the query result cache",
+         displayName = "Query result cache hit ratio", units = Units.PERCENTAGE)
+   public double getHitRatio() {
+      long hitCount = hits.sum();
+      double total = hitCount + misses.sum();
+      return total <= 0 ? 0 : hitCount / total;
+   }
+
+   @ManagedAttribute(description = "Approximate number of query results in the cache",
+         displayName = "Query result cache size")
+   public long getSize() {
+      return results.estimatedSize();
+   }
+
+   /**
+    * @return the versions of the primary segments of this node, for a query running on another node.
+    */
+   SegmentVersions primarySegmentVersions() {
+      LocalizedCacheTopology topology = distributionManager.getCacheTopology();
+      return new SegmentVersions(topology.getTopologyId(), topology.getLocalPrimarySegments(), snapshot());
+   }
+
+   /**
+    * @return the versions of the segments a query reads, completed with {@code null} if some could not be retrieved.
+    */
+   private CompletionStage<SegmentVersions> currentVersions(boolean local) {
+      if (distributionManager == null) {
+         return CompletableFuture.completedFuture(new SegmentVersions(-1, IntSets.immutableRangeSet(numSegments), snapshot()));
+      }
+      LocalizedCacheTopology topology = distributionManager.getCacheTopology();
+      if (local || fullyReplicated) {
+         return CompletableFuture.completedFuture(new SegmentVersions(topology.getTopologyId(), IntSets.immutableRangeSet(numSegments), snapshot()));
+      }
+      return clusterVersions(topology);
+   }
+
+   private CompletionStage<SegmentVersions> clusterVersions(LocalizedCacheTopology topology) {
+      List<SegmentVersions> nodeVersions = Collections.synchronizedList(new ArrayList<>());
+      return SecurityActions.getClusterExecutor(cache.wired())
+            .filterTargets(topology.getMembersSet())
+            .timeout(remoteTimeout, TimeUnit.MILLISECONDS)
+            .submitConsumer(new SegmentVersionsTask(cache.wired().getName()), (Address address, SegmentVersions versions, Throwable t) -> {
+               if (t != null) {
+                  throw CompletableFutures.asCompletionException(t);
+               }
+               nodeVersions.add(versions);
+            })
+            .handle((ignore, t) -> {
+               if (t != null) {
+                  log.debugf(t, "Failed to retrieve the segment versions of cache %s, not using the query result cache", cache.wired().getName());
+                  return null;
+               }
+               return mergeVersions(topology, nodeVersions);
+            });
+   }
+
+   private SegmentVersions mergeVersions(LocalizedCacheTopology topology, List<SegmentVersions> nodeVersions) {
+      IntSet covered = IntSets.mutableEmptySet(numSegments);
+      long[] versions = new long[numSegments];
+      for (SegmentVersions v : nodeVersions) {
+         if (v.getTopologyId() != topology.getTopologyId()) {
+            return null;
+         }
+         for (int segment : v.segments()) {
+            versions[segment] = v.version(segment);
+         }
+         covered.addAll(v.segments());
+      }
+      if (covered.size() != numSegments) {
+         return null;
+      }
+      return new SegmentVersions(topology.getTopologyId(), IntSets.immutableRangeSet(numSegments), versions);
+   }
+
+   private long[] snapshot() {
+      long[] versions = new long[numSegments];
+      for (int i = 0; i < numSegments; i++) {
+         versions[i] = segmentVersions.get(i);
+      }
+      return versions;
+   }
+}
@@ -0,0 +1,71 @@
+package org.infinispan.query.core.impl.resultcache;
+
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.tx.CommitCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.interceptors.DDAsyncInterceptor;
+import org.infinispan.interceptors.InvocationSuccessAction;
+
+/**
+ * Invalidates the cached query results reading the segments of the entries committed to the data container.
+ * <p>
+ * It must be placed before the {@link org.infinispan.interceptors.impl.EntryWrappingInterceptor}, so the versions of
+ * the segments change only after the entries are committed, and a query reading the previous data cannot cache its
+ * result with the new versions.
+ * <p>
+ * For the same reason it must also be placed before the {@code QueryInterceptor} of the indexed caches, so that the
+ * versions change only after the index is updated. The query module adds its interceptor before the
+ * {@link org.infinispan.interceptors.impl.EntryWrappingInterceptor} after this one is added, and verifies the order
+ * when the cache starts.
+ *
+ * @since 16.0
+ */
+public final class QueryResultCacheInterceptor extends DDAsyncInterceptor {
+
+   private final QueryResultCache resultCache;
+
+   private final InvocationSuccessAction<VisitableCommand> invalidateResults = this::invalidateResults;
+
+   public QueryResultCacheInterceptor(QueryResultCache resultCache) {
+      this.resultCache = resultCache;
+   }
+
+   @Override
+   protected Object handleDefault(InvocationContext ctx, VisitableCommand command) {
+      if (command instanceof WriteCommand && !ctx.isInTxScope()) {
+         return invokeNextThenAccept(ctx, command, invalidateResults);
+      }
+      return invokeNext(ctx, command);
+   }
+
+   @Override
+   public Object visitPrepareCommand(TxInvocationContext ctx, PrepareCommand command) {
+      if (command.isOnePhaseCommit()) {
+         return invokeNextThenAccept(ctx, command, invalidateResults);
+      }
+      return invokeNext(ctx, command);
+   }
+
+   @Override
+   public Object visitCommitCommand(TxInvocationContext ctx, CommitCommand command) {
+      return invokeNextThenAccept(ctx, command, invalidateResults);
+   }
+
+   @Override
+   public Object visitClearCommand(InvocationContext ctx, ClearCommand command) {
+      return invokeNextThenAccept(ctx, command, (rCtx, rCommand, rv) -> resultCache.invalidateAll());
+   }
+
+   private void invalidateResults(InvocationContext ctx, VisitableCommand command, Object rv) {
+      ctx.forEachEntry((key, entry) -> {
+         if (entry instanceof MVCCEntry<?, ?> mvccEntry && mvccEntry.isCommitted()) {
+            resultCache.entryWritten(key);
+         }
+      });
+   }
+}
@@ -0,0 +1,94 @@
+package org.infinispan.query.core.impl.resultcache;
+
+import java.util.Arrays;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.marshall.protostream.impl.WrappedMessages;
+import org.infinispan.protostream.WrappedMessage;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
+/**
+ * The number of writes applied to some segments of a cache, in a topology. The versions array is indexed by segment,
+ * and only the versions of the segments included are meaningful.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.QUERY_RESULT_CACHE_SEGMENT_VERSIONS)
+public final class SegmentVersions {
+
+   private final int topologyId;
+   private final IntSet segments;
+   private final long[] versions;
+
+   SegmentVersions(int topologyId, IntSet segments, long[] versions) {
+      this.topologyId = topologyId;
+      this.segments = segments;
+      this.versions = versions;
+   }
+
+   @ProtoFactory
+   SegmentVersions(int topologyId, WrappedMessage wrappedSegments, long[] versions) {
+      IntSet unwrappedSegments = WrappedMessages.unwrap(wrappedSegments);
+      this.topologyId = topologyId;
+      this.segments = unwrappedSegments != null ? unwrappedSegments : IntSets.immutableEmptySet();
+      this.versions = versions;
+   }
+
+   @ProtoField(value = 1, defaultValue = "-1")
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @ProtoField(2)
+   WrappedMessage getWrappedSegments() {
+      return WrappedMessages.orElseNull(segments);
+   }
+
+   @ProtoField(3)
+   long[] getVersions() {
+      return versions;
+   }
+
+   IntSet segments() {
+      return segments;
+   }
+
+   long version(int segment) {
+      return versions[segment];
+   }
+
+   /**
+    * Two instances are equal if they have the same versions for the same segments in the same topology, so the data of
+    * those segments did not change between them.
+    */
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof SegmentVersions other)) return false;
+      if (topologyId != other.topologyId || !segments.equals(other.segments)) return false;
+      for (int segment : segments) {
+         if (versions[segment] != other.versions[segment]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      return 31 * topologyId + segments.hashCode();
+   }
+
+   @Override
+   public String toString() {
+      return "SegmentVersions{" +
+            "topologyId=" + topologyId +
+            ", segments=" + segments +
+            ", versions=" + Arrays.toString(versions) +
+            '}';
+   }
+}
@@ -0,0 +1,36 @@
+package org.infinispan.query.core.impl.resultcache;
+
+import java.util.function.Function;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+import org.infinispan.security.actions.SecurityActions;
+
+/**
+ * Reads the versions of the primary segments of a node, on behalf of the node running a query.
+ *
+ * @since 16.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.QUERY_RESULT_CACHE_VERSIONS_TASK)
+public class SegmentVersionsTask implements Function<EmbeddedCacheManager, SegmentVersions> {
+
+   @ProtoField(1)
+   final String cacheName;
+
+   @ProtoFactory
+   SegmentVersionsTask(String cacheName) {
+      this.cacheName = cacheName;
+   }
+
+   @Override
+   public SegmentVersions apply(EmbeddedCacheManager cacheManager) {
+      Cache<?, ?> cache = SecurityActions.getCache(cacheManager, cacheName);
+      QueryResultCache resultCache = SecurityActions.getCacheComponentRegistry(cache.getAdvancedCache())
+            .getComponent(QueryResultCache.class);
+      return resultCache.primarySegmentVersions();
+   }
+}
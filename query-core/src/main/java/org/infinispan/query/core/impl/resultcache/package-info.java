@@ -0,0 +1,4 @@
+/**
+ * Cache of the results of repeated queries, invalidated by the writes to the segments they read.
+ */
+package org.infinispan.query.core.impl.resultcache;
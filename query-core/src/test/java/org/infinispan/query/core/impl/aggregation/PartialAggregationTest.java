@@ -0,0 +1,73 @@
+package org.infinispan.query.core.impl.aggregation;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.infinispan.objectfilter.impl.aggregation.FieldAccumulator;
+import org.infinispan.objectfilter.impl.aggregation.RowGrouper;
+import org.infinispan.objectfilter.impl.ql.AggregationFunction;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "query.core.impl.aggregation.PartialAggregationTest")
+public class PartialAggregationTest {
+
+   // SELECT name, COUNT(age), SUM(age), AVG(age), MIN(age), MAX(score) ... GROUP BY name
+   private final PartialAggregator aggregator = new PartialAggregator(1, List.of(
+         new AccumulatorDefinition(AggregationFunction.COUNT, 1, 1, Long.class),
+         new AccumulatorDefinition(AggregationFunction.SUM, 1, 2, Long.class),
+         new AccumulatorDefinition(AggregationFunction.AVG, 1, 3, Double.class),
+         new AccumulatorDefinition(AggregationFunction.MIN, 1, 4, Integer.class),
+         new AccumulatorDefinition(AggregationFunction.MAX, 2, 5, Double.class)));
+
+   private final Object[][] rows = {
+         {"a", 10, 1.5},
+         {"b", 20, 2.5},
+         {"a", null, 0.5},
+         {"a", 30, 3.5},
+         {"b", 40, null},
+         {"c", null, null},
+   };
+
+   public void testSameResultAsSinglePhase() {
+      PartialAggregation node1 = aggregator.get();
+      PartialAggregation node2 = aggregator.get();
+      for (int i = 0; i < rows.length; i++) {
+         (i % 2 == 0 ? node1 : node2).add(rows[i]);
+      }
+      node1.combine(node2);
+
+      RowGrouper merger = new RowGrouper(1, aggregator.mergingAccumulators().toArray(new FieldAccumulator[0]), true);
+      node1.rows().forEach(merger::addRow);
+
+      RowGrouper grouper = new RowGrouper(1, aggregator.updatingAccumulators().toArray(new FieldAccumulator[0]), false);
+      for (Object[] row : rows) {
+         grouper.addRow(row);
+      }
+
+      assertEquals(toList(grouper.finish()), toList(merger.finish()));
+   }
+
+   public void testGlobalAggregationWithoutRows() {
+      PartialAggregator globalAggregator = new PartialAggregator(0, List.of(
+            new AccumulatorDefinition(AggregationFunction.COUNT, 0, 0, Long.class),
+            new AccumulatorDefinition(AggregationFunction.SUM, 0, 1, Long.class)));
+      PartialAggregation partialAggregation = globalAggregator.get();
+      partialAggregation.combine(globalAggregator.get());
+
+      RowGrouper merger = new RowGrouper(0, globalAggregator.mergingAccumulators().toArray(new FieldAccumulator[0]), true);
+      partialAggregation.rows().forEach(merger::addRow);
+
+      assertEquals(List.of(Arrays.asList(0L, null)), toList(merger.finish()));
+   }
+
+   private static List<List<Object>> toList(Iterator<Object[]> iterator) {
+      List<List<Object>> list = new ArrayList<>();
+      iterator.forEachRemaining(row -> list.add(Arrays.asList(row)));
+      list.sort((r1, r2) -> String.valueOf(r1.get(0)).compareTo(String.valueOf(r2.get(0))));
+      return list;
+   }
+}
@@ -0,0 +1,226 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import static org.infinispan.query.core.impl.fieldindex.FieldIndexLocalQueryTest.NAME;
+import static org.infinispan.query.core.impl.fieldindex.FieldIndexLocalQueryTest.NUM_ENTRIES;
+import static org.infinispan.query.core.impl.fieldindex.FieldIndexLocalQueryTest.PRICE;
+import static org.infinispan.query.core.impl.fieldindex.FieldIndexLocalQueryTest.query;
+import static org.infinispan.query.core.impl.fieldindex.FieldIndexLocalQueryTest.reads;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.JavaSerializationMarshaller;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+import org.infinispan.reactive.publisher.impl.LocalPublisherManager;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the non-indexed queries using the in-memory field indexes of a distributed cache, comparing their results with
+ * the ones of a cache without field indexes holding the same entries.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "query.core.impl.fieldindex.FieldIndexClusteredQueryTest")
+public class FieldIndexClusteredQueryTest extends MultipleCacheManagersTest {
+   private static final String INDEXED = "indexed";
+   private static final String PLAIN = "plain";
+
+   public FieldIndexClusteredQueryTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected GlobalConfigurationBuilder defaultGlobalConfigurationBuilder() {
+      GlobalConfigurationBuilder builder = super.defaultGlobalConfigurationBuilder();
+      builder.serialization().marshaller(new JavaSerializationMarshaller()).allowList().addClasses(Item.class);
+      return builder;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder plain = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC);
+      plain.clustering().hash().numOwners(2);
+      ConfigurationBuilder indexed = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC);
+      indexed.clustering().hash().numOwners(2);
+      indexed.query().addHashIndexedField(NAME).addSortedIndexedField(PRICE);
+      createCluster(plain, 3);
+      defineConfigurationOnAllManagers(PLAIN, plain);
+      defineConfigurationOnAllManagers(INDEXED, indexed);
+      waitForClusterToForm(PLAIN, INDEXED);
+   }
+
+   public void testQueriesMatchFullScan() {
+      populate();
+      for (int i = 0; i < 3; i++) {
+         assertMatchesFullScan(i, "name = 'n3'");
+         assertMatchesFullScan(i, "name = 'n3' AND price > 100");
+         assertMatchesFullScan(i, "name = 'missing'");
+         assertMatchesFullScan(i, "price = 42");
+         assertMatchesFullScan(i, "price > 150");
+         assertMatchesFullScan(i, "price <= 20");
+         assertMatchesFullScan(i, "price > 100 AND price < 110");
+      }
+   }
+
+   public void testLookupNarrowsEntriesRead() {
+      populate();
+      for (int i = 0; i < 3; i++) {
+         assertNarrowed(i, "name = 'n3'");
+         assertNarrowed(i, "price < 20");
+      }
+   }
+
+   public void testLocalQueryReadsAllLocalEntries() {
+      populate();
+      Cache<Object, Object> indexed = cache(0, INDEXED);
+      String q = "FROM " + Item.ENTITY + " WHERE price < 20";
+      Set<Item> local = new HashSet<>(indexed.<Item>query(q).local(true).execute().list());
+      Set<Item> plainLocal = new HashSet<>(cache(0, PLAIN).<Item>query(q).local(true).execute().list());
+      assertEquals(plainLocal, local);
+
+      // The indexes only cover the segments owned in the current topology, unlike the data container
+      Item.READS.set(0);
+      indexed.query(q).local(true).execute().list();
+      assertTrue(Item.READS.get() >= indexed.getAdvancedCache().getDataContainer().size());
+   }
+
+   public void testWritesAndRemoves() {
+      populate();
+      write(1, "k3", new Item("n3", 1003));
+      write(2, "k1000", new Item("n5", 1000));
+      remove(0, "k5");
+      remove(2, "k25");
+      for (int i = 0; i < 3; i++) {
+         assertMatchesFullScan(i, "name = 'n3'");
+         assertMatchesFullScan(i, "name = 'n5'");
+         assertMatchesFullScan(i, "price = 5");
+         assertMatchesFullScan(i, "price >= 1000");
+         assertNarrowed(i, "price >= 1000");
+      }
+
+      cache(1, INDEXED).clear();
+      cache(1, PLAIN).clear();
+      write(0, "k3", new Item("n3", 3));
+      for (int i = 0; i < 3; i++) {
+         assertMatchesFullScan(i, "name = 'n3'");
+         assertMatchesFullScan(i, "price < 20");
+      }
+   }
+
+   public void testTopologyChange() {
+      populate();
+      Cache<Object, Object> cache0 = cache(0, INDEXED);
+      IntSet ownedBefore = ownedSegments(cache0);
+      GatedLocalPublisherManager<Object, Object> gated = TestingUtil.wrapComponent(cache0, LocalPublisherManager.class,
+            GatedLocalPublisherManager::new);
+      String updatedKey;
+      String removedKey;
+      try {
+         killMember(2);
+         TestingUtil.waitForNoRebalance(caches(INDEXED));
+         eventually(() -> gated.buildsRead() >= 2);
+
+         List<String> keysInNewSegments = new ArrayList<>();
+         for (int i = 0; i < NUM_ENTRIES; i++) {
+            if (!ownedBefore.contains(segment(cache0, "k" + i))) {
+               keysInNewSegments.add("k" + i);
+            }
+         }
+         assertTrue(keysInNewSegments.size() >= 2);
+         updatedKey = keysInNewSegments.get(0);
+         removedKey = keysInNewSegments.get(1);
+
+         // The segments acquired by node 0 are not indexed yet, the queries read the whole cache
+         assertMatchesFullScan(1, "price < 20");
+         assertTrue(reads(cache(1, INDEXED), "price < 20") >= NUM_ENTRIES);
+
+         write(1, updatedKey, new Item("updated", 1000));
+         remove(1, removedKey);
+      } finally {
+         gated.open();
+      }
+      eventually(() -> isReady(cache0, NAME) && isReady(cache0, PRICE));
+
+      // The entries read by the build before the writes did not replace them
+      FieldIndex priceIndex = fieldIndexManager(cache0).findIndex(PRICE);
+      assertFalse(collect(cache0, priceIndex, updatedKey, price(updatedKey)).contains(updatedKey));
+      assertTrue(collect(cache0, priceIndex, updatedKey, 1000L).contains(updatedKey));
+      assertFalse(collect(cache0, priceIndex, removedKey, price(removedKey)).contains(removedKey));
+
+      for (int i = 0; i < 2; i++) {
+         assertMatchesFullScan(i, "price < 20");
+         assertMatchesFullScan(i, "price >= 1000");
+         assertMatchesFullScan(i, "name = 'updated'");
+         assertNarrowed(i, "price < 20");
+      }
+   }
+
+   private void populate() {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         write(i % 3, "k" + i, new Item("n" + i % 20, i));
+      }
+   }
+
+   private static long price(String key) {
+      return Long.parseLong(key.substring(1));
+   }
+
+   private void write(int node, String key, Item item) {
+      cache(node, INDEXED).put(key, item);
+      cache(node, PLAIN).put(key, item);
+   }
+
+   private void remove(int node, String key) {
+      cache(node, INDEXED).remove(key);
+      cache(node, PLAIN).remove(key);
+   }
+
+   private void assertMatchesFullScan(int node, String where) {
+      assertEquals(where, query(cache(node, PLAIN), where), query(cache(node, INDEXED), where));
+   }
+
+   private void assertNarrowed(int node, String where) {
+      int reads = reads(cache(node, INDEXED), where);
+      assertTrue(where + " read " + reads + " properties", reads < NUM_ENTRIES / 2);
+      assertTrue(reads(cache(node, PLAIN), where) >= NUM_ENTRIES);
+   }
+
+   private static FieldIndexManager fieldIndexManager(Cache<?, ?> cache) {
+      return ComponentRegistry.componentOf(cache, FieldIndexManager.class);
+   }
+
+   private static IntSet ownedSegments(Cache<?, ?> cache) {
+      DistributionManager dm = cache.getAdvancedCache().getDistributionManager();
+      return dm.getCacheTopology().getLocalReadSegments();
+   }
+
+   private static int segment(Cache<?, ?> cache, Object key) {
+      return ComponentRegistry.componentOf(cache, KeyPartitioner.class).getSegment(key);
+   }
+
+   private static boolean isReady(Cache<?, ?> cache, String field) {
+      FieldIndex index = fieldIndexManager(cache).findIndex(field);
+      return ownedSegments(cache).intStream().allMatch(s -> index.segment(s).isReady());
+   }
+
+   private static List<Object> collect(Cache<?, ?> cache, FieldIndex index, Object key, Object value) {
+      List<Object> keys = new ArrayList<>();
+      index.segment(segment(cache, key)).collect(ComparisonExpr.Type.EQUAL, value, keys);
+      return keys;
+   }
+}
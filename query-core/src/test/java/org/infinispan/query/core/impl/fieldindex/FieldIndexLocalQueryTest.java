@@ -0,0 +1,211 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.objectfilter.impl.ReflectionMatcher;
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+import org.infinispan.reactive.publisher.impl.LocalPublisherManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the non-indexed queries using the in-memory field indexes of a local cache, comparing their results with the
+ * ones of a cache without field indexes holding the same entries.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "query.core.impl.fieldindex.FieldIndexLocalQueryTest")
+public class FieldIndexLocalQueryTest extends SingleCacheManagerTest {
+   static final int NUM_ENTRIES = 200;
+   static final String NAME = Item.ENTITY + ".name";
+   static final String PRICE = Item.ENTITY + ".price";
+
+   private Cache<Object, Object> plainCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() {
+      ConfigurationBuilder indexed = getDefaultStandaloneCacheConfig(false);
+      indexed.query().addHashIndexedField(NAME).addSortedIndexedField(PRICE);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(true);
+      cm.defineConfiguration("indexed", indexed.build());
+      cm.defineConfiguration("plain", getDefaultStandaloneCacheConfig(false).build());
+      cache = cm.getCache("indexed");
+      plainCache = cm.getCache("plain");
+      return cm;
+   }
+
+   public void testHashIndexedField() {
+      populate();
+      assertMatchesFullScan("name = 'n3'");
+      assertMatchesFullScan("'n3' = name");
+      assertMatchesFullScan("name = 'n3' AND price > 100");
+      assertMatchesFullScan("name = 'missing'");
+      assertNarrowed("name = 'n3'");
+   }
+
+   public void testSortedIndexedField() {
+      populate();
+      assertMatchesFullScan("price = 42");
+      assertMatchesFullScan("price > 150");
+      assertMatchesFullScan("price >= 150");
+      assertMatchesFullScan("price < 20");
+      assertMatchesFullScan("price <= 20");
+      assertMatchesFullScan("150 < price");
+      assertMatchesFullScan("price > 100 AND price < 110");
+      assertNarrowed("price < 20");
+   }
+
+   public void testWritesAndRemoves() {
+      populate();
+      write("k3", new Item("n3", 1003));
+      write("k1000", new Item("n5", 1000));
+      remove("k5");
+      remove("k25");
+
+      assertMatchesFullScan("name = 'n3'");
+      assertMatchesFullScan("name = 'n5'");
+      assertMatchesFullScan("price = 3");
+      assertMatchesFullScan("price = 5");
+      assertMatchesFullScan("price >= 1000");
+      assertNarrowed("price >= 1000");
+   }
+
+   public void testClear() {
+      populate();
+      cache.clear();
+      plainCache.clear();
+      assertMatchesFullScan("name = 'n3'");
+      assertMatchesFullScan("price < 20");
+
+      write("k3", new Item("n3", 3));
+      assertMatchesFullScan("name = 'n3'");
+      assertMatchesFullScan("price < 20");
+   }
+
+   public void testMixedValueKindsFallBackToFullScan() {
+      populate();
+      // The values extracted with a previous version of the entity may have a different kind
+      priceIndex().segment(segment("k7")).put("k7", "seven");
+
+      assertMatchesFullScan("price < 20");
+      assertFullScan("price < 20");
+      // The segments holding a single kind of values still use the index
+      assertNarrowed("name = 'n3'");
+   }
+
+   public void testWritesAndRemovesDuringBuild() {
+      populate();
+      GatedLocalPublisherManager<Object, Object> gated = TestingUtil.wrapComponent(cache, LocalPublisherManager.class,
+            GatedLocalPublisherManager::new);
+      try {
+         // Registering the engine again drops the indexes and builds them from the stored entries
+         ComponentRegistry registry = ComponentRegistry.of(cache);
+         ReflectionMatcher matcher = registry.getComponent(ReflectionMatcher.class);
+         fieldIndexManager().registerEngine(registry.getComponent(Cache.class).getAdvancedCache(), matcher,
+               matcher.getPropertyHelper());
+         eventuallyEquals(2, gated::buildsRead);
+
+         // The queries read the whole cache until the indexes are built
+         assertMatchesFullScan("price < 20");
+         assertFullScan("price < 20");
+
+         write("k3", new Item("n3", 1003));
+         remove("k4");
+         write("k1000", new Item("n0", 1000));
+      } finally {
+         gated.open();
+      }
+      eventually(() -> isReady(priceIndex()) && isReady(fieldIndexManager().findIndex(NAME)));
+
+      // The entries read by the build before the writes did not replace them
+      assertFalse(collect(priceIndex(), "k3", 3L).contains("k3"));
+      assertTrue(collect(priceIndex(), "k3", 1003L).contains("k3"));
+      assertFalse(collect(priceIndex(), "k4", 4L).contains("k4"));
+      assertTrue(collect(priceIndex(), "k1000", 1000L).contains("k1000"));
+
+      assertMatchesFullScan("price < 20");
+      assertMatchesFullScan("price >= 1000");
+      assertMatchesFullScan("name = 'n4'");
+      assertNarrowed("price < 20");
+   }
+
+   private void populate() {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         write("k" + i, new Item("n" + i % 20, i));
+      }
+   }
+
+   private void write(String key, Item item) {
+      cache.put(key, item);
+      plainCache.put(key, item);
+   }
+
+   private void remove(String key) {
+      cache.remove(key);
+      plainCache.remove(key);
+   }
+
+   private void assertMatchesFullScan(String where) {
+      assertEquals(where, query(plainCache, where), query(cache, where));
+   }
+
+   private void assertNarrowed(String where) {
+      int matches = query(cache, where).size();
+      int reads = reads(cache, where);
+      assertTrue(where + " read " + reads + " properties for " + matches + " matches", reads < NUM_ENTRIES / 2);
+      assertTrue(reads(plainCache, where) >= NUM_ENTRIES);
+   }
+
+   private void assertFullScan(String where) {
+      assertTrue(reads(cache, where) >= NUM_ENTRIES);
+   }
+
+   static Set<Item> query(Cache<?, ?> cache, String where) {
+      List<Item> list = cache.<Item>query("FROM " + Item.ENTITY + " WHERE " + where).execute().list();
+      return new HashSet<>(list);
+   }
+
+   static int reads(Cache<?, ?> cache, String where) {
+      Item.READS.set(0);
+      query(cache, where);
+      return Item.READS.get();
+   }
+
+   private FieldIndexManager fieldIndexManager() {
+      return ComponentRegistry.componentOf(cache, FieldIndexManager.class);
+   }
+
+   private FieldIndex priceIndex() {
+      return fieldIndexManager().findIndex(PRICE);
+   }
+
+   private int segment(Object key) {
+      return ComponentRegistry.componentOf(cache, KeyPartitioner.class).getSegment(key);
+   }
+
+   private boolean isReady(FieldIndex index) {
+      int numSegments = cache.getCacheConfiguration().clustering().hash().numSegments();
+      return IntStream.range(0, numSegments).allMatch(s -> index.segment(s).isReady());
+   }
+
+   private List<Object> collect(FieldIndex index, Object key, Object value) {
+      List<Object> keys = new ArrayList<>();
+      index.segment(segment(key)).collect(ComparisonExpr.Type.EQUAL, value, keys);
+      return keys;
+   }
+}
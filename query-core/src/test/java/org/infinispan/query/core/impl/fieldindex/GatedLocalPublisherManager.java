@@ -0,0 +1,117 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.infinispan.commons.util.EnumUtil;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.reactive.publisher.impl.DeliveryGuarantee;
+import org.infinispan.reactive.publisher.impl.LocalPublisherManager;
+import org.infinispan.reactive.publisher.impl.PublisherResult;
+import org.infinispan.reactive.publisher.impl.SegmentAwarePublisherSupplier;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Holds back the entries read to build the field indexes until {@link #open()} is invoked, so the tests can write
+ * while the indexes are being built. The entries are read before the gate opens, so the build sees their values
+ * before the writes.
+ */
+class GatedLocalPublisherManager<K, V> implements LocalPublisherManager<K, V> {
+   private final LocalPublisherManager<K, V> delegate;
+   private final CompletableFuture<Void> gate = new CompletableFuture<>();
+   private final AtomicInteger builds = new AtomicInteger();
+   private final AtomicInteger read = new AtomicInteger();
+
+   GatedLocalPublisherManager(LocalPublisherManager<K, V> delegate) {
+      this.delegate = delegate;
+   }
+
+   void open() {
+      gate.complete(null);
+   }
+
+   /**
+    * @return the number of builds held back, once all of them have read their entries, or {@code -1}.
+    */
+   int buildsRead() {
+      int started = builds.get();
+      return started == read.get() ? started : -1;
+   }
+
+   @Override
+   public <R> CompletionStage<PublisherResult<R>> keyReduction(boolean parallelPublisher, IntSet segments, Set<K> keysToInclude,
+                                                               Set<K> keysToExclude, long explicitFlags,
+                                                               DeliveryGuarantee deliveryGuarantee,
+                                                               Function<? super Publisher<K>, ? extends CompletionStage<R>> transformer,
+                                                               Function<? super Publisher<R>, ? extends CompletionStage<R>> finalizer) {
+      return delegate.keyReduction(parallelPublisher, segments, keysToInclude, keysToExclude, explicitFlags,
+            deliveryGuarantee, transformer, finalizer);
+   }
+
+   @Override
+   public <R> CompletionStage<PublisherResult<R>> entryReduction(boolean parallelPublisher, IntSet segments, Set<K> keysToInclude,
+                                                                 Set<K> keysToExclude, long explicitFlags,
+                                                                 DeliveryGuarantee deliveryGuarantee,
+                                                                 Function<? super Publisher<CacheEntry<K, V>>, ? extends CompletionStage<R>> transformer,
+                                                                 Function<? super Publisher<R>, ? extends CompletionStage<R>> finalizer) {
+      return delegate.entryReduction(parallelPublisher, segments, keysToInclude, keysToExclude, explicitFlags,
+            deliveryGuarantee, transformer, finalizer);
+   }
+
+   @Override
+   public <R> SegmentAwarePublisherSupplier<R> keyPublisher(IntSet segments, Set<K> keysToInclude, Set<K> keysToExclude,
+                                                            long explicitFlags, DeliveryGuarantee deliveryGuarantee,
+                                                            Function<? super Publisher<K>, ? extends Publisher<R>> transformer) {
+      return delegate.keyPublisher(segments, keysToInclude, keysToExclude, explicitFlags, deliveryGuarantee, transformer);
+   }
+
+   @Override
+   public <R> SegmentAwarePublisherSupplier<R> entryPublisher(IntSet segments, Set<K> keysToInclude, Set<K> keysToExclude,
+                                                              long explicitFlags, DeliveryGuarantee deliveryGuarantee,
+                                                              Function<? super Publisher<CacheEntry<K, V>>, ? extends Publisher<R>> transformer) {
+      SegmentAwarePublisherSupplier<R> supplier = delegate.entryPublisher(segments, keysToInclude, keysToExclude,
+            explicitFlags, deliveryGuarantee, transformer);
+      // Only the builds of the field indexes read whole segments without flags and without transforming the entries
+      if (gate.isDone() || keysToInclude != null || explicitFlags != EnumUtil.EMPTY_BIT_SET ||
+            deliveryGuarantee != DeliveryGuarantee.AT_MOST_ONCE || transformer != Function.identity()) {
+         return supplier;
+      }
+      builds.incrementAndGet();
+      return new SegmentAwarePublisherSupplier<>() {
+         @Override
+         public Publisher<R> publisherWithoutSegments() {
+            return Flowable.fromPublisher(supplier.publisherWithoutSegments())
+                  .toList()
+                  .doOnSuccess(entries -> read.incrementAndGet())
+                  .flatMapPublisher(entries -> Completable.fromCompletionStage(gate).andThen(Flowable.fromIterable(entries)));
+         }
+
+         @Override
+         public Publisher<Notification<R>> publisherWithSegments() {
+            return supplier.publisherWithSegments();
+         }
+
+         @Override
+         public Publisher<NotificationWithLost<R>> publisherWithLostSegments(boolean reuseNotifications) {
+            return supplier.publisherWithLostSegments(reuseNotifications);
+         }
+      };
+   }
+
+   @Override
+   public void segmentsLost(IntSet lostSegments) {
+      delegate.segmentsLost(lostSegments);
+   }
+
+   @Override
+   public CompletionStage<Long> sizePublisher(IntSet segments, long flags) {
+      return delegate.sizePublisher(segments, flags);
+   }
+}
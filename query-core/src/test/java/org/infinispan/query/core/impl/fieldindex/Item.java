@@ -0,0 +1,50 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The entity queried by the field index tests, counting the reads of its properties to tell how many entries a query
+ * filtered.
+ */
+public class Item implements Serializable {
+   static final String ENTITY = Item.class.getName();
+   static final AtomicInteger READS = new AtomicInteger();
+
+   private final String name;
+   private final int price;
+
+   public Item(String name, int price) {
+      this.name = name;
+      this.price = price;
+   }
+
+   public String getName() {
+      READS.incrementAndGet();
+      return name;
+   }
+
+   public int getPrice() {
+      READS.incrementAndGet();
+      return price;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Item item = (Item) o;
+      return price == item.price && name.equals(item.name);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hash(name, price);
+   }
+
+   @Override
+   public String toString() {
+      return "Item{name='" + name + "', price=" + price + '}';
+   }
+}
@@ -0,0 +1,138 @@
+package org.infinispan.query.core.impl.fieldindex;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "query.core.impl.fieldindex.SegmentFieldIndexTest")
+public class SegmentFieldIndexTest {
+
+   public void testEqual() {
+      SegmentFieldIndex index = new SegmentFieldIndex(false);
+      index.put("k1", "a");
+      index.put("k2", "b");
+      index.put("k3", "a");
+      index.put("k4", null);
+
+      assertEquals(Set.of("k1", "k3"), collect(index, ComparisonExpr.Type.EQUAL, "a"));
+      assertEquals(Set.of(), collect(index, ComparisonExpr.Type.EQUAL, "c"));
+
+      index.put("k1", "b");
+      index.remove("k3");
+      assertEquals(Set.of(), collect(index, ComparisonExpr.Type.EQUAL, "a"));
+      assertEquals(Set.of("k1", "k2"), collect(index, ComparisonExpr.Type.EQUAL, "b"));
+      // The keys without the field are not stored
+      assertEquals(2, index.size());
+   }
+
+   public void testRange() {
+      SegmentFieldIndex index = new SegmentFieldIndex(true);
+      index.put("k1", 1);
+      index.put("k2", 2L);
+      index.put("k3", (short) 3);
+
+      assertEquals(Set.of("k1"), collect(index, ComparisonExpr.Type.LESS, 2L));
+      assertEquals(Set.of("k1", "k2"), collect(index, ComparisonExpr.Type.LESS_OR_EQUAL, 2L));
+      assertEquals(Set.of("k3"), collect(index, ComparisonExpr.Type.GREATER, 2L));
+      assertEquals(Set.of("k2", "k3"), collect(index, ComparisonExpr.Type.GREATER_OR_EQUAL, 2L));
+   }
+
+   public void testUnindexedValuesAlwaysReturned() {
+      SegmentFieldIndex index = new SegmentFieldIndex(true);
+      index.put("k1", 1L);
+      index.put("k2", List.of(1L));
+      index.put("k3", SegmentFieldIndex.UNINDEXED);
+
+      assertEquals(Set.of("k2", "k3"), collect(index, ComparisonExpr.Type.GREATER, 5L));
+
+      index.remove("k2");
+      index.put("k3", 7L);
+      assertEquals(Set.of("k3"), collect(index, ComparisonExpr.Type.GREATER, 5L));
+   }
+
+   public void testKindMismatch() {
+      SegmentFieldIndex index = new SegmentFieldIndex(true);
+      index.put("k1", 1L);
+      index.put("k2", 1.5d);
+
+      assertFalse(index.collect(ComparisonExpr.Type.GREATER, 1L, new HashSet<>()));
+
+      index.clear();
+      index.put("k1", 1L);
+      assertTrue(index.collect(ComparisonExpr.Type.GREATER, 0L, new HashSet<>()));
+   }
+
+   public void testBuildDoesNotOverrideWrites() {
+      SegmentFieldIndex index = new SegmentFieldIndex(false);
+      int generation = index.buildStarted();
+      assertEquals(-1, index.buildStarted());
+
+      index.put("k1", "written");
+      index.remove("k2");
+      index.put("k4", null);
+      index.putIfAbsent("k1", "read");
+      index.putIfAbsent("k2", "read");
+      index.putIfAbsent("k3", "read");
+      index.putIfAbsent("k4", "read");
+      assertFalse(index.isReady());
+
+      index.buildCompleted(generation);
+      assertTrue(index.isReady());
+      assertEquals(Set.of("k1"), collect(index, ComparisonExpr.Type.EQUAL, "written"));
+      assertEquals(Set.of("k3"), collect(index, ComparisonExpr.Type.EQUAL, "read"));
+   }
+
+   public void testClearWhileBuilding() {
+      SegmentFieldIndex index = new SegmentFieldIndex(false);
+      int generation = index.buildStarted();
+      index.putIfAbsent("k1", "a");
+      index.clear();
+      index.putIfAbsent("k2", "a");
+      index.put("k3", "a");
+      index.buildCompleted(generation);
+
+      assertEquals(Set.of("k3"), collect(index, ComparisonExpr.Type.EQUAL, "a"));
+   }
+
+   public void testDropDuringBuild() {
+      SegmentFieldIndex index = new SegmentFieldIndex(false);
+      int generation = index.buildStarted();
+      index.putIfAbsent("k1", "a");
+      index.drop();
+
+      index.buildCompleted(generation);
+      assertFalse(index.isReady());
+      assertEquals(0, index.size());
+
+      generation = index.buildStarted();
+      index.putIfAbsent("k1", "a");
+      index.buildCompleted(generation);
+      assertTrue(index.isReady());
+      assertEquals(Set.of("k1"), collect(index, ComparisonExpr.Type.EQUAL, "a"));
+   }
+
+   public void testFailedBuildCanBeRetried() {
+      SegmentFieldIndex index = new SegmentFieldIndex(false);
+      int generation = index.buildStarted();
+      index.buildFailed(generation);
+      assertFalse(index.isReady());
+
+      generation = index.buildStarted();
+      assertTrue(generation >= 0);
+      index.buildCompleted(generation);
+      assertTrue(index.isReady());
+   }
+
+   private static Set<Object> collect(SegmentFieldIndex index, ComparisonExpr.Type type, Object value) {
+      Set<Object> keys = new HashSet<>();
+      assertTrue(index.collect(type, value, keys));
+      return keys;
+   }
+}
@@ -0,0 +1,50 @@
+package org.infinispan.query.core.impl.resultcache;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The entity queried by the query result cache tests, counting the reads of its properties to tell whether a query
+ * read the entries again.
+ */
+public class Product implements Serializable {
+   static final String ENTITY = Product.class.getName();
+   static final AtomicInteger READS = new AtomicInteger();
+
+   private final String name;
+   private final int price;
+
+   public Product(String name, int price) {
+      this.name = name;
+      this.price = price;
+   }
+
+   public String getName() {
+      READS.incrementAndGet();
+      return name;
+   }
+
+   public int getPrice() {
+      READS.incrementAndGet();
+      return price;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Product product = (Product) o;
+      return price == product.price && name.equals(product.name);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hash(name, price);
+   }
+
+   @Override
+   public String toString() {
+      return "Product{name='" + name + "', price=" + price + '}';
+   }
+}
@@ -0,0 +1,192 @@
+package org.infinispan.query.core.impl.resultcache;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.List;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.JavaSerializationMarshaller;
+import org.infinispan.commons.util.concurrent.CompletionStages;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the query result cache of a distributed cache, whose queries compare the versions of the segments of all the
+ * primary owners.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "query.core.impl.resultcache.QueryResultCacheClusteredTest")
+public class QueryResultCacheClusteredTest extends MultipleCacheManagersTest {
+   private static final String QUERY = "FROM " + Product.ENTITY + " WHERE price < 10";
+
+   public QueryResultCacheClusteredTest() {
+      // Start every test with empty statistics
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected GlobalConfigurationBuilder defaultGlobalConfigurationBuilder() {
+      GlobalConfigurationBuilder builder = super.defaultGlobalConfigurationBuilder();
+      builder.serialization().marshaller(new JavaSerializationMarshaller()).allowList().addClasses(Product.class);
+      return builder;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC);
+      builder.clustering().hash().numOwners(2);
+      builder.query().resultCacheSize(10);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testHit() {
+      populate();
+      List<Product> first = list(0);
+      assertEquals(10, first.size());
+
+      Product.READS.set(0);
+      assertEquals(first, list(0));
+      assertEquals(0, Product.READS.get());
+      assertEquals(1, resultCache(0).getHits());
+      assertEquals(1, resultCache(0).getMisses());
+
+      // Every node caches its own results
+      assertEquals(first.size(), list(1).size());
+      assertEquals(0, resultCache(1).getHits());
+      assertEquals(1, resultCache(1).getMisses());
+   }
+
+   public void testExecuteAsync() {
+      populate();
+      List<Product> first = list(0);
+      List<Product> async = CompletionStages.join(cache(0).<Product>query(QUERY).executeAsync()).list();
+      assertEquals(first, async);
+      assertEquals(1, resultCache(0).getHits());
+
+      cache(2).put(keyNotOwnedBy(0), new Product("n", 1));
+      async = CompletionStages.join(cache(0).<Product>query(QUERY).executeAsync()).list();
+      assertEquals(11, async.size());
+      assertEquals(1, resultCache(0).getHits());
+      assertEquals(2, resultCache(0).getMisses());
+   }
+
+   public void testInvalidatedByPutOnOtherOwners() {
+      populate();
+      list(0);
+      // Only the versions of the primary owners of the segment change
+      String key = keyNotOwnedBy(0);
+      cache(2).put(key, new Product("n", 1));
+      assertEquals(11, list(0).size());
+      assertEquals(0, resultCache(0).getHits());
+      assertEquals(2, resultCache(0).getMisses());
+
+      assertEquals(11, list(0).size());
+      assertEquals(1, resultCache(0).getHits());
+   }
+
+   public void testInvalidatedByRemoveOnOtherOwners() {
+      populate();
+      list(0);
+      String key = keyNotOwnedBy(0);
+      cache(1).put(key, new Product("n", 1));
+      assertEquals(11, list(0).size());
+      cache(2).remove(key);
+      assertEquals(10, list(0).size());
+      assertEquals(0, resultCache(0).getHits());
+      assertEquals(3, resultCache(0).getMisses());
+   }
+
+   public void testInvalidatedByClear() {
+      populate();
+      list(0);
+      cache(1).clear();
+      assertEquals(0, list(0).size());
+      assertEquals(0, resultCache(0).getHits());
+      assertEquals(2, resultCache(0).getMisses());
+   }
+
+   public void testLocalQuery() {
+      populate();
+      Cache<Object, Object> cache = cache(0);
+      int size = cache.query(QUERY).local(true).execute().list().size();
+      assertEquals(size, cache.query(QUERY).local(true).execute().list().size());
+      assertEquals(1, resultCache(0).getHits());
+
+      // A local query only sees the writes of the local node
+      String key = keyOwnedBy(0);
+      cache(1).put(key, new Product("n", 1));
+      assertEquals(size + 1, cache.query(QUERY).local(true).execute().list().size());
+      assertEquals(1, resultCache(0).getHits());
+   }
+
+   public void testSegmentVersionsTask() {
+      populate();
+      // Every node returns the versions of its primary segments
+      int numSegments = cache(0).getCacheConfiguration().clustering().hash().numSegments();
+      int covered = 0;
+      for (int i = 0; i < 3; i++) {
+         SegmentVersions versions = resultCache(i).primarySegmentVersions();
+         assertEquals(cache(i).getAdvancedCache().getDistributionManager().getCacheTopology().getTopologyId(),
+               versions.getTopologyId());
+         covered += versions.segments().size();
+      }
+      assertEquals(numSegments, covered);
+
+      String key = keyNotOwnedBy(0);
+      int primaryOwner = primaryOwnerIndex(key);
+      int segment = cache(0).getAdvancedCache().getDistributionManager().getCacheTopology().getSegment(key);
+      long before = resultCache(primaryOwner).primarySegmentVersions().version(segment);
+      cache(0).put(key, new Product("n", 100));
+      assertTrue(resultCache(primaryOwner).primarySegmentVersions().version(segment) > before);
+      assertFalse(resultCache(0).primarySegmentVersions().segments().contains(segment));
+   }
+
+   private void populate() {
+      for (int i = 0; i < 100; i++) {
+         cache(i % 3).put("k" + i, new Product("n" + i, i));
+      }
+   }
+
+   private List<Product> list(int node) {
+      return cache(node).<Product>query(QUERY).execute().list();
+   }
+
+   private QueryResultCache resultCache(int node) {
+      return ComponentRegistry.componentOf(cache(node), QueryResultCache.class);
+   }
+
+   private String keyOwnedBy(int node) {
+      for (int i = 0; ; i++) {
+         String key = "owned" + i;
+         if (cache(node).getAdvancedCache().getDistributionManager().getCacheTopology().isWriteOwner(key)) {
+            return key;
+         }
+      }
+   }
+
+   private String keyNotOwnedBy(int node) {
+      for (int i = 0; ; i++) {
+         String key = "other" + i;
+         if (!cache(node).getAdvancedCache().getDistributionManager().getCacheTopology().isWriteOwner(key)) {
+            return key;
+         }
+      }
+   }
+
+   private int primaryOwnerIndex(Object key) {
+      for (int i = 0; i < 3; i++) {
+         if (cache(i).getAdvancedCache().getDistributionManager().getCacheTopology().getDistribution(key).isPrimary()) {
+            return i;
+         }
+      }
+      throw new IllegalStateException("No primary owner for " + key);
+   }
+}
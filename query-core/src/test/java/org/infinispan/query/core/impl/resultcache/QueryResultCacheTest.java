@@ -0,0 +1,184 @@
+package org.infinispan.query.core.impl.resultcache;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.infinispan.commons.api.query.Query;
+import org.infinispan.commons.jmx.MBeanServerLookup;
+import org.infinispan.commons.jmx.TestMBeanServerLookup;
+import org.infinispan.commons.util.concurrent.CompletionStages;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.IndexStorage;
+import org.infinispan.configuration.cache.IndexingMode;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the query result cache of a local cache.
+ *
+ * @since 16.0
+ */
+@Test(groups = "functional", testName = "query.core.impl.resultcache.QueryResultCacheTest")
+public class QueryResultCacheTest extends SingleCacheManagerTest {
+   private static final String JMX_DOMAIN = QueryResultCacheTest.class.getSimpleName();
+   private static final String CACHE_NAME = "results";
+   private static final String QUERY = "FROM " + Product.ENTITY + " WHERE price < 10";
+
+   private final MBeanServerLookup mBeanServerLookup = TestMBeanServerLookup.create();
+
+   public QueryResultCacheTest() {
+      // Start every test with empty statistics
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder().nonClusteredDefault();
+      global.jmx().enabled(true).domain(JMX_DOMAIN).mBeanServerLookup(mBeanServerLookup);
+      ConfigurationBuilder builder = getDefaultStandaloneCacheConfig(false);
+      builder.query().resultCacheSize(10);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(global, builder);
+      cm.defineConfiguration(CACHE_NAME, builder.build());
+      cache = cm.getCache(CACHE_NAME);
+      return cm;
+   }
+
+   public void testHit() {
+      populate();
+      List<Product> first = list(QUERY);
+      assertEquals(10, first.size());
+
+      Product.READS.set(0);
+      assertEquals(first, list(QUERY));
+      // The entries were not read again
+      assertEquals(0, Product.READS.get());
+      assertEquals(1, resultCache().getHits());
+      assertEquals(1, resultCache().getMisses());
+   }
+
+   public void testNamedParameters() {
+      populate();
+      Query<Product> query = cache.query("FROM " + Product.ENTITY + " WHERE price < :price");
+      assertEquals(5, query.setParameter("price", 5).execute().list().size());
+      assertEquals(7, query.setParameter("price", 7).execute().list().size());
+      assertEquals(5, query.setParameter("price", 5).execute().list().size());
+      assertEquals(1, resultCache().getHits());
+      assertEquals(2, resultCache().getMisses());
+   }
+
+   public void testExecuteAsync() {
+      populate();
+      List<Product> first = list(QUERY);
+
+      Product.READS.set(0);
+      assertEquals(first, executeAsync(QUERY));
+      assertEquals(0, Product.READS.get());
+      assertEquals(1, resultCache().getHits());
+
+      cache.put("k100", new Product("n100", 1));
+      assertEquals(11, executeAsync(QUERY).size());
+      assertEquals(11, list(QUERY).size());
+      assertEquals(2, resultCache().getHits());
+      assertEquals(2, resultCache().getMisses());
+   }
+
+   public void testInvalidatedByPut() {
+      populate();
+      list(QUERY);
+      cache.put("k100", new Product("n100", 1));
+      assertEquals(11, list(QUERY).size());
+      assertEquals(0, resultCache().getHits());
+      assertEquals(2, resultCache().getMisses());
+   }
+
+   public void testInvalidatedByRemove() {
+      populate();
+      list(QUERY);
+      cache.remove("k3");
+      assertEquals(9, list(QUERY).size());
+      assertEquals(0, resultCache().getHits());
+      assertEquals(2, resultCache().getMisses());
+   }
+
+   public void testInvalidatedByClear() {
+      populate();
+      list(QUERY);
+      cache.clear();
+      assertEquals(0, list(QUERY).size());
+      assertEquals(0, resultCache().getHits());
+      assertEquals(2, resultCache().getMisses());
+   }
+
+   public void testMBeanAttributes() throws Exception {
+      populate();
+      ObjectName name = TestingUtil.getCacheObjectName(JMX_DOMAIN, CACHE_NAME + "(local)", "QueryResultCache");
+      MBeanServer mBeanServer = mBeanServerLookup.getMBeanServer();
+      assertTrue(mBeanServer.isRegistered(name));
+      assertEquals(0L, mBeanServer.getAttribute(name, "Hits"));
+      assertEquals(0L, mBeanServer.getAttribute(name, "Misses"));
+      assertEquals(0.0, mBeanServer.getAttribute(name, "HitRatio"));
+
+      list(QUERY);
+      list(QUERY);
+      list(QUERY);
+      cache.put("k3", new Product("n3", 3));
+      list(QUERY);
+
+      assertEquals(2L, mBeanServer.getAttribute(name, "Hits"));
+      assertEquals(2L, mBeanServer.getAttribute(name, "Misses"));
+      assertEquals(0.5, mBeanServer.getAttribute(name, "HitRatio"));
+   }
+
+   public void testDisabled() {
+      assertTrue(QueryResultCache.isEnabled(cache.getCacheConfiguration()));
+
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      assertFalse(QueryResultCache.isEnabled(builder.build()));
+
+      builder.query().resultCacheSize(10);
+      builder.clustering().cacheMode(CacheMode.INVALIDATION_SYNC);
+      assertFalse(QueryResultCache.isEnabled(builder.build()));
+
+      builder.clustering().cacheMode(CacheMode.LOCAL);
+      builder.indexing().enable().storage(IndexStorage.LOCAL_HEAP).addIndexedEntity("book_sample.Book");
+      assertTrue(QueryResultCache.isEnabled(builder.build()));
+
+      // The index readers see the writes only once they are refreshed
+      builder.indexing().reader().refreshInterval(1000);
+      assertFalse(QueryResultCache.isEnabled(builder.build()));
+
+      builder.indexing().reader().refreshInterval(0);
+      builder.indexing().indexingMode(IndexingMode.MANUAL);
+      assertFalse(QueryResultCache.isEnabled(builder.build()));
+   }
+
+   private void populate() {
+      for (int i = 0; i < 100; i++) {
+         cache.put("k" + i, new Product("n" + i, i));
+      }
+   }
+
+   private List<Product> list(String query) {
+      return cache.<Product>query(query).execute().list();
+   }
+
+   private List<Product> executeAsync(String query) {
+      return CompletionStages.join(cache.<Product>query(query).executeAsync()).list();
+   }
+
+   private QueryResultCache resultCache() {
+      return ComponentRegistry.componentOf(cache, QueryResultCache.class);
+   }
+}
@@ -0,0 +1,38 @@
+package org.infinispan.query.core.impl.resultcache;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import java.util.Set;
+
+import org.infinispan.commons.util.IntSets;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "query.core.impl.resultcache.SegmentVersionsTest")
+public class SegmentVersionsTest {
+
+   public void testSameVersions() {
+      SegmentVersions v1 = new SegmentVersions(3, IntSets.immutableRangeSet(4), new long[]{1, 2, 3, 4});
+      SegmentVersions v2 = new SegmentVersions(3, IntSets.immutableRangeSet(4), new long[]{1, 2, 3, 4});
+      assertEquals(v1, v2);
+      assertEquals(v1.hashCode(), v2.hashCode());
+   }
+
+   public void testSegmentWritten() {
+      SegmentVersions v1 = new SegmentVersions(3, IntSets.immutableRangeSet(4), new long[]{1, 2, 3, 4});
+      SegmentVersions v2 = new SegmentVersions(3, IntSets.immutableRangeSet(4), new long[]{1, 2, 4, 4});
+      assertFalse(v1.equals(v2));
+   }
+
+   public void testTopologyChanged() {
+      SegmentVersions v1 = new SegmentVersions(3, IntSets.immutableRangeSet(4), new long[]{1, 2, 3, 4});
+      SegmentVersions v2 = new SegmentVersions(4, IntSets.immutableRangeSet(4), new long[]{1, 2, 3, 4});
+      assertFalse(v1.equals(v2));
+   }
+
+   public void testOnlyIncludedSegmentsCompared() {
+      SegmentVersions v1 = new SegmentVersions(3, IntSets.from(Set.of(0, 2)), new long[]{1, 2, 3, 4});
+      SegmentVersions v2 = new SegmentVersions(3, IntSets.from(Set.of(0, 2)), new long[]{1, 7, 3, 9});
+      assertEquals(v1, v2);
+   }
+}
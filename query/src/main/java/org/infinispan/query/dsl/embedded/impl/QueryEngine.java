@@ -47,6 +47,8 @@
 import org.infinispan.query.core.impl.HybridQuery;
 import org.infinispan.query.core.impl.Log;
 import org.infinispan.query.core.impl.MetadataHybridQuery;
+import org.infinispan.query.core.impl.aggregation.AccumulatorDefinition;
+import org.infinispan.query.core.impl.aggregation.PartialAggregator;
 import org.infinispan.query.dsl.Query;
 import org.infinispan.query.dsl.QueryFactory;
 import org.infinispan.query.dsl.impl.BaseQuery;
@@ -204,7 +206,7 @@ protected BaseQuery<?> buildQueryWithAggregations(QueryFactory queryFactory, Str
       }
 
       LinkedHashMap<String, Integer> inColumns = new LinkedHashMap<>();
-      List<FieldAccumulator> accumulators = new LinkedList<>();
+      List<AccumulatorDefinition> accumulators = new LinkedList<>();
       RowPropertyHelper.ColumnMetadata[] _columns = new RowPropertyHelper.ColumnMetadata[columns.size()];
       for (PropertyPath<?> p : columns.keySet()) {
          RowPropertyHelper.ColumnMetadata c = columns.get(p);
@@ -216,8 +218,7 @@ protected BaseQuery<?> buildQueryWithAggregations(QueryFactory queryFactory, Str
             inColumns.put(asStringPath, inIdx);
          }
          if (p instanceof AggregationPropertyPath) {
-            FieldAccumulator acc = FieldAccumulator.makeAccumulator(((AggregationPropertyPath) p).getAggregationFunction(), inIdx, c.getColumnIndex(), c.getPropertyType());
-            accumulators.add(acc);
+            accumulators.add(new AccumulatorDefinition(((AggregationPropertyPath) p).getAggregationFunction(), inIdx, c.getColumnIndex(), c.getPropertyType()));
          }
       }
 
@@ -283,10 +284,10 @@ protected BaseQuery<?> buildQueryWithAggregations(QueryFactory queryFactory, Str
 
       // second phase: grouping, aggregation, 'having' clause filtering, sorting and pagination
       String secondPhaseQueryStr = secondPhaseQuery.toString();
-      return new AggregatingQuery<>(queryFactory, cache, secondPhaseQueryStr, namedParameters,
-            noOfGroupingColumns, accumulators, false,
+      return makeAggregatingQuery(queryFactory, secondPhaseQueryStr, namedParameters,
+            new PartialAggregator(noOfGroupingColumns, accumulators),
             getObjectFilter(new RowMatcher(_columns), secondPhaseQueryStr, namedParameters, null),
-            startOffset, maxResults, baseQuery, queryStatistics, local);
+            startOffset, maxResults, baseQuery, local);
    }
 
    private EmbeddedLuceneQuery<TypeMetadata, Object> buildQueryWithNativeAggregations(QueryFactory queryFactory, Map<String, Object> namedParameters, long startOffset, int maxResults, IckleParsingResult<TypeMetadata> parsingResult, boolean local) {
@@ -507,7 +508,7 @@ protected BaseQuery<?> buildQueryNoAggregations(QueryFactory queryFactory, Strin
       if (!isIndexed) {
          return new EmbeddedQuery<>(this, queryFactory, cache, queryString, parsingResult.getStatementType(),
                namedParameters, parsingResult.getProjections(), startOffset, maxResults, defaultMaxResults,
-               queryStatistics, local);
+               queryStatistics, local, findFieldIndexLookup(parsingResult, normalizedWhereClause));
       }
 
       IndexedFieldProvider.FieldIndexingMetadata fieldIndexingMetadata = propertyHelper.getIndexedFieldProvider().get(parsingResult.getTargetEntityMetadata());
@@ -626,7 +627,7 @@ null, getObjectFilter(matcher, projectionQueryStr, null, null), startOffset, max
          // expansion leads to a full non-indexed query or the expansion is too long/complex
          return new EmbeddedQuery<>(this, queryFactory, cache, queryString, parsingResult.getStatementType(),
                namedParameters, parsingResult.getProjections(), startOffset, maxResults, defaultMaxResults,
-               queryStatistics, local);
+               queryStatistics, local, null);
       }
 
       // some fields are indexed, run a hybrid query
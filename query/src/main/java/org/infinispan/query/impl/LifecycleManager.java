@@ -9,6 +9,7 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -38,6 +39,7 @@
 import org.infinispan.factories.annotations.InfinispanModule;
 import org.infinispan.factories.impl.BasicComponentRegistry;
 import org.infinispan.factories.impl.ComponentRef;
+import org.infinispan.interceptors.AsyncInterceptor;
 import org.infinispan.interceptors.AsyncInterceptorChain;
 import org.infinispan.interceptors.impl.EntryWrappingInterceptor;
 import org.infinispan.jmx.CacheJmxRegistration;
@@ -53,6 +55,8 @@
 import org.infinispan.query.backend.TxQueryInterceptor;
 import org.infinispan.query.core.QueryProducerImpl;
 import org.infinispan.query.core.impl.QueryCache;
+import org.infinispan.query.core.impl.resultcache.QueryResultCache;
+import org.infinispan.query.core.impl.resultcache.QueryResultCacheInterceptor;
 import org.infinispan.query.core.stats.IndexStatistics;
 import org.infinispan.query.core.stats.impl.LocalQueryStatistics;
 import org.infinispan.query.dsl.embedded.impl.ObjectReflectionMatcher;
@@ -218,6 +222,9 @@ public void cacheStarted(ComponentRegistry cr, String cacheName) {
       if (!verifyChainContainsQueryInterceptor(cr)) {
          throw new IllegalStateException("It was expected to find the Query interceptor registered in the InterceptorChain but it wasn't found");
       }
+      if (!verifyResultCacheInterceptorBeforeQueryInterceptor(cr)) {
+         throw new IllegalStateException("It was expected to find the query result cache interceptor before the Query interceptor in the InterceptorChain");
+      }
 
       SearchMapping searchMapping = cr.getComponent(SearchMapping.class);
       if (searchMapping != null && !scm.getValueStorageMediaType().match(MediaType.APPLICATION_PROTOSTREAM)) {
@@ -288,6 +295,26 @@ private boolean verifyChainContainsQueryInterceptor(ComponentRegistry cr) {
       return interceptorChain != null && interceptorChain.containsInterceptorType(QueryInterceptor.class, true);
    }
 
+   /**
+    * The query result cache must be invalidated after the index is updated, or a query reading the previous index could
+    * cache its result with the new versions. The query-core module adds its interceptor first, so the Query interceptor
+    * added afterwards before the same interceptor runs inside it.
+    */
+   private boolean verifyResultCacheInterceptorBeforeQueryInterceptor(ComponentRegistry cr) {
+      List<AsyncInterceptor> interceptors = cr.getComponent(AsyncInterceptorChain.class).getInterceptors();
+      int resultCacheIndex = -1;
+      for (int i = 0; i < interceptors.size(); i++) {
+         AsyncInterceptor interceptor = interceptors.get(i);
+         if (interceptor instanceof QueryResultCacheInterceptor) {
+            resultCacheIndex = i;
+         } else if (interceptor instanceof QueryInterceptor || interceptor instanceof TxQueryInterceptor) {
+            // the result cache may be disabled
+            return resultCacheIndex >= 0 || cr.getComponent(QueryResultCache.class) == null;
+         }
+      }
+      return true;
+   }
+
    private SearchMapping createSearchMapping(LocalQueryStatistics queryStatistics,
                                              IndexingConfiguration indexingConfiguration,
                                              Map<String, Class<?>> indexedClasses, ComponentRegistry cr,
@@ -16,6 +16,7 @@
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.manager.ClusterExecutor;
 import org.infinispan.query.Indexer;
@@ -44,6 +45,7 @@ public class DistributedExecutorMassIndexer implements Indexer {
    private final Authorizer authorizer;
 
    private volatile boolean isRunning = false;
+   private volatile MassIndexerProgressMonitor localProgress;
 
    private static final TriConsumer<Address, Void, Throwable> TRI_CONSUMER = (a, v, t) -> {
       if (t != null) {
@@ -113,6 +115,26 @@ public boolean isRunning() {
       return isRunning;
    }
 
+   @ManagedAttribute(description = "The estimated time in milliseconds to complete the reindexing of the local entries, or -1 if unknown.",
+         displayName = "Estimated remaining reindexing time")
+   public long getEstimatedRemainingTime() {
+      MassIndexerProgressMonitor progress = localProgress;
+      return progress == null ? -1 : progress.getEstimatedRemainingTime(TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Tracks the progress of the reindexing of the local entries, until it completes.
+    */
+   void localReindexingStarted(MassIndexerProgressMonitor progress) {
+      localProgress = progress;
+   }
+
+   void localReindexingCompleted(MassIndexerProgressMonitor progress) {
+      if (localProgress == progress) {
+         localProgress = null;
+      }
+   }
+
    private CompletionStage<Void> executeInternal(boolean skipIndex, boolean local, Class<?>... entities) {
       authorizer.checkPermission(AuthorizationPermission.ADMIN);
       CompletionStage<Boolean> lockStage = lock.lock();
@@ -39,11 +39,21 @@ public IndexUpdater(SearchMapping searchMapping) {
    }
 
    public void flush(Collection<Class<?>> javaClasses) {
+      flush(javaClasses, true);
+   }
+
+   /**
+    * @param log whether to log the flush, the mass indexer flushes the index without logging after each group of
+    *            segments
+    */
+   public void flush(Collection<Class<?>> javaClasses, boolean log) {
       if (javaClasses.isEmpty()) {
          return;
       }
 
-      LOG.flushingIndex(getEntityTypes(javaClasses));
+      if (log) {
+         LOG.flushingIndex(getEntityTypes(javaClasses));
+      }
       getSearchMapping().scope(javaClasses).workspace().flush();
    }
 
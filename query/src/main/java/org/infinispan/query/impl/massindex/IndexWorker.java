@@ -2,37 +2,49 @@
 
 import static org.infinispan.commons.util.concurrent.CompletionStages.join;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.stream.Stream;
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.ProgressTracker;
 import org.infinispan.commons.util.concurrent.AggregateCompletionStage;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.commons.util.concurrent.CompletionStages;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.MassIndexerConfiguration;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.encoding.DataConversion;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.protostream.impl.MarshallableSet;
 import org.infinispan.protostream.annotations.ProtoFactory;
 import org.infinispan.protostream.annotations.ProtoField;
 import org.infinispan.protostream.annotations.ProtoTypeId;
+import org.infinispan.query.Indexer;
+import org.infinispan.query.core.impl.Log;
+import org.infinispan.query.core.impl.resultcache.QueryResultCache;
 import org.infinispan.query.impl.ComponentRegistryUtils;
 import org.infinispan.search.mapper.mapping.SearchMapping;
 import org.infinispan.security.actions.SecurityActions;
+import org.infinispan.util.concurrent.BlockingManager;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
+import org.infinispan.util.logging.LogFactory;
 
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
@@ -45,6 +57,18 @@
 @ProtoTypeId(ProtoStreamTypeIds.INDEX_WORKER)
 public final class IndexWorker implements Function<EmbeddedCacheManager, Void> {
 
+   private static final Log log = LogFactory.getLog(IndexWorker.class, Log.class);
+
+   /**
+    * The maximum number of index updates of a worker waiting to be applied by the indexing queues.
+    */
+   private static final int MAX_CONCURRENT_UPDATES = 100;
+
+   /**
+    * The maximum number of segments reindexed with a single iteration of the local entries, and flushed together.
+    */
+   private static final int SEGMENTS_PER_ITERATION = 16;
+
    private final String cacheName;
    private final Collection<Class<?>> indexedTypes;
    private final boolean skipIndex;
@@ -101,33 +125,47 @@ public Void apply(EmbeddedCacheManager embeddedCacheManager) {
       KeyPartitioner keyPartitioner = ComponentRegistryUtils.getKeyPartitioner(cache);
 
       if (keys == null || keys.isEmpty()) {
-         preIndex(cache, indexUpdater, notifier);
-         MassIndexerProgressState progressState = new MassIndexerProgressState(notifier, progressTracker);
-
-         if (!skipIndex) {
-            progressTracker.addTasks(reindexCache.withFlags(Flag.CACHE_MODE_LOCAL).size());
-            try (Stream<CacheEntry<Object, Object>> stream = reindexCache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL)
-                  .cacheEntrySet().stream()) {
-               Iterator<UpdateRecord> records = stream.map(entry -> {
-                        Object key = entry.getKey();
-                        Object value = valueDataConversion.extractIndexable(entry.getValue(), javaEmbeddedEntities);
-                        int segment = keyPartitioner.getSegment(key);
-
-                        if (value != null && indexUpdater.typeIsIndexed(value, indexedTypes)) {
-                           return new UpdateRecord(key, value, segment);
-                        }
-                        return new UpdateRecord(null, null, -1);
-                     }).filter(record -> record.key != null)
-                     .iterator();
-
-               join(CompletionStages.performConcurrently(() -> records, 100, Schedulers.from(new WithinThreadExecutor()), record -> {
-                  CompletableFuture<?> updated = indexUpdater.updateIndex(record.key, record.value, record.segment);
-                  progressState.addItem(record.key, record.value, updated);
-                  return updated;
-               }));
+         MassIndexerCheckpoint checkpoint = MassIndexerCheckpoint.create(
+               SecurityActions.getCacheManagerConfiguration(embeddedCacheManager), cfg, cacheName, indexedTypes);
+         IntSet completedSegments = skipIndex ? IntSets.immutableEmptySet() : checkpoint.completedSegments();
+         if (completedSegments.isEmpty()) {
+            preIndex(cache, indexUpdater, notifier);
+         } else {
+            // the indexes were already purged by the interrupted reindexing
+            log.resumingIndexing(cacheName, completedSegments.size());
+            notifier.notifyIndexingStarting();
+         }
+
+         if (skipIndex) {
+            checkpoint.delete();
+         } else {
+            DistributedExecutorMassIndexer massIndexer = localMassIndexer(cache);
+            if (massIndexer != null) {
+               massIndexer.localReindexingStarted(notifier.getMonitor());
+            }
+            checkpoint.start(completedSegments);
+            MassIndexerConfiguration massIndexerCfg = cfg.indexing().massIndexer();
+            SegmentReindexer reindexer = new SegmentReindexer(reindexCache.withFlags(Flag.CACHE_MODE_LOCAL),
+                  valueDataConversion, javaEmbeddedEntities, massIndexerCfg, indexUpdater,
+                  new MassIndexerProgressState(notifier, progressTracker),
+                  new MassIndexerRateLimiter(timeService, massIndexerCfg.maxEntriesPerSecond()), checkpoint,
+                  keyPartitioner);
+            DistributionManager distributionManager = cache.getDistributionManager();
+            int numSegments = cfg.clustering().hash().numSegments();
+            IntSet localSegments = distributionManager == null ? IntSets.immutableRangeSet(numSegments) :
+                  distributionManager.getCacheTopology().getLocalReadSegments();
+            try {
+               // a failed segment is not recorded in the checkpoint, and the failure skips the completion below
+               reindexer.reindex(ComponentRegistry.componentOf(cache, BlockingManager.class), numSegments,
+                     localSegments, completedSegments, notifier, progressTracker);
+            } finally {
+               if (massIndexer != null) {
+                  massIndexer.localReindexingCompleted(notifier.getMonitor());
+               }
             }
          }
-         postIndex(indexUpdater, progressState, notifier);
+         postIndex(indexUpdater, notifier);
+         checkpoint.delete();
       } else {
          DataConversion keyDataConversion = cache.getKeyDataConversion();
          Set<Class<?>> classSet = new HashSet<>(keys.size());
@@ -152,9 +190,19 @@ public Void apply(EmbeddedCacheManager embeddedCacheManager) {
          }
       }
       progressTracker.finishedAllTasks();
+      // the indexes changed without any write
+      QueryResultCache queryResultCache = ComponentRegistryUtils.getQueryResultCache(cache);
+      if (queryResultCache != null) {
+         queryResultCache.invalidateAll();
+      }
       return null;
    }
 
+   private static DistributedExecutorMassIndexer localMassIndexer(AdvancedCache<?, ?> cache) {
+      return ComponentRegistry.componentOf(cache, Indexer.class) instanceof DistributedExecutorMassIndexer massIndexer ?
+            massIndexer : null;
+   }
+
    private void preIndex(AdvancedCache<Object, Object> cache, IndexUpdater indexUpdater, MassIndexerProgressNotifier notifier) {
       indexUpdater.purge(indexedTypes);
       notifier.notifyPreIndexingReloading();
@@ -162,8 +210,7 @@ private void preIndex(AdvancedCache<Object, Object> cache, IndexUpdater indexUpd
       notifier.notifyIndexingStarting();
    }
 
-   private void postIndex(IndexUpdater indexUpdater, MassIndexerProgressState progressState, MassIndexerProgressNotifier notifier) {
-      progressState.waitForAsyncCompletion();
+   private void postIndex(IndexUpdater indexUpdater, MassIndexerProgressNotifier notifier) {
       indexUpdater.flush(indexedTypes);
       indexUpdater.refresh(indexedTypes);
       notifier.notifyIndexingCompletedSuccessfully();
@@ -171,4 +218,114 @@ private void postIndex(IndexUpdater indexUpdater, MassIndexerProgressState progr
 
    record UpdateRecord(Object key, Object value, int segment) {
    }
+
+   /**
+    * Reindexes the segments owned by the local node concurrently, with up to
+    * {@link MassIndexerConfiguration#threadPoolSize()} groups of segments at the same time. The entries of each group of
+    * up to {@link #SEGMENTS_PER_ITERATION} segments are read with a single iteration and written to the index in
+    * batches, and the segments of the group are recorded in the checkpoint once all its entries are indexed and flushed.
+    * A failed index update fails the reindexing, and the segments of its group remain to be reindexed.
+    */
+   private final class SegmentReindexer {
+
+      private final AdvancedCache<Object, Object> localCache;
+      private final DataConversion valueDataConversion;
+      private final boolean javaEmbeddedEntities;
+      private final MassIndexerConfiguration configuration;
+      private final IndexUpdater indexUpdater;
+      private final MassIndexerProgressState progressState;
+      private final MassIndexerRateLimiter rateLimiter;
+      private final MassIndexerCheckpoint checkpoint;
+      private final KeyPartitioner keyPartitioner;
+
+      SegmentReindexer(AdvancedCache<Object, Object> localCache, DataConversion valueDataConversion,
+                       boolean javaEmbeddedEntities, MassIndexerConfiguration configuration, IndexUpdater indexUpdater,
+                       MassIndexerProgressState progressState, MassIndexerRateLimiter rateLimiter,
+                       MassIndexerCheckpoint checkpoint, KeyPartitioner keyPartitioner) {
+         this.localCache = localCache;
+         this.valueDataConversion = valueDataConversion;
+         this.javaEmbeddedEntities = javaEmbeddedEntities;
+         this.configuration = configuration;
+         this.indexUpdater = indexUpdater;
+         this.progressState = progressState;
+         this.rateLimiter = rateLimiter;
+         this.checkpoint = checkpoint;
+         this.keyPartitioner = keyPartitioner;
+      }
+
+      void reindex(BlockingManager blockingManager, int numSegments, IntSet localSegments, IntSet completedSegments,
+                   MassIndexerProgressNotifier notifier, ProgressTracker progressTracker) {
+         IntSet segments = IntSets.mutableCopyFrom(localSegments);
+         segments.removeAll(completedSegments);
+         long entries;
+         if (completedSegments.isEmpty()) {
+            entries = localCache.size();
+         } else {
+            try (Stream<Object> keys = localCache.keySet().stream().filterKeySegments(segments)) {
+               entries = keys.count();
+            }
+         }
+         progressTracker.addTasks(entries);
+         notifier.notifyEntriesToProcess(entries);
+
+         BlockingManager.BlockingExecutor executor = blockingManager.limitedBlockingExecutor(
+               "mass-indexer-" + cacheName, configuration.threadPoolSize());
+         AggregateCompletionStage<Void> segmentsReindexed = CompletionStages.aggregateCompletionStage();
+         List<IntSet> groups = new ArrayList<>();
+         segments.forEach((IntConsumer) segment -> {
+            if (groups.isEmpty() || groups.get(groups.size() - 1).size() == SEGMENTS_PER_ITERATION) {
+               groups.add(IntSets.mutableEmptySet(numSegments));
+            }
+            groups.get(groups.size() - 1).set(segment);
+         });
+         for (IntSet group : groups) {
+            segmentsReindexed.dependsOn(executor.execute(() -> reindexSegments(group), group));
+         }
+         join(segmentsReindexed.freeze());
+      }
+
+      private void reindexSegments(IntSet segments) {
+         int batchSize = configuration.batchSize();
+         List<UpdateRecord> batch = new ArrayList<>(batchSize);
+         int processed = 0;
+         boolean indexed = false;
+         try (Stream<CacheEntry<Object, Object>> stream = localCache.cacheEntrySet().stream()
+               .filterKeySegments(segments)) {
+            Iterator<CacheEntry<Object, Object>> entries = stream.iterator();
+            while (entries.hasNext()) {
+               CacheEntry<Object, Object> entry = entries.next();
+               Object value = valueDataConversion.extractIndexable(entry.getValue(), javaEmbeddedEntities);
+               if (value != null && indexUpdater.typeIsIndexed(value, indexedTypes)) {
+                  batch.add(new UpdateRecord(entry.getKey(), value, keyPartitioner.getSegment(entry.getKey())));
+               }
+               if (++processed == batchSize) {
+                  indexed |= !batch.isEmpty();
+                  indexBatch(batch, processed);
+                  batch.clear();
+                  processed = 0;
+               }
+            }
+         }
+         if (processed > 0) {
+            indexed |= !batch.isEmpty();
+            indexBatch(batch, processed);
+         }
+         if (indexed && checkpoint.isEnabled()) {
+            // the segments can only be skipped after a restart once their documents are committed
+            indexUpdater.flush(indexedTypes, false);
+         }
+         checkpoint.segmentsCompleted(segments);
+      }
+
+      private void indexBatch(List<UpdateRecord> batch, int processed) {
+         if (!batch.isEmpty()) {
+            rateLimiter.acquire(batch.size());
+            // fails the segments with the first failed update
+            join(CompletionStages.performConcurrently(batch, MAX_CONCURRENT_UPDATES, Schedulers.from(new WithinThreadExecutor()),
+                  record -> progressState.addItem(record.key, record.value,
+                        indexUpdater.updateIndex(record.key, record.value, record.segment))));
+         }
+         progressState.batchCompleted(batch.size(), processed);
+      }
+   }
 }
@@ -0,0 +1,156 @@
+package org.infinispan.query.impl.massindex;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.IndexStorage;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.query.core.impl.Log;
+import org.infinispan.query.impl.config.SearchPropertyExtractor;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Records the segments reindexed by a node, next to its index, so a mass indexer interrupted by a restart can resume
+ * from the segments that were not reindexed yet. The segments are recorded only once their documents are flushed to
+ * the index.
+ * <p>
+ * The checkpoint only applies to a reindexing of the same entity types with the same number of segments, and it is
+ * disabled when the index is not persistent.
+ *
+ * @since 16.0
+ */
+@ThreadSafe
+final class MassIndexerCheckpoint {
+
+   private static final Log log = LogFactory.getLog(MassIndexerCheckpoint.class, Log.class);
+
+   static final String FILE_NAME = "mass-indexer.checkpoint";
+
+   private static final String TYPES = "types";
+   private static final String SEGMENTS = "segments";
+   private static final String NUM_SEGMENTS = "numSegments";
+
+   private final Path file;
+   private final String types;
+   private final int numSegments;
+
+   private IntSet completedSegments;
+
+   MassIndexerCheckpoint(Path file, Collection<Class<?>> indexedTypes, int numSegments) {
+      this.file = file;
+      this.types = indexedTypes.stream().map(Class::getName).sorted().collect(Collectors.joining(","));
+      this.numSegments = numSegments;
+   }
+
+   static MassIndexerCheckpoint create(GlobalConfiguration globalConfiguration, Configuration configuration,
+                                       String cacheName, Collection<Class<?>> indexedTypes) {
+      Path file = null;
+      if (configuration.indexing().storage() == IndexStorage.FILESYSTEM) {
+         file = SearchPropertyExtractor.getIndexLocation(globalConfiguration, configuration.indexing().path(), cacheName)
+               .resolve(FILE_NAME);
+      }
+      return new MassIndexerCheckpoint(file, indexedTypes, configuration.clustering().hash().numSegments());
+   }
+
+   /**
+    * @return the segments already reindexed by an interrupted reindexing of the same types, or an empty set if the
+    * reindexing must start from the beginning
+    */
+   synchronized IntSet completedSegments() {
+      if (file == null) {
+         return IntSets.immutableEmptySet();
+      }
+      Properties properties = new Properties();
+      try (Reader reader = Files.newBufferedReader(file)) {
+         properties.load(reader);
+      } catch (NoSuchFileException e) {
+         return IntSets.immutableEmptySet();
+      } catch (IOException | IllegalArgumentException e) {
+         log.debugf(e, "Ignoring the unreadable mass indexer checkpoint %s", file);
+         return IntSets.immutableEmptySet();
+      }
+      if (!types.equals(properties.getProperty(TYPES)) ||
+            !String.valueOf(numSegments).equals(properties.getProperty(NUM_SEGMENTS))) {
+         return IntSets.immutableEmptySet();
+      }
+      IntSet segments = IntSets.mutableEmptySet(numSegments);
+      String value = properties.getProperty(SEGMENTS, "");
+      try {
+         for (String segment : value.split(",")) {
+            if (!segment.isEmpty()) {
+               segments.set(Integer.parseInt(segment));
+            }
+         }
+      } catch (NumberFormatException e) {
+         log.debugf(e, "Ignoring the unreadable mass indexer checkpoint %s", file);
+         return IntSets.immutableEmptySet();
+      }
+      return segments;
+   }
+
+   boolean isEnabled() {
+      return file != null;
+   }
+
+   /**
+    * Starts recording the reindexed segments, in addition to the segments already reindexed.
+    */
+   synchronized void start(IntSet alreadyCompleted) {
+      completedSegments = IntSets.mutableCopyFrom(alreadyCompleted);
+      write();
+   }
+
+   synchronized void segmentsCompleted(IntSet segments) {
+      completedSegments.addAll(segments);
+      write();
+   }
+
+   /**
+    * Removes the checkpoint once the reindexing completes, or when the indexes are cleared.
+    */
+   synchronized void delete() {
+      completedSegments = null;
+      if (file == null) {
+         return;
+      }
+      try {
+         Files.deleteIfExists(file);
+      } catch (IOException e) {
+         log.failedToWriteMassIndexerCheckpoint(file.toString(), e);
+      }
+   }
+
+   private void write() {
+      if (file == null) {
+         return;
+      }
+      Properties properties = new Properties();
+      properties.setProperty(TYPES, types);
+      properties.setProperty(NUM_SEGMENTS, String.valueOf(numSegments));
+      properties.setProperty(SEGMENTS, completedSegments.intStream()
+            .mapToObj(String::valueOf).collect(Collectors.joining(",")));
+      Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+      try {
+         Files.createDirectories(file.getParent());
+         try (Writer writer = Files.newBufferedWriter(tmp)) {
+            properties.store(writer, null);
+         }
+         Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+         log.failedToWriteMassIndexerCheckpoint(file.toString(), e);
+      }
+   }
+}
@@ -15,7 +15,10 @@ public class MassIndexerProgressMonitor {
    private static final Log log = LogFactory.getLog(MassIndexerProgressMonitor.class, Log.class);
 
    private final AtomicLong documentsDoneCounter = new AtomicLong();
+   private final AtomicLong entriesProcessedCounter = new AtomicLong();
    private volatile long startTime;
+   private volatile long entriesToProcess = -1;
+   private volatile long processingStartTime;
    private final int logAfterNumberOfDocuments;
    private final TimeService timeService;
 
@@ -43,11 +46,49 @@ public void documentsAdded(long increment) {
       if (current == increment) {
          startTime = timeService.time();
       }
-      if (current % getStatusMessagePeriod() == 0) {
+      // the documents are added in batches, so log whenever a multiple of the period is crossed
+      if (current / getStatusMessagePeriod() != (current - increment) / getStatusMessagePeriod()) {
          printStatusMessage(startTime, current);
       }
    }
 
+   /**
+    * Sets the number of entries that will be read from the cache, whether they are indexed or not.
+    */
+   public void entriesToProcess(long count) {
+      processingStartTime = timeService.time();
+      entriesToProcess = count;
+   }
+
+   public void entriesProcessed(long increment) {
+      entriesProcessedCounter.addAndGet(increment);
+   }
+
+   public long getEntriesToProcess() {
+      return entriesToProcess;
+   }
+
+   public long getEntriesProcessed() {
+      return entriesProcessedCounter.get();
+   }
+
+   /**
+    * Estimates the time left to process the remaining entries, from the rate at which the entries were processed so
+    * far.
+    *
+    * @return the estimated remaining time, or -1 if the number of entries or the rate is not known yet
+    */
+   public long getEstimatedRemainingTime(TimeUnit unit) {
+      long total = entriesToProcess;
+      long processed = entriesProcessedCounter.get();
+      if (total < 0 || processed == 0) {
+         return -1;
+      }
+      long remaining = Math.max(0, total - processed);
+      long elapsedNanos = timeService.timeDuration(processingStartTime, TimeUnit.NANOSECONDS);
+      return unit.convert((long) ((double) elapsedNanos * remaining / processed), TimeUnit.NANOSECONDS);
+   }
+
    public void preIndexingReloading() {
       log.preIndexingReloading();
    }
@@ -67,5 +108,11 @@ protected int getStatusMessagePeriod() {
 
    protected void printStatusMessage(long startTime, long doneCount) {
       log.indexingDocumentsCompleted(doneCount, timeService.timeDuration(startTime, TimeUnit.MILLISECONDS));
+      long total = entriesToProcess;
+      if (total >= 0) {
+         log.indexingProgress(getEntriesProcessed(), total,
+               timeService.timeDuration(processingStartTime, TimeUnit.MILLISECONDS),
+               getEstimatedRemainingTime(TimeUnit.MILLISECONDS));
+      }
    }
 }
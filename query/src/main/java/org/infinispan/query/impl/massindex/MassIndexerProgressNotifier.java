@@ -42,6 +42,18 @@ void notifyDocumentsAdded(int size) {
       monitor.documentsAdded(size);
    }
 
+   void notifyEntriesToProcess(long count) {
+      monitor.entriesToProcess(count);
+   }
+
+   void notifyEntriesProcessed(int count) {
+      monitor.entriesProcessed(count);
+   }
+
+   MassIndexerProgressMonitor getMonitor() {
+      return monitor;
+   }
+
    void notifyIndexingCompletedSuccessfully() {
       monitor.indexingCompleted();
 
@@ -1,44 +1,42 @@
 package org.infinispan.query.impl.massindex;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-import org.hibernate.search.util.common.impl.Futures;
 import org.infinispan.commons.util.ProgressTracker;
-import org.infinispan.query.core.impl.Log;
-import org.infinispan.util.logging.LogFactory;
 
+/**
+ * Reports the progress of the workers of a node reindexing their batches of entries.
+ */
 class MassIndexerProgressState {
 
-   private static final Log LOG = LogFactory.getLog(IndexUpdater.class, Log.class);
-
    private final MassIndexerProgressNotifier notifier;
    private final ProgressTracker progressTracker;
 
-   private CompletableFuture<?> lastFuture = CompletableFuture.completedFuture( null );
-
    public MassIndexerProgressState(MassIndexerProgressNotifier notifier, ProgressTracker progressTracker) {
       this.notifier = notifier;
       this.progressTracker = progressTracker;
    }
 
-   public void addItem(Object key, Object value, CompletableFuture<?> future) {
-      // This is what HS5 currently does, but introduce chunking could be a good idea.
-      lastFuture = future.whenComplete((result, exception) -> {
+   /**
+    * @return a stage completed once the index update completes, failed if the update failed
+    */
+   public CompletionStage<?> addItem(Object key, Object value, CompletableFuture<?> future) {
+      return future.whenComplete((result, exception) -> {
          if (exception != null) {
             notifier.notifyEntityIndexingFailure(value.getClass(), key, exception);
-         } else {
-            notifier.notifyDocumentsAdded(1);
          }
-         progressTracker.removeTasks(1);
-      }).thenCombine(lastFuture, (ignored1, ignored2) -> null);
+      });
    }
 
-   public void waitForAsyncCompletion() {
-      try {
-         Futures.unwrappedExceptionGet(lastFuture);
-      } catch (InterruptedException e) {
-         Thread.currentThread().interrupt();
-         throw LOG.interruptedWhileWaitingForRequestCompletion(e);
+   /**
+    * Reports a batch of entries read from the cache, of which {@code documentsAdded} were indexed.
+    */
+   public void batchCompleted(int documentsAdded, int entriesProcessed) {
+      if (documentsAdded > 0) {
+         notifier.notifyDocumentsAdded(documentsAdded);
       }
+      notifier.notifyEntriesProcessed(entriesProcessed);
+      progressTracker.removeTasks(entriesProcessed);
    }
 }
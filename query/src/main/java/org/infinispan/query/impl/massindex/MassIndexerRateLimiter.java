@@ -0,0 +1,65 @@
+package org.infinispan.query.impl.massindex;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.query.core.impl.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Limits the number of entries reindexed per second by the workers of a node, so the mass indexer does not starve the
+ * other operations of the index and of the cache.
+ *
+ * @since 16.0
+ */
+@ThreadSafe
+final class MassIndexerRateLimiter {
+
+   private static final Log log = LogFactory.getLog(MassIndexerRateLimiter.class, Log.class);
+
+   private final TimeService timeService;
+   private final long nanosPerEntry;
+
+   private long nextFreeTime = Long.MIN_VALUE;
+
+   /**
+    * @param maxEntriesPerSecond the maximum rate, 0 if unlimited
+    */
+   MassIndexerRateLimiter(TimeService timeService, int maxEntriesPerSecond) {
+      this.timeService = timeService;
+      this.nanosPerEntry = maxEntriesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxEntriesPerSecond : 0;
+   }
+
+   /**
+    * Waits until the given number of entries can be reindexed without exceeding the rate.
+    */
+   void acquire(int entries) {
+      long delay = reserve(entries);
+      if (delay > 0) {
+         try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw log.interruptedWhileWaitingForRequestCompletion(e);
+         }
+      }
+   }
+
+   /**
+    * Reserves the time needed to reindex the given number of entries after the entries reserved before.
+    *
+    * @return the time in nanoseconds to wait before the entries can be reindexed
+    */
+   synchronized long reserve(int entries) {
+      if (nanosPerEntry == 0) {
+         return 0;
+      }
+      long now = timeService.time();
+      // no credit is accumulated while the workers are idle
+      long start = Math.max(now, nextFreeTime);
+      nextFreeTime = start + entries * nanosPerEntry;
+      return start - now;
+   }
+}
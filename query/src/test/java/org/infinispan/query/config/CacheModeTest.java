@@ -1,12 +1,19 @@
 package org.infinispan.query.config;
 
 import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.List;
 
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.interceptors.AsyncInterceptor;
+import org.infinispan.interceptors.AsyncInterceptorChain;
 import org.infinispan.manager.CacheContainer;
 import org.infinispan.query.backend.QueryInterceptor;
+import org.infinispan.query.core.impl.resultcache.QueryResultCacheInterceptor;
 import org.infinispan.query.test.Person;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.test.TestDataSCI;
@@ -35,6 +42,34 @@ public void testDistributed() {
       doTest(CacheMode.DIST_SYNC);
    }
 
+   public void testResultCacheInterceptorBeforeQueryInterceptor() {
+      CacheContainer cc = null;
+      try {
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         builder.clustering().cacheMode(CacheMode.DIST_SYNC).indexing().enable().addIndexedEntities(Person.class);
+         builder.query().resultCacheSize(10);
+         cc = TestCacheManagerFactory.createClusteredCacheManager(TestDataSCI.INSTANCE, builder);
+         List<AsyncInterceptor> interceptors =
+               ComponentRegistry.componentOf(cc.getCache(), AsyncInterceptorChain.class).getInterceptors();
+         int resultCacheInterceptor = indexOf(interceptors, QueryResultCacheInterceptor.class);
+         int queryInterceptor = indexOf(interceptors, QueryInterceptor.class);
+         assertTrue("Didn't find a query result cache interceptor in the chain", resultCacheInterceptor >= 0);
+         // The results must be invalidated after the index is updated
+         assertTrue(interceptors.toString(), resultCacheInterceptor < queryInterceptor);
+      } finally {
+         TestingUtil.killCacheManagers(cc);
+      }
+   }
+
+   private static int indexOf(List<AsyncInterceptor> interceptors, Class<? extends AsyncInterceptor> type) {
+      for (int i = 0; i < interceptors.size(); i++) {
+         if (type.isInstance(interceptors.get(i))) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
    private void doTest(CacheMode m) {
       CacheContainer cc = null;
       try {
@@ -0,0 +1,69 @@
+package org.infinispan.query.impl.massindex;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.Util;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "query.impl.massindex.MassIndexerCheckpointTest")
+public class MassIndexerCheckpointTest {
+
+   private final Path file = Paths.get(CommonsTestingUtil.tmpDirectory(getClass()), MassIndexerCheckpoint.FILE_NAME);
+
+   @AfterMethod(alwaysRun = true)
+   public void cleanup() {
+      Util.recursiveFileRemove(file.getParent().toFile());
+   }
+
+   public void testResumeFromCompletedSegments() {
+      MassIndexerCheckpoint checkpoint = new MassIndexerCheckpoint(file, List.of(String.class, Integer.class), 8);
+      checkpoint.start(IntSets.immutableEmptySet());
+      checkpoint.segmentsCompleted(IntSets.immutableSet(3));
+      checkpoint.segmentsCompleted(IntSets.immutableSet(5));
+
+      MassIndexerCheckpoint restarted = new MassIndexerCheckpoint(file, List.of(Integer.class, String.class), 8);
+      assertEquals(IntSets.from(Set.of(3, 5)), restarted.completedSegments());
+
+      restarted.start(restarted.completedSegments());
+      restarted.segmentsCompleted(IntSets.immutableSet(1));
+      assertEquals(IntSets.from(Set.of(1, 3, 5)), new MassIndexerCheckpoint(file, List.of(String.class, Integer.class), 8).completedSegments());
+   }
+
+   public void testNotResumedForOtherTypesOrSegments() {
+      MassIndexerCheckpoint checkpoint = new MassIndexerCheckpoint(file, List.of(String.class), 8);
+      checkpoint.start(IntSets.immutableEmptySet());
+      checkpoint.segmentsCompleted(IntSets.immutableSet(3));
+
+      assertTrue(new MassIndexerCheckpoint(file, List.of(Integer.class), 8).completedSegments().isEmpty());
+      assertTrue(new MassIndexerCheckpoint(file, List.of(String.class), 16).completedSegments().isEmpty());
+   }
+
+   public void testDeletedOnCompletion() {
+      MassIndexerCheckpoint checkpoint = new MassIndexerCheckpoint(file, List.of(String.class), 8);
+      checkpoint.start(IntSets.immutableEmptySet());
+      checkpoint.segmentsCompleted(IntSets.immutableSet(3));
+      checkpoint.delete();
+
+      assertFalse(Files.exists(file));
+      assertTrue(checkpoint.completedSegments().isEmpty());
+   }
+
+   public void testDisabled() {
+      MassIndexerCheckpoint checkpoint = new MassIndexerCheckpoint(null, List.of(String.class), 8);
+      assertFalse(checkpoint.isEnabled());
+      checkpoint.start(IntSets.immutableEmptySet());
+      checkpoint.segmentsCompleted(IntSets.immutableSet(3));
+      assertTrue(checkpoint.completedSegments().isEmpty());
+   }
+}
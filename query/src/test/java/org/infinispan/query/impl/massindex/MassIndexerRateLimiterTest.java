@@ -0,0 +1,39 @@
+package org.infinispan.query.impl.massindex;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.time.ControlledTimeService;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "query.impl.massindex.MassIndexerRateLimiterTest")
+public class MassIndexerRateLimiterTest {
+
+   public void testUnlimited() {
+      MassIndexerRateLimiter rateLimiter = new MassIndexerRateLimiter(new ControlledTimeService(), 0);
+      assertEquals(0, rateLimiter.reserve(1_000_000));
+      assertEquals(0, rateLimiter.reserve(1_000_000));
+   }
+
+   public void testBatchesArePaced() {
+      ControlledTimeService timeService = new ControlledTimeService();
+      MassIndexerRateLimiter rateLimiter = new MassIndexerRateLimiter(timeService, 100);
+      assertEquals(0, rateLimiter.reserve(50));
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(500), rateLimiter.reserve(50));
+      assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.reserve(50));
+
+      timeService.advance(400, TimeUnit.MILLISECONDS);
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(1100), rateLimiter.reserve(50));
+   }
+
+   public void testIdleTimeIsNotAccumulated() {
+      ControlledTimeService timeService = new ControlledTimeService();
+      MassIndexerRateLimiter rateLimiter = new MassIndexerRateLimiter(timeService, 100);
+      assertEquals(0, rateLimiter.reserve(100));
+
+      timeService.advance(10, TimeUnit.SECONDS);
+      assertEquals(0, rateLimiter.reserve(100));
+      assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.reserve(100));
+   }
+}
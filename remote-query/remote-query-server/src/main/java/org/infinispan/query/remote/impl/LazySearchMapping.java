@@ -16,8 +16,10 @@
 import org.infinispan.commons.logging.LogFactory;
 import org.infinispan.configuration.cache.IndexingConfiguration;
 import org.infinispan.encoding.DataConversion;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.protostream.SerializationContext;
 import org.infinispan.query.core.impl.QueryCache;
+import org.infinispan.query.core.impl.resultcache.QueryResultCache;
 import org.infinispan.query.impl.EntityLoaderFactory;
 import org.infinispan.query.remote.impl.logging.Log;
 import org.infinispan.query.remote.impl.mapping.SerializationContextSearchMapping;
@@ -220,6 +222,10 @@ public int entityIndexingFailures() {
    public void reload() {
       long stamp = stampedLock.writeLock();
       queryCache.clear(cache.getName());
+      QueryResultCache queryResultCache = ComponentRegistry.componentOf(cache, QueryResultCache.class);
+      if (queryResultCache != null) {
+         queryResultCache.invalidateAll();
+      }
       try {
          searchMappingRef.get().close();
          searchMappingRef = new LazyRef<>(this::createMapping);
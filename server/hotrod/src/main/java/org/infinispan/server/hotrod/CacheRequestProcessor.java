@@ -152,6 +152,7 @@ void addToFilter(String cacheName, byte[] key) {
             log.tracef("Added key %s to bloom filter for cache %s", Util.toStr(key), cacheName);
          }
          bloomFilter.addToFilter(key);
+         listenerRegistry.keyRead(bloomFilter, key);
       }
    }
 
@@ -630,7 +631,7 @@ void addClientListener(HotRodHeader header, Subject subject, byte[] listenerId,
             BloomFilter<byte[]> priorFilter = bloomFilters.putIfAbsent(header.cacheName, bloomFilter);
             assert priorFilter == null;
          }
-         CompletionStage<Void> stage = listenerRegistry.addClientListener(channel, header, listenerId, cache,
+         CompletionStage<Void> stage = listenerRegistry.addClientListener(channel, header, subject, listenerId, cache,
                includeCurrentState, filterFactory, filterParams, converterFactory, converterParams, useRawData,
                listenerInterests, bloomFilter);
          stage.whenComplete((ignore, cause) -> {
@@ -18,6 +18,8 @@
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import javax.security.auth.Subject;
+
 import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
 import org.infinispan.commons.dataconversion.MediaType;
@@ -27,7 +29,9 @@
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.util.BloomFilter;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.AggregateCompletionStage;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.infinispan.commons.util.concurrent.CompletionStages;
 import org.infinispan.container.versioning.NumericVersion;
 import org.infinispan.marshall.core.EncoderRegistry;
 import org.infinispan.metadata.Metadata;
@@ -47,6 +51,8 @@
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilterConverterFactory;
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilterFactory;
 import org.infinispan.notifications.cachelistener.filter.KeyValueFilterConverterAsCacheEventFilterConverter;
+import org.infinispan.security.AuthorizationManager;
+import org.infinispan.security.AuthorizationPermission;
 import org.infinispan.security.actions.SecurityActions;
 import org.infinispan.server.hotrod.logging.Log;
 import org.infinispan.util.KeyValuePair;
@@ -73,6 +79,14 @@ class ClientListenerRegistry {
    private final ConcurrentMap<String, CacheEventFilterFactory> cacheEventFilterFactories = new ConcurrentHashMap<>(4, 0.9f, 16);
    private final ConcurrentMap<String, CacheEventConverterFactory> cacheEventConverterFactories = new ConcurrentHashMap<>(4, 0.9f, 16);
    private final ConcurrentMap<String, CacheEventFilterConverterFactory> cacheEventFilterConverterFactories = new ConcurrentHashMap<>(4, 0.9f, 16);
+   private final ConcurrentMap<SharedListenerKey, SharedBloomListener> bloomListeners = new ConcurrentHashMap<>();
+   private final ConcurrentMap<BloomFilter<byte[]>, BloomAwareStatelessClientEventSender> bloomSenders = new ConcurrentHashMap<>();
+
+   /**
+    * The maximum number of keys tracked by a shared near cache listener. Once reached, the events for the keys which
+    * are not tracked are dispatched to every client, and filtered by their bloom filter.
+    */
+   static final int MAX_TRACKED_KEYS = 1 << 20;
 
    void setEventMarshaller(Optional<Marshaller> eventMarshaller) {
       eventMarshaller.ifPresent(m -> {
@@ -115,7 +129,7 @@ void removeCacheEventFilterConverterFactory(String name) {
       cacheEventFilterConverterFactories.remove(name);
    }
 
-   CompletionStage<Void> addClientListener(Channel ch, HotRodHeader h, byte[] listenerId,
+   CompletionStage<Void> addClientListener(Channel ch, HotRodHeader h, Subject subject, byte[] listenerId,
                           AdvancedCache<byte[], byte[]> cache, boolean includeState,
                           String filterFactory, List<byte[]> binaryFilterParams,
                           String converterFactory, List<byte[]> binaryConverterParams,
@@ -129,9 +143,27 @@ CompletionStage<Void> addClientListener(Channel ch, HotRodHeader h, byte[] liste
          assert filterFactory == null || filterFactory.isEmpty();
          assert converterFactory == null || converterFactory.isEmpty();
          assert !includeState;
+         // The permission is otherwise only checked when the shared listener is registered
+         AuthorizationManager authorizationManager = SecurityActions.getCacheComponentRegistry(cache)
+               .getComponent(AuthorizationManager.class);
+         if (authorizationManager != null) {
+            authorizationManager.checkPermission(subject, AuthorizationPermission.LISTEN);
+         }
          eventType = ClientEventType.createType(false, useRawData, h.version);
-         filter = null;
-         converter = new KeyValueFilterConverterAsCacheEventFilterConverter<>(HotRodServer.ToEmptyBytesKeyValueFilterConverter.INSTANCE, cache.getKeyDataConversion().getRequestMediaType());
+         SharedListenerKey key = new SharedListenerKey(cache.getName(), cache.getKeyDataConversion().getRequestMediaType(),
+               useRawData, listenerInterests);
+         BloomAwareStatelessClientEventSender sender = new BloomAwareStatelessClientEventSender(cache, ch, h.encoder(),
+               listenerId, h.version, eventType, bloomFilter, key);
+         sender.init();
+         eventSenders.put(new WrappedByteArray(listenerId), sender);
+         bloomSenders.put(bloomFilter, sender);
+         return addBloomClientListener(cache, sender)
+               .whenComplete((__, t) -> {
+                  if (t != null) {
+                     eventSenders.remove(new WrappedByteArray(listenerId));
+                     removeBloomClientListener(sender);
+                  }
+               });
       } else {
          boolean hasFilter = filterFactory != null && !filterFactory.isEmpty();
          boolean hasConverter = converterFactory != null && !converterFactory.isEmpty();
@@ -163,7 +195,7 @@ CompletionStage<Void> addClientListener(Channel ch, HotRodHeader h, byte[] liste
          }
       }
       BaseClientEventSender clientEventSender = getClientEventSender(includeState, ch, h.encoder(), h.version, cache,
-                                                                     listenerId, eventType, h.messageId, bloomFilter);
+                                                                     listenerId, eventType, h.messageId);
 
       eventSenders.put(new WrappedByteArray(listenerId), clientEventSender);
 
@@ -176,6 +208,78 @@ CompletionStage<Void> addClientListener(Channel ch, HotRodHeader h, byte[] liste
             });
    }
 
+   /**
+    * Near cache listeners with a bloom filter only need the keys of the modified entries. Instead of registering a
+    * clustered listener per client, which the owners have to notify on every write, the clients of a cache connected
+    * to this server share a single listener. The listener tracks the clients which read each key through this server,
+    * see {@link #keyRead(BloomFilter, byte[])}, and a write is only dispatched to the clients which read the key since
+    * its previous write. The events of each client are queued and written to its channel in batches.
+    */
+   private CompletionStage<Void> addBloomClientListener(AdvancedCache<byte[], byte[]> cache,
+                                                        BloomAwareStatelessClientEventSender sender) {
+      SharedListenerKey key = sender.sharedKey;
+      boolean[] created = new boolean[1];
+      SharedBloomListener listener = bloomListeners.compute(key, (k, shared) -> {
+         if (shared == null) {
+            shared = new SharedBloomListener(cache);
+            created[0] = true;
+         }
+         shared.senders.add(sender);
+         sender.sharedListener = shared;
+         return shared;
+      });
+      if (created[0]) {
+         CacheEventConverter<byte[], byte[], byte[]> converter = new KeyValueFilterConverterAsCacheEventFilterConverter<>(
+               HotRodServer.ToEmptyBytesKeyValueFilterConverter.INSTANCE, key.keyType());
+         addCacheListener(cache, listener, null, converter, key.listenerInterests(), key.useRawData())
+               .whenComplete((__, t) -> {
+                  if (t != null) {
+                     bloomListeners.remove(key, listener);
+                     listener.registration.completeExceptionally(t);
+                  } else {
+                     listener.registration.complete(null);
+                  }
+               });
+      }
+      return listener.registration;
+   }
+
+   /**
+    * Records that the near cache client owning the bloom filter is about to read the key, so the client is notified of
+    * the next write of the key. Must be invoked before the key is read, in case of a concurrent write.
+    */
+   void keyRead(BloomFilter<byte[]> bloomFilter, byte[] key) {
+      BloomAwareStatelessClientEventSender sender = bloomSenders.get(bloomFilter);
+      if (sender != null) {
+         SharedBloomListener listener = sender.sharedListener;
+         if (listener != null) {
+            listener.track(key, sender);
+         }
+      }
+   }
+
+   private CompletionStage<Void> removeBloomClientListener(BloomAwareStatelessClientEventSender sender) {
+      bloomSenders.remove(sender.bloomFilter, sender);
+      SharedBloomListener[] removed = new SharedBloomListener[1];
+      bloomListeners.computeIfPresent(sender.sharedKey, (k, shared) -> {
+         shared.senders.remove(sender);
+         sender.sharedListener = null;
+         if (shared.senders.isEmpty()) {
+            removed[0] = shared;
+            return null;
+         }
+         return shared;
+      });
+      SharedBloomListener listener = removed[0];
+      if (listener == null) {
+         return CompletableFutures.completedNull();
+      }
+      // Wait for the registration to complete, if it failed there is nothing to remove
+      return listener.registration
+            .handle((__, t) -> t == null)
+            .thenCompose(registered -> registered ? SecurityActions.removeListenerAsync(listener.cache, listener) : CompletableFutures.completedNull());
+   }
+
    private CompletionStage<Void> addCacheListener(AdvancedCache<byte[], byte[]> cache, Object clientEventSender,
                                  CacheEventFilter<byte[], byte[]> filter, CacheEventConverter<byte[], byte[], byte[]> converter,
                                  int listenerInterests, boolean useRawData) {
@@ -242,7 +346,10 @@ private List<?> unmarshallParams(MediaType requestMedia, List<byte[]> binaryPara
 
    CompletionStage<Boolean> removeClientListener(byte[] listenerId, Cache cache) {
       Object sender = eventSenders.remove(new WrappedByteArray(listenerId));
-      if (sender != null) {
+      if (sender instanceof BloomAwareStatelessClientEventSender bloomSender) {
+         return removeBloomClientListener(bloomSender)
+               .thenCompose(ignore -> CompletableFutures.completedTrue());
+      } else if (sender != null) {
          // No permission check needed: Either the client had the LISTEN permission to add the listener,
          // or the listener was never added and removing it is a no-op
          return SecurityActions.removeListenerAsync(cache, sender)
@@ -252,6 +359,8 @@ CompletionStage<Boolean> removeClientListener(byte[] listenerId, Cache cache) {
 
    public void stop() {
       eventSenders.clear();
+      bloomListeners.clear();
+      bloomSenders.clear();
       cacheEventFilterFactories.clear();
       cacheEventConverterFactories.clear();
    }
@@ -291,14 +400,20 @@ private class StatelessClientEventSender extends BaseClientEventSender {
       }
    }
 
-   @Listener(clustered = true)
+   /**
+    * Never registered as a listener itself, the events are dispatched by the {@link SharedBloomListener} of its cache.
+    */
    private class BloomAwareStatelessClientEventSender extends StatelessClientEventSender {
       private final BloomFilter<byte[]> bloomFilter;
+      private final SharedListenerKey sharedKey;
+      private volatile SharedBloomListener sharedListener;
 
       BloomAwareStatelessClientEventSender(Cache cache, Channel ch, VersionedEncoder encoder, byte[] listenerId,
-                                           byte version, ClientEventType targetEventType, BloomFilter<byte[]> bloomFilter) {
+                                           byte version, ClientEventType targetEventType, BloomFilter<byte[]> bloomFilter,
+                                           SharedListenerKey sharedKey) {
          super(cache, ch, encoder, listenerId, version, targetEventType);
          this.bloomFilter = bloomFilter;
+         this.sharedKey = sharedKey;
       }
 
       boolean isSendEvent(CacheEntryEvent<byte[], byte[]> event) {
@@ -316,6 +431,79 @@ boolean isSendEvent(CacheEntryEvent<byte[], byte[]> event) {
       }
    }
 
+   @Listener(clustered = true)
+   private class SharedBloomListener {
+      private final AdvancedCache<byte[], byte[]> cache;
+      private final Set<BloomAwareStatelessClientEventSender> senders = ConcurrentHashMap.newKeySet();
+      private final CompletableFuture<Void> registration = new CompletableFuture<>();
+      // The clients which read each key since its last write, only modified atomically per key
+      private final ConcurrentMap<WrappedByteArray, Set<BloomAwareStatelessClientEventSender>> readers = new ConcurrentHashMap<>();
+      private volatile boolean overflowed;
+
+      SharedBloomListener(AdvancedCache<byte[], byte[]> cache) {
+         this.cache = cache;
+      }
+
+      void track(byte[] key, BloomAwareStatelessClientEventSender sender) {
+         if (overflowed) {
+            return;
+         }
+         WrappedByteArray wrappedKey = new WrappedByteArray(key);
+         if (readers.size() >= MAX_TRACKED_KEYS && !readers.containsKey(wrappedKey)) {
+            log.debugf("Tracking more than %d keys read by near caches of cache %s, dispatching every event to all the clients",
+                  MAX_TRACKED_KEYS, cache.getName());
+            overflowed = true;
+            return;
+         }
+         readers.compute(wrappedKey, (k, keyReaders) -> {
+            if (keyReaders == null) {
+               keyReaders = new HashSet<>(4);
+            }
+            keyReaders.add(sender);
+            return keyReaders;
+         });
+      }
+
+      @CacheEntryCreated
+      @CacheEntryModified
+      @CacheEntryRemoved
+      @CacheEntryExpired
+      public CompletionStage<Void> onCacheEvent(CacheEntryEvent<byte[], byte[]> event) {
+         if (event.isPre()) {
+            return null;
+         }
+         Set<BloomAwareStatelessClientEventSender> targets;
+         if (overflowed) {
+            targets = senders;
+            readers.remove(new WrappedByteArray(event.getKey()));
+         } else {
+            // The clients are notified once, and tracked again when they read the key again
+            targets = readers.remove(new WrappedByteArray(event.getKey()));
+            if (targets == null) {
+               return null;
+            }
+         }
+         AggregateCompletionStage<Void> aggregateStage = null;
+         for (BloomAwareStatelessClientEventSender sender : targets) {
+            // the client may have removed its listener since it read the key
+            if (sender.sharedListener != this) {
+               continue;
+            }
+            CompletionStage<Void> stage = sender.onCacheEvent(event);
+            if (stage != null && !CompletionStages.isCompletedSuccessfully(stage)) {
+               if (aggregateStage == null) {
+                  aggregateStage = CompletionStages.aggregateCompletionStage();
+               }
+               aggregateStage.dependsOn(stage);
+            }
+         }
+         return aggregateStage != null ? aggregateStage.freeze() : null;
+      }
+   }
+
+   private record SharedListenerKey(String cacheName, MediaType keyType, boolean useRawData, int listenerInterests) {
+   }
+
    private abstract class BaseClientEventSender {
       protected final Channel ch;
       protected final VersionedEncoder encoder;
@@ -510,18 +698,12 @@ private KeyValuePair<HotRodOperation, Boolean> getEventResponseType(CacheEntryEv
 
    private BaseClientEventSender getClientEventSender(boolean includeState, Channel ch, VersionedEncoder encoder,
                                                       byte version, Cache cache, byte[] listenerId,
-                                                      ClientEventType eventType, long messageId,
-                                                      BloomFilter<byte[]> bloomFilter) {
+                                                      ClientEventType eventType, long messageId) {
       BaseClientEventSender bces;
       if (includeState) {
          bces = new StatefulClientEventSender(cache, ch, encoder, listenerId, version, eventType, messageId);
       } else {
-         if (bloomFilter != null) {
-            bces = new BloomAwareStatelessClientEventSender(cache, ch, encoder, listenerId, version, eventType,
-                                                            bloomFilter);
-         } else {
-            bces = new StatelessClientEventSender(cache, ch, encoder, listenerId, version, eventType);
-         }
+         bces = new StatelessClientEventSender(cache, ch, encoder, listenerId, version, eventType);
       }
 
       bces.init();
@@ -22,6 +22,7 @@
 import org.infinispan.server.iteration.DefaultIterationManager;
 import org.infinispan.server.iteration.ExternalSourceIterationManager;
 import org.infinispan.server.resp.commands.cluster.SegmentSlotRelation;
+import org.infinispan.server.resp.commands.pubsub.PubSubBroker;
 import org.infinispan.server.resp.configuration.RespServerConfiguration;
 import org.infinispan.server.resp.filter.ComposedFilterConverterFactory;
 import org.infinispan.server.resp.filter.GlobMatchFilterConverterFactory;
@@ -54,6 +55,7 @@ public class RespServer extends AbstractProtocolServer<RespServerConfiguration>
    private TimeService timeService;
    private SegmentSlotRelation segmentSlots;
    private LuaTaskEngine luaTaskEngine;
+   private PubSubBroker pubSubBroker;
    private final Random random = new Random(); // TODO: we should be able to set a cluster-wide seed
 
    public RespServer() {
@@ -71,6 +73,8 @@ protected void internalPostStart() {
       iterationManager.addKeyValueFilterConverterFactory(ComposedFilterConverterFactory.class.getName(), new ComposedFilterConverterFactory());
       dataStructureIterationManager.addKeyValueFilterConverterFactory(GlobMatchFilterConverterFactory.class.getName(), new GlobMatchFilterConverterFactory(true));
       metadataRepository = new MetadataRepository();
+      pubSubBroker = new PubSubBroker(getQualifiedName(), cacheManager);
+      pubSubBroker.start();
       if (!cacheManager.getCacheManagerConfiguration().features().isAvailable(RESP_SERVER_FEATURE)) {
          throw CONFIG.featureDisabled(RESP_SERVER_FEATURE);
       }
@@ -163,6 +167,9 @@ public LuaTaskEngine luaEngine() {
    @Override
    public void stop() {
       super.stop();
+      if (pubSubBroker != null) {
+         pubSubBroker.stop();
+      }
       if (luaTaskEngine != null) {
          luaTaskEngine.shutdown();
       }
@@ -204,6 +211,10 @@ public MetadataRepository metadataRepository() {
       return metadataRepository;
    }
 
+   public PubSubBroker pubSubBroker() {
+      return pubSubBroker;
+   }
+
    public Random random() {
       return random;
    }
@@ -2,14 +2,11 @@
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.infinispan.commons.util.GlobMatcher;
-import org.infinispan.notifications.cachelistener.CacheNotifier;
-import org.infinispan.security.actions.SecurityActions;
 import org.infinispan.server.resp.AclCategory;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
@@ -41,23 +38,15 @@ class CHANNELS extends RespCommand implements Resp3Command {
 
    @Override
    public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
-      CacheNotifier<?, ?> cn = SecurityActions.getCacheComponentRegistry(handler.cache()).getCacheNotifier().running();
       Predicate<byte[]> filter = PASS_ALL;
 
       if (arguments.size() == 2) {
          filter = globFilter(arguments.get(1));
       }
 
-      // Retrieve all existing cache listeners for this node.
-      // We must return the active channels. One channel can have multiple listeners from different clients.
-      // We filter out the listeners by comparing the channel bytes.
-      Collection<byte[]> channels = cn.getListeners().stream()
-            .filter(l -> l instanceof RespCacheListener)
-            .map(l -> (RespCacheListener) l)
-            .map(RespCacheListener::subscribedChannel)
-            .filter(Objects::nonNull)
+      Collection<byte[]> channels = handler.respServer().pubSubBroker().channels().stream()
             .filter(filter)
-            .collect(Collectors.filtering(PUBSUB.deduplicate(), Collectors.toList()));
+            .collect(Collectors.toList());
 
       handler.writer().array(channels, Resp3Type.BULK_STRING);
       return handler.myStage();
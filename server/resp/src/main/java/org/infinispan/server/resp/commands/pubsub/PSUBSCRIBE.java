@@ -3,11 +3,15 @@
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 
+import org.infinispan.commons.util.concurrent.AggregateCompletionStage;
+import org.infinispan.commons.util.concurrent.CompletionStages;
 import org.infinispan.server.resp.AclCategory;
+import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
 import org.infinispan.server.resp.RespRequestHandler;
 import org.infinispan.server.resp.SubscriberHandler;
 import org.infinispan.server.resp.commands.PubSubResp3Command;
+import org.infinispan.server.resp.commands.Resp3Command;
 
 import io.netty.channel.ChannelHandlerContext;
 
@@ -17,7 +21,7 @@
  * @see <a href="https://redis.io/commands/psubscribe/">PSUBSCRIBE</a>
  * @since 14.0
  */
-public class PSUBSCRIBE extends RespCommand implements PubSubResp3Command {
+public class PSUBSCRIBE extends RespCommand implements Resp3Command, PubSubResp3Command {
    public PSUBSCRIBE() {
       super(-2, 0, 0, 0, AclCategory.PUBSUB.mask() | AclCategory.SLOW.mask());
    }
@@ -26,7 +30,18 @@ public PSUBSCRIBE() {
    public CompletionStage<RespRequestHandler> perform(SubscriberHandler handler,
                                                       ChannelHandlerContext ctx,
                                                       List<byte[]> arguments) {
-      handler.writer().customError("not implemented yet");
-      return handler.myStage();
+      AggregateCompletionStage<Void> subscribed = CompletionStages.aggregateCompletionStage();
+      for (byte[] pattern : arguments) {
+         subscribed.dependsOn(handler.psubscribe(pattern));
+      }
+      return handler.sendPatternSubscriptions(ctx, subscribed.freeze(), arguments, true);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
+                                                      ChannelHandlerContext ctx,
+                                                      List<byte[]> arguments) {
+      SubscriberHandler subscriberHandler = new SubscriberHandler(handler.respServer(), handler);
+      return subscriberHandler.handleRequest(ctx, this, arguments);
    }
 }
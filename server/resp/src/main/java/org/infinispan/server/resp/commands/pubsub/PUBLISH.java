@@ -2,8 +2,6 @@
 
 import java.util.List;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 
 import org.infinispan.server.resp.AclCategory;
 import org.infinispan.server.resp.Resp3Handler;
@@ -22,8 +20,6 @@
  */
 public class PUBLISH extends RespCommand implements Resp3Command {
 
-   private static final Function<Object, Long> CONVERT = ignore -> 0L;
-
    public PUBLISH() {
       super(3, 0, 0, 0, AclCategory.PUBSUB.mask() | AclCategory.FAST.mask());
    }
@@ -32,12 +28,8 @@ public PUBLISH() {
    public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
                                                       ChannelHandlerContext ctx,
                                                       List<byte[]> arguments) {
-      // TODO: should we return the # of subscribers on this node?
-      // We use expiration to remove the event values eventually while preventing them during high periods of
-      // updates
-      CompletionStage<Long> cs = handler.ignorePreviousValuesCache()
-            .putAsync(KeyChannelUtils.keyToChannel(arguments.get(0)), arguments.get(1), 3, TimeUnit.SECONDS)
-            .thenApply(CONVERT);
+      CompletionStage<Long> cs = handler.respServer().pubSubBroker()
+            .publish(handler.cache(), arguments.get(0), arguments.get(1));
       return handler.stageToReturn(cs, ctx, ResponseWriter.INTEGER);
    }
 }
@@ -3,11 +3,14 @@
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 
+import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.server.resp.AclCategory;
+import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
 import org.infinispan.server.resp.RespRequestHandler;
 import org.infinispan.server.resp.SubscriberHandler;
 import org.infinispan.server.resp.commands.PubSubResp3Command;
+import org.infinispan.server.resp.commands.Resp3Command;
 
 import io.netty.channel.ChannelHandlerContext;
 
@@ -17,7 +20,7 @@
  * @see <a href="https://redis.io/commands/punsubscribe/">PUNSUBSCRIBE</a>
  * @since 14.0
  */
-public class PUNSUBSCRIBE extends RespCommand implements PubSubResp3Command {
+public class PUNSUBSCRIBE extends RespCommand implements Resp3Command, PubSubResp3Command {
    public PUNSUBSCRIBE() {
       super(-1, 0,0, 0, AclCategory.PUBSUB.mask() | AclCategory.SLOW.mask());
    }
@@ -26,7 +29,20 @@ public PUNSUBSCRIBE() {
    public CompletionStage<RespRequestHandler> perform(SubscriberHandler handler,
                                                       ChannelHandlerContext ctx,
                                                       List<byte[]> arguments) {
-      handler.writer().customError("not implemented yet");
-      return handler.myStage();
+      if (arguments.isEmpty()) {
+         return handler.punsubscribeAll(ctx);
+      }
+      for (byte[] pattern : arguments) {
+         handler.punsubscribe(pattern);
+      }
+      return handler.sendPatternSubscriptions(ctx, CompletableFutures.completedNull(), arguments, false);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
+                                                      ChannelHandlerContext ctx,
+                                                      List<byte[]> arguments) {
+      SubscriberHandler subscriberHandler = new SubscriberHandler(handler.respServer(), handler);
+      return subscriberHandler.handleRequest(ctx, this, arguments);
    }
 }
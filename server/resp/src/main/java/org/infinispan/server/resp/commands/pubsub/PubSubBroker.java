@@ -0,0 +1,556 @@
+package org.infinispan.server.resp.commands.pubsub;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.logging.LogFactory;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.util.GlobMatcher;
+import org.infinispan.commons.util.concurrent.AggregateCompletionStage;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.infinispan.commons.util.concurrent.CompletionStages;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.LocalizedCacheTopology;
+import org.infinispan.factories.impl.BasicComponentRegistry;
+import org.infinispan.factories.impl.ComponentRef;
+import org.infinispan.manager.ClusterExecutor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachemanagerlistener.annotation.ViewChanged;
+import org.infinispan.notifications.cachemanagerlistener.event.ViewChangedEvent;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.security.actions.SecurityActions;
+import org.infinispan.server.resp.RespServer;
+import org.infinispan.server.resp.logging.Log;
+import org.infinispan.server.resp.serialization.Resp3Type;
+import org.infinispan.server.resp.serialization.bytebuf.ByteBufResponseWriter;
+import org.infinispan.server.resp.serialization.bytebuf.ByteBufferUtils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Delivers the messages published on the RESP channels.
+ * <p>
+ * Messages are not stored in the cache. The broker of each server keeps the connections subscribed to a channel, and
+ * the connections subscribed to a pattern indexed by the literal prefix of the pattern, up to its first special
+ * character. A message only runs the glob matcher of the patterns whose prefix is a prefix of its channel, looked up
+ * for the prefix lengths in use. A message is published to the local subscribers and sent to the other members of the
+ * RESP cache that may have subscribers for it, which deliver it to theirs. Every message is encoded once per node and
+ * shared by the connections it is written to.
+ * <p>
+ * Each node sends a {@link SubscriptionSummary} of its subscriptions to the other nodes when it changes, and a
+ * subscription is only confirmed once the summary including it was sent. The nodes whose summary is not known yet are
+ * sent every message. Only one batch of messages is in flight to each node, the messages published in the meantime are
+ * sent together in the next one. A node failing to deliver a message counts no receivers, and does not fail the
+ * publication, as the message may already have been delivered to other subscribers.
+ * <p>
+ * A subscriber which does not read its messages has them buffered by its connection. Once more than
+ * {@link #MAX_PENDING_BYTES} are pending, the subscriber is disconnected.
+ *
+ * @since 16.0
+ */
+public final class PubSubBroker {
+   private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass(), Log.class);
+   // The hard limit of the client output buffer of pub/sub clients in Redis
+   public static final long MAX_PENDING_BYTES = 32 * 1024 * 1024;
+   private static final byte[] MESSAGE = "message".getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] PMESSAGE = "pmessage".getBytes(StandardCharsets.US_ASCII);
+
+   private final String serverName;
+   private final EmbeddedCacheManager cacheManager;
+   // The subscription summaries are only maintained in a cluster
+   private final boolean clustered;
+   private final ConcurrentMap<WrappedByteArray, Set<Channel>> channels = new ConcurrentHashMap<>();
+   // The pattern subscriptions by literal prefix, then by pattern
+   private final ConcurrentMap<WrappedByteArray, ConcurrentMap<WrappedByteArray, PatternSubscription>> patterns = new ConcurrentHashMap<>();
+   // The number of prefixes of each length, updated with the prefixes in patterns
+   private final ConcurrentMap<Integer, Integer> prefixLengths = new ConcurrentHashMap<>();
+
+   // The number of channels and pattern prefixes subscribed on this node by bit of the summary
+   @GuardedBy("this")
+   private final int[] channelCounts = new int[SubscriptionSummary.BITS];
+   @GuardedBy("this")
+   private final int[] prefixCounts = new int[SubscriptionSummary.BITS];
+   @GuardedBy("this")
+   private final int[] prefixLengthCounts = new int[SubscriptionSummary.MAX_PREFIX_LENGTH + 1];
+   @GuardedBy("this")
+   private long summaryVersion;
+   @GuardedBy("this")
+   private boolean sendingSummary;
+   // Completed once a summary with the changes counted since the last one was sent
+   @GuardedBy("this")
+   private CompletableFuture<Void> pendingSummary;
+   // The summaries of the other nodes, by node name
+   private final ConcurrentMap<String, SubscriptionSummary> remoteSummaries = new ConcurrentHashMap<>();
+   private final ConcurrentMap<Address, Outbox> outboxes = new ConcurrentHashMap<>();
+   private final ViewListener viewListener = new ViewListener();
+
+   public PubSubBroker(String serverName, EmbeddedCacheManager cacheManager) {
+      this.serverName = serverName;
+      this.cacheManager = cacheManager;
+      this.clustered = cacheManager.getCacheManagerConfiguration().isClustered();
+      // A restarted server sends summaries with a higher version than the ones it sent before
+      this.summaryVersion = System.nanoTime();
+   }
+
+   public void start() {
+      if (clustered) {
+         SecurityActions.addListener(cacheManager, viewListener);
+      }
+   }
+
+   public void stop() {
+      if (clustered) {
+         SecurityActions.removeListenerAsync(cacheManager, viewListener);
+      }
+   }
+
+   /**
+    * @return a stage completed once the other nodes were sent the subscription.
+    */
+   public CompletionStage<Void> subscribe(byte[] channel, Channel subscriber) {
+      boolean[] changed = new boolean[1];
+      channels.compute(new WrappedByteArray(channel), (k, subscribers) -> {
+         if (subscribers == null) {
+            subscribers = ConcurrentHashMap.newKeySet();
+            changed[0] = count(channelCounts, SubscriptionSummary.channelBit(channel), 1);
+         }
+         subscribers.add(subscriber);
+         return subscribers;
+      });
+      return changed[0] ? sendSummary() : CompletableFutures.completedNull();
+   }
+
+   public void unsubscribe(byte[] channel, Channel subscriber) {
+      boolean[] changed = new boolean[1];
+      channels.computeIfPresent(new WrappedByteArray(channel), (k, subscribers) -> {
+         subscribers.remove(subscriber);
+         if (!subscribers.isEmpty()) {
+            return subscribers;
+         }
+         changed[0] = count(channelCounts, SubscriptionSummary.channelBit(channel), -1);
+         return null;
+      });
+      if (changed[0]) {
+         sendSummary();
+      }
+   }
+
+   /**
+    * @return a stage completed once the other nodes were sent the subscription.
+    */
+   public CompletionStage<Void> psubscribe(byte[] pattern, Channel subscriber) {
+      boolean[] changed = new boolean[1];
+      patterns.compute(prefix(pattern), (prefix, subscriptions) -> {
+         if (subscriptions == null) {
+            subscriptions = new ConcurrentHashMap<>();
+            prefixLengths.merge(prefix.getLength(), 1, Integer::sum);
+            changed[0] = countPrefix(prefix, 1);
+         }
+         subscriptions.computeIfAbsent(new WrappedByteArray(pattern), k -> new PatternSubscription(pattern))
+               .subscribers.add(subscriber);
+         return subscriptions;
+      });
+      return changed[0] ? sendSummary() : CompletableFutures.completedNull();
+   }
+
+   public void punsubscribe(byte[] pattern, Channel subscriber) {
+      boolean[] changed = new boolean[1];
+      patterns.computeIfPresent(prefix(pattern), (prefix, subscriptions) -> {
+         subscriptions.computeIfPresent(new WrappedByteArray(pattern), (k, subscription) -> {
+            subscription.subscribers.remove(subscriber);
+            return subscription.subscribers.isEmpty() ? null : subscription;
+         });
+         if (!subscriptions.isEmpty()) {
+            return subscriptions;
+         }
+         prefixLengths.computeIfPresent(prefix.getLength(), (length, count) -> count == 1 ? null : count - 1);
+         changed[0] = countPrefix(prefix, -1);
+         return null;
+      });
+      if (changed[0]) {
+         sendSummary();
+      }
+   }
+
+   private boolean countPrefix(WrappedByteArray prefix, int delta) {
+      if (!clustered) {
+         return false;
+      }
+      int length = SubscriptionSummary.prefixLength(prefix.getLength());
+      synchronized (this) {
+         prefixLengthCounts[length] += delta;
+         boolean lengthChanged = prefixLengthCounts[length] == (delta > 0 ? 1 : 0);
+         return count(prefixCounts, SubscriptionSummary.prefixBit(prefix.getBytes(), length), delta) || lengthChanged;
+      }
+   }
+
+   /**
+    * @return whether the bit of the summary changed.
+    */
+   private synchronized boolean count(int[] counts, int bit, int delta) {
+      if (!clustered) {
+         return false;
+      }
+      counts[bit] += delta;
+      return counts[bit] == (delta > 0 ? 1 : 0);
+   }
+
+   /**
+    * Sends the summary of the subscriptions to the other nodes, unless a summary is being sent, in which case the
+    * summary is sent again once it completes.
+    *
+    * @return a stage completed once a summary including the current subscriptions was sent.
+    */
+   private CompletionStage<Void> sendSummary() {
+      CompletableFuture<Void> sent;
+      synchronized (this) {
+         if (pendingSummary == null) {
+            pendingSummary = new CompletableFuture<>();
+         }
+         sent = pendingSummary;
+         if (sendingSummary) {
+            return sent;
+         }
+         sendingSummary = true;
+      }
+      broadcastSummary();
+      return sent;
+   }
+
+   private void broadcastSummary() {
+      CompletableFuture<Void> sent;
+      SubscriptionSummary summary;
+      synchronized (this) {
+         sent = pendingSummary;
+         pendingSummary = null;
+         summary = SubscriptionSummary.of(++summaryVersion, channelCounts, prefixCounts, prefixLengthCounts);
+      }
+      String name = serverName;
+      Address localAddress = cacheManager.getAddress();
+      String origin = localAddress.toString();
+      long version = summary.version();
+      long[] channelBits = summary.channelBits();
+      long[] prefixBits = summary.prefixBits();
+      long lengths = summary.prefixLengths();
+      SecurityActions.getClusterExecutor(cacheManager).filterTargets(address -> !address.equals(localAddress))
+            .submitConsumer(e -> summaryOnNode(name, e, origin, version, channelBits, prefixBits, lengths), (address, ignore, t) -> {
+               if (t != null) {
+                  throw CompletableFutures.asCompletionException(t);
+               }
+            }).whenComplete((ignore, t) -> {
+               if (t != null) {
+                  log.debugf(t, "Failed to send the pub/sub subscriptions of %s", origin);
+               }
+               sent.complete(null);
+               boolean again;
+               synchronized (this) {
+                  again = pendingSummary != null;
+                  sendingSummary = again;
+               }
+               if (again) {
+                  broadcastSummary();
+               }
+            });
+   }
+
+   private static Void summaryOnNode(String serverName, EmbeddedCacheManager ecm, String origin, long version,
+                                     long[] channelBits, long[] prefixBits, long prefixLengths) {
+      PubSubBroker broker = broker(serverName, ecm);
+      if (broker != null) {
+         broker.summaryReceived(origin, new SubscriptionSummary(version, channelBits, prefixBits, prefixLengths));
+      }
+      return null;
+   }
+
+   void summaryReceived(String origin, SubscriptionSummary summary) {
+      remoteSummaries.merge(origin, summary, (previous, received) -> received.version() > previous.version() ? received : previous);
+   }
+
+   private static WrappedByteArray prefix(byte[] pattern) {
+      int length = 0;
+      while (length < pattern.length && !isSpecial(pattern[length])) {
+         length++;
+      }
+      return new WrappedByteArray(length == pattern.length ? pattern : Arrays.copyOf(pattern, length));
+   }
+
+   private static boolean isSpecial(byte b) {
+      return b == '*' || b == '?' || b == '[' || b == '\\';
+   }
+
+   /**
+    * @return the channels with at least one subscriber on this node.
+    */
+   public Collection<byte[]> channels() {
+      List<byte[]> active = new ArrayList<>(channels.size());
+      for (WrappedByteArray channel : channels.keySet()) {
+         active.add(channel.getBytes());
+      }
+      return active;
+   }
+
+   /**
+    * @return the number of patterns with at least one subscriber on this node.
+    */
+   public int numPatterns() {
+      int numPatterns = 0;
+      for (Map<WrappedByteArray, PatternSubscription> subscriptions : patterns.values()) {
+         numPatterns += subscriptions.size();
+      }
+      return numPatterns;
+   }
+
+   /**
+    * Publishes the message to the subscribers in the cluster.
+    *
+    * @return the number of subscribers the message was delivered to.
+    */
+   public CompletionStage<Long> publish(AdvancedCache<?, ?> cache, byte[] channel, byte[] message) {
+      long local = deliver(channel, message);
+      DistributionManager dm = cache.getDistributionManager();
+      if (dm == null) {
+         return CompletableFuture.completedFuture(local);
+      }
+      LocalizedCacheTopology topology = dm.getCacheTopology();
+      AtomicLong receivers = new AtomicLong(local);
+      AggregateCompletionStage<AtomicLong> delivered = CompletionStages.aggregateCompletionStage(receivers);
+      ClusterExecutor executor = null;
+      for (Address member : topology.getMembers()) {
+         if (member.equals(topology.getLocalAddress())) {
+            continue;
+         }
+         SubscriptionSummary summary = remoteSummaries.get(member.toString());
+         if (summary != null && !summary.mayMatch(channel)) {
+            continue;
+         }
+         if (executor == null) {
+            executor = SecurityActions.getClusterExecutor(cache);
+         }
+         delivered.dependsOn(outboxes.computeIfAbsent(member, Outbox::new).send(executor, channel, message)
+               .thenAccept(receivers::addAndGet));
+      }
+      return delivered.freeze().thenApply(AtomicLong::get);
+   }
+
+   private static PubSubBroker broker(String serverName, EmbeddedCacheManager ecm) {
+      ComponentRef<RespServer> ref = SecurityActions.getGlobalComponentRegistry(ecm)
+            .getComponent(BasicComponentRegistry.class)
+            .getComponent(serverName, RespServer.class);
+      return ref == null ? null : ref.running().pubSubBroker();
+   }
+
+   private static long[] deliverOnNode(String serverName, EmbeddedCacheManager ecm, byte[][] channels, byte[][] messages) {
+      long[] receivers = new long[channels.length];
+      PubSubBroker broker = broker(serverName, ecm);
+      if (broker != null) {
+         for (int i = 0; i < channels.length; i++) {
+            receivers[i] = broker.deliver(channels[i], messages[i]);
+         }
+      }
+      return receivers;
+   }
+
+   /**
+    * Delivers the message to the subscribers connected to this node.
+    *
+    * @return the number of subscribers the message was written to.
+    */
+   public long deliver(byte[] channel, byte[] message) {
+      long receivers = 0;
+      Set<Channel> subscribers = channels.get(new WrappedByteArray(channel));
+      if (subscribers != null) {
+         receivers += write(subscribers, MESSAGE, null, channel, message);
+      }
+      for (int length : prefixLengths.keySet()) {
+         if (length > channel.length) {
+            continue;
+         }
+         Map<WrappedByteArray, PatternSubscription> subscriptions =
+               patterns.get(new WrappedByteArray(length == channel.length ? channel : Arrays.copyOf(channel, length)));
+         if (subscriptions == null) {
+            continue;
+         }
+         for (PatternSubscription subscription : subscriptions.values()) {
+            if (subscription.matches(channel)) {
+               receivers += write(subscription.subscribers, PMESSAGE, subscription.pattern, channel, message);
+            }
+         }
+      }
+      return receivers;
+   }
+
+   private static int write(Set<Channel> subscribers, byte[] type, byte[] pattern, byte[] channel, byte[] message) {
+      ByteBuf encoded = null;
+      int written = 0;
+      for (Channel subscriber : subscribers) {
+         if (encoded == null) {
+            encoded = pattern == null
+                  ? encode(List.of(type, channel, message))
+                  : encode(List.of(type, pattern, channel, message));
+         }
+         if (offer(subscriber, encoded.retainedDuplicate())) {
+            written++;
+         }
+      }
+      if (encoded != null) {
+         encoded.release();
+      }
+      return written;
+   }
+
+   private static boolean offer(Channel subscriber, ByteBuf buf) {
+      if (!subscriber.isWritable() && subscriber.bytesBeforeWritable() > MAX_PENDING_BYTES) {
+         buf.release();
+         log.slowSubscriberDisconnected(subscriber.remoteAddress(), MAX_PENDING_BYTES);
+         subscriber.close();
+         return false;
+      }
+      subscriber.writeAndFlush(buf, subscriber.voidPromise());
+      return true;
+   }
+
+   private static ByteBuf encode(List<byte[]> parts) {
+      // *parts + \r\n + for each part: $ + length + \r\n + part + \r\n
+      int byteSize = 1 + ByteBufferUtils.stringSize(parts.size()) + 2;
+      for (byte[] part : parts) {
+         byteSize += 1 + ByteBufferUtils.stringSize(part.length) + 2 + part.length + 2;
+      }
+      ByteBuf byteBuf = ByteBufAllocator.DEFAULT.buffer(byteSize, byteSize);
+      ByteBufResponseWriter w = new ByteBufResponseWriter(ignore -> byteBuf);
+      w.array(parts, Resp3Type.BULK_STRING);
+      assert byteBuf.writerIndex() == byteSize;
+      return byteBuf;
+   }
+
+   /**
+    * The messages published to another node. Only one batch is in flight at a time, and the messages published in the
+    * meantime are sent together once it completes, in the order they were published.
+    */
+   private final class Outbox {
+      private final Address target;
+      @GuardedBy("this")
+      private List<byte[]> channels = new ArrayList<>();
+      @GuardedBy("this")
+      private List<byte[]> messages = new ArrayList<>();
+      @GuardedBy("this")
+      private List<CompletableFuture<Long>> receivers = new ArrayList<>();
+      @GuardedBy("this")
+      private boolean sending;
+
+      private Outbox(Address target) {
+         this.target = target;
+      }
+
+      /**
+       * @return the number of subscribers of the node the message was delivered to, or 0 if it could not be sent.
+       */
+      CompletionStage<Long> send(ClusterExecutor executor, byte[] channel, byte[] message) {
+         CompletableFuture<Long> delivered = new CompletableFuture<>();
+         synchronized (this) {
+            channels.add(channel);
+            messages.add(message);
+            receivers.add(delivered);
+            if (sending) {
+               return delivered;
+            }
+            sending = true;
+         }
+         sendBatch(executor);
+         return delivered;
+      }
+
+      private void sendBatch(ClusterExecutor executor) {
+         byte[][] batchChannels;
+         byte[][] batchMessages;
+         List<CompletableFuture<Long>> batchReceivers;
+         synchronized (this) {
+            batchChannels = channels.toArray(new byte[0][]);
+            batchMessages = messages.toArray(new byte[0][]);
+            batchReceivers = receivers;
+            channels = new ArrayList<>();
+            messages = new ArrayList<>();
+            receivers = new ArrayList<>();
+         }
+         String name = serverName;
+         long[][] counts = new long[1][];
+         executor.filterTargets(List.of(target))
+               .submitConsumer(e -> deliverOnNode(name, e, batchChannels, batchMessages), (address, res, t) -> {
+                  if (t != null) {
+                     throw CompletableFutures.asCompletionException(t);
+                  }
+                  counts[0] = res;
+               }).whenComplete((ignore, t) -> {
+                  if (t != null) {
+                     log.debugf(t, "Failed to deliver %d pub/sub messages to %s", batchChannels.length, target);
+                  }
+                  for (int i = 0; i < batchReceivers.size(); i++) {
+                     batchReceivers.get(i).complete(t == null && counts[0] != null ? counts[0][i] : 0L);
+                  }
+                  boolean more;
+                  synchronized (this) {
+                     more = !channels.isEmpty();
+                     sending = more;
+                  }
+                  if (more) {
+                     sendBatch(executor);
+                  }
+               });
+      }
+   }
+
+   @Listener(sync = false)
+   private final class ViewListener {
+      @ViewChanged
+      public void viewChanged(ViewChangedEvent event) {
+         List<Address> newMembers = event.getNewMembers();
+         for (Address member : event.getOldMembers()) {
+            if (!newMembers.contains(member)) {
+               remoteSummaries.remove(member.toString());
+               outboxes.remove(member);
+            }
+         }
+         if (!event.getOldMembers().containsAll(newMembers)) {
+            // The nodes joining do not know the subscriptions of this node yet
+            sendSummary();
+         }
+      }
+   }
+
+   private static final class PatternSubscription {
+      private final byte[] pattern;
+      // A pattern without special characters only matches its own channel
+      private final boolean literal;
+      private final Set<Channel> subscribers = ConcurrentHashMap.newKeySet();
+
+      private PatternSubscription(byte[] pattern) {
+         this.pattern = pattern;
+         this.literal = prefix(pattern).getLength() == pattern.length;
+      }
+
+      /**
+       * @param channel a channel starting with the literal prefix of the pattern
+       */
+      boolean matches(byte[] channel) {
+         if (literal) {
+            return channel.length == pattern.length;
+         }
+         return GlobMatcher.match(pattern, channel);
+      }
+   }
+}
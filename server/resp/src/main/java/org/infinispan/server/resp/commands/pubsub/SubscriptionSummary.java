@@ -0,0 +1,126 @@
+package org.infinispan.server.resp.commands.pubsub;
+
+/**
+ * The channels and patterns subscribed on a node, sent to the other nodes so that they only send it the messages it may
+ * have subscribers for.
+ * <p>
+ * The summary is a fixed size filter: the channels and the literal prefixes of the patterns, up to
+ * {@link #MAX_PREFIX_LENGTH} bytes, are hashed to bits, and the lengths of the prefixes in use are kept as a mask. A
+ * channel may match if its bit is set, or if the bit of one of its prefixes with a length in use is set. Distinct
+ * channels may share a bit, so the node may receive messages it has no subscriber for, but it never misses one.
+ *
+ * @since 16.0
+ */
+final class SubscriptionSummary {
+   static final int BITS = 4096;
+   // The prefix lengths must fit in the mask
+   static final int MAX_PREFIX_LENGTH = 63;
+
+   private final long version;
+   private final long[] channelBits;
+   private final long[] prefixBits;
+   private final long prefixLengths;
+
+   SubscriptionSummary(long version, long[] channelBits, long[] prefixBits, long prefixLengths) {
+      this.version = version;
+      this.channelBits = channelBits;
+      this.prefixBits = prefixBits;
+      this.prefixLengths = prefixLengths;
+   }
+
+   /**
+    * Creates the summary of the subscriptions counted by bit.
+    */
+   static SubscriptionSummary of(long version, int[] channelCounts, int[] prefixCounts, int[] prefixLengthCounts) {
+      long prefixLengths = 0;
+      for (int length = 0; length < prefixLengthCounts.length; length++) {
+         if (prefixLengthCounts[length] > 0) {
+            prefixLengths |= 1L << length;
+         }
+      }
+      return new SubscriptionSummary(version, bits(channelCounts), bits(prefixCounts), prefixLengths);
+   }
+
+   private static long[] bits(int[] counts) {
+      long[] bits = new long[BITS / Long.SIZE];
+      for (int i = 0; i < counts.length; i++) {
+         if (counts[i] > 0) {
+            bits[i / Long.SIZE] |= 1L << i;
+         }
+      }
+      return bits;
+   }
+
+   static int channelBit(byte[] channel) {
+      return hash(channel, channel.length, 0);
+   }
+
+   /**
+    * @return the bit of a pattern, from its literal prefix truncated to {@link #MAX_PREFIX_LENGTH}.
+    */
+   static int prefixBit(byte[] prefix, int length) {
+      return hash(prefix, length, length + 1);
+   }
+
+   static int prefixLength(int length) {
+      return Math.min(length, MAX_PREFIX_LENGTH);
+   }
+
+   private static int hash(byte[] bytes, int length, int seed) {
+      int h = seed;
+      for (int i = 0; i < length; i++) {
+         h = 31 * h + bytes[i];
+      }
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      return h & (BITS - 1);
+   }
+
+   long version() {
+      return version;
+   }
+
+   long[] channelBits() {
+      return channelBits;
+   }
+
+   long[] prefixBits() {
+      return prefixBits;
+   }
+
+   long prefixLengths() {
+      return prefixLengths;
+   }
+
+   /**
+    * @return {@code false} if the node has no subscriber for the channel.
+    */
+   boolean mayMatch(byte[] channel) {
+      if (isSet(channelBits, channelBit(channel))) {
+         return true;
+      }
+      long lengths = prefixLengths;
+      while (lengths != 0) {
+         int length = Long.numberOfTrailingZeros(lengths);
+         lengths &= lengths - 1;
+         if (length > channel.length) {
+            break;
+         }
+         // The prefixes at the maximum length also stand for the longer ones
+         if (isSet(prefixBits, prefixBit(channel, length))) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static boolean isSet(long[] bits, int bit) {
+      return (bits[bit / Long.SIZE] & (1L << bit)) != 0;
+   }
+
+   @Override
+   public String toString() {
+      return "SubscriptionSummary{version=" + version + ", prefixLengths=" + Long.toBinaryString(prefixLengths) + '}';
+   }
+}
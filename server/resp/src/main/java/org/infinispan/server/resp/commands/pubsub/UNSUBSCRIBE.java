@@ -3,9 +3,7 @@
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 
-import org.infinispan.commons.marshall.WrappedByteArray;
-import org.infinispan.commons.util.concurrent.AggregateCompletionStage;
-import org.infinispan.commons.util.concurrent.CompletionStages;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.server.resp.AclCategory;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
@@ -13,7 +11,6 @@
 import org.infinispan.server.resp.SubscriberHandler;
 import org.infinispan.server.resp.commands.PubSubResp3Command;
 import org.infinispan.server.resp.commands.Resp3Command;
-import org.infinispan.server.resp.meta.ClientMetadata;
 
 import io.netty.channel.ChannelHandlerContext;
 
@@ -34,21 +31,13 @@ public UNSUBSCRIBE() {
    public CompletionStage<RespRequestHandler> perform(SubscriberHandler handler,
                                                       ChannelHandlerContext ctx,
                                                       List<byte[]> arguments) {
-      AggregateCompletionStage<Void> aggregateCompletionStage = CompletionStages.aggregateCompletionStage();
       if (arguments.isEmpty()) {
          return handler.unsubscribeAll(ctx);
-      } else {
-         ClientMetadata metadata = handler.respServer().metadataRepository().client();
-         for (byte[] keyChannel : arguments) {
-            WrappedByteArray wrappedByteArray = new WrappedByteArray(keyChannel);
-            RespCacheListener listener = handler.specificChannelSubscribers().remove(wrappedByteArray);
-            if (listener != null) {
-               aggregateCompletionStage.dependsOn(handler.handleStageListenerError(handler.cache().removeListenerAsync(listener), keyChannel, false));
-               metadata.decrementPubSubClients();
-            }
-         }
       }
-      return handler.sendSubscriptions(ctx, aggregateCompletionStage.freeze(), arguments, false);
+      for (byte[] keyChannel : arguments) {
+         handler.unsubscribe(keyChannel);
+      }
+      return handler.sendSubscriptions(ctx, CompletableFutures.completedNull(), arguments, false);
    }
 
    @Override
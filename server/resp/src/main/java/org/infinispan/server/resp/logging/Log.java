@@ -3,6 +3,7 @@
 import static org.jboss.logging.Logger.Level.WARN;
 
 import java.lang.invoke.MethodHandles;
+import java.net.SocketAddress;
 import java.nio.CharBuffer;
 
 import org.infinispan.commons.CacheConfigurationException;
@@ -73,4 +74,8 @@ public interface Log extends BasicLogger {
    @LogMessage(level = WARN)
    @Message(value = "Multi-Exec operations without transactions have a relaxed isolation level. Consider enabling transaction.", id = 13011)
    void enableTransactionForMultiExec();
+
+   @LogMessage(level = WARN)
+   @Message(value = "Disconnecting the subscriber %s, more than %d bytes of published messages are pending", id = 13012)
+   void slowSubscriberDisconnected(SocketAddress address, long pendingBytes);
 }
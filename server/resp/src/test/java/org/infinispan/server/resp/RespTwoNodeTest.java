@@ -445,6 +445,25 @@ public void testPubSub() throws InterruptedException {
       }
    }
 
+   public void testPublishCountsSubscribersOnAllNodes() throws InterruptedException {
+      RedisPubSubCommands<String, String> connection = createPubSubConnection();
+      BlockingQueue<String> handOffQueue = addPubSubListener(connection);
+      connection.subscribe("cluster-channel");
+      assertThat(handOffQueue.poll(10, TimeUnit.SECONDS)).isEqualTo("subscribed-cluster-channel-1");
+
+      RedisPubSubCommands<String, String> local = client1.connectPubSub().sync();
+      local.psubscribe("cluster-*");
+
+      // One subscriber on each node
+      RedisCommands<String, String> redis = redisConnection1.sync();
+      assertThat(redis.publish("cluster-channel", "hello")).isEqualTo(2);
+      assertThat(handOffQueue.poll(10, TimeUnit.SECONDS)).isEqualTo("message-cluster-channel-hello");
+
+      local.getStatefulConnection().close();
+      connection.unsubscribe("cluster-channel");
+      assertThat(handOffQueue.poll(10, TimeUnit.SECONDS)).isEqualTo("unsubscribed-cluster-channel-0");
+   }
+
    protected RedisPubSubCommands<String, String> createPubSubConnection() {
       return client2.connectPubSub().sync();
    }
@@ -0,0 +1,79 @@
+package org.infinispan.server.resp.commands.pubsub;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "resp.commands.pubsub.SubscriptionSummaryTest")
+public class SubscriptionSummaryTest {
+
+   public void testEmptySummaryMatchesNothing() {
+      SubscriptionSummary summary = new Summary().build();
+      assertThat(summary.mayMatch(bytes("news"))).isFalse();
+      assertThat(summary.mayMatch(new byte[0])).isFalse();
+   }
+
+   public void testChannels() {
+      SubscriptionSummary summary = new Summary().channel("news").build();
+      assertThat(summary.mayMatch(bytes("news"))).isTrue();
+      assertThat(summary.mayMatch(bytes("sports"))).isFalse();
+      assertThat(summary.mayMatch(bytes("new"))).isFalse();
+   }
+
+   public void testPatternPrefixes() {
+      SubscriptionSummary summary = new Summary().prefix("news.").build();
+      assertThat(summary.mayMatch(bytes("news.tech"))).isTrue();
+      assertThat(summary.mayMatch(bytes("news."))).isTrue();
+      // Shorter than the prefix
+      assertThat(summary.mayMatch(bytes("news"))).isFalse();
+      assertThat(summary.mayMatch(bytes("sport.tech"))).isFalse();
+   }
+
+   public void testLongPatternPrefixes() {
+      String prefix = "a".repeat(70);
+      SubscriptionSummary summary = new Summary().prefix(prefix).build();
+      // The prefix is truncated, so the channels sharing its first bytes may match
+      assertThat(summary.mayMatch(bytes("a".repeat(80)))).isTrue();
+      assertThat(summary.mayMatch(bytes("a".repeat(SubscriptionSummary.MAX_PREFIX_LENGTH)))).isTrue();
+      assertThat(summary.mayMatch(bytes("a".repeat(SubscriptionSummary.MAX_PREFIX_LENGTH - 1)))).isFalse();
+   }
+
+   public void testRemovedSubscriptions() {
+      Summary counts = new Summary().channel("news").prefix("news.");
+      counts.channelCounts[SubscriptionSummary.channelBit(bytes("news"))]--;
+      counts.prefixCounts[SubscriptionSummary.prefixBit(bytes("news."), 5)]--;
+      counts.prefixLengthCounts[5]--;
+      SubscriptionSummary summary = counts.build();
+      assertThat(summary.mayMatch(bytes("news"))).isFalse();
+      assertThat(summary.mayMatch(bytes("news.tech"))).isFalse();
+      assertThat(summary.prefixLengths()).isZero();
+   }
+
+   private static byte[] bytes(String s) {
+      return s.getBytes(StandardCharsets.US_ASCII);
+   }
+
+   private static class Summary {
+      final int[] channelCounts = new int[SubscriptionSummary.BITS];
+      final int[] prefixCounts = new int[SubscriptionSummary.BITS];
+      final int[] prefixLengthCounts = new int[SubscriptionSummary.MAX_PREFIX_LENGTH + 1];
+
+      Summary channel(String channel) {
+         channelCounts[SubscriptionSummary.channelBit(bytes(channel))]++;
+         return this;
+      }
+
+      Summary prefix(String prefix) {
+         int length = SubscriptionSummary.prefixLength(prefix.length());
+         prefixCounts[SubscriptionSummary.prefixBit(bytes(prefix), length)]++;
+         prefixLengthCounts[length]++;
+         return this;
+      }
+
+      SubscriptionSummary build() {
+         return SubscriptionSummary.of(1, channelCounts, prefixCounts, prefixLengthCounts);
+      }
+   }
+}
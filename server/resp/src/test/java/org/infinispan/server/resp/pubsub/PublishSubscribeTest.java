@@ -3,8 +3,9 @@
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.infinispan.server.resp.test.RespTestingUtil.PONG;
-import static org.infinispan.test.TestingUtil.getListeners;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -147,8 +148,7 @@ public void testDifferentConnectionsCounting() throws Exception {
 
    @Test(dataProvider = "booleans")
    public void testPubSubUnsubscribe(boolean quit) throws InterruptedException {
-      int listenersBefore = getListeners(cache).size();
-
+      RedisCommands<String, String> redis = redisConnection.sync();
       RedisPubSubCommands<String, String> connection = createPubSubConnection();
       BlockingQueue<String> handOffQueue = addPubSubListener(connection);
 
@@ -156,17 +156,15 @@ public void testPubSubUnsubscribe(boolean quit) throws InterruptedException {
       connection.subscribe("channel2", "test");
       assertSubscription(handOffQueue, "channel2", "test");
 
-      // 2 listeners, one for each sub above
-      assertThat(getListeners(cache)).hasSize(listenersBefore + 2);
+      assertThat(redis.pubsubChannels()).containsExactlyInAnyOrder("channel2", "test");
       // Unsubscribe to all channels
       if (quit) {
          // Originally wanted to use reset or quit, but they don't do what we expect from
          // lettuce
          connection.getStatefulConnection().close();
 
-         // Have to use eventually as they are removed asynchronously
-         eventually(() -> getListeners(cache).size() == listenersBefore);
-         assertThat(getListeners(cache)).hasSize(listenersBefore);
+         // Have to use eventually as they are removed when the server notices the disconnection
+         eventually(() -> redis.pubsubChannels().isEmpty());
 
          assertThat(handOffQueue).isEmpty();
       } else {
@@ -182,7 +180,7 @@ public void testPubSubUnsubscribe(boolean quit) throws InterruptedException {
             }
          }
 
-         assertThat(getListeners(cache)).hasSize(listenersBefore);
+         assertThat(redis.pubsubChannels()).isEmpty();
          assertThat(connection.ping()).isEqualTo(PONG);
       }
    }
@@ -216,6 +214,71 @@ public void testPubSub() throws InterruptedException {
       }
    }
 
+   public void testPatternSubscription() throws InterruptedException {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      RedisPubSubCommands<String, String> connection = createPubSubConnection();
+      BlockingQueue<String> handOffQueue = addPubSubListener(connection);
+
+      connection.psubscribe("news.*", "news.[st]*");
+      assertThat(handOffQueue.poll(10, TimeUnit.SECONDS)).isEqualTo("psubscribed-news.*-1");
+      assertThat(handOffQueue.poll(10, TimeUnit.SECONDS)).isEqualTo("psubscribed-news.[st]*-2");
+      connection.subscribe("news.sport");
+      assertThat(handOffQueue.poll(10, TimeUnit.SECONDS)).isEqualTo("subscribed-news.sport-3");
+      assertThat(redis.pubsubNumpat()).isEqualTo(2);
+
+      // Every matching subscription receives the message
+      assertThat(redis.publish("news.sport", "goal")).isEqualTo(3);
+      assertThat(redis.publish("news.weather", "rain")).isEqualTo(1);
+      assertThat(redis.publish("weather", "sun")).isZero();
+
+      List<String> received = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+         received.add(handOffQueue.poll(10, TimeUnit.SECONDS));
+      }
+      assertThat(received).containsExactlyInAnyOrder("message-news.sport-goal", "pmessage-news.*-news.sport-goal",
+            "pmessage-news.[st]*-news.sport-goal", "pmessage-news.*-news.weather-rain");
+
+      connection.punsubscribe();
+      connection.unsubscribe("news.sport");
+      eventually(() -> redis.pubsubNumpat() == 0);
+      assertThat(redis.publish("news.sport", "goal")).isZero();
+   }
+
+   public void testPatternPrefixes() throws InterruptedException {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      RedisPubSubCommands<String, String> connection = createPubSubConnection();
+      BlockingQueue<String> handOffQueue = addPubSubListener(connection);
+
+      // Patterns without a literal prefix, with a shared prefix, a longer prefix and no special character
+      String[] patterns = { "*", "n?ws.*", "news.s*", "news.sport.*", "news" };
+      connection.psubscribe(patterns);
+      for (int i = 0; i < patterns.length; i++) {
+         assertThat(handOffQueue.poll(10, TimeUnit.SECONDS)).isEqualTo("psubscribed-" + patterns[i] + "-" + (i + 1));
+      }
+      assertThat(redis.pubsubNumpat()).isEqualTo(patterns.length);
+
+      assertThat(redis.publish("news.sport", "goal")).isEqualTo(3);
+      assertThat(redis.publish("news", "headlines")).isEqualTo(2);
+      assertThat(redis.publish("ne", "short")).isEqualTo(1);
+
+      List<String> received = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+         received.add(handOffQueue.poll(10, TimeUnit.SECONDS));
+      }
+      assertThat(received).containsExactlyInAnyOrder("pmessage-*-news.sport-goal", "pmessage-n?ws.*-news.sport-goal",
+            "pmessage-news.s*-news.sport-goal", "pmessage-*-news-headlines", "pmessage-news-news-headlines",
+            "pmessage-*-ne-short");
+
+      connection.punsubscribe("news.s*", "news");
+      eventually(() -> redis.pubsubNumpat() == patterns.length - 2);
+      assertThat(redis.publish("news.sport", "goal")).isEqualTo(2);
+      assertThat(redis.publish("news", "headlines")).isEqualTo(1);
+
+      connection.punsubscribe();
+      eventually(() -> redis.pubsubNumpat() == 0);
+      assertThat(redis.publish("news.sport", "goal")).isZero();
+   }
+
    @Test
    public void testCountOnlyPatterns() throws Exception {
       RedisCommands<String, String> redis = redisConnection.sync();
@@ -267,6 +330,18 @@ public void message(String channel, String message) {
             handOffQueue.add("message-" + channel + "-" + message);
          }
 
+         @Override
+         public void message(String pattern, String channel, String message) {
+            log.tracef("Received message on channel %s matching %s of %s", channel, pattern, message);
+            handOffQueue.add("pmessage-" + pattern + "-" + channel + "-" + message);
+         }
+
+         @Override
+         public void psubscribed(String pattern, long count) {
+            log.tracef("Subscribed to pattern %s with %s", pattern, count);
+            handOffQueue.add("psubscribed-" + pattern + "-" + count);
+         }
+
          @Override
          public void subscribed(String channel, long count) {
             log.tracef("Subscribed to %s with %s", channel, count);